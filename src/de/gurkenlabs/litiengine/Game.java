@@ -278,6 +278,8 @@ public final class Game {
     Locale.setDefault(new Locale(getConfiguration().client().getCountry(), getConfiguration().client().getLanguage()));
 
     final GameLoop updateLoop = new GameLoop(getConfiguration().client().getUpdaterate());
+    updateLoop.setFixedTimestep(getConfiguration().client().isFixedTimestep());
+    updateLoop.setMaxCatchUpSteps(getConfiguration().client().getMaxCatchUpSteps());
     updateLoop.setUncaughtExceptionHandler(new DefaultUncaughtExceptionHandler());
     gameLoop = updateLoop;
     getLoop().attach(getPhysicsEngine());
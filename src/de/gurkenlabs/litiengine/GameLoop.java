@@ -2,8 +2,10 @@ package de.gurkenlabs.litiengine;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 
+import de.gurkenlabs.litiengine.TimedActionQueue.TimedAction;
 import de.gurkenlabs.litiengine.util.TimeUtilities;
 
 public class GameLoop extends UpdateLoop implements IGameLoop, AutoCloseable {
@@ -17,27 +19,62 @@ public class GameLoop extends UpdateLoop implements IGameLoop, AutoCloseable {
    */
   public static final int TICK_DELTATIME_LAG = 67;
 
-  private static int executionIndex = -1;
+  /**
+   * The default number of ticks that are executed at once in fixed timestep mode to catch up with the real time.
+   */
+  public static final int DEFAULT_MAX_CATCH_UP_STEPS = 5;
+
+  private static final AtomicInteger executionIndex = new AtomicInteger(-1);
 
-  private final List<TimedAction> actions;
+  private final TimedActionQueue actions;
+  private final List<TimedAction> dueActions;
   private final int updateRate;
+  private final LongSupplier clock;
 
   private long deltaTime;
 
   private long lastUpsTime;
 
+  private boolean fixedTimestep;
+  private int maxCatchUpSteps;
+  private long accumulator;
+  private long lastUpdateTime;
+  private volatile float interpolationAlpha;
+
   private float timeScale;
   private long totalTicks;
 
   private int updateCount;
 
   public GameLoop(final int updateRate) {
+    this(updateRate, System::nanoTime);
+  }
+
+  /**
+   * Instantiates a new loop that measures the time of its fixed timesteps with the specified clock.
+   *
+   * @param updateRate
+   *          The number of ticks per second.
+   * @param clock
+   *          The clock that provides the current time in nanoseconds, like {@link System#nanoTime()}.
+   */
+  GameLoop(final int updateRate, final LongSupplier clock) {
     super();
-    this.actions = new CopyOnWriteArrayList<>();
+    this.actions = new TimedActionQueue();
+    this.dueActions = new ArrayList<>();
     this.updateRate = updateRate;
+    this.clock = clock;
+    this.maxCatchUpSteps = DEFAULT_MAX_CATCH_UP_STEPS;
+    this.interpolationAlpha = 1;
+    this.lastUpdateTime = clock.getAsLong();
     this.setTimeScale(1.0F);
   }
 
+  @Override
+  public void cancel(final int index) {
+    this.actions.remove(index);
+  }
+
   @Override
   public void close() {
     this.terminate();
@@ -57,7 +94,7 @@ public class GameLoop extends UpdateLoop implements IGameLoop, AutoCloseable {
   public int execute(int delay, Runnable action) {
     final long d = this.convertToTicks(delay);
 
-    TimedAction a = new TimedAction(this.getTicks() + d, action);
+    TimedAction a = new TimedAction(executionIndex.incrementAndGet(), this.getTicks() + d, action);
     this.actions.add(a);
 
     return a.getIndex();
@@ -88,33 +125,78 @@ public class GameLoop extends UpdateLoop implements IGameLoop, AutoCloseable {
     return this.updateRate;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * In fixed timestep mode, this is the simulation time that has not been consumed by a tick yet, relative to the
+   * duration of a tick. Without a fixed timestep, every update consumes the whole time and this is always 1.
+   * </p>
+   */
   @Override
-  public void run() {
-    while (!interrupted()) {
-      final float scale = this.getTimeScale() > 0 ? this.getTimeScale() : 1;
-      final long tickWait = (long) (1.0 / (this.getUpdateRate() * scale) * 1000);
-      final long updateStart = System.nanoTime();
-
-      if (this.getTimeScale() > 0) {
-        ++this.totalTicks;
-        this.update();
-        this.executeTimedActions();
-      }
+  public float getInterpolationAlpha() {
+    return this.interpolationAlpha;
+  }
 
-      ++this.updateCount;
+  /**
+   * Gets the maximum number of ticks that are executed at once in fixed timestep mode to catch up with the real time
+   * after an update took too long. Any remaining delay is dropped afterwards which slows down the game instead of
+   * letting it fall further behind.
+   *
+   * @return The maximum number of ticks per update.
+   */
+  public int getMaxCatchUpSteps() {
+    return this.maxCatchUpSteps;
+  }
 
-      final long currentMillis = System.currentTimeMillis();
-      this.trackUpdateRate(currentMillis);
+  /**
+   * Determines whether this loop executes its ticks with a fixed timestep. In this mode, every tick advances the game by
+   * exactly {@link #getDeltaTime()} and ticks that are overdue are executed in a row (see {@link #getMaxCatchUpSteps()}).
+   * Otherwise, the delta time is the measured duration of the last tick and overdue ticks are skipped.
+   *
+   * @return True if this loop uses a fixed timestep; otherwise false.
+   */
+  public boolean isFixedTimestep() {
+    return this.fixedTimestep;
+  }
 
-      final long lastUpdateTime = currentMillis;
-      final long updateTime = (long) TimeUtilities.nanoToMs(System.nanoTime() - updateStart);
+  @Override
+  public void run() {
+    this.lastUpdateTime = this.clock.getAsLong();
+    while (!interrupted()) {
       try {
-        Thread.sleep(Math.max(0, tickWait - updateTime));
+        if (this.isFixedTimestep()) {
+          this.updateFixedTimestep();
+        } else {
+          this.updateVariableTimestep();
+        }
       } catch (final InterruptedException e) {
         break;
       }
+    }
+  }
+
+  public void setFixedTimestep(final boolean fixedTimestep) {
+    this.fixedTimestep = fixedTimestep;
+  }
+
+  public void setMaxCatchUpSteps(final int maxCatchUpSteps) {
+    validateMaxCatchUpSteps(maxCatchUpSteps);
+    this.maxCatchUpSteps = maxCatchUpSteps;
+  }
 
-      this.deltaTime = System.currentTimeMillis() - lastUpdateTime + updateTime;
+  /**
+   * Ensures that the specified value is a valid maximum number of catch up steps.
+   *
+   * @param maxCatchUpSteps
+   *          The value to validate.
+   * @throws IllegalArgumentException
+   *           If the value is less than 1.
+   *
+   * @see #setMaxCatchUpSteps(int)
+   */
+  public static void validateMaxCatchUpSteps(final int maxCatchUpSteps) {
+    if (maxCatchUpSteps < 1) {
+      throw new IllegalArgumentException("The maximum number of catch up steps must be at least 1.");
     }
   }
 
@@ -130,59 +212,99 @@ public class GameLoop extends UpdateLoop implements IGameLoop, AutoCloseable {
 
   @Override
   public void updateExecutionTime(int index, long ticks) {
-    for (TimedAction action : this.actions) {
-      if (action.getIndex() == index) {
-        action.setExecutionTicks(ticks);
-      }
-    }
+    this.actions.reschedule(index, ticks);
   }
 
-  private void executeTimedActions() {
-    final List<TimedAction> executed = new ArrayList<>();
-    for (final TimedAction action : this.actions) {
-      if (action.getExecutionTick() <= this.totalTicks) {
+  private void updateVariableTimestep() throws InterruptedException {
+    final float scale = this.getTimeScale() > 0 ? this.getTimeScale() : 1;
+    final long tickWait = (long) (1.0 / (this.getUpdateRate() * scale) * 1000);
+    final long updateStart = System.nanoTime();
 
-        action.getAction().run();
-        executed.add(action);
-      }
+    if (this.getTimeScale() > 0) {
+      ++this.totalTicks;
+      this.update();
+      this.executeTimedActions();
     }
 
-    this.actions.removeAll(executed);
+    ++this.updateCount;
+
+    final long currentMillis = System.currentTimeMillis();
+    this.trackUpdateRate(currentMillis);
+
+    final long lastUpdateMillis = currentMillis;
+    final long updateTime = (long) TimeUtilities.nanoToMs(System.nanoTime() - updateStart);
+    Thread.sleep(Math.max(0, tickWait - updateTime));
+
+    this.deltaTime = System.currentTimeMillis() - lastUpdateMillis + updateTime;
+    this.accumulator = 0;
+    this.interpolationAlpha = 1;
+    this.lastUpdateTime = this.clock.getAsLong();
   }
 
-  private void trackUpdateRate(long currentMillis) {
-    if (currentMillis - this.lastUpsTime >= 1000) {
-      this.lastUpsTime = currentMillis;
-      Game.getMetrics().setUpdatesPerSecond(this.updateCount);
-      this.updateCount = 0;
-    }
+  private void updateFixedTimestep() throws InterruptedException {
+    waitUntil(this.executeFixedTimestep());
   }
 
-  private class TimedAction {
-    private final Runnable action;
-    private long execution;
-    private final int index;
+  /**
+   * Executes the ticks that have become due since the last call in fixed timestep mode, but not more than
+   * {@link #getMaxCatchUpSteps()}.
+   *
+   * @return The time of the clock at which the next tick is due.
+   */
+  long executeFixedTimestep() {
+    final float scale = this.getTimeScale() > 0 ? this.getTimeScale() : 1;
+    final long step = (long) (1.0 / (this.getUpdateRate() * scale) * 1000000000);
+    final long currentTime = this.clock.getAsLong();
+    this.accumulator += currentTime - this.lastUpdateTime;
+    this.lastUpdateTime = currentTime;
+
+    if (this.getTimeScale() > 0) {
+      this.deltaTime = Math.round(TimeUtilities.nanoToMs(step));
+      int steps = 0;
+      while (this.accumulator >= step && steps < this.getMaxCatchUpSteps()) {
+        ++this.totalTicks;
+        this.update();
+        this.executeTimedActions();
+        ++this.updateCount;
 
-    private TimedAction(final long execution, final Runnable action) {
-      this.execution = execution;
-      this.action = action;
-      this.index = ++executionIndex;
-    }
+        this.accumulator -= step;
+        ++steps;
+      }
 
-    public Runnable getAction() {
-      return this.action;
+      // drop the time that could not be caught up with, otherwise every further tick would have to catch up as well
+      if (this.accumulator >= step) {
+        this.accumulator %= step;
+      }
+    } else {
+      // a paused game doesn't build up any simulation time
+      this.accumulator = 0;
+      ++this.updateCount;
     }
 
-    public long getExecutionTick() {
-      return this.execution;
-    }
+    this.interpolationAlpha = this.accumulator / (float) step;
+    this.trackUpdateRate(System.currentTimeMillis());
+
+    // the next tick is due once the accumulated time reaches a whole step again
+    return currentTime + step - this.accumulator;
+  }
 
-    public void setExecutionTicks(long ticks) {
-      this.execution = ticks;
+  private void executeTimedActions() {
+    // actions that are scheduled by the executed actions are not executed before the next tick
+    this.actions.pollDue(this.totalTicks, this.dueActions);
+    try {
+      for (final TimedAction action : this.dueActions) {
+        action.getAction().run();
+      }
+    } finally {
+      this.dueActions.clear();
     }
+  }
 
-    public int getIndex() {
-      return index;
+  private void trackUpdateRate(long currentMillis) {
+    if (currentMillis - this.lastUpsTime >= 1000) {
+      this.lastUpsTime = currentMillis;
+      Game.getMetrics().setUpdatesPerSecond(this.updateCount);
+      this.updateCount = 0;
     }
   }
 }
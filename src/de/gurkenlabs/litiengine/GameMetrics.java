@@ -16,6 +16,7 @@ public class GameMetrics implements IUpdateable, IRenderable {
   private final List<Long> bytesReceived;
   private final List<Long> bytesSent;
 
+  private int collisionBoxesTouched;
   private long downStreamInBytes;
   private final List<Long> fps;
   private long framesPerSecond;
@@ -54,6 +55,16 @@ public class GameMetrics implements IUpdateable, IRenderable {
     return opt.isPresent() ? opt.get() / (float) this.ups.size() : 0;
   }
 
+  /**
+   * Gets the number of collision boxes that were added, removed, moved or toggled their collision during the last tick of
+   * the physics engine.
+   *
+   * @return The number of touched collision boxes.
+   */
+  public int getCollisionBoxesTouched() {
+    return this.collisionBoxesTouched;
+  }
+
   public float getDownStreamInBytes() {
     return this.downStreamInBytes;
   }
@@ -127,6 +138,14 @@ public class GameMetrics implements IUpdateable, IRenderable {
 
     final String upsString = "ups: " + this.getUpdatesPerSecond();
     g.drawString(upsString, OFFSET_X, currentOffsetY);
+    currentOffsetY += OFFSET_Y;
+
+    final String collisionString = "collision boxes: " + this.getCollisionBoxesTouched();
+    g.drawString(collisionString, OFFSET_X, currentOffsetY);
+  }
+
+  public void setCollisionBoxesTouched(final int collisionBoxesTouched) {
+    this.collisionBoxesTouched = collisionBoxesTouched;
   }
 
   public void setFramesPerSecond(final long currentFramesPerSecond) {
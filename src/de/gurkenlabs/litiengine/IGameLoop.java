@@ -6,10 +6,35 @@ public interface IGameLoop extends ILoop {
 
   public long convertToTicks(final int ms);
 
+  /**
+   * Executes the specified action after the specified delay on the game loop.
+   *
+   * @param delay
+   *          The delay in ms.
+   * @param action
+   *          The action to execute.
+   * @return The index of the scheduled action which can be used to reschedule or cancel it.
+   */
   public int execute(int delay, Runnable action);
 
+  /**
+   * Changes the tick on which the scheduled action with the specified index is executed.
+   *
+   * @param index
+   *          The index of the action as returned by {@link #execute(int, Runnable)}.
+   * @param ticks
+   *          The tick on which to execute the action.
+   */
   public void updateExecutionTime(int index, long ticks);
 
+  /**
+   * Cancels the scheduled action with the specified index. Nothing happens if the action has already been executed.
+   *
+   * @param index
+   *          The index of the action as returned by {@link #execute(int, Runnable)}.
+   */
+  public void cancel(int index);
+
   /**
    * Gets the time that passed since the last tick in ms.
    *
@@ -27,6 +52,14 @@ public interface IGameLoop extends ILoop {
    */
   public long getDeltaTime(final long ticks);
 
+  /**
+   * Gets the progress between the last tick and the next tick, which allows renderers to interpolate between the states
+   * of the last two ticks while the game is updated with a fixed timestep.
+   *
+   * @return A value between 0 (the state of the previous tick) and 1 (the state of the last tick).
+   */
+  public float getInterpolationAlpha();
+
   public long getTicks();
 
   public float getTimeScale();
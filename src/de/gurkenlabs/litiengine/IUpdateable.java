@@ -12,4 +12,25 @@ public interface IUpdateable {
    * Game.GameLoop.TICKS_PER_SECOND times per second.
    */
   public void update();
+
+  /**
+   * Gets the phase in which this instance is updated. The phase is determined once when the instance is attached to a
+   * loop.
+   *
+   * @return The update phase of this instance.
+   */
+  public default UpdatePhase getUpdatePhase() {
+    return UpdatePhase.DEFAULT;
+  }
+
+  /**
+   * Determines whether this instance can be updated concurrently with the other instances of its phase that support
+   * this. This requires the update to only change the state of this instance and to not depend on the state of other
+   * instances of the same phase. This is determined once when the instance is attached to a loop.
+   *
+   * @return True if this instance can be updated on any thread in parallel with other instances; otherwise false.
+   */
+  public default boolean isParallelUpdateSupported() {
+    return false;
+  }
 }
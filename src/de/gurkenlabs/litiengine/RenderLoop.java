@@ -3,8 +3,6 @@ package de.gurkenlabs.litiengine;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import de.gurkenlabs.litiengine.util.TimeUtilities;
-
 public class RenderLoop extends UpdateLoop {
   private static final Logger log = Logger.getLogger(RenderLoop.class.getName());
 
@@ -19,7 +17,7 @@ public class RenderLoop extends UpdateLoop {
   @Override
   public void run() {
     while (this.gameIsRunning) {
-      final long fpsWait = (long) (1.0 / this.maxFps * 1000);
+      final long fpsWait = (long) (1.0 / this.maxFps * 1000000000);
       final long renderStart = System.nanoTime();
       try {
         Game.getCamera().updateFocus();
@@ -27,12 +25,7 @@ public class RenderLoop extends UpdateLoop {
 
         Game.getScreenManager().getRenderComponent().render();
 
-        final long renderTime = (long) TimeUtilities.nanoToMs(System.nanoTime() - renderStart);
-
-        long wait = Math.max(0, fpsWait - renderTime);
-        if (wait != 0) {
-          Thread.sleep(wait);
-        }
+        waitUntil(renderStart + fpsWait);
       } catch (final InterruptedException e) {
         log.log(Level.SEVERE, e.getMessage(), e);
         Thread.currentThread().interrupt();
@@ -126,8 +126,11 @@ public final class Resources {
     }
 
     final String cacheKey = Integer.toString(absolutPath.hashCode());
-    if (!forceLoad && ImageCache.IMAGES.containsKey(cacheKey)) {
-      return ImageCache.IMAGES.get(cacheKey);
+    if (!forceLoad) {
+      final BufferedImage cached = ImageCache.IMAGES.get(cacheKey);
+      if (cached != null) {
+        return cached;
+      }
     }
 
     // try to get image from resource folder first and as a fallback get it from
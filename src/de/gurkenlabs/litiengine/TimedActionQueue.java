@@ -0,0 +1,180 @@
+package de.gurkenlabs.litiengine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A thread-safe queue of actions that are ordered by the tick on which they are to be executed. The actions are kept
+ * in a binary min-heap, so adding, rescheduling and removing an action takes O(log n) and checking for actions that are
+ * due takes O(1). Actions that are due on the same tick keep the order in which they were added.
+ */
+final class TimedActionQueue {
+  private final Map<Integer, TimedAction> actions;
+  private TimedAction[] heap;
+  private int size;
+
+  TimedActionQueue() {
+    this.actions = new HashMap<>();
+    this.heap = new TimedAction[16];
+  }
+
+  synchronized void add(final TimedAction action) {
+    if (this.size == this.heap.length) {
+      this.heap = Arrays.copyOf(this.heap, this.size * 2);
+    }
+
+    this.actions.put(action.getIndex(), action);
+    this.heap[this.size] = action;
+    action.heapIndex = this.size;
+    this.size++;
+    this.siftUp(action.heapIndex);
+  }
+
+  /**
+   * Moves all actions that are due on or before the specified tick from this queue to the specified list.
+   *
+   * @param tick
+   *          The current tick.
+   * @param dueActions
+   *          The list that receives the due actions in the order of their execution.
+   */
+  synchronized void pollDue(final long tick, final List<TimedAction> dueActions) {
+    while (this.size > 0 && this.heap[0].getExecutionTick() <= tick) {
+      final TimedAction action = this.heap[0];
+      this.removeAt(0);
+      dueActions.add(action);
+    }
+  }
+
+  /**
+   * Removes the action with the specified index.
+   *
+   * @return True if a pending action was removed; false if the action was already executed or doesn't exist.
+   */
+  synchronized boolean remove(final int index) {
+    final TimedAction action = this.actions.get(index);
+    if (action == null) {
+      return false;
+    }
+
+    this.removeAt(action.heapIndex);
+    return true;
+  }
+
+  /**
+   * Changes the tick on which the action with the specified index is executed.
+   *
+   * @return True if a pending action was rescheduled; false if the action was already executed or doesn't exist.
+   */
+  synchronized boolean reschedule(final int index, final long tick) {
+    final TimedAction action = this.actions.get(index);
+    if (action == null) {
+      return false;
+    }
+
+    action.execution = tick;
+    this.siftDown(this.siftUp(action.heapIndex));
+    return true;
+  }
+
+  synchronized int size() {
+    return this.size;
+  }
+
+  private void removeAt(final int heapIndex) {
+    final TimedAction removed = this.heap[heapIndex];
+    this.actions.remove(removed.getIndex());
+    removed.heapIndex = -1;
+
+    this.size--;
+    final TimedAction last = this.heap[this.size];
+    this.heap[this.size] = null;
+    if (heapIndex == this.size) {
+      return;
+    }
+
+    this.heap[heapIndex] = last;
+    last.heapIndex = heapIndex;
+    this.siftDown(this.siftUp(heapIndex));
+  }
+
+  private int siftUp(final int heapIndex) {
+    final TimedAction action = this.heap[heapIndex];
+    int pos = heapIndex;
+    while (pos > 0) {
+      final int parentPos = (pos - 1) >>> 1;
+      final TimedAction parent = this.heap[parentPos];
+      if (!isBefore(action, parent)) {
+        break;
+      }
+
+      this.heap[pos] = parent;
+      parent.heapIndex = pos;
+      pos = parentPos;
+    }
+
+    this.heap[pos] = action;
+    action.heapIndex = pos;
+    return pos;
+  }
+
+  private void siftDown(final int heapIndex) {
+    final TimedAction action = this.heap[heapIndex];
+    int pos = heapIndex;
+    final int half = this.size >>> 1;
+    while (pos < half) {
+      int childPos = 2 * pos + 1;
+      if (childPos + 1 < this.size && isBefore(this.heap[childPos + 1], this.heap[childPos])) {
+        childPos++;
+      }
+
+      final TimedAction child = this.heap[childPos];
+      if (!isBefore(child, action)) {
+        break;
+      }
+
+      this.heap[pos] = child;
+      child.heapIndex = pos;
+      pos = childPos;
+    }
+
+    this.heap[pos] = action;
+    action.heapIndex = pos;
+  }
+
+  private static boolean isBefore(final TimedAction action, final TimedAction other) {
+    if (action.getExecutionTick() != other.getExecutionTick()) {
+      return action.getExecutionTick() < other.getExecutionTick();
+    }
+
+    return action.getIndex() < other.getIndex();
+  }
+
+  static final class TimedAction {
+    private final Runnable action;
+    private final int index;
+    private long execution;
+    private int heapIndex;
+
+    TimedAction(final int index, final long execution, final Runnable action) {
+      this.index = index;
+      this.execution = execution;
+      this.action = action;
+      this.heapIndex = -1;
+    }
+
+    public Runnable getAction() {
+      return this.action;
+    }
+
+    public long getExecutionTick() {
+      return this.execution;
+    }
+
+    public int getIndex() {
+      return this.index;
+    }
+  }
+}
@@ -1,17 +1,38 @@
 package de.gurkenlabs.litiengine;
 
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * A loop that updates its attached {@link IUpdateable} instances phase by phase in the order of {@link UpdatePhase}.
+ * Within a phase, all instances that don't support parallel updates are updated one after another on the thread of the
+ * loop before the remaining instances are updated in parallel on the common fork/join pool.
+ */
 public abstract class UpdateLoop extends Thread implements ILoop {
   private static final Logger log = Logger.getLogger(UpdateLoop.class.getName());
+
+  // parking may overshoot by the resolution of the system timer which is why the last fraction of a millisecond is
+  // busy-waited
+  private static final long SPIN_WAIT_NANOS = 200000;
+
   private final Set<IUpdateable> updatables;
+  private final Map<UpdatePhase, Set<IUpdateable>> sequentialUpdatables;
+  private final Map<UpdatePhase, Set<IUpdateable>> parallelUpdatables;
 
   protected UpdateLoop() {
     this.updatables = Collections.newSetFromMap(new ConcurrentHashMap<IUpdateable, Boolean>());
+    this.sequentialUpdatables = new EnumMap<>(UpdatePhase.class);
+    this.parallelUpdatables = new EnumMap<>(UpdatePhase.class);
+    for (final UpdatePhase phase : UpdatePhase.values()) {
+      this.sequentialUpdatables.put(phase, Collections.newSetFromMap(new ConcurrentHashMap<IUpdateable, Boolean>()));
+      this.parallelUpdatables.put(phase, Collections.newSetFromMap(new ConcurrentHashMap<IUpdateable, Boolean>()));
+    }
   }
 
   @Override
@@ -25,17 +46,30 @@ public abstract class UpdateLoop extends Thread implements ILoop {
       return;
     }
 
-    if (this.updatables.contains(updatable)) {
+    if (!this.updatables.add(updatable)) {
       log.log(Level.FINE, "Updatable {0} already registered for update!", new Object[] { updatable });
       return;
     }
 
-    this.updatables.add(updatable);
+    final UpdatePhase phase = updatable.getUpdatePhase() != null ? updatable.getUpdatePhase() : UpdatePhase.DEFAULT;
+    if (updatable.isParallelUpdateSupported()) {
+      this.parallelUpdatables.get(phase).add(updatable);
+    } else {
+      this.sequentialUpdatables.get(phase).add(updatable);
+    }
   }
 
   @Override
   public void detach(final IUpdateable updatable) {
-    this.updatables.remove(updatable);
+    if (updatable == null || !this.updatables.remove(updatable)) {
+      return;
+    }
+
+    // the phase of the instance might have changed since it was attached
+    for (final UpdatePhase phase : UpdatePhase.values()) {
+      this.sequentialUpdatables.get(phase).remove(updatable);
+      this.parallelUpdatables.get(phase).remove(updatable);
+    }
   }
 
   protected Set<IUpdateable> getUpdatables() {
@@ -43,14 +77,54 @@ public abstract class UpdateLoop extends Thread implements ILoop {
   }
 
   protected void update() {
-    for (IUpdateable updatable : this.getUpdatables()) {
-      try {
-        if (updatable != null) {
-          updatable.update();
+    for (final UpdatePhase phase : UpdatePhase.values()) {
+      for (final IUpdateable updatable : this.sequentialUpdatables.get(phase)) {
+        update(updatable);
+      }
+
+      final Set<IUpdateable> parallel = this.parallelUpdatables.get(phase);
+      if (parallel.size() > 1) {
+        // the stream only completes after all instances have been updated, which keeps the phases apart
+        parallel.parallelStream().forEach(UpdateLoop::update);
+      } else {
+        for (final IUpdateable updatable : parallel) {
+          update(updatable);
         }
-      } catch (final Exception e) {
-        log.log(Level.SEVERE, e.getMessage(), e);
       }
     }
   }
+
+  private static void update(final IUpdateable updatable) {
+    try {
+      updatable.update();
+    } catch (final Exception e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Waits until {@link System#nanoTime()} reaches the specified deadline. The thread is parked for most of the time and
+   * only spins for the last {@value #SPIN_WAIT_NANOS} ns, which is a lot more accurate than a single
+   * {@link Thread#sleep(long)}.
+   *
+   * @param deadline
+   *          The {@link System#nanoTime()} to wait for.
+   * @throws InterruptedException
+   *           If the thread is interrupted while sleeping.
+   */
+  protected static void waitUntil(final long deadline) throws InterruptedException {
+    long remaining = deadline - System.nanoTime();
+    while (remaining > SPIN_WAIT_NANOS) {
+      LockSupport.parkNanos(remaining - SPIN_WAIT_NANOS);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+
+      remaining = deadline - System.nanoTime();
+    }
+
+    while (deadline - System.nanoTime() > 0) {
+      Thread.yield();
+    }
+  }
 }
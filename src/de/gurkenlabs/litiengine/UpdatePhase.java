@@ -0,0 +1,39 @@
+package de.gurkenlabs.litiengine;
+
+/**
+ * The phases in which an {@link UpdateLoop} updates its {@link IUpdateable} instances on every tick. All instances of a
+ * phase are updated before the first instance of the next phase.
+ *
+ * @see IUpdateable#getUpdatePhase()
+ */
+public enum UpdatePhase {
+  /**
+   * Processes the input of the player.
+   */
+  INPUT,
+
+  /**
+   * Makes decisions for the entities, e.g. by state machines or the navigation along paths.
+   */
+  AI,
+
+  /**
+   * The phase of all instances that don't specify a phase.
+   */
+  DEFAULT,
+
+  /**
+   * Resolves the state of the physics after all entities have been moved.
+   */
+  PHYSICS,
+
+  /**
+   * Advances the animations of the entities.
+   */
+  ANIMATION,
+
+  /**
+   * Advances the particles of the emitters.
+   */
+  PARTICLES
+}
@@ -42,4 +42,6 @@ public @interface EmitterInfo {
   Valign originVAlign() default Valign.TOP;
 
   Quality requiredQuality() default Quality.VERYLOW;
+
+  boolean useParticleStore() default false;
 }
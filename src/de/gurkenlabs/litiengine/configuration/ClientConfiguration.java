@@ -2,6 +2,8 @@ package de.gurkenlabs.litiengine.configuration;
 
 import java.util.Locale;
 
+import de.gurkenlabs.litiengine.GameLoop;
+
 /**
  * The client configuration contains client specific configuration elements.
  */
@@ -10,8 +12,12 @@ public class ClientConfiguration extends ConfigurationGroup {
 
   private String country;
 
+  private boolean fixedTimestep;
+
   private String language;
 
+  private int maxCatchUpSteps;
+
   private int maxFps;
 
   private boolean showGameMetrics;
@@ -25,6 +31,7 @@ public class ClientConfiguration extends ConfigurationGroup {
     super();
     this.setUpdaterate(60);
     this.setMaxFps(60);
+    this.setMaxCatchUpSteps(5);
     this.setShowGameMetrics(false);
 
     this.setLanguage(Locale.getDefault().getLanguage());
@@ -39,6 +46,16 @@ public class ClientConfiguration extends ConfigurationGroup {
     return this.language;
   }
 
+  /**
+   * Gets the maximum number of ticks that the game loop executes at once to catch up with the real time when the game
+   * is updated with a fixed timestep.
+   *
+   * @return the max catch up steps
+   */
+  public int getMaxCatchUpSteps() {
+    return this.maxCatchUpSteps;
+  }
+
   public Locale getLocale() {
     if (this.getCountry() == null || this.getCountry().isEmpty()) {
       return new Locale(this.getLanguage());
@@ -68,6 +85,10 @@ public class ClientConfiguration extends ConfigurationGroup {
     this.country = country;
   }
 
+  public void setFixedTimestep(final boolean fixedTimestep) {
+    this.fixedTimestep = fixedTimestep;
+  }
+
   public void setLanguage(final String language) {
     this.language = language;
   }
@@ -86,6 +107,11 @@ public class ClientConfiguration extends ConfigurationGroup {
     this.maxFps = maxFps;
   }
 
+  public void setMaxCatchUpSteps(final int maxCatchUpSteps) {
+    GameLoop.validateMaxCatchUpSteps(maxCatchUpSteps);
+    this.maxCatchUpSteps = maxCatchUpSteps;
+  }
+
   public void setShowGameMetrics(final boolean showGameMetrics) {
     this.showGameMetrics = showGameMetrics;
   }
@@ -105,6 +131,15 @@ public class ClientConfiguration extends ConfigurationGroup {
     this.updaterate = updaterate;
   }
 
+  /**
+   * Determines whether the game loop updates the game with a fixed timestep.
+   *
+   * @return true, if the game loop uses a fixed timestep
+   */
+  public boolean isFixedTimestep() {
+    return this.fixedTimestep;
+  }
+
   public boolean showGameMetrics() {
     return this.showGameMetrics;
   }
@@ -18,6 +18,7 @@ import de.gurkenlabs.litiengine.graphics.animation.IEntityAnimationController;
 public abstract class Entity implements IEntity {
   public static final String ANY_MESSAGE = "";
   private final List<EntityTransformListener> transformListeners;
+  private final List<EntityNameListener> nameListeners;
   private final Map<String, List<MessageListener>> messageListeners;
   private final List<String> tags;
 
@@ -44,6 +45,7 @@ public abstract class Entity implements IEntity {
    */
   protected Entity() {
     this.transformListeners = new CopyOnWriteArrayList<>();
+    this.nameListeners = new CopyOnWriteArrayList<>();
     this.messageListeners = new ConcurrentHashMap<>();
     this.tags = new CopyOnWriteArrayList<>();
 
@@ -81,6 +83,11 @@ public abstract class Entity implements IEntity {
     this.transformListeners.add(listener);
   }
 
+  @Override
+  public void addNameListener(EntityNameListener listener) {
+    this.nameListeners.add(listener);
+  }
+
   public void attachControllers() {
     this.controllers.attachAll();
   }
@@ -94,6 +101,11 @@ public abstract class Entity implements IEntity {
     this.transformListeners.remove(listener);
   }
 
+  @Override
+  public void removeNameListener(EntityNameListener listener) {
+    this.nameListeners.remove(listener);
+  }
+
   @Override
   public void addMessageListener(MessageListener listener) {
     this.addMessageListener(ANY_MESSAGE, listener);
@@ -248,7 +260,11 @@ public abstract class Entity implements IEntity {
 
   @Override
   public void setName(final String name) {
+    final String previousName = this.name;
     this.name = name;
+    if (previousName == null ? name != null : !previousName.equals(name)) {
+      this.fireNameChangedEvent(previousName);
+    }
   }
 
   @Override
@@ -347,6 +363,12 @@ public abstract class Entity implements IEntity {
     }
   }
 
+  private void fireNameChangedEvent(String previousName) {
+    for (EntityNameListener listener : this.nameListeners) {
+      listener.nameChanged(this, previousName);
+    }
+  }
+
   private void fireLocationChangedEvent() {
     for (EntityTransformListener listener : this.transformListeners) {
       listener.locationChanged(this);
@@ -0,0 +1,21 @@
+package de.gurkenlabs.litiengine.entities;
+
+import java.util.EventListener;
+
+/**
+ * This listener provides a callback for when an <code>Entity</code> was renamed.
+ */
+public interface EntityNameListener extends EventListener {
+
+  /**
+   * This method is called whenever the name of an <code>IEntity</code> was changed.
+   *
+   * @param entity
+   *          The entity that was renamed.
+   * @param previousName
+   *          The name of the entity before it was renamed.
+   *
+   * @see IEntity#setName(String)
+   */
+  public void nameChanged(IEntity entity, String previousName);
+}
@@ -19,6 +19,10 @@ public interface IEntity {
 
   public void removeTransformListener(EntityTransformListener listener);
 
+  public void addNameListener(EntityNameListener listener);
+
+  public void removeNameListener(EntityNameListener listener);
+
   public float getAngle();
 
   public IEntityAnimationController getAnimationController();
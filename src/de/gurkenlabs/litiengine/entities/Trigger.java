@@ -8,7 +8,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import de.gurkenlabs.litiengine.Game;
-import de.gurkenlabs.litiengine.IUpdateable;
 import de.gurkenlabs.litiengine.annotation.CollisionInfo;
 import de.gurkenlabs.litiengine.annotation.EntityInfo;
 import de.gurkenlabs.litiengine.environment.tilemap.ICustomPropertyProvider;
@@ -17,7 +16,7 @@ import de.gurkenlabs.litiengine.util.geom.GeometricUtilities;
 
 @CollisionInfo(collision = false)
 @EntityInfo(renderType = RenderType.OVERLAY)
-public class Trigger extends CollisionEntity implements IUpdateable {
+public class Trigger extends CollisionEntity {
   public enum TriggerActivation {
     COLLISION, INTERACT
   }
@@ -25,7 +24,6 @@ public class Trigger extends CollisionEntity implements IUpdateable {
   public static final String INTERACT_MESSAGE = "interact";
   private static final Logger log = Logger.getLogger(Trigger.class.getName());
 
-  private List<IEntity> activated;
   private final Collection<TriggerActivatedListener> activatedListeners;
   private final Collection<TriggerDeactivatedListener> deactivatedListeners;
   private final Collection<TriggerActivatingCondition> activatingConditions;
@@ -57,7 +55,6 @@ public class Trigger extends CollisionEntity implements IUpdateable {
     this.customProperties = customProperties;
     this.activators = new CopyOnWriteArrayList<>();
     this.targets = new CopyOnWriteArrayList<>();
-    this.activated = new CopyOnWriteArrayList<>();
     this.message = message;
     this.isOneTimeTrigger = isOneTime;
     this.activationType = activation;
@@ -212,42 +209,42 @@ public class Trigger extends CollisionEntity implements IUpdateable {
     this.cooldown = cooldown;
   }
 
-  @Override
-  public void update() {
-    if (Game.getEnvironment() == null || this.activationType != TriggerActivation.COLLISION) {
-      return;
-    }
-
-    final List<IEntity> collEntities = this.getEntitiesInCollisionBox();
-    for (final IEntity ent : collEntities) {
-      if (this.activated.contains(ent)) {
-        continue;
-      }
+  /**
+   * Activates this trigger for the specified entity. For triggers with the {@link TriggerActivation#COLLISION}
+   * activation, this is called by the environment once the entity enters the trigger.
+   *
+   * @param activator
+   *          The entity that activates the trigger.
+   * @return True if the trigger was activated; otherwise false, e.g. if an activating condition wasn't met or the
+   *         trigger is still cooling down.
+   */
+  public boolean activate(final IEntity activator) {
+    return this.activate(activator, activator.getMapId());
+  }
 
-      this.activate(ent, ent.getMapId());
+  /**
+   * Sends the deactivation event of this trigger for the specified entity to all registered listeners. For triggers
+   * with the {@link TriggerActivation#COLLISION} activation, this is called by the environment once the entity leaves
+   * the trigger.
+   *
+   * @param activator
+   *          The entity that left the trigger.
+   */
+  public void deactivate(final IEntity activator) {
+    List<Integer> triggerTargets = this.getTargets();
+    if (triggerTargets.isEmpty()) {
+      triggerTargets = new ArrayList<>();
+      triggerTargets.add(activator.getMapId());
     }
 
-    // send deactivation event
-    for (final IEntity ent : this.activated) {
-      if (!collEntities.contains(ent)) {
-        List<Integer> triggerTargets = this.getTargets();
-        if (triggerTargets.isEmpty()) {
-          triggerTargets = new ArrayList<>();
-          triggerTargets.add(ent.getMapId());
-        }
-
-        final TriggerEvent event = new TriggerEvent(this, ent, triggerTargets);
-        for (final TriggerDeactivatedListener listener : this.deactivatedListeners) {
-          listener.deactivated(event);
-        }
-      }
+    final TriggerEvent event = new TriggerEvent(this, activator, triggerTargets);
+    for (final TriggerDeactivatedListener listener : this.deactivatedListeners) {
+      listener.deactivated(event);
     }
-
-    this.activated = collEntities;
   }
 
   private boolean activate(final IEntity activator, final int tar) {
-    if (this.isOneTimeTrigger && this.isActivated || this.getActivationType() == TriggerActivation.COLLISION && activator != null && this.activated.contains(activator)) {
+    if (this.isOneTimeTrigger && this.isActivated) {
       return false;
     }
 
@@ -274,7 +271,6 @@ public class Trigger extends CollisionEntity implements IUpdateable {
         }
 
         entity.sendMessage(this, this.message);
-        this.activated.add(activator);
       }
     }
 
@@ -304,21 +300,6 @@ public class Trigger extends CollisionEntity implements IUpdateable {
     return true;
   }
 
-  private List<IEntity> getEntitiesInCollisionBox() {
-    final List<IEntity> collEntities = new CopyOnWriteArrayList<>();
-    for (final ICollisionEntity coll : Game.getPhysicsEngine().getCollisionEntities()) {
-      if (!this.activators.isEmpty() && !this.activators.contains(coll.getMapId())) {
-        continue;
-      }
-
-      if (coll.getCollisionBox().intersects(this.getCollisionBox())) {
-        collEntities.add(coll);
-      }
-    }
-
-    return collEntities;
-  }
-
   private List<Integer> getTargets(int optionalTarget) {
     // always take local targets if there are any
     List<Integer> localTargets = this.getTargets();
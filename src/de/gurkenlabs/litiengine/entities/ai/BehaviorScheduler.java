@@ -0,0 +1,187 @@
+package de.gurkenlabs.litiengine.entities.ai;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.UpdatePhase;
+
+/**
+ * Updates a large number of behavior controllers by spreading them across multiple ticks. Every controller is updated
+ * once per {@link #getTicksPerAgent()} ticks, so that only a share of all controllers is updated on each tick. The
+ * controllers are updated in a round robin fashion, which continues where the previous tick stopped.
+ * <p>
+ * Additionally, the time that is spent on each tick can be limited by {@link #setTimeBudget(long)}. Controllers that
+ * exceed the budget are updated on the next tick instead, which lowers the rate at which all controllers are updated
+ * until the load decreases again.
+ * </p>
+ * <p>
+ * The scheduler needs to be attached to the game loop, e.g. <code>Game.getLoop().attach(scheduler)</code>. Controllers
+ * are added to it when they are attached.
+ * </p>
+ */
+public class BehaviorScheduler implements IUpdateable {
+  private static final IBehaviorController[] NO_AGENTS = new IBehaviorController[0];
+
+  private final LongSupplier clock;
+
+  // replaced on every modification, so that an update can iterate the agents without locking
+  private volatile IBehaviorController[] agents;
+  private volatile int ticksPerAgent;
+  private volatile long timeBudget;
+
+  private int cursor;
+
+  /**
+   * Instantiates a new scheduler that updates every controller on every tick.
+   */
+  public BehaviorScheduler() {
+    this(1);
+  }
+
+  /**
+   * Instantiates a new scheduler.
+   *
+   * @param ticksPerAgent
+   *          The number of ticks over which the updates of all controllers are spread.
+   */
+  public BehaviorScheduler(final int ticksPerAgent) {
+    this(ticksPerAgent, System::nanoTime);
+  }
+
+  /**
+   * Instantiates a new scheduler that measures its time budget with the specified clock.
+   *
+   * @param ticksPerAgent
+   *          The number of ticks over which the updates of all controllers are spread.
+   * @param clock
+   *          The clock that provides the current time in nanoseconds.
+   */
+  BehaviorScheduler(final int ticksPerAgent, final LongSupplier clock) {
+    this.clock = clock;
+    this.agents = NO_AGENTS;
+    this.setTicksPerAgent(ticksPerAgent);
+  }
+
+  /**
+   * Adds the specified controller to this scheduler if it hasn't been added yet.
+   *
+   * @param agent
+   *          The controller to add.
+   */
+  public synchronized void add(final IBehaviorController agent) {
+    if (agent == null || this.contains(agent)) {
+      return;
+    }
+
+    final IBehaviorController[] newAgents = Arrays.copyOf(this.agents, this.agents.length + 1);
+    newAgents[newAgents.length - 1] = agent;
+    this.agents = newAgents;
+  }
+
+  public synchronized void clear() {
+    this.agents = NO_AGENTS;
+  }
+
+  public boolean contains(final IBehaviorController agent) {
+    for (final IBehaviorController other : this.agents) {
+      if (other == agent) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  public int getAgentCount() {
+    return this.agents.length;
+  }
+
+  public int getTicksPerAgent() {
+    return this.ticksPerAgent;
+  }
+
+  /**
+   * Gets the time that may be spent on updating controllers per tick.
+   *
+   * @return The time budget in nanoseconds or 0 if the time isn't limited.
+   */
+  public long getTimeBudget() {
+    return this.timeBudget;
+  }
+
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.AI;
+  }
+
+  /**
+   * Removes the specified controller from this scheduler.
+   *
+   * @param agent
+   *          The controller to remove.
+   */
+  public synchronized void remove(final IBehaviorController agent) {
+    final IBehaviorController[] currentAgents = this.agents;
+    for (int i = 0; i < currentAgents.length; i++) {
+      if (currentAgents[i] == agent) {
+        final IBehaviorController[] newAgents = new IBehaviorController[currentAgents.length - 1];
+        System.arraycopy(currentAgents, 0, newAgents, 0, i);
+        System.arraycopy(currentAgents, i + 1, newAgents, i, newAgents.length - i);
+        this.agents = newAgents;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Sets the number of ticks over which the updates of all controllers are spread. With a value of 1, every controller
+   * is updated on every tick.
+   *
+   * @param ticksPerAgent
+   *          The number of ticks between two updates of a controller.
+   */
+  public void setTicksPerAgent(final int ticksPerAgent) {
+    if (ticksPerAgent < 1) {
+      throw new IllegalArgumentException("The number of ticks per agent must be positive: " + ticksPerAgent);
+    }
+
+    this.ticksPerAgent = ticksPerAgent;
+  }
+
+  /**
+   * Sets the time that may be spent on updating controllers per tick. At least one controller is updated per tick.
+   *
+   * @param timeBudget
+   *          The time budget in nanoseconds or 0 if the time shouldn't be limited.
+   */
+  public void setTimeBudget(final long timeBudget) {
+    if (timeBudget < 0) {
+      throw new IllegalArgumentException("The time budget must not be negative: " + timeBudget);
+    }
+
+    this.timeBudget = timeBudget;
+  }
+
+  @Override
+  public void update() {
+    final IBehaviorController[] currentAgents = this.agents;
+    if (currentAgents.length == 0) {
+      return;
+    }
+
+    final int updates = (currentAgents.length + this.ticksPerAgent - 1) / this.ticksPerAgent;
+    final long budget = this.timeBudget;
+    final long start = budget > 0 ? this.clock.getAsLong() : 0;
+    for (int i = 0; i < updates; i++) {
+      if (this.cursor >= currentAgents.length) {
+        this.cursor = 0;
+      }
+
+      currentAgents[this.cursor++].update();
+      if (budget > 0 && this.clock.getAsLong() - start >= budget) {
+        return;
+      }
+    }
+  }
+}
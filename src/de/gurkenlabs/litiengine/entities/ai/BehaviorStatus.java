@@ -0,0 +1,21 @@
+package de.gurkenlabs.litiengine.entities.ai;
+
+/**
+ * The result of evaluating an {@link IBehavior} for an entity.
+ */
+public enum BehaviorStatus {
+  /**
+   * The behavior has been completed successfully.
+   */
+  SUCCESS,
+
+  /**
+   * The behavior couldn't be completed.
+   */
+  FAILURE,
+
+  /**
+   * The behavior is still in progress and needs to be evaluated again.
+   */
+  RUNNING
+}
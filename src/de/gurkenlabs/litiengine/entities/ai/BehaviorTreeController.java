@@ -0,0 +1,78 @@
+package de.gurkenlabs.litiengine.entities.ai;
+
+import de.gurkenlabs.litiengine.UpdatePhase;
+import de.gurkenlabs.litiengine.entities.IEntity;
+
+/**
+ * A behavior controller that evaluates a behavior tree for its entity. In contrast to a {@link StateController}, it is
+ * not updated by the game loop itself but by a {@link BehaviorScheduler} that spreads the evaluation of many entities
+ * across multiple ticks.
+ *
+ * @param <T>
+ *          The type of the controlled entity.
+ */
+public class BehaviorTreeController<T extends IEntity> implements IBehaviorController {
+  private final T entity;
+  private final IBehavior<T> behavior;
+  private final BehaviorScheduler scheduler;
+
+  private BehaviorStatus status;
+
+  /**
+   * Instantiates a new behavior tree controller.
+   *
+   * @param entity
+   *          The entity to control.
+   * @param behavior
+   *          The root of the behavior tree.
+   * @param scheduler
+   *          The scheduler that evaluates the behavior tree once this controller is attached.
+   */
+  public BehaviorTreeController(final T entity, final IBehavior<T> behavior, final BehaviorScheduler scheduler) {
+    this.entity = entity;
+    this.behavior = behavior;
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public void attach() {
+    this.scheduler.add(this);
+  }
+
+  @Override
+  public void detach() {
+    this.scheduler.remove(this);
+  }
+
+  public IBehavior<T> getBehavior() {
+    return this.behavior;
+  }
+
+  @Override
+  public T getEntity() {
+    return this.entity;
+  }
+
+  public BehaviorScheduler getScheduler() {
+    return this.scheduler;
+  }
+
+  /**
+   * Gets the status of the last evaluation of the behavior tree.
+   *
+   * @return The status or null if the behavior tree hasn't been evaluated yet.
+   */
+  public BehaviorStatus getStatus() {
+    return this.status;
+  }
+
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.AI;
+  }
+
+  @Override
+  public void update() {
+    this.status = this.behavior.tick(this.entity);
+  }
+}
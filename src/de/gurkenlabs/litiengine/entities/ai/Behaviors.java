@@ -0,0 +1,114 @@
+package de.gurkenlabs.litiengine.entities.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import de.gurkenlabs.litiengine.entities.IEntity;
+
+/**
+ * Creates the common nodes of behavior trees. The composite nodes are reactive: They evaluate their children from the
+ * first one on every tick instead of remembering a running child, so they don't need any state per entity.
+ */
+public final class Behaviors {
+  private Behaviors() {
+  }
+
+  /**
+   * Creates a behavior that runs the specified action and always succeeds.
+   *
+   * @param action
+   *          The action to run.
+   * @return The behavior.
+   */
+  public static <T extends IEntity> IBehavior<T> action(final Consumer<? super T> action) {
+    return entity -> {
+      action.accept(entity);
+      return BehaviorStatus.SUCCESS;
+    };
+  }
+
+  /**
+   * Creates a behavior that succeeds if the specified condition is met for the entity and fails otherwise.
+   *
+   * @param condition
+   *          The condition to check.
+   * @return The behavior.
+   */
+  public static <T extends IEntity> IBehavior<T> condition(final Predicate<? super T> condition) {
+    return entity -> condition.test(entity) ? BehaviorStatus.SUCCESS : BehaviorStatus.FAILURE;
+  }
+
+  /**
+   * Creates a behavior that inverts the result of the specified behavior. A running behavior stays running.
+   *
+   * @param behavior
+   *          The behavior to invert.
+   * @return The behavior.
+   */
+  public static <T extends IEntity> IBehavior<T> invert(final IBehavior<T> behavior) {
+    return entity -> {
+      final BehaviorStatus status = behavior.tick(entity);
+      if (status == BehaviorStatus.RUNNING) {
+        return status;
+      }
+
+      return status == BehaviorStatus.SUCCESS ? BehaviorStatus.FAILURE : BehaviorStatus.SUCCESS;
+    };
+  }
+
+  /**
+   * Creates a behavior that evaluates the specified behaviors in their order until one of them doesn't succeed. It
+   * returns the status of that behavior or succeeds if all behaviors succeeded.
+   *
+   * @param behaviors
+   *          The behaviors to evaluate.
+   * @return The behavior.
+   */
+  @SafeVarargs
+  public static <T extends IEntity> IBehavior<T> sequence(final IBehavior<T>... behaviors) {
+    final List<IBehavior<T>> children = new ArrayList<>(behaviors.length);
+    for (final IBehavior<T> behavior : behaviors) {
+      children.add(behavior);
+    }
+
+    return entity -> {
+      for (final IBehavior<T> child : children) {
+        final BehaviorStatus status = child.tick(entity);
+        if (status != BehaviorStatus.SUCCESS) {
+          return status;
+        }
+      }
+
+      return BehaviorStatus.SUCCESS;
+    };
+  }
+
+  /**
+   * Creates a behavior that evaluates the specified behaviors in their order until one of them doesn't fail. It returns
+   * the status of that behavior or fails if all behaviors failed.
+   *
+   * @param behaviors
+   *          The behaviors to evaluate.
+   * @return The behavior.
+   */
+  @SafeVarargs
+  public static <T extends IEntity> IBehavior<T> selector(final IBehavior<T>... behaviors) {
+    final List<IBehavior<T>> children = new ArrayList<>(behaviors.length);
+    for (final IBehavior<T> behavior : behaviors) {
+      children.add(behavior);
+    }
+
+    return entity -> {
+      for (final IBehavior<T> child : children) {
+        final BehaviorStatus status = child.tick(entity);
+        if (status != BehaviorStatus.FAILURE) {
+          return status;
+        }
+      }
+
+      return BehaviorStatus.FAILURE;
+    };
+  }
+}
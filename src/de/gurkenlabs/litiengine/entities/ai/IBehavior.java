@@ -0,0 +1,25 @@
+package de.gurkenlabs.litiengine.entities.ai;
+
+import de.gurkenlabs.litiengine.entities.IEntity;
+
+/**
+ * A node of a behavior tree. Behaviors don't keep any state of the entities that they are evaluated for, so that a
+ * single tree can be shared by any number of entities.
+ *
+ * @param <T>
+ *          The type of the entities that this behavior is evaluated for.
+ * @see Behaviors
+ * @see BehaviorTreeController
+ */
+@FunctionalInterface
+public interface IBehavior<T extends IEntity> {
+
+  /**
+   * Evaluates this behavior for the specified entity.
+   *
+   * @param entity
+   *          The entity.
+   * @return The status of this behavior after the evaluation.
+   */
+  public BehaviorStatus tick(T entity);
+}
@@ -1,6 +1,7 @@
 package de.gurkenlabs.litiengine.entities.ai;
 
 import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.UpdatePhase;
 import de.gurkenlabs.litiengine.entities.IEntity;
 import de.gurkenlabs.litiengine.states.StateMachine;
 
@@ -26,4 +27,9 @@ public class StateController<T extends IEntity> extends StateMachine implements
   public void attach() {
     Game.getLoop().attach(this);
   }
+
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.AI;
+  }
 }
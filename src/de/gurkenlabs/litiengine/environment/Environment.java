@@ -4,10 +4,13 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,12 +29,15 @@ import de.gurkenlabs.litiengine.annotation.EntityInfo;
 import de.gurkenlabs.litiengine.configuration.Quality;
 import de.gurkenlabs.litiengine.entities.CollisionBox;
 import de.gurkenlabs.litiengine.entities.Creature;
+import de.gurkenlabs.litiengine.entities.EntityNameListener;
+import de.gurkenlabs.litiengine.entities.EntityTransformListener;
 import de.gurkenlabs.litiengine.entities.ICollisionEntity;
 import de.gurkenlabs.litiengine.entities.ICombatEntity;
 import de.gurkenlabs.litiengine.entities.IEntity;
 import de.gurkenlabs.litiengine.entities.IMobileEntity;
 import de.gurkenlabs.litiengine.entities.Prop;
 import de.gurkenlabs.litiengine.entities.Trigger;
+import de.gurkenlabs.litiengine.entities.Trigger.TriggerActivation;
 import de.gurkenlabs.litiengine.environment.tilemap.IMap;
 import de.gurkenlabs.litiengine.environment.tilemap.IMapObject;
 import de.gurkenlabs.litiengine.environment.tilemap.IMapObjectLayer;
@@ -42,13 +48,16 @@ import de.gurkenlabs.litiengine.environment.tilemap.MapUtilities;
 import de.gurkenlabs.litiengine.environment.tilemap.Spawnpoint;
 import de.gurkenlabs.litiengine.graphics.AmbientLight;
 import de.gurkenlabs.litiengine.graphics.DebugRenderer;
+import de.gurkenlabs.litiengine.graphics.EntityRenderQueue;
 import de.gurkenlabs.litiengine.graphics.IRenderable;
 import de.gurkenlabs.litiengine.graphics.LightSource;
 import de.gurkenlabs.litiengine.graphics.RenderType;
 import de.gurkenlabs.litiengine.graphics.StaticShadow;
 import de.gurkenlabs.litiengine.graphics.StaticShadowLayer;
 import de.gurkenlabs.litiengine.graphics.StaticShadowType;
+import de.gurkenlabs.litiengine.graphics.StaticShadowTypeListener;
 import de.gurkenlabs.litiengine.graphics.particles.Emitter;
+import de.gurkenlabs.litiengine.physics.SpatialGrid;
 import de.gurkenlabs.litiengine.util.TimeUtilities;
 import de.gurkenlabs.litiengine.util.geom.GeometricUtilities;
 import de.gurkenlabs.litiengine.util.io.FileUtilities;
@@ -61,6 +70,14 @@ public class Environment implements IEnvironment {
   private final Map<Integer, IMobileEntity> mobileEntities;
   private final Map<RenderType, Map<Integer, IEntity>> entities;
   private final Map<String, List<IEntity>> entitiesByTag;
+  private final Map<String, Collection<IEntity>> entitiesByName;
+  private final Map<Class<?>, Collection<IEntity>> entitiesByType;
+  private final SpatialGrid<IEntity> entityGrid;
+  private final SpatialGrid<ICombatEntity> combatEntityGrid;
+  private final EntityTransformListener transformListener;
+  private final EntityNameListener nameListener;
+  private final StaticShadowTypeListener shadowTypeListener;
+  private final Map<RenderType, EntityRenderQueue> renderQueues;
 
   private final Map<RenderType, Collection<EnvironmentRenderListener>> renderListeners;
   private final List<EnvironmentListener> listeners;
@@ -76,10 +93,13 @@ public class Environment implements IEnvironment {
   private final Collection<Creature> creatures;
   private final Collection<Spawnpoint> spawnPoints;
   private final Collection<MapArea> mapAreas;
+  private final TriggerOverlapManager triggerOverlapManager;
 
   private AmbientLight ambientLight;
   private StaticShadowLayer staticShadowLayer;
+  private volatile boolean hasStaticShadows;
   private boolean loaded;
+  private boolean triggerOverlapManagerAttached;
   private boolean initialized;
   private IMap map;
 
@@ -96,6 +116,7 @@ public class Environment implements IEnvironment {
     this.map = map;
     this.mapIdSequence = MapUtilities.getMaxMapId(this.getMap());
     Game.getPhysicsEngine().setBounds(this.getMap().getBounds());
+    this.setGridBounds(new Rectangle(this.getMap().getSizeInPixels()));
   }
 
   public Environment(final String mapPath) {
@@ -109,12 +130,33 @@ public class Environment implements IEnvironment {
 
     this.mapIdSequence = MapUtilities.getMaxMapId(this.getMap());
     Game.getPhysicsEngine().setBounds(new Rectangle(this.getMap().getSizeInPixels()));
+    this.setGridBounds(new Rectangle(this.getMap().getSizeInPixels()));
   }
 
   private Environment() {
     this.entitiesByTag = new ConcurrentHashMap<>();
+    this.entitiesByName = new ConcurrentHashMap<>();
+    this.entitiesByType = new ConcurrentHashMap<>();
     this.entities = new ConcurrentHashMap<>();
 
+    // entities are only indexed by their location until the map size is known
+    this.entityGrid = new SpatialGrid<>();
+    this.combatEntityGrid = new SpatialGrid<>();
+    this.transformListener = new EntityTransformListener() {
+      @Override
+      public void locationChanged(IEntity entity) {
+        updateGrids(entity);
+      }
+
+      @Override
+      public void sizeChanged(IEntity entity) {
+        updateGrids(entity);
+      }
+    };
+
+    this.nameListener = this::updateName;
+    this.shadowTypeListener = (staticShadow, previousType) -> this.updateHasStaticShadows();
+
     this.combatEntities = new ConcurrentHashMap<>();
     this.mobileEntities = new ConcurrentHashMap<>();
 
@@ -126,9 +168,11 @@ public class Environment implements IEnvironment {
     this.props = Collections.newSetFromMap(new ConcurrentHashMap<Prop, Boolean>());
     this.emitters = Collections.newSetFromMap(new ConcurrentHashMap<Emitter, Boolean>());
     this.creatures = Collections.newSetFromMap(new ConcurrentHashMap<Creature, Boolean>());
+    this.triggerOverlapManager = new TriggerOverlapManager(this);
     this.spawnPoints = Collections.newSetFromMap(new ConcurrentHashMap<Spawnpoint, Boolean>());
 
     this.renderables = new ConcurrentHashMap<>();
+    this.renderQueues = new EnumMap<>(RenderType.class);
 
     this.renderListeners = new ConcurrentHashMap<>();
     this.listeners = new CopyOnWriteArrayList<>();
@@ -138,6 +182,7 @@ public class Environment implements IEnvironment {
       this.entities.put(renderType, new ConcurrentHashMap<>());
       this.renderListeners.put(renderType, Collections.newSetFromMap(new ConcurrentHashMap<EnvironmentRenderListener, Boolean>()));
       this.renderables.put(renderType, Collections.newSetFromMap(new ConcurrentHashMap<IRenderable, Boolean>()));
+      this.renderQueues.put(renderType, new EntityRenderQueue());
     }
   }
 
@@ -223,29 +268,33 @@ public class Environment implements IEnvironment {
 
     if (entity instanceof StaticShadow) {
       this.staticShadows.add((StaticShadow) entity);
+      ((StaticShadow) entity).addShadowTypeListener(this.shadowTypeListener);
+      if (((StaticShadow) entity).getShadowType() != StaticShadowType.NONE) {
+        this.hasStaticShadows = true;
+      }
     } else if (entity instanceof MapArea) {
       this.mapAreas.add((MapArea) entity);
     }
 
     for (String rawTag : entity.getTags()) {
-      if (rawTag == null) {
+      final String tag = normalizeTag(rawTag);
+      if (tag == null) {
         continue;
       }
 
-      final String tag = rawTag.trim().toLowerCase();
-      if (tag.isEmpty()) {
-        continue;
-      }
-
-      if (this.getEntitiesByTag().containsKey(tag)) {
-        this.getEntitiesByTag().get(tag).add(entity);
-        continue;
-      }
+      this.getEntitiesByTag().computeIfAbsent(tag, t -> new CopyOnWriteArrayList<>()).add(entity);
+    }
 
-      this.getEntitiesByTag().put(tag, new CopyOnWriteArrayList<>());
-      this.getEntitiesByTag().get(tag).add(entity);
+    if (entity.getName() != null && !entity.getName().isEmpty()) {
+      this.entitiesByName.computeIfAbsent(entity.getName(), n -> new CopyOnWriteArrayList<>()).add(entity);
     }
 
+    this.entitiesByType.computeIfAbsent(entity.getClass(), t -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(entity);
+
+    this.updateGrids(entity);
+    entity.addTransformListener(this.transformListener);
+    entity.addNameListener(this.nameListener);
+
     // if the environment has already been loaded,
     // we need to load the new entity manually
     if (this.loaded) {
@@ -282,6 +331,14 @@ public class Environment implements IEnvironment {
     this.emitters.remove(emitter);
   }
 
+  /**
+   * Determines whether any of the static shadows casts a shadow. This is only done when static shadows are removed or
+   * change their type, so that the environment doesn't need to check all of them every time it is rendered.
+   */
+  private void updateHasStaticShadows() {
+    this.hasStaticShadows = this.staticShadows.stream().anyMatch(x -> x.getShadowType() != StaticShadowType.NONE);
+  }
+
   private void updateColorLayers(IEntity entity) {
     if (this.staticShadowLayer != null) {
       this.staticShadowLayer.updateSection(entity.getBoundingBox());
@@ -309,7 +366,20 @@ public class Environment implements IEnvironment {
     this.getSpawnPoints().clear();
     this.getAreas().clear();
     this.getTriggers().clear();
+    this.triggerOverlapManager.clear();
     this.getEntitiesByTag().clear();
+    this.entitiesByName.clear();
+    this.entitiesByType.clear();
+    for (IEntity entity : this.entityGrid.getItems()) {
+      entity.removeTransformListener(this.transformListener);
+      entity.removeNameListener(this.nameListener);
+      if (entity instanceof StaticShadow) {
+        ((StaticShadow) entity).removeShadowTypeListener(this.shadowTypeListener);
+      }
+    }
+
+    this.entityGrid.clear();
+    this.combatEntityGrid.clear();
 
     for (Map<Integer, IEntity> type : this.entities.values()) {
       type.clear();
@@ -328,58 +398,56 @@ public class Environment implements IEnvironment {
   @Override
   public List<ICombatEntity> findCombatEntities(final Shape shape, final Predicate<ICombatEntity> condition) {
     final ArrayList<ICombatEntity> foundCombatEntities = new ArrayList<>();
+    this.visitCombatEntities(shape, condition, foundCombatEntities::add);
+    return foundCombatEntities;
+  }
+
+  @Override
+  public void visitCombatEntities(final Shape shape, final Predicate<ICombatEntity> condition, final Consumer<ICombatEntity> visitor) {
     if (shape == null) {
-      return foundCombatEntities;
+      return;
     }
 
     // for rectangle we can just use the intersects method
-    if (shape instanceof Rectangle2D) {
-      final Rectangle2D rect = (Rectangle2D) shape;
-      for (final ICombatEntity combatEntity : this.getCombatEntities().stream().filter(condition).collect(Collectors.toList())) {
-        if (combatEntity.getHitBox().intersects(rect)) {
-          foundCombatEntities.add(combatEntity);
-        }
-      }
-
-      return foundCombatEntities;
-    }
-
     // for other shapes, we check if the shape's bounds intersect the hitbox and
     // if so, we then check if the actual shape intersects the hitbox
-    for (final ICombatEntity combatEntity : this.getCombatEntities().stream().filter(condition).collect(Collectors.toList())) {
-      if (combatEntity.getHitBox().intersects(shape.getBounds()) && GeometricUtilities.shapeIntersects(combatEntity.getHitBox(), shape)) {
-        foundCombatEntities.add(combatEntity);
+    final boolean isRectangle = shape instanceof Rectangle2D;
+    final Rectangle2D bounds = shape.getBounds2D();
+    final Rectangle shapeBounds = isRectangle ? null : shape.getBounds();
+    this.combatEntityGrid.forEach(bounds, combatEntity -> {
+      if (!condition.test(combatEntity)) {
+        return;
       }
-    }
 
-    return foundCombatEntities;
+      final Ellipse2D hitBox = combatEntity.getHitBox();
+      if (isRectangle ? hitBox.intersects(bounds) : hitBox.intersects(shapeBounds) && GeometricUtilities.shapeIntersects(hitBox, shape)) {
+        visitor.accept(combatEntity);
+      }
+    });
   }
 
   @Override
   public List<IEntity> findEntities(final Shape shape) {
     final ArrayList<IEntity> foundEntities = new ArrayList<>();
+    this.visitEntities(shape, foundEntities::add);
+    return foundEntities;
+  }
+
+  @Override
+  public void visitEntities(final Shape shape, final Consumer<IEntity> visitor) {
     if (shape == null) {
-      return foundEntities;
-    }
-    if (shape instanceof Rectangle2D) {
-      final Rectangle2D rect = (Rectangle2D) shape;
-      for (final IEntity entity : this.getEntities()) {
-        if (entity.getBoundingBox().intersects(rect)) {
-          foundEntities.add(entity);
-        }
-      }
-      return foundEntities;
-    }
-    // for other shapes, we check if the shape's bounds intersect the hitbox
-    // and
-    // if so, we then check if the actual shape intersects the hitbox
-    for (final IEntity entity : this.getEntities()) {
-      if (entity.getBoundingBox().intersects(shape.getBounds()) && GeometricUtilities.shapeIntersects(entity.getBoundingBox(), shape)) {
-        foundEntities.add(entity);
-      }
+      return;
     }
 
-    return foundEntities;
+    final boolean isRectangle = shape instanceof Rectangle2D;
+    final Rectangle2D bounds = shape.getBounds2D();
+    final Rectangle shapeBounds = isRectangle ? null : shape.getBounds();
+    this.entityGrid.forEach(bounds, entity -> {
+      final Rectangle2D boundingBox = entity.getBoundingBox();
+      if (isRectangle ? boundingBox.intersects(bounds) : boundingBox.intersects(shapeBounds) && GeometricUtilities.shapeIntersects(boundingBox, shape)) {
+        visitor.accept(entity);
+      }
+    });
   }
 
   @Override
@@ -425,29 +493,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public IEntity get(final String name) {
-    if (name == null || name.isEmpty()) {
-      return null;
-    }
-
-    for (RenderType type : RenderType.values()) {
-      for (final IEntity entity : this.entities.get(type).values()) {
-        if (entity.getName() != null && entity.getName().equals(name)) {
-          return entity;
-        }
-      }
-    }
-
-    return null;
+    return this.getByName(IEntity.class, name);
   }
 
   @Override
   public <T extends IEntity> T get(Class<T> clss, String name) {
-    IEntity ent = this.get(name);
-    if (ent == null || !clss.isInstance(ent)) {
-      return null;
-    }
-
-    return (T) ent;
+    return this.getByName(clss, name);
   }
 
   @Override
@@ -457,18 +508,19 @@ public class Environment implements IEnvironment {
 
   @Override
   public <T extends IEntity> Collection<T> getByTag(Class<T> clss, String... tags) {
-    List<T> foundEntities = new ArrayList<>();
+    // an entity can have multiple of the specified tags but must only be contained once
+    Collection<T> foundEntities = new LinkedHashSet<>();
     for (String rawTag : tags) {
-      String tag = rawTag.toLowerCase();
-      if (!this.getEntitiesByTag().containsKey(tag)) {
+      final List<IEntity> taggedEntities = this.getEntitiesByTag().get(rawTag.toLowerCase());
+      if (taggedEntities == null) {
         continue;
       }
-      for (IEntity ent : this.getEntitiesByTag().get(tag)) {
-        if ((clss == null || clss.isInstance(ent)) && !foundEntities.contains((T) ent)) {
+
+      for (IEntity ent : taggedEntities) {
+        if (clss == null || clss.isInstance(ent)) {
           foundEntities.add((T) ent);
         }
       }
-
     }
 
     return foundEntities;
@@ -486,12 +538,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public MapArea getArea(final int mapId) {
-    return getById(this.getAreas(), mapId);
+    return getById(this.getAreas(), this.get(mapId));
   }
 
   @Override
   public MapArea getArea(final String name) {
-    return getByName(this.getAreas(), name);
+    return this.getByName(MapArea.class, name, this.getAreas()::contains);
   }
 
   @Override
@@ -501,12 +553,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public Emitter getEmitter(int mapId) {
-    return getById(this.getEmitters(), mapId);
+    return getById(this.getEmitters(), this.get(mapId));
   }
 
   @Override
   public Emitter getEmitter(String name) {
-    return getByName(this.getEmitters(), name);
+    return this.getByName(Emitter.class, name, this.getEmitters()::contains);
   }
 
   @Override
@@ -516,12 +568,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public CollisionBox getCollisionBox(int mapId) {
-    return getById(this.getCollisionBoxes(), mapId);
+    return getById(this.getCollisionBoxes(), this.get(mapId));
   }
 
   @Override
   public CollisionBox getCollisionBox(String name) {
-    return getByName(this.getCollisionBoxes(), name);
+    return this.getByName(CollisionBox.class, name, this.getCollisionBoxes()::contains);
   }
 
   @Override
@@ -531,12 +583,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public ICombatEntity getCombatEntity(final int mapId) {
-    return getById(this.getCombatEntities(), mapId);
+    return this.combatEntities.get(mapId);
   }
 
   @Override
   public ICombatEntity getCombatEntity(String name) {
-    return getByName(this.getCombatEntities(), name);
+    return this.getByName(ICombatEntity.class, name, ent -> this.combatEntities.get(ent.getMapId()) == ent);
   }
 
   @Override
@@ -561,9 +613,11 @@ public class Environment implements IEnvironment {
   @Override
   public <T extends IEntity> Collection<T> getByType(Class<T> cls) {
     List<T> foundEntities = new ArrayList<>();
-    for (IEntity ent : this.getEntities()) {
-      if (cls.isInstance(ent)) {
-        foundEntities.add((T) ent);
+    for (Map.Entry<Class<?>, Collection<IEntity>> type : this.entitiesByType.entrySet()) {
+      if (cls.isAssignableFrom(type.getKey())) {
+        for (IEntity ent : type.getValue()) {
+          foundEntities.add((T) ent);
+        }
       }
     }
 
@@ -577,12 +631,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public LightSource getLightSource(final int mapId) {
-    return getById(this.getLightSources(), mapId);
+    return getById(this.getLightSources(), this.get(mapId));
   }
 
   @Override
   public LightSource getLightSource(String name) {
-    return getByName(this.getLightSources(), name);
+    return this.getByName(LightSource.class, name, this.getLightSources()::contains);
   }
 
   /**
@@ -605,12 +659,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public IMobileEntity getMobileEntity(final int mapId) {
-    return getById(this.getMobileEntities(), mapId);
+    return this.mobileEntities.get(mapId);
   }
 
   @Override
   public IMobileEntity getMobileEntity(String name) {
-    return getByName(this.getMobileEntities(), name);
+    return this.getByName(IMobileEntity.class, name, ent -> this.mobileEntities.get(ent.getMapId()) == ent);
   }
 
   @Override
@@ -630,22 +684,22 @@ public class Environment implements IEnvironment {
 
   @Override
   public Prop getProp(int mapId) {
-    return getById(this.getProps(), mapId);
+    return getById(this.getProps(), this.get(mapId));
   }
 
   @Override
   public Prop getProp(String name) {
-    return getByName(this.getProps(), name);
+    return this.getByName(Prop.class, name, this.getProps()::contains);
   }
 
   @Override
   public Creature getCreature(int mapId) {
-    return getById(this.getCreatures(), mapId);
+    return getById(this.getCreatures(), this.get(mapId));
   }
 
   @Override
   public Creature getCreature(String name) {
-    return getByName(this.getCreatures(), name);
+    return this.getByName(Creature.class, name, this.getCreatures()::contains);
   }
 
   @Override
@@ -655,12 +709,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public Spawnpoint getSpawnpoint(final int mapId) {
-    return getById(this.getSpawnPoints(), mapId);
+    return getById(this.getSpawnPoints(), this.get(mapId));
   }
 
   @Override
   public Spawnpoint getSpawnpoint(final String name) {
-    return getByName(this.getSpawnPoints(), name);
+    return this.getByName(Spawnpoint.class, name, this.getSpawnPoints()::contains);
   }
 
   @Override
@@ -675,12 +729,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public StaticShadow getStaticShadow(int mapId) {
-    return getById(this.getStaticShadows(), mapId);
+    return getById(this.getStaticShadows(), this.get(mapId));
   }
 
   @Override
   public StaticShadow getStaticShadow(String name) {
-    return getByName(this.getStaticShadows(), name);
+    return this.getByName(StaticShadow.class, name, this.getStaticShadows()::contains);
   }
 
   @Override
@@ -690,12 +744,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public Trigger getTrigger(final int mapId) {
-    return getById(this.getTriggers(), mapId);
+    return getById(this.getTriggers(), this.get(mapId));
   }
 
   @Override
   public Trigger getTrigger(final String name) {
-    return getByName(this.getTriggers(), name);
+    return this.getByName(Trigger.class, name, this.getTriggers()::contains);
   }
 
   @Override
@@ -835,17 +889,29 @@ public class Environment implements IEnvironment {
     }
 
     if (this.entities.get(entity.getRenderType()) != null) {
-      this.entities.get(entity.getRenderType()).entrySet().removeIf(e -> e.getValue().getMapId() == entity.getMapId());
+      this.entities.get(entity.getRenderType()).remove(entity.getMapId());
     }
 
-    for (String tag : entity.getTags()) {
-      this.getEntitiesByTag().get(tag).remove(entity);
-
-      if (this.getEntitiesByTag().get(tag).isEmpty()) {
-        this.getEntitiesByTag().remove(tag);
+    for (String rawTag : entity.getTags()) {
+      final String tag = normalizeTag(rawTag);
+      if (tag != null) {
+        removeFromIndex(this.getEntitiesByTag(), tag, entity);
       }
     }
 
+    if (entity.getName() != null) {
+      removeFromIndex(this.entitiesByName, entity.getName(), entity);
+    }
+
+    removeFromIndex(this.entitiesByType, entity.getClass(), entity);
+
+    entity.removeTransformListener(this.transformListener);
+    entity.removeNameListener(this.nameListener);
+    this.entityGrid.remove(entity);
+    if (entity instanceof ICombatEntity) {
+      this.combatEntityGrid.remove((ICombatEntity) entity);
+    }
+
     if (entity instanceof Emitter) {
       Emitter emitter = (Emitter) entity;
       this.removeEmitter(emitter);
@@ -865,7 +931,9 @@ public class Environment implements IEnvironment {
 
     if (entity instanceof CollisionBox) {
       this.colliders.remove(entity);
-      this.staticShadows.removeIf(x -> x.getOrigin() != null && x.getOrigin().equals(entity));
+      if (this.staticShadows.removeIf(x -> x.getOrigin() != null && x.getOrigin().equals(entity))) {
+        this.updateHasStaticShadows();
+      }
     }
 
     if (entity instanceof LightSource) {
@@ -883,15 +951,17 @@ public class Environment implements IEnvironment {
 
     if (entity instanceof StaticShadow) {
       this.staticShadows.remove(entity);
+      ((StaticShadow) entity).removeShadowTypeListener(this.shadowTypeListener);
+      this.updateHasStaticShadows();
       this.updateColorLayers(entity);
     }
 
     if (entity instanceof IMobileEntity) {
-      this.mobileEntities.values().remove(entity);
+      this.mobileEntities.remove(entity.getMapId(), entity);
     }
 
     if (entity instanceof ICombatEntity) {
-      this.combatEntities.values().remove(entity);
+      this.combatEntities.remove(entity.getMapId(), entity);
     }
 
     this.unload(entity);
@@ -956,7 +1026,7 @@ public class Environment implements IEnvironment {
     renderDetails.append(this.render(g, RenderType.NORMAL));
 
     long shadowRenderStart = System.nanoTime();
-    if (this.getStaticShadows().stream().anyMatch(x -> x.getShadowType() != StaticShadowType.NONE)) {
+    if (this.hasStaticShadows) {
       this.getStaticShadowLayer().render(g);
     }
 
@@ -1010,6 +1080,12 @@ public class Environment implements IEnvironment {
       this.unload(entity);
     }
 
+    if (this.triggerOverlapManagerAttached) {
+      Game.getLoop().detach(this.triggerOverlapManager);
+      this.triggerOverlapManagerAttached = false;
+    }
+
+    this.triggerOverlapManager.clear();
     this.loaded = false;
     this.fireEvent(l -> l.environmentUnloaded(this));
   }
@@ -1030,29 +1106,102 @@ public class Environment implements IEnvironment {
     return new ArrayList<>();
   }
 
-  private static <T extends IEntity> T getById(Collection<T> entities, int mapId) {
-    for (final T m : entities) {
-      if (m.getMapId() == mapId) {
-        return m;
-      }
+  private static <T extends IEntity> T getById(Collection<T> entities, IEntity entity) {
+    // the typed collections are hash based, so this doesn't iterate them
+    if (entity == null || !entities.contains(entity)) {
+      return null;
     }
 
-    return null;
+    return (T) entity;
+  }
+
+  private <T extends IEntity> T getByName(Class<T> clss, String name) {
+    return this.getByName(clss, name, null);
   }
 
-  private static <T extends IEntity> T getByName(Collection<T> entities, String name) {
+  private <T extends IEntity> T getByName(Class<T> clss, String name, Predicate<IEntity> condition) {
     if (name == null || name.isEmpty()) {
       return null;
     }
 
-    for (final T m : entities) {
-      if (m.getName() != null && m.getName().equals(name)) {
-        return m;
+    final Collection<IEntity> namedEntities = this.entitiesByName.get(name);
+    if (namedEntities == null) {
+      return null;
+    }
+
+    for (final IEntity ent : namedEntities) {
+      if (clss.isInstance(ent) && (condition == null || condition.test(ent))) {
+        return (T) ent;
       }
     }
+
     return null;
   }
 
+  private static <K, C extends Collection<IEntity>> boolean removeFromIndex(Map<K, C> index, K key, IEntity entity) {
+    final boolean[] removed = new boolean[1];
+    index.computeIfPresent(key, (k, indexedEntities) -> {
+      removed[0] = indexedEntities.remove(entity);
+      return indexedEntities.isEmpty() ? null : indexedEntities;
+    });
+
+    return removed[0];
+  }
+
+  private static String normalizeTag(String rawTag) {
+    if (rawTag == null) {
+      return null;
+    }
+
+    final String tag = rawTag.trim().toLowerCase();
+    return tag.isEmpty() ? null : tag;
+  }
+
+  private void renderEntities(Graphics2D g, RenderType renderType) {
+    // only the entities within the viewport are looked up and added to the
+    // queue that keeps their render order from the previous frame
+    final Map<Integer, IEntity> renderTypeEntities = this.entities.get(renderType);
+    final EntityRenderQueue queue = this.renderQueues.get(renderType);
+    final Rectangle2D viewPort = Game.getCamera().getViewPort();
+    this.entityGrid.forEach(viewPort, entity -> {
+      if (renderTypeEntities.get(entity.getMapId()) == entity && viewPort.intersects(entity.getBoundingBox())) {
+        queue.add(entity);
+      }
+    });
+
+    Game.getRenderEngine().renderEntities(g, queue, renderType == RenderType.NORMAL);
+  }
+
+  private void setGridBounds(Rectangle2D bounds) {
+    this.entityGrid.setBounds(bounds);
+    this.combatEntityGrid.setBounds(bounds);
+  }
+
+  private void updateGrids(IEntity entity) {
+    final Rectangle2D boundingBox = entity.getBoundingBox();
+    if (boundingBox != null) {
+      this.entityGrid.update(entity, boundingBox);
+    }
+
+    if (entity instanceof ICombatEntity) {
+      final Ellipse2D hitBox = ((ICombatEntity) entity).getHitBox();
+      if (hitBox != null) {
+        this.combatEntityGrid.update((ICombatEntity) entity, hitBox.getBounds2D());
+      }
+    }
+  }
+
+  private void updateName(IEntity entity, String previousName) {
+    // entities without a name are not indexed by their name
+    if (previousName != null && !previousName.isEmpty()) {
+      removeFromIndex(this.entitiesByName, previousName, entity);
+    }
+
+    if (entity.getName() != null && !entity.getName().isEmpty()) {
+      this.entitiesByName.computeIfAbsent(entity.getName(), n -> new CopyOnWriteArrayList<>()).add(entity);
+    }
+  }
+
   private String render(Graphics2D g, RenderType renderType) {
     long renderStart = System.nanoTime();
 
@@ -1065,7 +1214,7 @@ public class Environment implements IEnvironment {
     }
 
     // 3. Render entities
-    Game.getRenderEngine().renderEntities(g, this.entities.get(renderType).values(), renderType == RenderType.NORMAL);
+    this.renderEntities(g, renderType);
 
     // 4. fire event
     this.fireRenderEvent(g, renderType);
@@ -1122,6 +1271,12 @@ public class Environment implements IEnvironment {
     // 2. register for update or activate
     this.loadUpdatableOrEmitterEntity(entity);
 
+    // collision triggers are updated by the overlap manager, which only needs the loop once there is such a trigger
+    if (!this.triggerOverlapManagerAttached && entity instanceof Trigger && ((Trigger) entity).getActivationType() == TriggerActivation.COLLISION) {
+      Game.getLoop().attach(this.triggerOverlapManager);
+      this.triggerOverlapManagerAttached = true;
+    }
+
     // 3. attach all controllers
     entity.attachControllers();
 
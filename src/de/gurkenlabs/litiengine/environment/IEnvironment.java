@@ -4,6 +4,7 @@ import java.awt.Shape;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import de.gurkenlabs.litiengine.IInitializable;
@@ -71,6 +72,35 @@ public interface IEnvironment extends IInitializable, IRenderable {
 
   public List<IEntity> findEntities(Shape shape);
 
+  /**
+   * Passes all combat entities whose hitBox intersects the specified shape to
+   * the specified visitor. Other than
+   * {@link #findCombatEntities(Shape, Predicate)}, this doesn't collect the
+   * found entities in a list.
+   * 
+   * @param shape
+   *          The shape to check intersection for.
+   * @param condition
+   *          An additional condition that allows to specify a condition which
+   *          determines if a {@link ICombatEntity} should be considered.
+   * @param visitor
+   *          The visitor that is called for every found combat entity.
+   */
+  public void visitCombatEntities(Shape shape, Predicate<ICombatEntity> condition, Consumer<ICombatEntity> visitor);
+
+  /**
+   * Passes all entities whose bounding box intersects the specified shape to the
+   * specified visitor without collecting them in a list.
+   * 
+   * @param shape
+   *          The shape to check intersection for.
+   * @param visitor
+   *          The visitor that is called for every found entity.
+   * 
+   * @see #findEntities(Shape)
+   */
+  public void visitEntities(Shape shape, Consumer<IEntity> visitor);
+
   public IEntity get(final int mapId);
 
   public List<IEntity> get(final int... mapIds);
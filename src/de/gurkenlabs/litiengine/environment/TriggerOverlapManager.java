@@ -0,0 +1,327 @@
+package de.gurkenlabs.litiengine.environment;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.UpdatePhase;
+import de.gurkenlabs.litiengine.entities.ICollisionEntity;
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.entities.Trigger;
+import de.gurkenlabs.litiengine.entities.Trigger.TriggerActivation;
+
+/**
+ * Detects which collision entities enter or leave the triggers of an environment that are activated by
+ * {@link TriggerActivation#COLLISION}.
+ * <p>
+ * The overlaps of all collision triggers are determined at once per tick by a sweep along the x-axis over the collision
+ * boxes of the triggers and the entities of the physics engine. For every trigger, the entities that are located
+ * within it are kept along with the tick in which they entered it and the last tick in which they were found within it.
+ * Entities that entered the trigger with the current tick are passed to {@link Trigger#activate(IEntity)} and entities
+ * that weren't found again are passed to {@link Trigger#deactivate(IEntity)}.
+ * </p>
+ * <p>
+ * The items of the sweep are reused across ticks, so apart from the entities that enter a trigger, no objects are
+ * created once the buffers have grown to the number of triggers and entities.
+ * </p>
+ */
+public final class TriggerOverlapManager implements IUpdateable {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final Comparator<Item> BY_MIN_X = (a, b) -> Double.compare(a.minX, b.minX);
+
+  private final IEnvironment environment;
+
+  // the entities within each trigger; only modified by the update, but read and cleared from other threads
+  private final Map<Trigger, Occupancy> occupants;
+
+  private Item[] triggerItems;
+  private int triggerCount;
+  private Item[] entityItems;
+  private int entityCount;
+
+  private Item[] activeTriggers;
+  private Item[] activeEntities;
+
+  private long tick;
+
+  public TriggerOverlapManager(final IEnvironment environment) {
+    this.environment = environment;
+    this.occupants = new ConcurrentHashMap<>();
+    this.triggerItems = createItems(INITIAL_CAPACITY);
+    this.entityItems = createItems(INITIAL_CAPACITY);
+    this.activeTriggers = new Item[INITIAL_CAPACITY];
+    this.activeEntities = new Item[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Forgets all entities that are currently located within the triggers without sending any deactivation events.
+   */
+  public void clear() {
+    this.occupants.clear();
+  }
+
+  /**
+   * Gets the entities that were located within the specified trigger on the last update.
+   *
+   * @param trigger
+   *          The trigger.
+   * @return The entities within the trigger.
+   */
+  public Collection<IEntity> getOccupants(final Trigger trigger) {
+    final Occupancy occupancy = this.occupants.get(trigger);
+    if (occupancy == null) {
+      return Collections.emptyList();
+    }
+
+    return Collections.unmodifiableCollection(new ArrayList<>(occupancy.entities.keySet()));
+  }
+
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.PHYSICS;
+  }
+
+  @Override
+  public void update() {
+    this.tick++;
+    for (final Trigger trigger : this.environment.getTriggers()) {
+      if (trigger.getActivationType() != TriggerActivation.COLLISION) {
+        continue;
+      }
+
+      Occupancy occupancy = this.occupants.get(trigger);
+      if (occupancy == null) {
+        occupancy = new Occupancy();
+        this.occupants.put(trigger, occupancy);
+      } else if (occupancy.tick == this.tick) {
+        // the trigger has already been added with this tick
+        continue;
+      }
+
+      occupancy.tick = this.tick;
+      this.triggerItems = ensureCapacity(this.triggerItems, this.triggerCount);
+      this.triggerItems[this.triggerCount++].set(trigger, occupancy);
+    }
+
+    if (this.triggerCount == 0) {
+      this.occupants.clear();
+      return;
+    }
+
+    for (final ICollisionEntity entity : Game.getPhysicsEngine().getCollisionEntities()) {
+      this.entityItems = ensureCapacity(this.entityItems, this.entityCount);
+      this.entityItems[this.entityCount++].set(entity, null);
+    }
+
+    this.sweep();
+
+    for (int i = 0; i < this.triggerCount; i++) {
+      final Trigger trigger = (Trigger) this.triggerItems[i].entity;
+      final Collection<Occupant> occupantsOfTrigger = this.triggerItems[i].occupancy.entities.values();
+      for (final Occupant occupant : occupantsOfTrigger) {
+        if (occupant.enteredTick == this.tick) {
+          trigger.activate(occupant.entity);
+        }
+      }
+
+      final Iterator<Occupant> iterator = occupantsOfTrigger.iterator();
+      while (iterator.hasNext()) {
+        final Occupant occupant = iterator.next();
+        if (occupant.tick != this.tick) {
+          iterator.remove();
+          trigger.deactivate(occupant.entity);
+        }
+      }
+    }
+
+    // forget the entities of triggers that were removed or changed their activation type
+    if (this.occupants.size() > this.triggerCount) {
+      final long currentTick = this.tick;
+      this.occupants.values().removeIf(occupancy -> occupancy.tick != currentTick);
+    }
+
+    // don't keep any references to the triggers and entities until the next tick
+    clearItems(this.triggerItems, this.triggerCount);
+    clearItems(this.entityItems, this.entityCount);
+    this.triggerCount = 0;
+    this.entityCount = 0;
+  }
+
+  /**
+   * Determines the entities within every trigger by sorting the triggers and the entities by the left edge of their
+   * collision boxes. While sweeping over both arrays, only the items whose horizontal extent contains the current edge
+   * are kept, so every trigger is only tested against the entities that share the same columns.
+   */
+  private void sweep() {
+    Arrays.sort(this.triggerItems, 0, this.triggerCount, BY_MIN_X);
+    Arrays.sort(this.entityItems, 0, this.entityCount, BY_MIN_X);
+    if (this.activeTriggers.length < this.triggerCount) {
+      this.activeTriggers = new Item[this.triggerItems.length];
+    }
+
+    if (this.activeEntities.length < this.entityCount) {
+      this.activeEntities = new Item[this.entityItems.length];
+    }
+
+    int activeTriggerCount = 0;
+    int activeEntityCount = 0;
+    int triggerIndex = 0;
+    int entityIndex = 0;
+    while (triggerIndex < this.triggerCount && entityIndex < this.entityCount) {
+      final Item triggerItem = this.triggerItems[triggerIndex];
+      final Item entityItem = this.entityItems[entityIndex];
+      if (triggerItem.minX <= entityItem.minX) {
+        activeEntityCount = removeInactive(this.activeEntities, activeEntityCount, triggerItem.minX);
+        for (int i = 0; i < activeEntityCount; i++) {
+          this.addOccupant(triggerItem, this.activeEntities[i]);
+        }
+
+        this.activeTriggers[activeTriggerCount++] = triggerItem;
+        triggerIndex++;
+      } else {
+        activeTriggerCount = removeInactive(this.activeTriggers, activeTriggerCount, entityItem.minX);
+        for (int i = 0; i < activeTriggerCount; i++) {
+          this.addOccupant(this.activeTriggers[i], entityItem);
+        }
+
+        this.activeEntities[activeEntityCount++] = entityItem;
+        entityIndex++;
+      }
+    }
+
+    // the remaining triggers can still overlap entities that started before them
+    for (; triggerIndex < this.triggerCount; triggerIndex++) {
+      final Item triggerItem = this.triggerItems[triggerIndex];
+      activeEntityCount = removeInactive(this.activeEntities, activeEntityCount, triggerItem.minX);
+      for (int i = 0; i < activeEntityCount; i++) {
+        this.addOccupant(triggerItem, this.activeEntities[i]);
+      }
+    }
+
+    // and the remaining entities can still overlap triggers that started before them
+    for (; entityIndex < this.entityCount; entityIndex++) {
+      final Item entityItem = this.entityItems[entityIndex];
+      activeTriggerCount = removeInactive(this.activeTriggers, activeTriggerCount, entityItem.minX);
+      for (int i = 0; i < activeTriggerCount; i++) {
+        this.addOccupant(this.activeTriggers[i], entityItem);
+      }
+    }
+
+    Arrays.fill(this.activeTriggers, 0, activeTriggerCount, null);
+    Arrays.fill(this.activeEntities, 0, activeEntityCount, null);
+  }
+
+  private void addOccupant(final Item triggerItem, final Item entityItem) {
+    final Trigger trigger = (Trigger) triggerItem.entity;
+    if (!trigger.getActivators().isEmpty() && !trigger.getActivators().contains(entityItem.entity.getMapId())) {
+      return;
+    }
+
+    if (!entityItem.bounds.intersects(triggerItem.bounds)) {
+      return;
+    }
+
+    final Occupant occupant = triggerItem.occupancy.entities.get(entityItem.entity);
+    if (occupant != null) {
+      occupant.tick = this.tick;
+    } else {
+      triggerItem.occupancy.entities.put(entityItem.entity, new Occupant(entityItem.entity, this.tick));
+    }
+  }
+
+  /**
+   * Removes the items that end before the specified edge from the active items.
+   *
+   * @return The number of remaining active items.
+   */
+  private static int removeInactive(final Item[] active, final int count, final double minX) {
+    // the order of the active items doesn't matter, so the last item replaces removed ones
+    int remaining = count;
+    for (int i = count - 1; i >= 0; i--) {
+      if (active[i].maxX <= minX) {
+        active[i] = active[--remaining];
+        active[remaining] = null;
+      }
+    }
+
+    return remaining;
+  }
+
+  private static Item[] createItems(final int capacity) {
+    final Item[] items = new Item[capacity];
+    for (int i = 0; i < capacity; i++) {
+      items[i] = new Item();
+    }
+
+    return items;
+  }
+
+  private static Item[] ensureCapacity(final Item[] items, final int count) {
+    if (count < items.length) {
+      return items;
+    }
+
+    final Item[] grown = Arrays.copyOf(items, count * 2);
+    for (int i = count; i < grown.length; i++) {
+      grown[i] = new Item();
+    }
+
+    return grown;
+  }
+
+  private static void clearItems(final Item[] items, final int count) {
+    for (int i = 0; i < count; i++) {
+      items[i].set(null, null);
+    }
+  }
+
+  /**
+   * The collision box of a trigger or an entity during a single sweep. Items are reused for another trigger or entity on
+   * every tick.
+   */
+  private static final class Item {
+    private IEntity entity;
+    private Occupancy occupancy;
+    private Rectangle2D bounds;
+    private double minX;
+    private double maxX;
+
+    private void set(final ICollisionEntity collisionEntity, final Occupancy entityOccupancy) {
+      this.entity = collisionEntity;
+      this.occupancy = entityOccupancy;
+      this.bounds = collisionEntity != null ? collisionEntity.getCollisionBox() : null;
+      if (this.bounds != null) {
+        this.minX = this.bounds.getMinX();
+        this.maxX = this.bounds.getMaxX();
+      }
+    }
+  }
+
+  /**
+   * The entities within a trigger and the last tick in which the trigger was updated.
+   */
+  private static final class Occupancy {
+    private final Map<IEntity, Occupant> entities = new ConcurrentHashMap<>();
+    private long tick;
+  }
+
+  private static final class Occupant {
+    private final IEntity entity;
+    private final long enteredTick;
+    private long tick;
+
+    private Occupant(final IEntity entity, final long tick) {
+      this.entity = entity;
+      this.enteredTick = tick;
+      this.tick = tick;
+    }
+  }
+}
@@ -8,6 +8,11 @@ import java.awt.Point;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.graphics.ImageCache;
@@ -17,13 +22,46 @@ import de.gurkenlabs.litiengine.graphics.Spritesheet;
 import de.gurkenlabs.litiengine.util.ImageProcessing;
 import de.gurkenlabs.litiengine.util.MathUtilities;
 
+/**
+ * Renders orthogonal maps. Within a viewport, the tile layers are rendered from chunks of {@link #CHUNK_SIZE} x
+ * {@link #CHUNK_SIZE} tiles that are pre-rendered once and kept in a least recently used cache. Only the animated tiles
+ * of a chunk are rendered again when their animation frame changes. Changes to the tiles of a map therefore require an
+ * explicit {@link #invalidate(IMap)}.
+ * <p>
+ * The cache is bounded by the memory of the chunk images, which is estimated as <code>width * height * 4</code> bytes
+ * because they are compatible images with 32 bits per pixel. The same number of chunks takes up 16 times the memory
+ * with 64x64 pixel tiles than with 16x16 pixel tiles.
+ * </p>
+ */
 public class OrthogonalMapRenderer implements IMapRenderer {
+  /**
+   * The number of tiles in each direction that are pre-rendered into a single chunk image.
+   */
+  public static final int CHUNK_SIZE = 16;
+
+  /**
+   * The default memory in bytes of the chunk images that are cached by a renderer. This is enough for 64 chunks of
+   * 32x32 pixel tiles.
+   */
+  public static final long DEFAULT_MAX_CACHED_BYTES = 64L * 1024 * 1024;
+
+  private static final int BYTES_PER_PIXEL = 4;
+
+  private final Map<ChunkKey, Chunk> chunks;
+  private long cachedBytes;
+  private long maxCachedBytes;
+
+  public OrthogonalMapRenderer() {
+    this.maxCachedBytes = DEFAULT_MAX_CACHED_BYTES;
+    this.chunks = new LinkedHashMap<>(16, 0.75f, true);
+  }
 
   @Override
   public BufferedImage getImage(IMap map, RenderType... renderTypes) {
     final String cacheKey = getCacheKey(map) + "_" + renderTypes;
-    if (ImageCache.MAPS.containsKey(cacheKey)) {
-      return ImageCache.MAPS.get(cacheKey);
+    final BufferedImage cached = ImageCache.MAPS.get(cacheKey);
+    if (cached != null) {
+      return cached;
     }
 
     final BufferedImage img = ImageProcessing.getCompatibleImage((int) map.getSizeInPixels().getWidth(), (int) map.getSizeInPixels().getHeight());
@@ -43,11 +81,46 @@ public class OrthogonalMapRenderer implements IMapRenderer {
     return img;
   }
 
+  /**
+   * Gets the estimated memory of the chunk images that are currently cached by this instance.
+   *
+   * @return the memory in bytes
+   */
+  public synchronized long getCachedBytes() {
+    return this.cachedBytes;
+  }
+
+  public long getMaxCachedBytes() {
+    return this.maxCachedBytes;
+  }
+
   @Override
   public MapOrientation getSupportedOrientation() {
     return MapOrientation.ORTHOGONAL;
   }
 
+  /**
+   * Removes all cached chunks of the tile layers of the specified map and the cached layer and map images of
+   * {@link ImageCache#MAPS}.
+   *
+   * @param map
+   *          the map
+   */
+  public synchronized void invalidate(final IMap map) {
+    TileTable.invalidate(map);
+    ImageCache.MAPS.clearPrefix(getCacheKey(map) + "_");
+    final List<ITileLayer> layers = map.getTileLayers();
+    this.chunks.entrySet().removeIf(entry -> {
+      if (!layers.contains(entry.getKey().layer)) {
+        return false;
+      }
+
+      entry.getValue().image.flush();
+      this.cachedBytes -= entry.getValue().bytes;
+      return true;
+    });
+  }
+
   @Override
   public void render(final Graphics2D g, final IMap map, RenderType... renderTypes) {
     this.render(g, map, 0, 0, renderTypes);
@@ -76,6 +149,22 @@ public class OrthogonalMapRenderer implements IMapRenderer {
     }
   }
 
+  /**
+   * Sets the maximum memory of the chunk images that are cached by this instance. Layers of which the visible chunks
+   * take up more memory are rendered tile by tile, so a capacity of 0 disables the chunks.
+   *
+   * @param maxCachedBytes
+   *          the maximum memory of the cached chunks in bytes
+   */
+  public synchronized void setMaxCachedBytes(final long maxCachedBytes) {
+    if (maxCachedBytes < 0) {
+      throw new IllegalArgumentException("The capacity must not be negative: " + maxCachedBytes);
+    }
+
+    this.maxCachedBytes = maxCachedBytes;
+    this.evict();
+  }
+
   private static boolean shouldBeRendered(ILayer layer, RenderType[] renderTypes) {
     if (renderTypes == null || renderTypes.length == 0) {
       return isVisible(layer);
@@ -110,57 +199,50 @@ public class OrthogonalMapRenderer implements IMapRenderer {
       return null;
     }
 
-    final ITileset tileset = MapUtilities.findTileSet(map, tile);
-    if (tileset == null || tileset.getFirstGridId() > tile.getGridId()) {
+    final TileTable tileTable = TileTable.get(map);
+    final ITileset tileset = tileTable.getTileset(tile.getGridId());
+    if (tileset == null) {
       return null;
     }
 
-    Spritesheet sprite = tileset.getSpritesheet();
-    if (sprite == null) {
-      return null;
-    }
-
-    // get the grid id relative to the sprite sheet since we use a 0 based
-    // approach to calculate the position
-    int index = tile.getGridId() - tileset.getFirstGridId();
-
     // support for animated tiles
-    final ITileAnimation animation = MapUtilities.getAnimation(map, index);
-    if (animation != null && !animation.getFrames().isEmpty()) {
-      final long playedMs = Game.getTime().sinceGameStart();
-
-      final int totalDuration = animation.getTotalDuration();
-      final long animationsPlayed = playedMs / totalDuration;
-
-      final long deltaTicks = playedMs - animationsPlayed * totalDuration;
-      int currentPlayTime = 0;
-      for (final ITileAnimationFrame frame : animation.getFrames()) {
-        currentPlayTime += frame.getDuration();
-        if (deltaTicks < currentPlayTime) {
-          // found the current animation frame
-          index = frame.getTileId();
-          break;
-        }
-      }
+    final ITileAnimation animation = tileTable.getAnimation(tile.getGridId());
+    if (animation != null) {
+      final int index = tile.getGridId() - tileset.getFirstGridId();
+      return tileTable.getImage(tile, tileset.getFirstGridId() + getCurrentFrame(animation, index));
     }
 
-    BufferedImage tileImage = sprite.getSprite(index);
-    if (tile.isFlipped()) {
-      if (tile.isFlippedDiagonally()) {
-        tileImage = ImageProcessing.rotate(tileImage, Math.toRadians(90));
-        tileImage = ImageProcessing.verticalFlip(tileImage);
-      }
+    return tileTable.getImage(tile, tile.getGridId());
+  }
 
-      if (tile.isFlippedHorizontally()) {
-        tileImage = ImageProcessing.horizontalFlip(tileImage);
-      }
+  /**
+   * Gets the index of the sprite that is currently displayed by the specified animation.
+   *
+   * @param animation
+   *          the animation
+   * @param index
+   *          the sprite index of the animated tile
+   * @return the sprite index of the current animation frame
+   */
+  private static int getCurrentFrame(final ITileAnimation animation, final int index) {
+    final long playedMs = Game.getTime().sinceGameStart();
+
+    final int totalDuration = animation.getTotalDuration();
+    if (totalDuration <= 0) {
+      return index;
+    }
 
-      if (tile.isFlippedVertically()) {
-        tileImage = ImageProcessing.verticalFlip(tileImage);
+    final long deltaTicks = playedMs % totalDuration;
+    int currentPlayTime = 0;
+    for (final ITileAnimationFrame frame : animation.getFrames()) {
+      currentPlayTime += frame.getDuration();
+      if (deltaTicks < currentPlayTime) {
+        // found the current animation frame
+        return frame.getTileId();
       }
     }
 
-    return tileImage;
+    return index;
   }
 
   /**
@@ -176,8 +258,9 @@ public class OrthogonalMapRenderer implements IMapRenderer {
     // if we have already retrived the image, use the one from the cache to
     // draw the layer
     final String cacheKey = getCacheKey(map) + "_" + layer.getName();
-    if (ImageCache.MAPS.containsKey(cacheKey)) {
-      return ImageCache.MAPS.get(cacheKey);
+    final BufferedImage cached = ImageCache.MAPS.get(cacheKey);
+    if (cached != null) {
+      return cached;
     }
     final BufferedImage bufferedImage = ImageProcessing.getCompatibleImage(layer.getSizeInTiles().width * map.getTileSize().width, layer.getSizeInTiles().height * map.getTileSize().height);
 
@@ -195,7 +278,7 @@ public class OrthogonalMapRenderer implements IMapRenderer {
         return;
       }
 
-      if (!includeAnimationTiles && MapUtilities.hasAnimation(map, tile)) {
+      if (!includeAnimationTiles && TileTable.get(map).getAnimation(tile.getGridId()) != null) {
         return;
       }
 
@@ -223,6 +306,163 @@ public class OrthogonalMapRenderer implements IMapRenderer {
    * @param viewport
    */
   private void renderTileLayerImage(final Graphics2D g, final ITileLayer layer, final IMap map, final Rectangle2D viewport) {
+    if (!this.renderChunks(g, layer, map, viewport)) {
+      this.renderTiles(g, layer, map, viewport);
+    }
+  }
+
+  /**
+   * Renders the chunks of the specified layer that intersect the viewport.
+   *
+   * @return False if the layer cannot be rendered from chunks, either because its tiles are larger than the tiles of the
+   *         map and would overlap adjacent chunks or because there are more visible chunks than can be cached.
+   */
+  private synchronized boolean renderChunks(final Graphics2D g, final ITileLayer layer, final IMap map, final Rectangle2D viewport) {
+    for (final ITileset tileset : map.getTilesets()) {
+      if (tileset.getTileWidth() > map.getTileSize().width || tileset.getTileHeight() > map.getTileSize().height) {
+        return false;
+      }
+    }
+
+    final int chunkWidth = CHUNK_SIZE * map.getTileSize().width;
+    final int chunkHeight = CHUNK_SIZE * map.getTileSize().height;
+    final int columns = (layer.getSizeInTiles().width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    final int rows = (layer.getSizeInTiles().height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+    final double x = viewport.getX() - layer.getPosition().x;
+    final double y = viewport.getY() - layer.getPosition().y;
+    final int startX = Math.max(0, (int) Math.floor(x / chunkWidth));
+    final int startY = Math.max(0, (int) Math.floor(y / chunkHeight));
+    final int endX = Math.min(columns - 1, (int) Math.floor((x + viewport.getWidth()) / chunkWidth));
+    final int endY = Math.min(rows - 1, (int) Math.floor((y + viewport.getHeight()) / chunkHeight));
+    if (startX > endX || startY > endY) {
+      return true;
+    }
+
+    // chunks that are evicted while the same frame is rendered would have to be rendered again on every frame
+    if ((long) (endX - startX + 1) * (endY - startY + 1) * chunkWidth * chunkHeight * BYTES_PER_PIXEL > this.maxCachedBytes) {
+      return false;
+    }
+
+    // set alpha value of the tiles by the layers value
+    final Composite oldComp = g.getComposite();
+    final AlphaComposite ac = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, layer.getOpacity());
+    g.setComposite(ac);
+
+    for (int chunkX = startX; chunkX <= endX; chunkX++) {
+      for (int chunkY = startY; chunkY <= endY; chunkY++) {
+        final Chunk chunk = this.getChunk(layer, map, chunkX, chunkY);
+        RenderEngine.renderImage(g, chunk.image, chunkX * chunkWidth - x, chunkY * chunkHeight - y);
+      }
+    }
+
+    g.setComposite(oldComp);
+    return true;
+  }
+
+  private Chunk getChunk(final ITileLayer layer, final IMap map, final int chunkX, final int chunkY) {
+    final ChunkKey key = new ChunkKey(layer, chunkX, chunkY);
+    Chunk chunk = this.chunks.get(key);
+    if (chunk == null) {
+      final int width = Math.min(CHUNK_SIZE, layer.getSizeInTiles().width - chunkX * CHUNK_SIZE) * map.getTileSize().width;
+      final int height = Math.min(CHUNK_SIZE, layer.getSizeInTiles().height - chunkY * CHUNK_SIZE) * map.getTileSize().height;
+      chunk = new Chunk(ImageProcessing.getCompatibleImage(width, height), (long) width * height * BYTES_PER_PIXEL);
+      bake(chunk, layer, map, chunkX, chunkY);
+      this.chunks.put(key, chunk);
+      this.cachedBytes += chunk.bytes;
+      this.evict();
+    } else {
+      updateAnimatedTiles(chunk, map);
+    }
+
+    return chunk;
+  }
+
+  /**
+   * Removes the least recently used chunks until the cached chunks fit into the capacity.
+   */
+  private void evict() {
+    final Iterator<Chunk> iterator = this.chunks.values().iterator();
+    while (this.cachedBytes > this.maxCachedBytes && iterator.hasNext()) {
+      final Chunk chunk = iterator.next();
+      chunk.image.flush();
+      this.cachedBytes -= chunk.bytes;
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Renders all tiles of the specified chunk into its image.
+   */
+  private static void bake(final Chunk chunk, final ITileLayer layer, final IMap map, final int chunkX, final int chunkY) {
+    final int tileWidth = map.getTileSize().width;
+    final int tileHeight = map.getTileSize().height;
+    final TileTable tileTable = TileTable.get(map);
+    final List<AnimatedTile> animatedTiles = new ArrayList<>();
+
+    final Graphics2D g = chunk.image.createGraphics();
+    for (int x = 0; x < CHUNK_SIZE; x++) {
+      for (int y = 0; y < CHUNK_SIZE; y++) {
+        final ITile tile = layer.getTile(chunkX * CHUNK_SIZE + x, chunkY * CHUNK_SIZE + y);
+        if (tile == null || tile.getGridId() == 0) {
+          continue;
+        }
+
+        final ITileset tileset = tileTable.getTileset(tile.getGridId());
+        if (tileset == null) {
+          continue;
+        }
+
+        int index = tile.getGridId() - tileset.getFirstGridId();
+        final ITileAnimation animation = tileTable.getAnimation(tile.getGridId());
+        if (animation != null) {
+          final AnimatedTile animatedTile = new AnimatedTile(tile, tileset, animation, index, x * tileWidth, y * tileHeight);
+          animatedTile.frame = getCurrentFrame(animation, index);
+          animatedTiles.add(animatedTile);
+          index = animatedTile.frame;
+        }
+
+        RenderEngine.renderImage(g, tileTable.getImage(tile, tileset.getFirstGridId() + index), x * tileWidth, y * tileHeight);
+      }
+    }
+
+    g.dispose();
+    chunk.animatedTiles = animatedTiles.toArray(new AnimatedTile[animatedTiles.size()]);
+  }
+
+  /**
+   * Renders the animated tiles of the specified chunk whose animation frame has changed since they were rendered last.
+   */
+  private static void updateAnimatedTiles(final Chunk chunk, final IMap map) {
+    if (chunk.animatedTiles.length == 0) {
+      return;
+    }
+
+    final TileTable tileTable = TileTable.get(map);
+    Graphics2D g = null;
+    for (final AnimatedTile tile : chunk.animatedTiles) {
+      final int frame = getCurrentFrame(tile.animation, tile.index);
+      if (frame == tile.frame) {
+        continue;
+      }
+
+      if (g == null) {
+        g = chunk.image.createGraphics();
+      }
+
+      g.setComposite(AlphaComposite.Clear);
+      g.fillRect(tile.x, tile.y, map.getTileSize().width, map.getTileSize().height);
+      g.setComposite(AlphaComposite.SrcOver);
+      RenderEngine.renderImage(g, tileTable.getImage(tile.tile, tile.tileset.getFirstGridId() + frame), tile.x, tile.y);
+      tile.frame = frame;
+    }
+
+    if (g != null) {
+      g.dispose();
+    }
+  }
+
+  private void renderTiles(final Graphics2D g, final ITileLayer layer, final IMap map, final Rectangle2D viewport) {
     final Point startTile = MapUtilities.getTile(map, new Point2D.Double(viewport.getX(), viewport.getY()));
     final Point endTile = MapUtilities.getTile(map, new Point2D.Double(viewport.getMaxX(), viewport.getMaxY()));
     final double viewportOffsetX = -(viewport.getX() - startTile.x * map.getTileSize().width) + layer.getPosition().x;
@@ -272,4 +512,62 @@ public class OrthogonalMapRenderer implements IMapRenderer {
     RenderEngine.renderImage(g, sprite.getImage(), viewportOffsetX, viewportOffsetY);
     g.setComposite(oldComp);
   }
+
+  private static final class ChunkKey {
+    private final ITileLayer layer;
+    private final int x;
+    private final int y;
+
+    private ChunkKey(final ITileLayer layer, final int x, final int y) {
+      this.layer = layer;
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof ChunkKey)) {
+        return false;
+      }
+
+      final ChunkKey other = (ChunkKey) obj;
+      return this.layer == other.layer && this.x == other.x && this.y == other.y;
+    }
+
+    @Override
+    public int hashCode() {
+      return (System.identityHashCode(this.layer) * 31 + this.x) * 31 + this.y;
+    }
+  }
+
+  private static final class Chunk {
+    private final BufferedImage image;
+    private final long bytes;
+    private AnimatedTile[] animatedTiles;
+
+    private Chunk(final BufferedImage image, final long bytes) {
+      this.image = image;
+      this.bytes = bytes;
+      this.animatedTiles = new AnimatedTile[0];
+    }
+  }
+
+  private static final class AnimatedTile {
+    private final ITile tile;
+    private final ITileset tileset;
+    private final ITileAnimation animation;
+    private final int index;
+    private final int x;
+    private final int y;
+    private int frame;
+
+    private AnimatedTile(final ITile tile, final ITileset tileset, final ITileAnimation animation, final int index, final int x, final int y) {
+      this.tile = tile;
+      this.tileset = tileset;
+      this.animation = animation;
+      this.index = index;
+      this.x = x;
+      this.y = y;
+    }
+  }
 }
\ No newline at end of file
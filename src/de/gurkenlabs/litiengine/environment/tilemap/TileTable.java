@@ -0,0 +1,248 @@
+package de.gurkenlabs.litiengine.environment.tilemap;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.gurkenlabs.litiengine.graphics.ImageCache;
+import de.gurkenlabs.litiengine.graphics.Spritesheet;
+import de.gurkenlabs.litiengine.util.ImageProcessing;
+
+/**
+ * Resolves the grid ids of the tiles of a map to their tileset, their animation and their sprite images. The tilesets
+ * and animations of all grid ids are looked up once when the table is created, so that rendering a tile doesn't need to
+ * search the tilesets of the map. The sprites of flipped tiles are created on first use and then cached in
+ * {@link ImageCache#SPRITES} for every combination of flip flags. The table only keeps their cache keys, so that the
+ * sprites are subject to the capacity of the cache.
+ * <p>
+ * A table is bound to the list of tilesets it was created from. {@link #get(IMap)} creates a new table as soon as the
+ * map provides another list of tilesets. Changes to the tilesets themselves require an explicit
+ * {@link #invalidate(IMap)}.
+ * </p>
+ */
+public final class TileTable {
+  private static final int FLIPPED_HORIZONTALLY = 1;
+  private static final int FLIPPED_VERTICALLY = 2;
+  private static final int FLIPPED_DIAGONALLY = 4;
+  private static final int FLIP_COMBINATIONS = 8;
+
+  private static final Map<IMap, TileTable> tables = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final List<ITileset> tilesets;
+  private final ITileset[] tilesetsByGridId;
+  private final ITileAnimation[] animationsByGridId;
+  private final AtomicReferenceArray<AtomicReferenceArray<String>> flippedImageKeys;
+
+  private TileTable(final List<ITileset> tilesets) {
+    this.tilesets = tilesets;
+
+    int maxGridId = 0;
+    for (final ITileset tileset : tilesets) {
+      maxGridId = Math.max(maxGridId, tileset.getFirstGridId() + tileset.getTilecount() - 1);
+    }
+
+    this.tilesetsByGridId = new ITileset[maxGridId + 1];
+    this.animationsByGridId = new ITileAnimation[maxGridId + 1];
+    for (int gridId = 1; gridId <= maxGridId; gridId++) {
+      final ITileset tileset = findTileset(tilesets, gridId);
+      if (tileset == null) {
+        continue;
+      }
+
+      this.tilesetsByGridId[gridId] = tileset;
+      final ITileAnimation animation = tileset.getAnimation(gridId - tileset.getFirstGridId());
+      if (animation != null && !animation.getFrames().isEmpty()) {
+        this.animationsByGridId[gridId] = animation;
+      }
+    }
+
+    this.flippedImageKeys = new AtomicReferenceArray<>(FLIP_COMBINATIONS);
+  }
+
+  /**
+   * Gets the tile table of the specified map. The table is created when it is requested for the first time or when the
+   * tilesets of the map have changed since.
+   *
+   * @param map
+   *          the map
+   * @return the tile table of the map
+   */
+  public static TileTable get(final IMap map) {
+    final List<ITileset> tilesets = map.getTilesets() != null ? map.getTilesets() : Collections.<ITileset> emptyList();
+    TileTable table = tables.get(map);
+    if (table == null || table.tilesets != tilesets) {
+      table = new TileTable(tilesets);
+      tables.put(map, table);
+    }
+
+    return table;
+  }
+
+  /**
+   * Removes the tile table of the specified map, so that it is created again the next time it is requested. This needs
+   * to be called whenever a tileset of the map is changed.
+   *
+   * @param map
+   *          the map
+   */
+  public static void invalidate(final IMap map) {
+    tables.remove(map);
+  }
+
+  /**
+   * Gets the animation of the tile with the specified grid id.
+   *
+   * @param gridId
+   *          the grid id
+   * @return the animation or null if the tile is not animated
+   */
+  public ITileAnimation getAnimation(final int gridId) {
+    if (gridId > 0 && gridId < this.animationsByGridId.length) {
+      return this.animationsByGridId[gridId];
+    }
+
+    final ITileset tileset = this.getTileset(gridId);
+    if (tileset == null) {
+      return null;
+    }
+
+    final ITileAnimation animation = tileset.getAnimation(gridId - tileset.getFirstGridId());
+    return animation != null && !animation.getFrames().isEmpty() ? animation : null;
+  }
+
+  /**
+   * Gets the sprite of the specified tile with the tile's flip flags applied. If the tile is animated, this is the
+   * sprite of the animation frame with the specified grid id.
+   *
+   * @param tile
+   *          the tile whose flip flags are applied to the sprite
+   * @param gridId
+   *          the grid id of the sprite
+   * @return the sprite or null if the grid id doesn't belong to any tileset or the sprite is empty
+   */
+  public BufferedImage getImage(final ITile tile, final int gridId) {
+    final ITileset tileset = this.getTileset(gridId);
+    if (tileset == null) {
+      return null;
+    }
+
+    // sprites that aren't flipped are held by their spritesheet anyways
+    final int flags = getFlags(tile);
+    if (flags == 0 || tileset.getSpritesheet() == null) {
+      return createImage(tileset, gridId, flags);
+    }
+
+    final String key = this.getFlippedImageKey(tileset, gridId, flags);
+    BufferedImage image = ImageCache.SPRITES.get(key);
+    if (image == null) {
+      image = createImage(tileset, gridId, flags);
+      if (image != null) {
+        ImageCache.SPRITES.put(key, image);
+      }
+    }
+
+    return image;
+  }
+
+  /**
+   * Gets the tileset that contains the tile with the specified grid id.
+   *
+   * @param gridId
+   *          the grid id
+   * @return the tileset or null if no tileset of the map contains the grid id
+   */
+  public ITileset getTileset(final int gridId) {
+    if (gridId > 0 && gridId < this.tilesetsByGridId.length) {
+      return this.tilesetsByGridId[gridId];
+    }
+
+    return findTileset(this.tilesets, gridId);
+  }
+
+  private String getFlippedImageKey(final ITileset tileset, final int gridId, final int flags) {
+    if (gridId >= this.tilesetsByGridId.length) {
+      return createFlippedImageKey(tileset, gridId, flags);
+    }
+
+    AtomicReferenceArray<String> keys = this.flippedImageKeys.get(flags);
+    if (keys == null) {
+      this.flippedImageKeys.compareAndSet(flags, null, new AtomicReferenceArray<>(this.tilesetsByGridId.length));
+      keys = this.flippedImageKeys.get(flags);
+    }
+
+    String key = keys.get(gridId);
+    if (key == null) {
+      key = createFlippedImageKey(tileset, gridId, flags);
+      keys.set(gridId, key);
+    }
+
+    return key;
+  }
+
+  private static String createFlippedImageKey(final ITileset tileset, final int gridId, final int flags) {
+    return "tile-" + tileset.getSpritesheet().getName() + "-" + (gridId - tileset.getFirstGridId()) + "-flipped" + flags;
+  }
+
+  private static ITileset findTileset(final List<ITileset> tilesets, final int gridId) {
+    for (final ITileset tileset : tilesets) {
+      if (tileset.containsTile(gridId)) {
+        return tileset.getFirstGridId() > gridId ? null : tileset;
+      }
+    }
+
+    return null;
+  }
+
+  private static int getFlags(final ITile tile) {
+    if (tile == null || !tile.isFlipped()) {
+      return 0;
+    }
+
+    int flags = 0;
+    if (tile.isFlippedHorizontally()) {
+      flags |= FLIPPED_HORIZONTALLY;
+    }
+
+    if (tile.isFlippedVertically()) {
+      flags |= FLIPPED_VERTICALLY;
+    }
+
+    if (tile.isFlippedDiagonally()) {
+      flags |= FLIPPED_DIAGONALLY;
+    }
+
+    return flags;
+  }
+
+  private static BufferedImage createImage(final ITileset tileset, final int gridId, final int flags) {
+    final Spritesheet sprite = tileset.getSpritesheet();
+    if (sprite == null) {
+      return null;
+    }
+
+    // get the grid id relative to the sprite sheet since we use a 0 based
+    // approach to calculate the position
+    BufferedImage tileImage = sprite.getSprite(gridId - tileset.getFirstGridId());
+    if (tileImage == null || flags == 0) {
+      return tileImage;
+    }
+
+    if ((flags & FLIPPED_DIAGONALLY) != 0) {
+      tileImage = ImageProcessing.rotate(tileImage, Math.toRadians(90));
+      tileImage = ImageProcessing.verticalFlip(tileImage);
+    }
+
+    if ((flags & FLIPPED_HORIZONTALLY) != 0) {
+      tileImage = ImageProcessing.horizontalFlip(tileImage);
+    }
+
+    if ((flags & FLIPPED_VERTICALLY) != 0) {
+      tileImage = ImageProcessing.verticalFlip(tileImage);
+    }
+
+    return tileImage;
+  }
+}
@@ -7,100 +7,152 @@ import java.awt.MultipleGradientPaint.CycleMethod;
 import java.awt.Paint;
 import java.awt.RadialGradientPaint;
 import java.awt.Shape;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import de.gurkenlabs.litiengine.environment.IEnvironment;
 import de.gurkenlabs.litiengine.util.MathUtilities;
 import de.gurkenlabs.litiengine.util.geom.GeometricUtilities;
 import de.gurkenlabs.litiengine.util.geom.Vector2D;
 
+/**
+ * The ambient light darkens the map with its color and cuts out the light sources of the environment. The static
+ * shadows that overlap a light source are cut out of the light area, which requires rather expensive area operations.
+ * Therefore, the light area of every light source is cached until the light or one of its overlapping shadows is moved
+ * or resized.
+ */
 public class AmbientLight extends ColorLayer {
+  private final Map<LightSource, LightArea> lightAreas;
 
   public AmbientLight(final IEnvironment env, final Color ambientColor, final int ambientAlpha) {
     super(env, ambientColor, ambientAlpha);
+    this.lightAreas = Collections.synchronizedMap(new WeakHashMap<>());
   }
 
   @Override
   protected void renderSection(Graphics2D g, Rectangle2D section) {
     final Color colorWithAlpha = this.getColorWithAlpha();
 
-    // create large rectangle and crop lights from it
-    final double width = section.getWidth();
-    final double height = section.getHeight();
-
     final double mapWidth = this.getEnvironment().getMap().getSizeInPixels().width;
     final double mapHeight = this.getEnvironment().getMap().getSizeInPixels().height;
     double longerDimension = mapWidth;
     if (mapWidth < mapHeight) {
       longerDimension = mapHeight;
     }
-    final Area darkArea = new Area(new Rectangle2D.Double(0, 0, width, height));
 
+    // render in map coordinates, so that the cached light areas can be used as they are
+    g.translate(-section.getX(), -section.getY());
+
+    final List<LightSource> lights = new ArrayList<>();
     for (final LightSource light : this.getEnvironment().getLightSources()) {
       if (!light.getBoundingBox().intersects(section) || !light.isActive()) {
         continue;
       }
 
-      this.renderLightSource(g, light, longerDimension, section);
+      lights.add(light);
+      this.renderLightSource(g, light, longerDimension);
     }
 
+    // create large rectangle and crop lights from it
     g.setColor(colorWithAlpha);
     g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OUT, 1.0f));
-    g.fill(darkArea);
+    g.fill(section);
 
-    for (final LightSource light : this.getEnvironment().getLightSources()) {
-      if (!light.getBoundingBox().intersects(section) || !light.isActive() || light.getIntensity() <= 0) {
+    for (final LightSource light : lights) {
+      if (light.getIntensity() <= 0) {
         continue;
       }
 
       final float intensity = MathUtilities.clamp((float) light.getIntensity() / 255, 0, 1);
       g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, intensity));
-      this.renderLightSource(g, light, longerDimension, section);
+      this.renderLightSource(g, light, longerDimension);
     }
-  }
-
-  private void renderLightSource(final Graphics2D g, final LightSource light, final double longerDimension, Rectangle2D section) {
 
-    final Point2D lightCenter = light.getCenter();
-    final Point2D lightFocus = new Point2D.Double(lightCenter.getX() + light.getBoundingBox().getWidth() * light.getFocusOffsetX(), lightCenter.getY() + light.getBoundingBox().getHeight() * light.getFocusOffsetY());
-    Shape fillShape;
+    g.translate(section.getX(), section.getY());
+  }
 
-    Area lightArea = null;
+  private void renderLightSource(final Graphics2D g, final LightSource light, final double longerDimension) {
     if (light.getLightShapeType().equals(LightSource.RECTANGLE)) {
       g.setColor(new Color(light.getColor().getRed(), light.getColor().getGreen(), light.getColor().getBlue(), light.getColor().getAlpha()));
-      fillShape = new Rectangle2D.Double(light.getBoundingBox().getX() - section.getX(), light.getBoundingBox().getY() - section.getY(), light.getBoundingBox().getWidth(), light.getBoundingBox().getHeight());
-      g.fill(fillShape);
+      g.fill(light.getBoundingBox());
       return;
     }
 
-    // cut the light area where shadow Boxes are (this simulates light falling
-    // into and out of rooms)
+    final Paint oldPaint = g.getPaint();
+
+    // render parts that lie within the shadow with a gradient from the light
+    // color to transparent
+    final Shape lightShape = light.getLightShape();
+
+    final double radius = lightShape.getBounds2D().getWidth() > lightShape.getBounds2D().getHeight() ? lightShape.getBounds2D().getWidth() : lightShape.getBounds2D().getHeight();
+    final Color[] transColors = new Color[] { light.getColor(), new Color(light.getColor().getRed(), light.getColor().getGreen(), light.getColor().getBlue(), 0) };
+    final Point2D center = new Point2D.Double(lightShape.getBounds2D().getCenterX(), lightShape.getBounds2D().getCenterY());
+    final Point2D focus = new Point2D.Double(center.getX() + lightShape.getBounds2D().getWidth() * light.getFocusOffsetX(), center.getY() + lightShape.getBounds2D().getHeight() * light.getFocusOffsetY());
+    RadialGradientPaint paint = new RadialGradientPaint(
+        center,
+        (float) (radius / 2d),
+        focus,
+        new float[] { 0.0f, 1.00f },
+        transColors,
+        CycleMethod.NO_CYCLE);
+
+    g.setPaint(paint);
+    g.fill(this.getLightArea(light, longerDimension));
+    g.setPaint(oldPaint);
+  }
+
+  private Shape getLightArea(final LightSource light, final double longerDimension) {
+    final List<StaticShadow> shadows = new ArrayList<>();
+    final List<Rectangle2D> shadowBounds = new ArrayList<>();
     for (final StaticShadow col : this.getEnvironment().getStaticShadows()) {
-      if (!light.getBoundingBox().intersects(col.getBoundingBox())) {
-        continue;
+      final Rectangle2D bounds = col.getBoundingBox();
+      if (light.getBoundingBox().intersects(bounds)) {
+        shadows.add(col);
+        shadowBounds.add(bounds);
       }
+    }
 
-      if (lightArea == null) {
-        lightArea = new Area(light.getLightShape());
-      }
+    LightArea lightArea = this.lightAreas.get(light);
+    if (lightArea == null || !lightArea.isValid(light, shadows, shadowBounds)) {
+      lightArea = new LightArea(light, shadows, shadowBounds, createLightArea(light, shadowBounds, longerDimension));
+      this.lightAreas.put(light, lightArea);
+    }
+
+    return lightArea.shape;
+  }
+
+  private static Shape createLightArea(final LightSource light, final List<Rectangle2D> shadowBounds, final double longerDimension) {
+    if (shadowBounds.isEmpty()) {
+      return light.getBoundingBox();
+    }
+
+    final Point2D lightCenter = light.getCenter();
+    final Point2D lightFocus = new Point2D.Double(lightCenter.getX() + light.getBoundingBox().getWidth() * light.getFocusOffsetX(), lightCenter.getY() + light.getBoundingBox().getHeight() * light.getFocusOffsetY());
+    final Area lightArea = new Area(light.getLightShape());
 
-      if (!lightArea.intersects(col.getBoundingBox())) {
+    // cut the light area where shadow Boxes are (this simulates light falling
+    // into and out of rooms)
+    for (final Rectangle2D shadowBox : shadowBounds) {
+      if (!lightArea.intersects(shadowBox)) {
         continue;
       }
 
-      final Area boxInLight = new Area(col.getBoundingBox());
+      final Area boxInLight = new Area(shadowBox);
 
-      final Line2D[] bounds = GeometricUtilities.getLines(col.getBoundingBox());
+      final Line2D[] bounds = GeometricUtilities.getLines(shadowBox);
       for (final Line2D line : bounds) {
         final Vector2D lineVector = new Vector2D(line.getP1(), line.getP2());
         final Vector2D lightVector = new Vector2D(lightFocus, line.getP1());
 
-        if (light.getCenter().getY() < line.getY1() && light.getCenter().getY() < line.getY2() && col.getBoundingBox().contains(light.getCenter()) || lineVector.normalVector().dotProduct(lightVector) >= 0) {
+        if (lightCenter.getY() < line.getY1() && lightCenter.getY() < line.getY2() && shadowBox.contains(lightCenter) || lineVector.normalVector().dotProduct(lightVector) >= 0) {
           continue;
         }
 
@@ -116,7 +168,7 @@ public class AmbientLight extends ColorLayer {
         shadowParallelogram.closePath();
 
         final Area shadowArea = new Area(shadowParallelogram);
-        if (light.getCenter().getY() < col.getBoundingBox().getMaxY() && !col.getBoundingBox().contains(light.getCenter())) {
+        if (lightCenter.getY() < shadowBox.getMaxY() && !shadowBox.contains(lightCenter)) {
           shadowArea.add(boxInLight);
         }
         shadowArea.intersect(lightArea);
@@ -124,34 +176,47 @@ public class AmbientLight extends ColorLayer {
       }
     }
 
-    final Paint oldPaint = g.getPaint();
+    return lightArea;
+  }
 
-    // render parts that lie within the shadow with a gradient from the light
-    // color to transparent
-    final Shape lightShape = light.getLightShape();
+  /**
+   * The light area of a light source together with the state of the light and the static shadows it was created from.
+   */
+  private static final class LightArea {
+    private final Shape lightShape;
+    private final Rectangle2D boundingBox;
+    private final double focusOffsetX;
+    private final double focusOffsetY;
+    private final List<StaticShadow> shadows;
+    private final List<Rectangle2D> shadowBounds;
+    private final Shape shape;
+
+    private LightArea(final LightSource light, final List<StaticShadow> shadows, final List<Rectangle2D> shadowBounds, final Shape shape) {
+      this.lightShape = light.getLightShape();
+      this.boundingBox = light.getBoundingBox();
+      this.focusOffsetX = light.getFocusOffsetX();
+      this.focusOffsetY = light.getFocusOffsetY();
+      this.shadows = shadows;
+      this.shadowBounds = shadowBounds;
+      this.shape = shape;
+    }
 
-    final double radius = lightShape.getBounds2D().getWidth() > lightShape.getBounds2D().getHeight() ? lightShape.getBounds2D().getWidth() : lightShape.getBounds2D().getHeight();
-    final Color[] transColors = new Color[] { light.getColor(), new Color(light.getColor().getRed(), light.getColor().getGreen(), light.getColor().getBlue(), 0) };
-    final Point2D center = new Point2D.Double(lightShape.getBounds2D().getCenterX() - section.getX(), lightShape.getBounds2D().getCenterY() - section.getY());
-    final Point2D focus = new Point2D.Double(center.getX() + lightShape.getBounds2D().getWidth() * light.getFocusOffsetX(), center.getY() + lightShape.getBounds2D().getHeight() * light.getFocusOffsetY());
-    RadialGradientPaint paint = new RadialGradientPaint(
-        center,
-        (float) (radius / 2d),
-        focus,
-        new float[] { 0.0f, 1.00f },
-        transColors,
-        CycleMethod.NO_CYCLE);
+    private boolean isValid(final LightSource light, final List<StaticShadow> currentShadows, final List<Rectangle2D> currentShadowBounds) {
+      if (this.lightShape != light.getLightShape() || !this.boundingBox.equals(light.getBoundingBox()) || this.focusOffsetX != light.getFocusOffsetX() || this.focusOffsetY != light.getFocusOffsetY()) {
+        return false;
+      }
 
-    g.setPaint(paint);
+      if (this.shadows.size() != currentShadows.size()) {
+        return false;
+      }
 
-    if (lightArea != null) {
-      lightArea.transform(AffineTransform.getTranslateInstance(-section.getX(), -section.getY()));
-      fillShape = lightArea;
-    } else {
-      fillShape = new Rectangle2D.Double(light.getBoundingBox().getX() - section.getX(), light.getBoundingBox().getY() - section.getY(), light.getBoundingBox().getWidth(), light.getBoundingBox().getHeight());
-    }
+      for (int i = 0; i < this.shadows.size(); i++) {
+        if (this.shadows.get(i) != currentShadows.get(i) || !this.shadowBounds.get(i).equals(currentShadowBounds.get(i))) {
+          return false;
+        }
+      }
 
-    g.fill(fillShape);
-    g.setPaint(oldPaint);
+      return true;
+    }
   }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package de.gurkenlabs.litiengine.graphics;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
@@ -15,9 +16,16 @@ import de.gurkenlabs.litiengine.environment.tilemap.MapUtilities;
 import de.gurkenlabs.litiengine.util.ImageProcessing;
 import de.gurkenlabs.litiengine.util.MathUtilities;
 
+/**
+ * A layer that covers the map with a color and is rendered in tiles of the map's tile size. The tiles are baked lazily:
+ * {@link #updateSection(Rectangle2D)} only marks the tiles of a section as invalid and invalid tiles are rendered again
+ * the next time they are visible. Changing the color or the alpha of a layer therefore doesn't render the whole map at
+ * once.
+ */
 public abstract class ColorLayer implements IRenderable {
   private final IEnvironment environment;
   private final Image[][] tiles;
+  private final boolean[][] invalidTiles;
 
   private int alpha;
   private Color color;
@@ -26,8 +34,11 @@ public abstract class ColorLayer implements IRenderable {
     this.environment = env;
     this.color = color;
     this.alpha = alpha;
-    this.tiles = new Image[env.getMap().getSizeInTiles().width][env.getMap().getSizeInTiles().height];
-    this.updateSection(this.environment.getMap().getBounds());
+
+    final Dimension sizeInTiles = env.getMap().getSizeInTiles();
+    this.tiles = new Image[sizeInTiles.width][sizeInTiles.height];
+    this.invalidTiles = new boolean[sizeInTiles.width][sizeInTiles.height];
+    this.invalidate(0, 0, sizeInTiles.width - 1, sizeInTiles.height - 1);
   }
 
   @Override
@@ -42,6 +53,8 @@ public abstract class ColorLayer implements IRenderable {
     final int startY = MathUtilities.clamp(startTile.y, 0, tiles[0].length - 1);
     final int endY = MathUtilities.clamp(endTile.y, 0, tiles[0].length - 1);
 
+    this.bake(startX, startY, endX, endY);
+
     final Point2D origin = Game.getCamera().getViewPortLocation(0, 0);
 
     // draw the tile on the layer image
@@ -66,49 +79,89 @@ public abstract class ColorLayer implements IRenderable {
 
   public void setAlpha(int ambientAlpha) {
     this.alpha = MathUtilities.clamp(ambientAlpha, 0, 255);
-    this.updateSection(this.environment.getMap().getBounds());
+    this.invalidate(0, 0, this.tiles.length - 1, this.tiles[0].length - 1);
   }
 
   public void setColor(final Color color) {
     this.color = color;
-    this.updateSection(this.environment.getMap().getBounds());
+    this.invalidate(0, 0, this.tiles.length - 1, this.tiles[0].length - 1);
   }
 
+  /**
+   * Marks all tiles that overlap the specified section as invalid, so that they are rendered again the next time they
+   * are visible.
+   *
+   * @param section
+   *          the section of the map that has changed
+   */
   public void updateSection(Rectangle2D section) {
+    // without a color, nothing is rendered and setting a color invalidates all tiles anyway
     if (this.getColor() == null) {
       return;
     }
 
     final IMap map = this.getEnvironment().getMap();
+    final Point startTile = MapUtilities.getTile(map, section.getX(), section.getY());
+    final Point endTile = MapUtilities.getTile(map, section.getMaxX(), section.getMaxY());
+    this.invalidate(startTile.x, startTile.y, endTile.x, endTile.y);
+  }
 
-    final Rectangle2D tileSection = MapUtilities.getTileBoundingBox(map, section);
-    final BufferedImage img = ImageProcessing.getCompatibleImage((int) tileSection.getWidth(), (int) tileSection.getHeight());
-    final Graphics2D g = img.createGraphics();
+  private void invalidate(final int startTileX, final int startTileY, final int endTileX, final int endTileY) {
+    final int startX = Math.max(startTileX, 0);
+    final int startY = Math.max(startTileY, 0);
+    final int endX = Math.min(endTileX, this.invalidTiles.length - 1);
+    for (int x = startX; x <= endX; x++) {
+      final int endY = Math.min(endTileY, this.invalidTiles[x].length - 1);
+      for (int y = startY; y <= endY; y++) {
+        this.invalidTiles[x][y] = true;
+      }
+    }
+  }
 
-    this.renderSection(g, tileSection);
+  /**
+   * Renders the invalid tiles within the specified range of tiles. All of them are rendered at once on one image that
+   * covers the smallest rectangle of tiles containing all of them.
+   */
+  private void bake(final int startX, final int startY, final int endX, final int endY) {
+    if (this.getColor() == null) {
+      return;
+    }
 
-    g.dispose();
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = -1;
+    int maxY = -1;
+    for (int x = startX; x <= endX; x++) {
+      for (int y = startY; y <= endY; y++) {
+        if (!this.invalidTiles[x][y]) {
+          continue;
+        }
+
+        // the flag is reset before the tile is rendered, so that an update during rendering is not lost
+        this.invalidTiles[x][y] = false;
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+      }
+    }
 
-    this.setTiles(img, tileSection);
-  }
+    if (maxX < 0) {
+      return;
+    }
 
-  private void setTiles(BufferedImage img, Rectangle2D section) {
-    final IMap map = this.getEnvironment().getMap();
-    final Point startTile = MapUtilities.getTile(map, new Point2D.Double(section.getX(), section.getY()));
-    final Point endTile = MapUtilities.getTile(map, new Point2D.Double(section.getMaxX(), section.getMaxY()));
-    final int startX = MathUtilities.clamp(startTile.x, 0, Math.min(startTile.x + (endTile.x - startTile.x), tiles.length) - 1);
-    final int startY = MathUtilities.clamp(startTile.y, 0, Math.min(startTile.y + (endTile.y - startTile.y), tiles[0].length) - 1);
+    final Dimension tileSize = this.getEnvironment().getMap().getTileSize();
+    final Rectangle2D section = new Rectangle2D.Double(minX * tileSize.width, minY * tileSize.height, (maxX - minX + 1) * tileSize.width, (maxY - minY + 1) * tileSize.height);
+    final BufferedImage img = ImageProcessing.getCompatibleImage((int) section.getWidth(), (int) section.getHeight());
+    final Graphics2D g = img.createGraphics();
 
-    final int endX = MathUtilities.clamp(endTile.x, 0,  Math.min(startTile.x + (endTile.x - startTile.x), tiles.length) - 1);
-    final int endY = MathUtilities.clamp(endTile.y, 0, Math.min(startTile.y + (endTile.y - startTile.y), tiles[0].length) - 1);
+    this.renderSection(g, section);
 
-    for (int x = startX; x <= endX; x++) {
-      for (int y = startY; y <= endY; y++) {
-        final int subX = (x - startX) * map.getTileSize().width;
-        final int subY = (y - startY) * map.getTileSize().height;
+    g.dispose();
 
-        final BufferedImage smallImage = img.getSubimage(subX, subY, map.getTileSize().width, map.getTileSize().height);
-        this.tiles[x][y] = smallImage;
+    for (int x = minX; x <= maxX; x++) {
+      for (int y = minY; y <= maxY; y++) {
+        this.tiles[x][y] = img.getSubimage((x - minX) * tileSize.width, (y - minY) * tileSize.height, tileSize.width, tileSize.height);
       }
     }
   }
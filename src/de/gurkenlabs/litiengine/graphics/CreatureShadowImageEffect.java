@@ -29,6 +29,12 @@ public class CreatureShadowImageEffect extends ImageEffect {
     return this.creature;
   }
 
+  @Override
+  public boolean isCacheable() {
+    // dead creatures don't have a shadow, so a sprite with a shadow must not be used anymore once the creature dies
+    return !this.getCreature().isDead();
+  }
+
   @Override
   public BufferedImage apply(BufferedImage image) {
     if (this.getCreature().isDead()) {
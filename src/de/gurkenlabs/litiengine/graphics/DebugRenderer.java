@@ -20,6 +20,7 @@ import de.gurkenlabs.litiengine.entities.IEntity;
 import de.gurkenlabs.litiengine.environment.tilemap.IMap;
 import de.gurkenlabs.litiengine.environment.tilemap.ITile;
 import de.gurkenlabs.litiengine.environment.tilemap.MapUtilities;
+import de.gurkenlabs.litiengine.graphics.particles.Emitter;
 import de.gurkenlabs.litiengine.input.Input;
 
 public class DebugRenderer {
@@ -43,6 +44,9 @@ public class DebugRenderer {
 
     if (Game.getConfiguration().debug().renderEntityNames()) {
       drawMapId(g, entity);
+      if (entity instanceof Emitter) {
+        drawEmitterMetrics(g, (Emitter) entity);
+      }
     }
 
     if (Game.getConfiguration().debug().renderHitBoxes() && entity instanceof ICombatEntity) {
@@ -101,6 +105,13 @@ public class DebugRenderer {
     RenderEngine.drawText(g, locationString, x, y + 5.0);
   }
 
+  private static void drawEmitterMetrics(final Graphics2D g, final Emitter emitter) {
+    final int x = (int) Game.getCamera().getViewPortDimensionCenter(emitter).getX() + 10;
+    final int y = (int) Game.getCamera().getViewPortDimensionCenter(emitter).getY();
+    final String metrics = "[particles:" + emitter.getParticleCount() + ";update:" + new DecimalFormat("0.###").format(emitter.getParticleUpdateTime()) + "ms]";
+    RenderEngine.drawText(g, metrics, x, y + 10.0);
+  }
+
   private static void drawTileBoundingBox(final Graphics2D g, final IMap map, final Point2D location) {
     final Rectangle2D playerTile = MapUtilities.getTileBoundingBox(map, location);
 
@@ -0,0 +1,159 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import de.gurkenlabs.litiengine.entities.EntityYComparator;
+import de.gurkenlabs.litiengine.entities.IEntity;
+
+/**
+ * Holds the entities that are rendered in a frame in the order in which they are rendered. The order is kept across
+ * frames: Entities that were already visible in the previous frame keep their position and entities that became visible
+ * are appended. When sorted by their y-coordinate, the entities are therefore nearly sorted already and an insertion
+ * sort only needs to move the few entities that passed each other since the last frame.
+ * <p>
+ * All buffers are reused, so no objects are created once the queue has grown to the number of visible entities. A queue
+ * is not thread safe and is meant to be used by the rendering thread only.
+ * </p>
+ *
+ * @see IRenderEngine#renderEntities(java.awt.Graphics2D, EntityRenderQueue, boolean)
+ */
+public final class EntityRenderQueue {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Map<IEntity, Boolean> visibleEntities;
+
+  private IEntity[] entities;
+  private double[] keys;
+  private int size;
+
+  private IEntity[] addedEntities;
+  private int addedCount;
+
+  public EntityRenderQueue() {
+    this.visibleEntities = new IdentityHashMap<>();
+    this.entities = new IEntity[INITIAL_CAPACITY];
+    this.keys = new double[INITIAL_CAPACITY];
+    this.addedEntities = new IEntity[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Adds the specified entity to the entities that are visible in the next frame. Adding an entity multiple times has
+   * no effect.
+   *
+   * @param entity
+   *          The visible entity.
+   */
+  public void add(final IEntity entity) {
+    if (entity == null || this.visibleEntities.put(entity, Boolean.TRUE) != null) {
+      return;
+    }
+
+    if (this.addedCount == this.addedEntities.length) {
+      this.addedEntities = Arrays.copyOf(this.addedEntities, this.addedCount * 2);
+    }
+
+    this.addedEntities[this.addedCount++] = entity;
+  }
+
+  /**
+   * Removes all entities from this queue.
+   */
+  public void clear() {
+    Arrays.fill(this.entities, 0, this.size, null);
+    Arrays.fill(this.addedEntities, 0, this.addedCount, null);
+    this.visibleEntities.clear();
+    this.size = 0;
+    this.addedCount = 0;
+  }
+
+  /**
+   * Gets the entity at the specified position of the render order.
+   *
+   * @param index
+   *          The position in the render order.
+   * @return The entity at the specified position.
+   */
+  public IEntity get(final int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    }
+
+    return this.entities[index];
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Replaces the entities of the previous frame with the entities that were added since then and optionally sorts them.
+   *
+   * @param comparator
+   *          The comparator that provides the y-coordinates to sort the entities by or null if the entities should not be
+   *          sorted.
+   */
+  public void update(final EntityYComparator comparator) {
+    final int previousSize = this.size;
+
+    // keep the order of the entities that are still visible
+    int count = 0;
+    for (int i = 0; i < previousSize; i++) {
+      final IEntity entity = this.entities[i];
+      if (this.visibleEntities.remove(entity) != null) {
+        this.entities[count++] = entity;
+      }
+    }
+
+    // the remaining entities have become visible with this frame
+    for (int i = 0; i < this.addedCount; i++) {
+      final IEntity entity = this.addedEntities[i];
+      if (this.visibleEntities.remove(entity) != null) {
+        if (count == this.entities.length) {
+          this.entities = Arrays.copyOf(this.entities, count * 2);
+        }
+
+        this.entities[count++] = entity;
+      }
+
+      this.addedEntities[i] = null;
+    }
+
+    if (count < previousSize) {
+      Arrays.fill(this.entities, count, previousSize, null);
+    }
+
+    this.size = count;
+    this.addedCount = 0;
+
+    if (comparator != null) {
+      this.sort(comparator);
+    }
+  }
+
+  private void sort(final EntityYComparator comparator) {
+    if (this.keys.length < this.size) {
+      this.keys = new double[this.entities.length];
+    }
+
+    // the keys are determined once per frame, so entities that are moved concurrently can't break the order
+    for (int i = 0; i < this.size; i++) {
+      this.keys[i] = comparator.getMaxY(this.entities[i]);
+    }
+
+    for (int i = 1; i < this.size; i++) {
+      final IEntity entity = this.entities[i];
+      final double key = this.keys[i];
+      int j = i - 1;
+      while (j >= 0 && this.keys[j] > key) {
+        this.entities[j + 1] = this.entities[j];
+        this.keys[j + 1] = this.keys[j];
+        j--;
+      }
+
+      this.entities[j + 1] = entity;
+      this.keys[j + 1] = key;
+    }
+  }
+}
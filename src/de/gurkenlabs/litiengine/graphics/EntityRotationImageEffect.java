@@ -14,4 +14,9 @@ public class EntityRotationImageEffect extends RotationImageEffect {
   public float getAngle() {
     return 360 - this.entity.getAngle();
   }
+
+  @Override
+  public boolean isCacheable() {
+    return false;
+  }
 }
@@ -11,5 +11,16 @@ public interface IImageEffect extends ITimeToLive, Comparable<IImageEffect> {
 
   public int getPriority();
 
+  /**
+   * Determines whether this effect currently produces the same result for the same image. The sprites that are
+   * composed of such effects are cached by the animation controllers until their frame or their effects change.
+   * Effects that depend on a changing state, e.g. the angle of an entity, need to return false.
+   *
+   * @return true if the result of this effect can be cached
+   */
+  public default boolean isCacheable() {
+    return true;
+  }
+
   public void setPriority(int priority);
 }
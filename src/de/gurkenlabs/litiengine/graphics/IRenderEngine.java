@@ -46,6 +46,22 @@ public interface IRenderEngine {
 
   public void renderEntities(Graphics2D g, Collection<? extends IEntity> entities, Shape clip);
 
+  /**
+   * Renders the visible entities that were added to the specified queue since
+   * the last frame. Other than the methods that render a collection of entities,
+   * this neither checks whether the entities are within the viewport nor creates
+   * a new list to sort them.
+   * 
+   * @param g
+   *          The graphics object to draw on.
+   * @param entities
+   *          The queue that holds the visible entities.
+   * @param sort
+   *          Determines whether the entities are rendered in the order of their
+   *          y-coordinate.
+   */
+  public void renderEntities(Graphics2D g, EntityRenderQueue entities, boolean sort);
+
   public void renderEntity(Graphics2D g, IEntity entity);
 
   public void render(Graphics2D g, final IMap map, RenderType...type);
@@ -1,13 +1,44 @@
 package de.gurkenlabs.litiengine.graphics;
 
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+/**
+ * A cache for images that are expensive to load or to create. By default, a cache is unbounded and only shrinks when
+ * it is cleared. If a capacity is set with {@link #setMaxBytes(long)}, the least recently used images are evicted as
+ * soon as the images of the cache require more memory than the capacity. The memory of an image is estimated as
+ * <code>width * height * bytes per pixel</code>.
+ * <p>
+ * Looking up an image doesn't require any lock, it only records the access in a ring buffer. The recorded accesses are
+ * applied to the order of the images before images are evicted, so evicting an image takes constant time. If the
+ * accesses since the last eviction exceed the size of the buffer, the oldest accesses are lost, so the eviction order
+ * is approximately the order of the last access.
+ * </p>
+ * <p>
+ * Pinned images are never evicted. This is used for the images of loaded spritesheets, which are referenced by their
+ * spritesheet anyways, so evicting them wouldn't free any memory.
+ * </p>
+ * <p>
+ * Images can be evicted at any time, so callers should request an image with {@link #get(String)} and recreate it if
+ * null is returned instead of checking {@link #containsKey(String)} first.
+ * </p>
+ */
 public final class ImageCache {
+  private static final int ACCESS_BUFFER_SIZE = 1024;
+  private static final int ACCESS_BUFFER_MASK = ACCESS_BUFFER_SIZE - 1;
 
   public static final ImageCache IMAGES = new ImageCache();
 
@@ -15,13 +46,39 @@ public final class ImageCache {
 
   public static final ImageCache SPRITES = new ImageCache();
 
-  private final ConcurrentHashMap<String, BufferedImage> cache;
+  private final Map<String, Entry> cache;
+
+  // guards all modifications of the cache as well as the eviction order and the pinned images
+  private final Object lock;
+  private final Set<BufferedImage> pinnedImages;
+
+  // the entries that can be evicted from the least to the most recently used one
+  private final Map<String, Entry> evictionOrder;
+
+  private final AtomicReferenceArray<Entry> accesses;
+  private final AtomicLong accessCount;
+  private long appliedAccessCount;
 
   private final List<Consumer<ImageCache>> clearConsumers;
 
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final LongAdder evictions;
+
+  private volatile long bytes;
+  private volatile long maxBytes;
+
   private ImageCache() {
     this.cache = new ConcurrentHashMap<>();
+    this.lock = new Object();
+    this.pinnedImages = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.evictionOrder = new LinkedHashMap<>(16, 0.75f, true);
+    this.accesses = new AtomicReferenceArray<>(ACCESS_BUFFER_SIZE);
+    this.accessCount = new AtomicLong();
     this.clearConsumers = new CopyOnWriteArrayList<>();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.evictions = new LongAdder();
   }
 
   public static void clearAll() {
@@ -31,7 +88,11 @@ public final class ImageCache {
   }
 
   public void clear() {
-    this.cache.clear();
+    synchronized (this.lock) {
+      this.cache.clear();
+      this.evictionOrder.clear();
+      this.bytes = 0;
+    }
 
     for (Consumer<ImageCache> cons : this.clearConsumers) {
       cons.accept(this);
@@ -42,40 +103,263 @@ public final class ImageCache {
     this.clearConsumers.add(cons);
   }
 
+  /**
+   * Removes all images whose key matches the specified regular expression.
+   *
+   * @param regex
+   *          the regular expression
+   * @deprecated Every key has to be matched against the regular expression. Use {@link #clearPrefix(String)} instead.
+   */
+  @Deprecated
   public void clear(final String regex) {
-    List<String> remove = new ArrayList<>();
-    for (String key : this.cache.keySet()) {
-      if (key.matches(regex)) {
-        remove.add(key);
-      }
-    }
-
-    for (String key : remove) {
-      this.cache.remove(key);
-    }
+    this.remove(key -> key.matches(regex));
 
     for (Consumer<ImageCache> cons : this.clearConsumers) {
       cons.accept(this);
     }
   }
 
+  /**
+   * Removes all images whose key starts with the specified prefix. In contrast to {@link #clear()}, the listeners
+   * registered with {@link #onCleared(Consumer)} are not notified.
+   *
+   * @param prefix
+   *          the prefix of the keys to remove
+   * @return the number of removed images
+   */
+  public int clearPrefix(final String prefix) {
+    return this.remove(key -> key.startsWith(prefix));
+  }
+
   public boolean containsKey(final String key) {
     return this.cache.containsKey(key);
   }
 
+  /**
+   * Gets the image with the specified key and marks it as the most recently used image of this cache.
+   *
+   * @param key
+   *          the key of the image
+   * @return the image or null if this cache doesn't contain an image with the specified key
+   */
   public BufferedImage get(final String key) {
-    if (this.cache.containsKey(key)) {
-      return this.cache.get(key);
+    final Entry entry = this.cache.get(key);
+    if (entry == null) {
+      this.misses.increment();
+      return null;
     }
 
-    return null;
+    this.accesses.lazySet((int) (this.accessCount.getAndIncrement() & ACCESS_BUFFER_MASK), entry);
+    this.hits.increment();
+    return entry.image;
   }
 
+  /**
+   * Adds the specified image to this cache. If this exceeds the capacity of the cache, the least recently used images
+   * that are not pinned are evicted. This can also evict the added image if it is larger than the capacity itself.
+   *
+   * @param key
+   *          the key of the image
+   * @param value
+   *          the image
+   * @return the image that was previously cached with the specified key or null
+   */
   public BufferedImage put(final String key, final BufferedImage value) {
-    return this.cache.put(key, value);
+    final Entry entry = new Entry(key, value, getBytes(value));
+    synchronized (this.lock) {
+      final Entry previous = this.cache.put(key, entry);
+      if (this.pinnedImages.contains(value)) {
+        this.evictionOrder.remove(key);
+      } else {
+        this.evictionOrder.put(key, entry);
+      }
+
+      this.bytes += entry.bytes - (previous != null ? previous.bytes : 0);
+      this.evict();
+      return previous != null ? previous.image : null;
+    }
   }
 
   public int size() {
     return this.cache.size();
   }
+
+  /**
+   * Gets the estimated memory of all images in this cache.
+   *
+   * @return the memory in bytes
+   */
+  public long getBytes() {
+    return this.bytes;
+  }
+
+  /**
+   * Gets the capacity of this cache.
+   *
+   * @return the capacity in bytes or 0 if this cache is unbounded
+   */
+  public long getMaxBytes() {
+    return this.maxBytes;
+  }
+
+  /**
+   * Sets the capacity of this cache and immediately evicts the least recently used images that exceed it.
+   *
+   * @param maxBytes
+   *          the capacity in bytes or 0 if this cache should be unbounded
+   */
+  public void setMaxBytes(final long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("The capacity must not be negative: " + maxBytes);
+    }
+
+    synchronized (this.lock) {
+      this.maxBytes = maxBytes;
+      this.evict();
+    }
+  }
+
+  public long getHits() {
+    return this.hits.sum();
+  }
+
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  public long getEvictions() {
+    return this.evictions.sum();
+  }
+
+  /**
+   * Resets the hit, miss and eviction counters of this cache.
+   */
+  public void resetStatistics() {
+    this.hits.reset();
+    this.misses.reset();
+    this.evictions.reset();
+  }
+
+  /**
+   * Pins the specified image, so that it is not evicted from this cache. The image doesn't need to be cached yet.
+   *
+   * @param image
+   *          the image to pin
+   */
+  public void pin(final BufferedImage image) {
+    if (image == null) {
+      return;
+    }
+
+    synchronized (this.lock) {
+      this.pinnedImages.add(image);
+    }
+  }
+
+  /**
+   * Unpins the specified image, so that it can be evicted from this cache again.
+   *
+   * @param image
+   *          the image to unpin
+   */
+  public void unpin(final BufferedImage image) {
+    if (image == null) {
+      return;
+    }
+
+    synchronized (this.lock) {
+      if (!this.pinnedImages.remove(image)) {
+        return;
+      }
+
+      // pinned entries are removed from the eviction order once they are encountered, so they need to be added again
+      for (final Entry entry : this.cache.values()) {
+        if (entry.image == image) {
+          this.evictionOrder.put(entry.key, entry);
+        }
+      }
+
+      this.evict();
+    }
+  }
+
+  public boolean isPinned(final BufferedImage image) {
+    synchronized (this.lock) {
+      return this.pinnedImages.contains(image);
+    }
+  }
+
+  private static long getBytes(final BufferedImage image) {
+    if (image == null) {
+      return 0;
+    }
+
+    final int bytesPerPixel = (image.getColorModel().getPixelSize() + 7) / 8;
+    return (long) image.getWidth() * image.getHeight() * bytesPerPixel;
+  }
+
+  private int remove(final Predicate<String> keyPredicate) {
+    int removed = 0;
+    synchronized (this.lock) {
+      for (final Map.Entry<String, Entry> entry : this.cache.entrySet()) {
+        if (keyPredicate.test(entry.getKey()) && this.cache.remove(entry.getKey(), entry.getValue())) {
+          this.evictionOrder.remove(entry.getKey());
+          this.bytes -= entry.getValue().bytes;
+          removed++;
+        }
+      }
+    }
+
+    return removed;
+  }
+
+  private void evict() {
+    if (this.maxBytes <= 0 || this.bytes <= this.maxBytes) {
+      return;
+    }
+
+    this.applyAccesses();
+    final Iterator<Entry> iterator = this.evictionOrder.values().iterator();
+    while (this.bytes > this.maxBytes && iterator.hasNext()) {
+      final Entry entry = iterator.next();
+      iterator.remove();
+      if (this.pinnedImages.contains(entry.image)) {
+        continue;
+      }
+
+      if (this.cache.remove(entry.key, entry)) {
+        this.bytes -= entry.bytes;
+        this.evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Moves the entries that were accessed since the last eviction to the end of the eviction order. Accesses that have
+   * been overwritten in the buffer by newer ones are lost.
+   */
+  private void applyAccesses() {
+    final long count = this.accessCount.get();
+    for (long i = Math.max(this.appliedAccessCount, count - ACCESS_BUFFER_SIZE); i < count; i++) {
+      final Entry entry = this.accesses.getAndSet((int) (i & ACCESS_BUFFER_MASK), null);
+      if (entry != null) {
+        // the map is ordered by access, so looking up the entry moves it to the end
+        this.evictionOrder.get(entry.key);
+      }
+    }
+
+    this.appliedAccessCount = count;
+  }
+
+  private static final class Entry {
+    private final String key;
+    private final BufferedImage image;
+    private final long bytes;
+
+    private Entry(final String key, final BufferedImage image, final long bytes) {
+      this.key = key;
+      this.image = image;
+      this.bytes = bytes;
+    }
+  }
 }
@@ -48,6 +48,7 @@ public class LightSource extends Entity implements IRenderable {
   private int radius;
   private double focusOffsetX;
   private double focusOffsetY;
+  private Rectangle2D litSection;
 
   public LightSource(final int intensity, final Color lightColor, final String shapeType, boolean activated) {
     super();
@@ -127,20 +128,6 @@ public class LightSource extends Entity implements IRenderable {
     this.lightShapeType = shapeType;
   }
 
-  @Override
-  public void setX(double x) {
-    super.setX(x);
-    this.updateShape();
-    this.updateAmbientLayers();
-  }
-
-  @Override
-  public void setY(double y) {
-    super.setY(y);
-    this.updateShape();
-    this.updateAmbientLayers();
-  }
-
   @Override
   public void setWidth(float width) {
     super.setWidth(width);
@@ -159,6 +146,7 @@ public class LightSource extends Entity implements IRenderable {
   public void setLocation(final Point2D location) {
     super.setLocation(location);
     this.updateShape();
+    this.updateAmbientLayers();
   }
 
   @Override
@@ -169,6 +157,8 @@ public class LightSource extends Entity implements IRenderable {
       shorterDimension = height;
     }
     this.setRadius((int) shorterDimension / 2);
+    this.updateShape();
+    this.updateAmbientLayers();
   }
 
   public void toggle() {
@@ -325,12 +315,23 @@ public class LightSource extends Entity implements IRenderable {
   }
 
   private void updateAmbientLayers() {
+    // the section that was lit before the light was moved or resized needs to be updated as well
+    final Rectangle2D previousSection = this.litSection;
+    this.litSection = this.getBoundingBox();
+
     if (Game.getEnvironment() != null && Game.getEnvironment().getAmbientLight() != null) {
-      Game.getEnvironment().getAmbientLight().updateSection(this.getBoundingBox());
+      this.updateSection(Game.getEnvironment().getAmbientLight(), previousSection);
     }
 
     if (Game.getEnvironment() != null && Game.getEnvironment().getStaticShadowLayer() != null) {
-      Game.getEnvironment().getStaticShadowLayer().updateSection(this.getBoundingBox());
+      this.updateSection(Game.getEnvironment().getStaticShadowLayer(), previousSection);
+    }
+  }
+
+  private void updateSection(final ColorLayer layer, final Rectangle2D previousSection) {
+    layer.updateSection(this.litSection);
+    if (previousSection != null && !previousSection.equals(this.litSection)) {
+      layer.updateSection(previousSection);
     }
   }
 
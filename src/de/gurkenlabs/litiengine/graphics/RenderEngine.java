@@ -460,6 +460,14 @@ public final class RenderEngine implements IRenderEngine {
     this.renderEntities(g, entities, true, clip);
   }
 
+  @Override
+  public void renderEntities(final Graphics2D g, final EntityRenderQueue entities, final boolean sort) {
+    entities.update(sort ? this.entityComparator : null);
+    for (int i = 0; i < entities.size(); i++) {
+      this.renderEntity(g, entities.get(i));
+    }
+  }
+
   @Override
   public void renderEntity(final Graphics2D g, final IEntity entity) {
     if (entity == null) {
@@ -59,7 +59,13 @@ public final class Spritesheet {
     this.updateRowsAndCols();
     this.sprites = new BufferedImage[this.getTotalNumberOfSprites()];
 
-    spritesheets.put(this.name.toLowerCase(), this);
+    // the image is referenced by this spritesheet anyways, so evicting it from the cache wouldn't free any memory
+    ImageCache.IMAGES.pin(image);
+    final Spritesheet previous = spritesheets.put(this.name.toLowerCase(), this);
+    if (previous != null && previous.image != image) {
+      ImageCache.IMAGES.unpin(previous.image);
+    }
+
     this.loaded = true;
     ImageCache.SPRITES.onCleared(cache -> {
       this.emptySprites.clear();
@@ -211,6 +217,7 @@ public final class Spritesheet {
     Spritesheet spriteToRemove = spritesheets.get(path.toLowerCase());
     spritesheets.remove(path.toLowerCase());
     spriteToRemove.loaded = false;
+    ImageCache.IMAGES.unpin(spriteToRemove.image);
 
     customKeyFrameDurations.remove(path);
     return spriteToRemove;
@@ -229,6 +236,7 @@ public final class Spritesheet {
     Spritesheet spriteToRemove = spritesheets.get(spriteName);
     spritesheets.remove(spriteName);
     customKeyFrameDurations.remove(spriteName);
+    ImageCache.IMAGES.unpin(spriteToRemove.image);
 
     if (info.getHeight() == 0 && info.getWidth() == 0) {
       spriteToRemove.loaded = false;
@@ -250,11 +258,9 @@ public final class Spritesheet {
 
   public BufferedImage getPreview(int dimension) {
     final BufferedImage img = this.getSprite(0);
-    BufferedImage scaled = null;
     String cacheKey = "iconx" + dimension + this.getName();
-    if (ImageCache.SPRITES.containsKey(cacheKey)) {
-      scaled = ImageCache.SPRITES.get(cacheKey);
-    } else {
+    BufferedImage scaled = ImageCache.SPRITES.get(cacheKey);
+    if (scaled == null) {
       if (img != null) {
         scaled = ImageProcessing.scaleImage(img, dimension, dimension, true);
       } else {
@@ -5,6 +5,8 @@ import java.awt.geom.Area;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import de.gurkenlabs.litiengine.annotation.EntityInfo;
 import de.gurkenlabs.litiengine.entities.CollisionBox;
@@ -17,10 +19,12 @@ public class StaticShadow extends MapArea {
   public static final int DEFAULT_OFFSET = 10;
 
   private final CollisionBox origin;
+  private final List<StaticShadowTypeListener> shadowTypeListeners = new CopyOnWriteArrayList<>();
 
   private StaticShadowType shadowType;
   private int shadowOffset;
   private Area area;
+  private Rectangle2D areaBounds;
 
   public StaticShadow(StaticShadowType shadowType, int offset) {
     this.shadowType = shadowType;
@@ -56,13 +60,27 @@ public class StaticShadow extends MapArea {
     this.shadowOffset = DEFAULT_OFFSET;
   }
 
+  public void addShadowTypeListener(StaticShadowTypeListener listener) {
+    this.shadowTypeListeners.add(listener);
+  }
+
+  public void removeShadowTypeListener(StaticShadowTypeListener listener) {
+    this.shadowTypeListeners.remove(listener);
+  }
+
   public StaticShadowType getShadowType() {
     return this.shadowType;
   }
 
   public void setShadowType(final StaticShadowType shadowType) {
+    final StaticShadowType previousType = this.shadowType;
     this.shadowType = shadowType;
     this.area = null;
+    if (previousType != shadowType) {
+      for (StaticShadowTypeListener listener : this.shadowTypeListeners) {
+        listener.shadowTypeChanged(this, previousType);
+      }
+    }
   }
 
   @Override
@@ -114,7 +132,7 @@ public class StaticShadow extends MapArea {
       return super.getBoundingBox();
     }
 
-    return this.getArea().getBounds2D();
+    return this.areaBounds;
   }
 
   public Area getArea() {
@@ -186,6 +204,9 @@ public class StaticShadow extends MapArea {
     }
 
     parallelogram.closePath();
+
+    // the bounds are cached along with the area because they are requested whenever the shadow layers are rendered
+    this.areaBounds = parallelogram.getBounds2D();
     this.area = new Area(parallelogram);
   }
 
@@ -1,9 +1,8 @@
 package de.gurkenlabs.litiengine.graphics;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
 import java.awt.geom.Rectangle2D;
 
 import de.gurkenlabs.litiengine.environment.IEnvironment;
@@ -18,20 +17,19 @@ public class StaticShadowLayer extends ColorLayer {
     final Color colorWithAlpha = this.getColorWithAlpha();
     g.setColor(colorWithAlpha);
 
-    // check if the collision boxes have shadows. if so, determine which
-    // shadow is needed, create the shape and add it to the
-    // list of static shadows.
-    final Area ar = new Area();
+    // the shadows replace the pixels they cover instead of being blended, so
+    // overlapping shadows look like the union of their areas without the need
+    // to compute that union
+    g.setComposite(AlphaComposite.Src);
+    g.translate(-section.getX(), -section.getY());
     for (final StaticShadow staticShadow : this.getEnvironment().getStaticShadows()) {
-      if (!staticShadow.getBoundingBox().intersects(section) || staticShadow.getShadowType() == StaticShadowType.NONE) {
+      if (staticShadow.getShadowType() == StaticShadowType.NONE || !staticShadow.getBoundingBox().intersects(section)) {
         continue;
       }
 
-      final Area staticShadowArea = staticShadow.getArea();
-      ar.add(staticShadowArea);
+      g.fill(staticShadow.getArea());
     }
 
-    ar.transform(AffineTransform.getTranslateInstance(-section.getX(), -section.getY()));
-    g.fill(ar);
+    g.translate(section.getX(), section.getY());
   }
 }
@@ -0,0 +1,21 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import java.util.EventListener;
+
+/**
+ * This listener provides a callback for when a <code>StaticShadow</code> changed its type.
+ */
+public interface StaticShadowTypeListener extends EventListener {
+
+  /**
+   * This method is called whenever the type of a <code>StaticShadow</code> was changed.
+   *
+   * @param staticShadow
+   *          The static shadow that changed its type.
+   * @param previousType
+   *          The type of the static shadow before it was changed.
+   *
+   * @see StaticShadow#setShadowType(StaticShadowType)
+   */
+  public void shadowTypeChanged(StaticShadow staticShadow, StaticShadowType previousType);
+}
@@ -9,6 +9,7 @@ import java.util.logging.Logger;
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.ILaunchable;
 import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.UpdatePhase;
 import de.gurkenlabs.litiengine.graphics.Spritesheet;
 
 public class Animation implements IUpdateable, ILaunchable {
@@ -173,6 +174,16 @@ public class Animation implements IUpdateable, ILaunchable {
     this.paused = false;
   }
 
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.ANIMATION;
+  }
+
+  @Override
+  public boolean isParallelUpdateSupported() {
+    return true;
+  }
+
   @Override
   public void update() {
     // do nothing if the animation is not playing of the current keyframe is not
@@ -2,14 +2,15 @@ package de.gurkenlabs.litiengine.graphics.animation;
 
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.UpdatePhase;
 import de.gurkenlabs.litiengine.graphics.IImageEffect;
 import de.gurkenlabs.litiengine.graphics.ImageCache;
 import de.gurkenlabs.litiengine.graphics.Spritesheet;
@@ -18,6 +19,7 @@ import de.gurkenlabs.litiengine.util.ImageProcessing;
 public class AnimationController implements IAnimationController {
   private static final int MAX_IMAGE_EFFECTS = 20;
   private final List<Animation> animations;
+  private final Map<String, Animation> animationsByName;
   private final List<IImageEffect> imageEffects;
   private final List<Consumer<Animation>> playbackConsumer;
   private final List<Consumer<Animation>> playbackFinishedConsumer;
@@ -25,9 +27,13 @@ public class AnimationController implements IAnimationController {
   private Animation currentAnimation;
   private Animation defaultAnimation;
   private AffineTransform affineTransform;
+  private volatile int imageEffectsVersion;
+  private volatile CachedSprite cachedSprite;
 
   public AnimationController() {
     this.animations = new CopyOnWriteArrayList<>();
+    // the names are compared case insensitive without creating lower case copies of them
+    this.animationsByName = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
     this.imageEffects = new CopyOnWriteArrayList<>();
     this.playbackFinishedConsumer = new CopyOnWriteArrayList<>();
     this.playbackConsumer = new CopyOnWriteArrayList<>();
@@ -53,6 +59,7 @@ public class AnimationController implements IAnimationController {
       for (final Animation anim : animations) {
         if (anim != null) {
           this.animations.add(anim);
+          this.index(anim);
         }
       }
     }
@@ -64,12 +71,14 @@ public class AnimationController implements IAnimationController {
       return;
     }
 
-    final Optional<Animation> oldAnimation = this.animations.stream().filter(x -> x.getName().equalsIgnoreCase(animation.getName())).findFirst();
-    if (oldAnimation.isPresent()) {
-      this.animations.remove(oldAnimation.get());
+    final Animation oldAnimation = this.getAnimation(animation.getName());
+    if (oldAnimation != null) {
+      this.animations.remove(oldAnimation);
+      this.unindex(oldAnimation);
     }
 
     this.animations.add(animation);
+    this.index(animation);
   }
 
   @Override
@@ -80,6 +89,7 @@ public class AnimationController implements IAnimationController {
 
     this.getImageEffects().add(effect);
     Collections.sort(this.getImageEffects());
+    this.imageEffectsVersion++;
   }
 
   public void attach() {
@@ -108,12 +118,11 @@ public class AnimationController implements IAnimationController {
 
   @Override
   public Animation getAnimation(String animationName) {
-    final Optional<Animation> opt = this.getAnimations().stream().filter(x -> x != null && x.getName().equalsIgnoreCase(animationName)).findFirst();
-    if (!opt.isPresent()) {
+    if (animationName == null) {
       return null;
     }
 
-    return opt.get();
+    return this.animationsByName.get(animationName);
   }
 
   @Override
@@ -128,32 +137,43 @@ public class AnimationController implements IAnimationController {
       return null;
     }
 
-    final String cacheKey = buildCurrentCacheKey();
-    if (ImageCache.SPRITES.containsKey(cacheKey)) {
-      return ImageCache.SPRITES.get(cacheKey);
+    // the sprite is only composed again if the frame or the image effects have changed since the last call
+    final Spritesheet spritesheet = current.getSpritesheet();
+    final int spriteIndex = current.getCurrentKeyFrame().getSpriteIndex();
+    final List<IImageEffect> effects = this.getImageEffects();
+    final boolean cacheable = areCacheable(effects);
+    final CachedSprite cached = this.cachedSprite;
+    if (cacheable && cached != null && cached.isFor(spritesheet, spriteIndex, this.imageEffectsVersion, effects.size())) {
+      return cached.sprite;
     }
 
-    BufferedImage sprite = current.getSpritesheet().getSprite(current.getCurrentKeyFrame().getSpriteIndex());
-    for (final IImageEffect effect : this.getImageEffects()) {
-      sprite = effect.apply(sprite);
+    final int version = this.imageEffectsVersion;
+    BufferedImage sprite = ImageCache.SPRITES.get(this.buildCurrentCacheKey());
+    if (sprite == null) {
+      sprite = spritesheet.getSprite(spriteIndex);
+      for (final IImageEffect effect : effects) {
+        sprite = effect.apply(sprite);
+      }
     }
 
+    this.cachedSprite = cacheable ? new CachedSprite(spritesheet, spriteIndex, version, effects.size(), sprite) : null;
     return sprite;
   }
 
   @Override
   public BufferedImage getCurrentSprite(final int width, final int height) {
-    if (this.getCurrentSprite() == null) {
+    final BufferedImage sprite = this.getCurrentSprite();
+    if (sprite == null) {
       return null;
     }
 
     final String cacheKey = buildCurrentCacheKey() + "_" + width + "_" + height;
-    if (ImageCache.SPRITES.containsKey(cacheKey)) {
-      return ImageCache.SPRITES.get(cacheKey);
+    final BufferedImage cached = ImageCache.SPRITES.get(cacheKey);
+    if (cached != null) {
+      return cached;
     }
 
-    return ImageProcessing.scaleImage(this.getCurrentSprite(), width, height);
-
+    return ImageProcessing.scaleImage(sprite, width, height);
   }
 
   @Override
@@ -177,11 +197,11 @@ public class AnimationController implements IAnimationController {
 
   @Override
   public boolean hasAnimation(String animationName) {
-    if (animationName == null || animationName.isEmpty() || this.getAnimations() == null) {
+    if (animationName == null || animationName.isEmpty()) {
       return false;
     }
 
-    return this.getAnimations().stream().anyMatch(x -> x.getName() != null && x.getName().equalsIgnoreCase(animationName));
+    return this.animationsByName.containsKey(animationName);
   }
 
   @Override
@@ -231,6 +251,7 @@ public class AnimationController implements IAnimationController {
     }
 
     this.animations.remove(animation);
+    this.unindex(animation);
 
     if (this.getDefaultAnimation() != null && this.getDefaultAnimation().equals(animation)) {
       this.setDefaultAnimation(!this.getAnimations().isEmpty() ? this.getAnimations().get(0) : null);
@@ -243,21 +264,30 @@ public class AnimationController implements IAnimationController {
       return;
     }
 
-    this.imageEffects.remove(effect);
+    if (this.imageEffects.remove(effect)) {
+      this.imageEffectsVersion++;
+    }
   }
 
   @Override
   public void setDefaultAnimation(Animation defaultAnimation) {
     if (this.defaultAnimation != null) {
       this.animations.remove(this.defaultAnimation);
+      this.unindex(this.defaultAnimation);
     }
 
     this.defaultAnimation = defaultAnimation;
     if (this.defaultAnimation != null) {
       this.animations.add(this.defaultAnimation);
+      this.index(this.defaultAnimation);
     }
   }
 
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.ANIMATION;
+  }
+
   @Override
   public void update() {
     if (this.getCurrentAnimation() != null && this.getCurrentAnimation().isPaused()) {
@@ -280,6 +310,13 @@ public class AnimationController implements IAnimationController {
     }
   }
 
+  /**
+   * Builds the key under which the current sprite is looked up in {@link ImageCache#SPRITES}. As long as all image
+   * effects are cacheable, the key is only built when the frame or the image effects have changed since the last call of
+   * {@link #getCurrentSprite()}, because the controller keeps the last composed sprite.
+   *
+   * @return the cache key of the current sprite or null if there is no current frame
+   */
   protected String buildCurrentCacheKey() {
     if (this.getCurrentAnimation() == null || this.getCurrentAnimation().getCurrentKeyFrame() == null || this.getCurrentAnimation().getSpritesheet() == null) {
       return null;
@@ -294,24 +331,75 @@ public class AnimationController implements IAnimationController {
     return cacheKey.toString();
   }
 
-  private void removeFinishedImageEffects() {
-    final List<IImageEffect> effectsToRemove = new ArrayList<>();
-    for (final IImageEffect effect : this.imageEffects) {
-      if (effect == null) {
-        continue;
+  private static boolean areCacheable(final List<IImageEffect> effects) {
+    for (final IImageEffect effect : effects) {
+      if (!effect.isCacheable()) {
+        return false;
       }
+    }
+
+    return true;
+  }
+
+  /**
+   * Adds the specified animation to the lookup by name unless there already is an animation with the same name. This
+   * way, the lookup returns the first animation with a name, just like a search through {@link #getAnimations()}.
+   */
+  private void index(final Animation animation) {
+    if (animation.getName() != null) {
+      this.animationsByName.putIfAbsent(animation.getName(), animation);
+    }
+  }
 
-      if (effect.timeToLiveReached()) {
-        effectsToRemove.add(effect);
+  private void unindex(final Animation animation) {
+    if (animation.getName() == null || !this.animationsByName.remove(animation.getName(), animation)) {
+      return;
+    }
+
+    // another animation with the same name might have been hidden by the removed one
+    for (final Animation other : this.animations) {
+      if (other != null && animation.getName().equalsIgnoreCase(other.getName())) {
+        this.animationsByName.putIfAbsent(other.getName(), other);
+        return;
       }
     }
+  }
 
-    this.imageEffects.removeAll(effectsToRemove);
-    this.imageEffects.removeAll(Collections.singleton(null));
+  private void removeFinishedImageEffects() {
+    // the list is copied on write, so removing effects doesn't affect the iteration
+    for (final IImageEffect effect : this.imageEffects) {
+      if ((effect == null || effect.timeToLiveReached()) && this.imageEffects.remove(effect)) {
+        this.imageEffectsVersion++;
+      }
+    }
   }
 
   @Override
   public void setAffineTransform(AffineTransform affineTransform) {
     this.affineTransform = affineTransform;
   }
+
+  /**
+   * The last composed sprite of a controller along with the frame and the version of the image effects it was composed
+   * of.
+   */
+  private static final class CachedSprite {
+    private final Spritesheet spritesheet;
+    private final int spriteIndex;
+    private final int imageEffectsVersion;
+    private final int imageEffectsCount;
+    private final BufferedImage sprite;
+
+    private CachedSprite(final Spritesheet spritesheet, final int spriteIndex, final int imageEffectsVersion, final int imageEffectsCount, final BufferedImage sprite) {
+      this.spritesheet = spritesheet;
+      this.spriteIndex = spriteIndex;
+      this.imageEffectsVersion = imageEffectsVersion;
+      this.imageEffectsCount = imageEffectsCount;
+      this.sprite = sprite;
+    }
+
+    private boolean isFor(final Spritesheet currentSpritesheet, final int currentSpriteIndex, final int currentImageEffectsVersion, final int currentImageEffectsCount) {
+      return this.spritesheet == currentSpritesheet && this.spriteIndex == currentSpriteIndex && this.imageEffectsVersion == currentImageEffectsVersion && this.imageEffectsCount == currentImageEffectsCount;
+    }
+  }
 }
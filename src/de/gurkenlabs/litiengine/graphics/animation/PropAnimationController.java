@@ -14,6 +14,8 @@ public class PropAnimationController<T extends Prop> extends EntityAnimationCont
   private static final String DESTROYED = "destroyed";
   private static final String INTACT = "intact";
 
+  private volatile CachedPropSprite cachedSprite;
+
   public PropAnimationController(final T prop) {
     super(prop);
     
@@ -24,25 +26,40 @@ public class PropAnimationController<T extends Prop> extends EntityAnimationCont
 
   @Override
   public BufferedImage getCurrentSprite() {
-    // get shadow from the cache or draw it dynamically and add it to the
-    // cache
-    // get complete image from the cache
     final Animation animation = this.getCurrentAnimation();
     if (animation == null || animation.getSpritesheet() == null) {
       return null;
     }
 
+    // the sprite of the animation frame is cached by the super class, so its
+    // identity tells whether the frame or its image effects have changed
+    final BufferedImage frameImage = super.getCurrentSprite();
+    final CachedPropSprite cached = this.cachedSprite;
+    if (frameImage != null && cached != null && cached.isFor(frameImage, this.getEntity())) {
+      return cached.sprite;
+    }
+
+    final BufferedImage sprite = this.composeSprite(frameImage);
+    this.cachedSprite = frameImage != null && sprite != null ? new CachedPropSprite(frameImage, this.getEntity(), sprite) : null;
+    return sprite;
+  }
+
+  private BufferedImage composeSprite(final BufferedImage frameImage) {
+    // get shadow from the cache or draw it dynamically and add it to the
+    // cache
+    // get complete image from the cache
     String cacheKey = this.buildCurrentCacheKey();
     cacheKey += "_" + this.getEntity().isAddShadow();
     cacheKey += "_" + this.getEntity().getState();
     cacheKey += "_" + this.getEntity().getSpriteRotation();
     cacheKey += "_" + this.getEntity().flipHorizontally();
     cacheKey += "_" + this.getEntity().flipVertically();
-    if (ImageCache.SPRITES.containsKey(cacheKey)) {
-      return ImageCache.SPRITES.get(cacheKey);
+    final BufferedImage cached = ImageCache.SPRITES.get(cacheKey);
+    if (cached != null) {
+      return cached;
     }
 
-    BufferedImage currentImage = super.getCurrentSprite();
+    BufferedImage currentImage = frameImage;
     if (currentImage == null) {
       return null;
     }
@@ -118,4 +135,30 @@ public class PropAnimationController<T extends Prop> extends EntityAnimationCont
     final String fallbackName = "prop-" + prop.getSpritesheetName().toLowerCase();
     return Spritesheet.find(fallbackName);
   }
+
+  /**
+   * The last composed sprite of a prop along with the frame image and the
+   * properties of the prop it was composed of.
+   */
+  private static final class CachedPropSprite {
+    private final BufferedImage frameImage;
+    private final Rotation rotation;
+    private final boolean flipHorizontally;
+    private final boolean flipVertically;
+    private final boolean addShadow;
+    private final BufferedImage sprite;
+
+    private CachedPropSprite(final BufferedImage frameImage, final Prop prop, final BufferedImage sprite) {
+      this.frameImage = frameImage;
+      this.rotation = prop.getSpriteRotation();
+      this.flipHorizontally = prop.flipHorizontally();
+      this.flipVertically = prop.flipVertically();
+      this.addShadow = prop.isAddShadow();
+      this.sprite = sprite;
+    }
+
+    private boolean isFor(final BufferedImage currentFrameImage, final Prop prop) {
+      return this.frameImage == currentFrameImage && this.rotation == prop.getSpriteRotation() && this.flipHorizontally == prop.flipHorizontally() && this.flipVertically == prop.flipVertically() && this.addShadow == prop.isAddShadow();
+    }
+  }
 }
\ No newline at end of file
@@ -11,12 +11,12 @@ import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import de.gurkenlabs.litiengine.Align;
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.ITimeToLive;
 import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.UpdatePhase;
 import de.gurkenlabs.litiengine.Valign;
 import de.gurkenlabs.litiengine.annotation.CollisionInfo;
 import de.gurkenlabs.litiengine.annotation.EmitterInfo;
@@ -25,6 +25,8 @@ import de.gurkenlabs.litiengine.entities.Entity;
 import de.gurkenlabs.litiengine.graphics.DebugRenderer;
 import de.gurkenlabs.litiengine.graphics.IRenderable;
 import de.gurkenlabs.litiengine.graphics.RenderType;
+import de.gurkenlabs.litiengine.physics.CollisionType;
+import de.gurkenlabs.litiengine.util.TimeUtilities;
 
 /**
  * An abstract implementation for emitters that provide a particle effect.
@@ -38,10 +40,13 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
   public static final int DEFAULT_MAXPARTICLES = 100;
 
   private static final Random RANDOM = new Random();
+  private static final EmitterUpdater updater = new EmitterUpdater();
 
   private final List<Consumer<Emitter>> finishedConsumer;
   private final CopyOnWriteArrayList<Particle> particles;
   private final List<Color> colors;
+  private final ParticleCollisionBatch collisionBatch;
+  private Particle[] collidingParticles;
 
   private Quality requiredQuality;
   private boolean activateOnInit;
@@ -62,11 +67,15 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
   private Align originAlign;
 
   private Map<RenderType, IRenderable> renderables;
+  private volatile ParticleStore particleStore;
+  private volatile long updateTime;
 
   public Emitter() {
     this.colors = new ArrayList<>();
     this.finishedConsumer = new CopyOnWriteArrayList<>();
     this.particles = new CopyOnWriteArrayList<>();
+    this.collisionBatch = new ParticleCollisionBatch();
+    this.collidingParticles = new Particle[0];
     this.renderables = new ConcurrentHashMap<>();
 
     for (RenderType type : RenderType.values()) {
@@ -90,6 +99,7 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
       this.activateOnInit = info.activateOnInit();
       this.originAlign = info.originAlign();
       this.originValign = info.originVAlign();
+      this.setUseParticleStore(info.useParticleStore());
     }
   }
 
@@ -109,7 +119,7 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
 
     this.activated = true;
     this.activationTick = Game.getLoop().getTicks();
-    Game.getLoop().attach(this);
+    updater.add(this);
   }
 
   /**
@@ -122,6 +132,13 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     if (this.isStopped()) {
       return;
     }
+
+    final ParticleStore store = this.particleStore;
+    if (store != null) {
+      store.add(particle);
+      return;
+    }
+
     this.particles.add(particle);
   }
 
@@ -134,11 +151,16 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     }
 
     this.activated = false;
-    this.getParticles().clear();
+    this.particles.clear();
+    final ParticleStore store = this.particleStore;
+    if (store != null) {
+      store.clear();
+    }
+
     this.aliveTime = 0;
     this.activationTick = 0;
     this.lastSpawn = 0;
-    Game.getLoop().detach(this);
+    updater.remove(this);
   }
 
   public void delete() {
@@ -204,18 +226,39 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
   }
 
   /**
-   * Gets the particles.
+   * Gets the number of particles that are currently alive.
+   *
+   * @return the particle count
+   */
+  public int getParticleCount() {
+    final ParticleStore store = this.particleStore;
+    return store != null ? store.size() : this.particles.size();
+  }
+
+  /**
+   * Gets the particles. If this emitter uses a {@link ParticleStore}, this is an unmodifiable view of the stored
+   * particles.
    *
    * @return the particles
    */
   public List<Particle> getParticles() {
-    return this.particles;
+    final ParticleStore store = this.particleStore;
+    return store != null ? store.asList() : this.particles;
   }
 
   public int getParticleUpdateRate() {
     return this.particleUpdateDelay;
   }
 
+  /**
+   * Gets the time that the last simulation of the particles of this emitter took.
+   *
+   * @return The update time in milliseconds.
+   */
+  public double getParticleUpdateTime() {
+    return TimeUtilities.nanoToMs(this.updateTime);
+  }
+
   public Quality getRequiredQuality() {
     return this.requiredQuality;
   }
@@ -255,7 +298,7 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
   public boolean isFinished() {
     // if a time to live is set and reached or ir the emitter has been started
     // and no particles are left
-    return this.getTimeToLive() > 0 && this.timeToLiveReached() || this.activated && this.lastSpawn > 0 && this.getParticles().isEmpty();
+    return this.getTimeToLive() > 0 && this.timeToLiveReached() || this.activated && this.lastSpawn > 0 && this.getParticleCount() == 0;
   }
 
   /**
@@ -271,6 +314,31 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     return this.stopped;
   }
 
+  /**
+   * Determines whether the particles of all emitters are simulated in parallel. Removing and spawning particles is still
+   * performed on the thread of the game loop.
+   *
+   * @return True if the particles are simulated in parallel; otherwise false.
+   */
+  public static boolean isParallelUpdate() {
+    return updater.isParallel();
+  }
+
+  public static void setParallelUpdate(final boolean parallelUpdate) {
+    updater.setParallel(parallelUpdate);
+  }
+
+  /**
+   * Determines whether the particles of this emitter are simulated by a {@link ParticleStore}. This avoids the
+   * allocations of the per-particle update but doesn't consult {@link #particleCanBeRemoved(Particle)} or custom
+   * implementations of {@link Particle#update(Point2D, float)}; particles are removed once their time to live is reached.
+   *
+   * @return True if this emitter uses a particle store; otherwise false.
+   */
+  public boolean isUsingParticleStore() {
+    return this.particleStore != null;
+  }
+
   public void onFinished(Consumer<Emitter> cons) {
     this.finishedConsumer.add(cons);
   }
@@ -327,6 +395,35 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     this.stopped = stopped;
   }
 
+  /**
+   * Sets whether the particles of this emitter are simulated by a {@link ParticleStore}. Existing particles are moved to
+   * the new storage.
+   *
+   * @param useParticleStore
+   *          True if the particles should be simulated by a particle store.
+   */
+  public void setUseParticleStore(final boolean useParticleStore) {
+    if (useParticleStore == this.isUsingParticleStore()) {
+      return;
+    }
+
+    if (useParticleStore) {
+      final ParticleStore store = new ParticleStore();
+      for (final Particle particle : this.particles) {
+        store.add(particle);
+      }
+
+      this.particleStore = store;
+      this.particles.clear();
+      return;
+    }
+
+    final ParticleStore store = this.particleStore;
+    this.particles.addAll(store.asList());
+    this.particleStore = null;
+    store.clear();
+  }
+
   public void setRequiredQuality(Quality requiredQuality) {
     this.requiredQuality = requiredQuality;
   }
@@ -361,12 +458,32 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     this.stopped = !this.stopped;
   }
 
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.PARTICLES;
+  }
+
   @Override
   public void update() {
-    if (this.isPaused()) {
+    if (!this.beginUpdate()) {
       return;
     }
 
+    this.updateParticles();
+    this.endUpdate();
+  }
+
+  /**
+   * Prepares the update of this emitter by removing its dead particles. This is always called on the thread of the game
+   * loop.
+   *
+   * @return True if the particles of this emitter need to be updated; false if it is paused or has finished.
+   */
+  boolean beginUpdate() {
+    if (this.isPaused()) {
+      return false;
+    }
+
     // clear particles if the effect time to life is reached
     if (this.isFinished()) {
       for (Consumer<Emitter> cons : this.finishedConsumer) {
@@ -374,20 +491,48 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
       }
 
       this.delete();
-      return;
+      return false;
     }
 
-    final float updateRatio = (float) this.getParticleUpdateRate() / Game.getLoop().getUpdateRate();
-    for (final Particle p : this.getParticles().stream().collect(Collectors.toList())) {
+    final ParticleStore store = this.particleStore;
+    if (store != null) {
+      store.removeExpired();
+      return true;
+    }
+
+    // iterating the copy on write list operates on a snapshot, so particles can be removed while iterating
+    for (final Particle p : this.particles) {
       if (this.particleCanBeRemoved(p)) {
-        // remove dead particles
         this.particles.remove(p);
-        continue;
       }
+    }
 
-      p.update(this.getOrigin(), updateRatio);
+    return true;
+  }
+
+  /**
+   * Simulates the particles of this emitter. This doesn't add or remove any particles and might be called
+   * concurrently for different emitters.
+   */
+  void updateParticles() {
+    final long start = System.nanoTime();
+    final float updateRatio = (float) this.getParticleUpdateRate() / Game.getLoop().getUpdateRate();
+    final Point2D origin = this.getOrigin();
+    final ParticleStore store = this.particleStore;
+    if (store != null) {
+      store.update(origin.getX(), origin.getY(), updateRatio);
+    } else {
+      this.updateParticles(origin, updateRatio);
     }
 
+    this.updateTime = System.nanoTime() - start;
+  }
+
+  /**
+   * Completes the update of this emitter by spawning new particles. This is always called on the thread of the game
+   * loop.
+   */
+  void endUpdate() {
     this.aliveTime = Game.getLoop().getDeltaTime(this.activationTick);
 
     if ((this.getSpawnRate() == 0 || Game.getLoop().getDeltaTime(this.lastSpawn) >= this.getSpawnRate())) {
@@ -409,7 +554,7 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
    * @return Whether-or-not the effect can hold any more particles.
    */
   protected boolean canTakeNewParticles() {
-    return this.particles.size() < this.maxParticles;
+    return this.getParticleCount() < this.maxParticles;
   }
 
   /**
@@ -485,6 +630,50 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     }
   }
 
+  /**
+   * Updates the particles of the list. The collisions of all particles that can collide are checked with one batched
+   * query before these particles are updated.
+   */
+  private void updateParticles(final Point2D origin, final float updateRatio) {
+    this.collisionBatch.clear();
+    int collidingCount = 0;
+
+    for (final Particle p : this.particles) {
+      if (p.getCollisionType() == CollisionType.NONE) {
+        p.update(origin, updateRatio);
+        continue;
+      }
+
+      if (collidingCount == this.collidingParticles.length) {
+        this.collidingParticles = Arrays.copyOf(this.collidingParticles, Math.max(16, collidingCount * 2));
+      }
+
+      this.collidingParticles[collidingCount] = p;
+      if (p.isContinuousCollisionEnabled()) {
+        final double startX = p.getRelativeX(origin.getX());
+        final double startY = p.getRelativeY(origin.getY());
+        final double endX = origin.getX() + p.getX() + p.getDx() * updateRatio - p.getWidth() / 2.0;
+        final double endY = origin.getY() + p.getY() + p.getDy() * updateRatio - p.getHeight() / 2.0;
+        this.collisionBatch.addRay(collidingCount, p.getCollisionType(), startX, startY, endX, endY);
+      } else {
+        this.collisionBatch.addBox(collidingCount, p.getCollisionType(), origin.getX() + p.getX(), origin.getY() + p.getY(), p.getWidth(), p.getHeight());
+      }
+
+      collidingCount++;
+    }
+
+    if (collidingCount == 0) {
+      return;
+    }
+
+    this.collisionBatch.resolve(Game.getPhysicsEngine());
+    for (int i = 0; i < collidingCount; i++) {
+      this.collidingParticles[i].setBatchedCollision(this.collisionBatch.collides(i));
+      this.collidingParticles[i].update(origin, updateRatio);
+      this.collidingParticles[i] = null;
+    }
+  }
+
   private void renderParticles(final Graphics2D g, final RenderType renderType) {
     if (Game.getConfiguration().graphics().getGraphicQuality().getValue() < this.getRequiredQuality().getValue()) {
       return;
@@ -495,11 +684,27 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     }
 
     final Point2D origin = this.getOrigin();
+    final ParticleStore store = this.particleStore;
+    if (store != null) {
+      for (int i = 0; i < store.size(); i++) {
+        final Particle particle = store.get(i);
+        if (particle != null && isRenderedWith(particle, renderType)) {
+          particle.render(g, origin);
+        }
+      }
+
+      return;
+    }
+
     for (Particle particle : this.particles) {
-      if (!particle.usesCustomRenderType() && renderType == RenderType.NONE
-          || particle.usesCustomRenderType() && particle.getCustomRenderType() == renderType) {
+      if (isRenderedWith(particle, renderType)) {
         particle.render(g, origin);
       }
     }
   }
+
+  private static boolean isRenderedWith(final Particle particle, final RenderType renderType) {
+    return !particle.usesCustomRenderType() && renderType == RenderType.NONE
+        || particle.usesCustomRenderType() && particle.getCustomRenderType() == renderType;
+  }
 }
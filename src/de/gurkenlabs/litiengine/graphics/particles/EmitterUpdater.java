@@ -0,0 +1,208 @@
+package de.gurkenlabs.litiengine.graphics.particles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.ILoop;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.UpdatePhase;
+
+/**
+ * Updates all active emitters during the {@link UpdatePhase#PARTICLES} phase of the game loop. Every emitter is updated
+ * in three steps: Dead particles are removed on the thread of the loop, then the remaining particles are simulated and
+ * finally new particles are spawned on the thread of the loop again.
+ * <p>
+ * In parallel mode, the particle simulations of all emitters are performed concurrently on the common fork/join pool.
+ * The emitters are split into tasks of about {@link #PARTICLES_PER_TASK} particles each, so that a few large emitters
+ * don't end up in the same task.
+ * </p>
+ *
+ * @see Emitter#setParallelUpdate(boolean)
+ */
+final class EmitterUpdater implements IUpdateable {
+  static final int PARTICLES_PER_TASK = 1024;
+
+  private static final Logger log = Logger.getLogger(EmitterUpdater.class.getName());
+
+  private final List<Emitter> emitters;
+  private final List<Emitter> simulatedEmitters;
+  private final Supplier<? extends ILoop> loopSupplier;
+  private ILoop loop;
+  private volatile boolean parallel;
+
+  EmitterUpdater() {
+    this(Game::getLoop);
+  }
+
+  /**
+   * Instantiates a new updater that attaches itself to the loop provided by the specified supplier.
+   *
+   * @param loopSupplier
+   *          The supplier of the current loop.
+   */
+  EmitterUpdater(final Supplier<? extends ILoop> loopSupplier) {
+    this.emitters = new CopyOnWriteArrayList<>();
+    this.simulatedEmitters = new ArrayList<>();
+    this.loopSupplier = loopSupplier;
+  }
+
+  synchronized void add(final Emitter emitter) {
+    if (!this.emitters.contains(emitter)) {
+      this.emitters.add(emitter);
+    }
+
+    // the loop is resolved again because the game might have replaced it since the first emitter was added
+    final ILoop currentLoop = this.loopSupplier.get();
+    if (currentLoop == this.loop) {
+      return;
+    }
+
+    if (this.loop != null) {
+      this.loop.detach(this);
+    }
+
+    this.loop = currentLoop;
+    if (this.loop != null) {
+      this.loop.attach(this);
+    }
+  }
+
+  synchronized void remove(final Emitter emitter) {
+    if (this.emitters.remove(emitter) && this.emitters.isEmpty() && this.loop != null) {
+      this.loop.detach(this);
+      this.loop = null;
+    }
+  }
+
+  boolean isParallel() {
+    return this.parallel;
+  }
+
+  void setParallel(final boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.PARTICLES;
+  }
+
+  @Override
+  public void update() {
+    if (!this.isParallel()) {
+      for (final Emitter emitter : this.emitters) {
+        try {
+          emitter.update();
+        } catch (final Exception e) {
+          log.log(Level.SEVERE, e.getMessage(), e);
+        }
+      }
+
+      return;
+    }
+
+    try {
+      for (final Emitter emitter : this.emitters) {
+        if (emitter.beginUpdate()) {
+          this.simulatedEmitters.add(emitter);
+        }
+      }
+
+      if (this.simulatedEmitters.size() > 1) {
+        ForkJoinPool.commonPool().invoke(new SimulationTask(this.simulatedEmitters));
+      } else {
+        simulate(this.simulatedEmitters, 0, this.simulatedEmitters.size());
+      }
+
+      for (final Emitter emitter : this.simulatedEmitters) {
+        emitter.endUpdate();
+      }
+    } finally {
+      this.simulatedEmitters.clear();
+    }
+  }
+
+  private static void simulate(final List<Emitter> emitters, final int from, final int to) {
+    for (int i = from; i < to; i++) {
+      try {
+        emitters.get(i).updateParticles();
+      } catch (final Exception e) {
+        log.log(Level.SEVERE, e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Gets the index at which a range of emitters is split into two simulation tasks. The range is split where half of its
+   * particles are reached, but at least one emitter is kept on each side.
+   *
+   * @param particleCounts
+   *          The accumulated particle counts of all emitters, starting with 0.
+   * @param from
+   *          The index of the first emitter of the range.
+   * @param to
+   *          The index after the last emitter of the range.
+   * @return The index of the first emitter of the second half or -1 if the range is simulated by a single task.
+   */
+  static int getSplitIndex(final int[] particleCounts, final int from, final int to) {
+    final int particles = particleCounts[to] - particleCounts[from];
+    if (to - from < 2 || particles <= PARTICLES_PER_TASK) {
+      return -1;
+    }
+
+    final int half = particleCounts[from] + particles / 2;
+    int split = from + 1;
+    while (split < to - 1 && particleCounts[split] < half) {
+      split++;
+    }
+
+    return split;
+  }
+
+  /**
+   * Simulates the particles of a range of emitters. Ranges with more than {@link EmitterUpdater#PARTICLES_PER_TASK}
+   * particles are split in two halves with about the same number of particles.
+   */
+  private static final class SimulationTask extends RecursiveAction {
+    private static final long serialVersionUID = 2795117498004447113L;
+
+    private final transient List<Emitter> emitters;
+    private final int[] particleCounts;
+    private final int from;
+    private final int to;
+
+    private SimulationTask(final List<Emitter> emitters) {
+      this(emitters, new int[emitters.size() + 1], 0, emitters.size());
+
+      // the accumulated particle counts; they don't change while the particles are simulated
+      for (int i = 0; i < emitters.size(); i++) {
+        this.particleCounts[i + 1] = this.particleCounts[i] + emitters.get(i).getParticleCount();
+      }
+    }
+
+    private SimulationTask(final List<Emitter> emitters, final int[] particleCounts, final int from, final int to) {
+      this.emitters = emitters;
+      this.particleCounts = particleCounts;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      final int split = getSplitIndex(this.particleCounts, this.from, this.to);
+      if (split == -1) {
+        simulate(this.emitters, this.from, this.to);
+        return;
+      }
+
+      invokeAll(new SimulationTask(this.emitters, this.particleCounts, this.from, split), new SimulationTask(this.emitters, this.particleCounts, split, this.to));
+    }
+  }
+}
@@ -56,6 +56,9 @@ public abstract class Particle implements ITimeToLive {
 
   private boolean continuousCollision;
 
+  // the result of a collision check that was already performed for a whole batch of particles
+  private Boolean batchedCollision;
+
   /**
    * Constructs a new particle.
    * 
@@ -299,13 +302,42 @@ public abstract class Particle implements ITimeToLive {
    *          The update ratio for this particle.
    */
   public void update(final Point2D emitterOrigin, final float updateRatio) {
+    if (!this.updateLifetime()) {
+      this.batchedCollision = null;
+      return;
+    }
+
+    // test for ray cast collision
+    final float targetX = this.x + this.getDx() * updateRatio;
+    final float targetY = this.y + this.getDy() * updateRatio;
+
+    if (this.checkForCollision(emitterOrigin, targetX, targetY)) {
+      return;
+    }
+
+    this.move(updateRatio, targetX, targetY);
+  }
+
+  /**
+   * Provides the result of a collision check that was already performed for a whole batch of particles (see
+   * {@link ParticleCollisionBatch}). The next {@link #update(Point2D, float)} uses this result instead of querying the
+   * physics engine.
+   *
+   * @param collides
+   *          True if this particle collides on its way to the next location.
+   */
+  void setBatchedCollision(final boolean collides) {
+    this.batchedCollision = collides;
+  }
+
+  private boolean updateLifetime() {
     if (this.aliveTick == 0) {
       this.aliveTick = Game.getLoop().getTicks();
     }
 
     this.aliveTime = Game.getLoop().getDeltaTime(this.aliveTick);
     if (this.timeToLiveReached() || this.colliding) {
-      return;
+      return false;
     }
 
     if (this.isFading()) {
@@ -314,15 +346,10 @@ public abstract class Particle implements ITimeToLive {
 
     final int alpha = (int) (this.getOpacity() * this.getColorAlpha());
     this.color = new Color(this.color.getRed(), this.color.getGreen(), this.color.getBlue(), alpha >= 0 ? alpha : 0);
+    return true;
+  }
 
-    // test for ray cast collision
-    final float targetX = this.x + this.getDx() * updateRatio;
-    final float targetY = this.y + this.getDy() * updateRatio;
-
-    if (this.checkForCollision(emitterOrigin, targetX, targetY)) {
-      return;
-    }
-
+  private void move(final float updateRatio, final float targetX, final float targetY) {
     if (this.getDx() != 0) {
       this.x = targetX;
     }
@@ -349,6 +376,16 @@ public abstract class Particle implements ITimeToLive {
   }
 
   private boolean checkForCollision(final Point2D emitterOrigin, float targetX, float targetY) {
+    final Boolean collides = this.batchedCollision;
+    if (collides != null) {
+      this.batchedCollision = null;
+      if (collides) {
+        this.collide();
+      }
+
+      return collides;
+    }
+
     if (this.isContinuousCollisionEnabled()) {
       Point2D start = this.getRelativeLocation(emitterOrigin);
       double endX = emitterOrigin.getX() + targetX - this.getWidth() / 2.0;
@@ -356,25 +393,43 @@ public abstract class Particle implements ITimeToLive {
 
       Line2D ray = new Line2D.Double(start.getX(), start.getY(), endX, endY);
       if (this.getCollisionType() != CollisionType.NONE && Game.getPhysicsEngine() != null && Game.getPhysicsEngine().collides(ray, this.getCollisionType()) != null) {
-        if (this.isFadingOnCollision()) {
-          this.opacity = 0;
-        }
-
-        this.colliding = true;
+        this.collide();
         return true;
       }
     } else if (this.getCollisionType() != CollisionType.NONE && Game.getPhysicsEngine() != null && Game.getPhysicsEngine().collides(this.getBoundingBox(emitterOrigin), this.getCollisionType())) {
-      if (this.isFadingOnCollision()) {
-        this.opacity = 0;
-      }
-
-      this.colliding = true;
+      this.collide();
       return true;
     }
 
     return false;
   }
 
+  private void collide() {
+    if (this.isFadingOnCollision()) {
+      this.opacity = 0;
+    }
+
+    this.colliding = true;
+  }
+
+  /**
+   * Applies the state that was simulated by a {@link ParticleStore} to this particle so it can be rendered. The color is
+   * only recreated if its alpha value changed.
+   */
+  void apply(final float x, final float y, final float width, final float height, final float opacity, final long aliveTime) {
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.opacity = opacity;
+    this.aliveTime = aliveTime;
+
+    final int alpha = Math.max(0, (int) (opacity * this.getColorAlpha()));
+    if (this.color != null && this.color.getAlpha() != alpha) {
+      this.color = new Color(this.color.getRed(), this.color.getGreen(), this.color.getBlue(), alpha);
+    }
+  }
+
   public Point2D getRelativeLocation(final Point2D effectLocation) {
     return new Point2D.Float(getRelativeX(effectLocation.getX()), getRelativeY(effectLocation.getY()));
   }
@@ -0,0 +1,154 @@
+package de.gurkenlabs.litiengine.graphics.particles;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+
+import de.gurkenlabs.litiengine.physics.CollisionType;
+import de.gurkenlabs.litiengine.physics.IPhysicsEngine;
+
+/**
+ * Collects the collision checks of all particles of an emitter during one update and resolves them with a single
+ * batched query per {@link CollisionType} and shape (see
+ * {@link IPhysicsEngine#collides(Rectangle2D[], int, CollisionType, BitSet)}). The shapes and results are pooled and
+ * reused by subsequent updates.
+ */
+final class ParticleCollisionBatch {
+  private final Map<CollisionType, Queries> queries;
+  private final BitSet collisions;
+
+  ParticleCollisionBatch() {
+    this.queries = new EnumMap<>(CollisionType.class);
+    this.collisions = new BitSet();
+  }
+
+  /**
+   * Adds the check whether the specified bounding box of a particle collides with anything.
+   *
+   * @param index
+   *          The index that identifies the particle in the result of this batch.
+   */
+  void addBox(final int index, final CollisionType collisionType, final double x, final double y, final double width, final double height) {
+    this.getQueries(collisionType).addBox(index, x, y, width, height);
+  }
+
+  /**
+   * Adds the check whether the movement of a particle from the specified start to the specified end collides with
+   * anything.
+   *
+   * @param index
+   *          The index that identifies the particle in the result of this batch.
+   */
+  void addRay(final int index, final CollisionType collisionType, final double x1, final double y1, final double x2, final double y2) {
+    this.getQueries(collisionType).addRay(index, x1, y1, x2, y2);
+  }
+
+  void clear() {
+    for (final Queries query : this.queries.values()) {
+      query.clear();
+    }
+
+    this.collisions.clear();
+  }
+
+  boolean collides(final int index) {
+    return this.collisions.get(index);
+  }
+
+  boolean isEmpty() {
+    for (final Queries query : this.queries.values()) {
+      if (query.boxCount > 0 || query.rayCount > 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Resolves all collision checks that were added since the last call to {@link #clear()}.
+   *
+   * @param physicsEngine
+   *          The physics engine to check the collisions with; if null, no particle collides.
+   */
+  void resolve(final IPhysicsEngine physicsEngine) {
+    this.collisions.clear();
+    if (physicsEngine == null) {
+      return;
+    }
+
+    for (final Map.Entry<CollisionType, Queries> entry : this.queries.entrySet()) {
+      entry.getValue().resolve(physicsEngine, entry.getKey(), this.collisions);
+    }
+  }
+
+  private Queries getQueries(final CollisionType collisionType) {
+    return this.queries.computeIfAbsent(collisionType, type -> new Queries());
+  }
+
+  private static final class Queries {
+    private final BitSet hits = new BitSet();
+
+    private Rectangle2D[] boxes = new Rectangle2D[0];
+    private int[] boxIndices = new int[0];
+    private int boxCount;
+
+    private Line2D[] rays = new Line2D[0];
+    private int[] rayIndices = new int[0];
+    private int rayCount;
+
+    private void addBox(final int index, final double x, final double y, final double width, final double height) {
+      if (this.boxCount == this.boxes.length) {
+        final int capacity = Math.max(16, this.boxes.length * 2);
+        this.boxes = Arrays.copyOf(this.boxes, capacity);
+        this.boxIndices = Arrays.copyOf(this.boxIndices, capacity);
+        for (int i = this.boxCount; i < capacity; i++) {
+          this.boxes[i] = new Rectangle2D.Double();
+        }
+      }
+
+      this.boxes[this.boxCount].setRect(x, y, width, height);
+      this.boxIndices[this.boxCount] = index;
+      this.boxCount++;
+    }
+
+    private void addRay(final int index, final double x1, final double y1, final double x2, final double y2) {
+      if (this.rayCount == this.rays.length) {
+        final int capacity = Math.max(16, this.rays.length * 2);
+        this.rays = Arrays.copyOf(this.rays, capacity);
+        this.rayIndices = Arrays.copyOf(this.rayIndices, capacity);
+        for (int i = this.rayCount; i < capacity; i++) {
+          this.rays[i] = new Line2D.Double();
+        }
+      }
+
+      this.rays[this.rayCount].setLine(x1, y1, x2, y2);
+      this.rayIndices[this.rayCount] = index;
+      this.rayCount++;
+    }
+
+    private void clear() {
+      this.boxCount = 0;
+      this.rayCount = 0;
+    }
+
+    private void resolve(final IPhysicsEngine physicsEngine, final CollisionType collisionType, final BitSet collisions) {
+      if (this.boxCount > 0) {
+        physicsEngine.collides(this.boxes, this.boxCount, collisionType, this.hits);
+        for (int i = this.hits.nextSetBit(0); i >= 0; i = this.hits.nextSetBit(i + 1)) {
+          collisions.set(this.boxIndices[i]);
+        }
+      }
+
+      if (this.rayCount > 0) {
+        physicsEngine.collides(this.rays, this.rayCount, collisionType, this.hits);
+        for (int i = this.hits.nextSetBit(0); i >= 0; i = this.hits.nextSetBit(i + 1)) {
+          collisions.set(this.rayIndices[i]);
+        }
+      }
+    }
+  }
+}
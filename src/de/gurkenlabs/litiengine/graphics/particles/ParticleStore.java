@@ -0,0 +1,322 @@
+package de.gurkenlabs.litiengine.graphics.particles;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.physics.CollisionType;
+
+/**
+ * Stores the simulated state of particles in parallel arrays instead of individual {@link Particle} instances. Updating
+ * the particles of a store neither creates objects nor touches the particle instances, which are only kept to render
+ * the particles in their individual style. Their state is applied from the store right before they are rendered.
+ * <p>
+ * The arrays are kept dense: Removing a particle moves the last particle of the store into the freed slot, so the order
+ * of the particles is not preserved.
+ * </p>
+ *
+ * @see Emitter#setUseParticleStore(boolean)
+ */
+public final class ParticleStore {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final byte FADE = 1;
+  private static final byte FADE_ON_COLLISION = 2;
+  private static final byte CONTINUOUS_COLLISION = 4;
+  private static final byte COLLIDING = 8;
+  private static final byte UPDATING = 16;
+
+  private final ParticleCollisionBatch collisionBatch;
+  private final List<Particle> view;
+
+  private Particle[] particles;
+  private CollisionType[] collisionTypes;
+  private float[] x;
+  private float[] y;
+  private float[] deltaX;
+  private float[] deltaY;
+  private float[] gravityX;
+  private float[] gravityY;
+  private float[] width;
+  private float[] height;
+  private float[] deltaWidth;
+  private float[] deltaHeight;
+  private float[] opacity;
+  private int[] timeToLive;
+  private long[] aliveTick;
+  private long[] aliveTime;
+  private byte[] flags;
+  private volatile int size;
+
+  public ParticleStore() {
+    this.collisionBatch = new ParticleCollisionBatch();
+    this.view = new ParticleList();
+    this.resize(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Adds the specified particle and takes over its current state. From now on, the state of the particle is simulated by
+   * this store.
+   *
+   * @param particle
+   *          The particle to add.
+   */
+  public void add(final Particle particle) {
+    if (this.size == this.particles.length) {
+      this.resize(this.particles.length * 2);
+    }
+
+    final int index = this.size;
+    this.particles[index] = particle;
+    this.collisionTypes[index] = particle.getCollisionType();
+    this.x[index] = particle.getX();
+    this.y[index] = particle.getY();
+    this.deltaX[index] = particle.getDx();
+    this.deltaY[index] = particle.getDy();
+    this.gravityX[index] = particle.getGravityX();
+    this.gravityY[index] = particle.getGravityY();
+    this.width[index] = particle.getWidth();
+    this.height[index] = particle.getHeight();
+    this.deltaWidth[index] = particle.getDeltaWidth();
+    this.deltaHeight[index] = particle.getDeltaHeight();
+    this.opacity[index] = particle.getOpacity();
+    this.timeToLive[index] = particle.getTimeToLive();
+    this.aliveTick[index] = 0;
+    this.aliveTime[index] = particle.getAliveTime();
+
+    byte particleFlags = 0;
+    if (particle.isFading()) {
+      particleFlags |= FADE;
+    }
+
+    if (particle.isFadingOnCollision()) {
+      particleFlags |= FADE_ON_COLLISION;
+    }
+
+    if (particle.isContinuousCollisionEnabled()) {
+      particleFlags |= CONTINUOUS_COLLISION;
+    }
+
+    this.flags[index] = particleFlags;
+    this.size = index + 1;
+  }
+
+  /**
+   * Gets a list view of the particles of this store. The particles that are obtained from the view have the state of the
+   * store applied to them.
+   *
+   * @return An unmodifiable view of the particles.
+   */
+  public List<Particle> asList() {
+    return this.view;
+  }
+
+  public void clear() {
+    Arrays.fill(this.particles, 0, this.size, null);
+    Arrays.fill(this.collisionTypes, 0, this.size, null);
+    this.size = 0;
+  }
+
+  /**
+   * Gets the particle at the specified index after applying the state of this store to it.
+   *
+   * @param index
+   *          The index of the particle.
+   * @return The particle or null if there is no particle at the specified index.
+   */
+  public Particle get(final int index) {
+    // the particles might be rendered on another thread while the store is updated
+    final Particle[] storedParticles = this.particles;
+    if (index < 0 || index >= this.size || index >= storedParticles.length) {
+      return null;
+    }
+
+    final Particle particle = storedParticles[index];
+    if (particle != null) {
+      particle.apply(this.x[index], this.y[index], this.width[index], this.height[index], this.opacity[index], this.aliveTime[index]);
+    }
+
+    return particle;
+  }
+
+  /**
+   * Removes all particles that have reached their time to live as of their last update.
+   */
+  public void removeExpired() {
+    int index = 0;
+    while (index < this.size) {
+      if (this.isExpired(index)) {
+        this.remove(index);
+      } else {
+        index++;
+      }
+    }
+  }
+
+  /**
+   * Removes the particle at the specified index by moving the last particle into its slot.
+   *
+   * @param index
+   *          The index of the particle to remove.
+   */
+  public void remove(final int index) {
+    final int last = this.size - 1;
+    if (index != last) {
+      this.particles[index] = this.particles[last];
+      this.collisionTypes[index] = this.collisionTypes[last];
+      this.x[index] = this.x[last];
+      this.y[index] = this.y[last];
+      this.deltaX[index] = this.deltaX[last];
+      this.deltaY[index] = this.deltaY[last];
+      this.gravityX[index] = this.gravityX[last];
+      this.gravityY[index] = this.gravityY[last];
+      this.width[index] = this.width[last];
+      this.height[index] = this.height[last];
+      this.deltaWidth[index] = this.deltaWidth[last];
+      this.deltaHeight[index] = this.deltaHeight[last];
+      this.opacity[index] = this.opacity[last];
+      this.timeToLive[index] = this.timeToLive[last];
+      this.aliveTick[index] = this.aliveTick[last];
+      this.aliveTime[index] = this.aliveTime[last];
+      this.flags[index] = this.flags[last];
+    }
+
+    this.particles[last] = null;
+    this.collisionTypes[last] = null;
+    this.size = last;
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Updates the location, size, opacity and remaining lifetime of all particles in the same way as
+   * {@link Particle#update(java.awt.geom.Point2D, float)}. The collisions of all particles are checked with one batched
+   * query.
+   *
+   * @param originX
+   *          The x-coordinate of the emitter origin.
+   * @param originY
+   *          The y-coordinate of the emitter origin.
+   * @param updateRatio
+   *          The update ratio for the particles.
+   */
+  public void update(final double originX, final double originY, final float updateRatio) {
+    final long ticks = Game.getLoop().getTicks();
+    this.collisionBatch.clear();
+    for (int i = 0; i < this.size; i++) {
+      if (this.updateLifetime(i, ticks) && this.collisionTypes[i] != CollisionType.NONE) {
+        this.addCollisionCheck(i, originX, originY, updateRatio);
+      }
+    }
+
+    if (!this.collisionBatch.isEmpty()) {
+      this.collisionBatch.resolve(Game.getPhysicsEngine());
+    }
+
+    for (int i = 0; i < this.size; i++) {
+      if ((this.flags[i] & UPDATING) == 0) {
+        continue;
+      }
+
+      this.flags[i] &= ~UPDATING;
+      if (this.collisionTypes[i] != CollisionType.NONE && this.collisionBatch.collides(i)) {
+        this.collide(i);
+      } else {
+        this.move(i, updateRatio);
+      }
+    }
+  }
+
+  private boolean updateLifetime(final int i, final long ticks) {
+    if (this.aliveTick[i] == 0) {
+      this.aliveTick[i] = ticks;
+    }
+
+    this.aliveTime[i] = Game.getLoop().getDeltaTime(this.aliveTick[i]);
+    if (this.isExpired(i) || (this.flags[i] & COLLIDING) != 0) {
+      return false;
+    }
+
+    if ((this.flags[i] & FADE) != 0) {
+      this.opacity[i] = (float) (this.timeToLive[i] > 0 ? (this.timeToLive[i] - this.aliveTime[i]) / (double) this.timeToLive[i] : 1);
+    }
+
+    this.flags[i] |= UPDATING;
+    return true;
+  }
+
+  private void addCollisionCheck(final int i, final double originX, final double originY, final float updateRatio) {
+    if ((this.flags[i] & CONTINUOUS_COLLISION) != 0) {
+      final float startX = (float) (originX + this.x[i] - this.width[i] / 2.0);
+      final float startY = (float) (originY + this.y[i] - this.height[i] / 2.0);
+      final float targetX = this.x[i] + this.deltaX[i] * updateRatio;
+      final float targetY = this.y[i] + this.deltaY[i] * updateRatio;
+      this.collisionBatch.addRay(i, this.collisionTypes[i], startX, startY, originX + targetX - this.width[i] / 2.0, originY + targetY - this.height[i] / 2.0);
+    } else {
+      this.collisionBatch.addBox(i, this.collisionTypes[i], originX + this.x[i], originY + this.y[i], this.width[i], this.height[i]);
+    }
+  }
+
+  private void collide(final int i) {
+    if ((this.flags[i] & FADE_ON_COLLISION) != 0) {
+      this.opacity[i] = 0;
+    }
+
+    this.flags[i] |= COLLIDING;
+  }
+
+  private void move(final int i, final float updateRatio) {
+    this.x[i] += this.deltaX[i] * updateRatio;
+    this.y[i] += this.deltaY[i] * updateRatio;
+    this.deltaX[i] += this.gravityX[i] * updateRatio;
+    this.deltaY[i] += this.gravityY[i] * updateRatio;
+    this.width[i] += this.deltaWidth[i] * updateRatio;
+    this.height[i] += this.deltaHeight[i] * updateRatio;
+  }
+
+  private boolean isExpired(final int i) {
+    return this.timeToLive[i] > 0 && this.aliveTime[i] >= this.timeToLive[i];
+  }
+
+  private void resize(final int capacity) {
+    this.collisionTypes = this.collisionTypes == null ? new CollisionType[capacity] : Arrays.copyOf(this.collisionTypes, capacity);
+    this.x = this.x == null ? new float[capacity] : Arrays.copyOf(this.x, capacity);
+    this.y = this.y == null ? new float[capacity] : Arrays.copyOf(this.y, capacity);
+    this.deltaX = this.deltaX == null ? new float[capacity] : Arrays.copyOf(this.deltaX, capacity);
+    this.deltaY = this.deltaY == null ? new float[capacity] : Arrays.copyOf(this.deltaY, capacity);
+    this.gravityX = this.gravityX == null ? new float[capacity] : Arrays.copyOf(this.gravityX, capacity);
+    this.gravityY = this.gravityY == null ? new float[capacity] : Arrays.copyOf(this.gravityY, capacity);
+    this.width = this.width == null ? new float[capacity] : Arrays.copyOf(this.width, capacity);
+    this.height = this.height == null ? new float[capacity] : Arrays.copyOf(this.height, capacity);
+    this.deltaWidth = this.deltaWidth == null ? new float[capacity] : Arrays.copyOf(this.deltaWidth, capacity);
+    this.deltaHeight = this.deltaHeight == null ? new float[capacity] : Arrays.copyOf(this.deltaHeight, capacity);
+    this.opacity = this.opacity == null ? new float[capacity] : Arrays.copyOf(this.opacity, capacity);
+    this.timeToLive = this.timeToLive == null ? new int[capacity] : Arrays.copyOf(this.timeToLive, capacity);
+    this.aliveTick = this.aliveTick == null ? new long[capacity] : Arrays.copyOf(this.aliveTick, capacity);
+    this.aliveTime = this.aliveTime == null ? new long[capacity] : Arrays.copyOf(this.aliveTime, capacity);
+    this.flags = this.flags == null ? new byte[capacity] : Arrays.copyOf(this.flags, capacity);
+
+    // the particles are resized last because their length is used to check indices that are accessed concurrently
+    this.particles = this.particles == null ? new Particle[capacity] : Arrays.copyOf(this.particles, capacity);
+  }
+
+  private final class ParticleList extends AbstractList<Particle> {
+    @Override
+    public Particle get(final int index) {
+      final Particle particle = ParticleStore.this.get(index);
+      if (particle == null) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+      }
+
+      return particle;
+    }
+
+    @Override
+    public int size() {
+      return ParticleStore.this.size();
+    }
+  }
+}
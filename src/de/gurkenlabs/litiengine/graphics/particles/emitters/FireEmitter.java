@@ -80,7 +80,7 @@ public class FireEmitter extends Emitter {
 
     // only allow particle spawn if there is enough space to spawn particles in
     // all colors
-    if (this.getParticles().size() > this.getMaxParticles() - NEW_PARTICLE_COUNT) {
+    if (this.getParticleCount() > this.getMaxParticles() - NEW_PARTICLE_COUNT) {
       return;
     }
 
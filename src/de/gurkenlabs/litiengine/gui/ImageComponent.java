@@ -57,8 +57,9 @@ public class ImageComponent extends GuiComponent {
     }
 
     final String cacheKey = this.getSpritesheet().getName().hashCode() + "_" + this.isHovered() + "_" + this.isPressed() + "_" + this.isEnabled() + "_" + this.getWidth() + "x" + this.getHeight();
-    if (ImageCache.SPRITES.containsKey(cacheKey)) {
-      return ImageCache.SPRITES.get(cacheKey);
+    final BufferedImage cached = ImageCache.SPRITES.get(cacheKey);
+    if (cached != null) {
+      return cached;
     }
 
     int spriteIndex = BACKGROUND_INDEX;
@@ -92,8 +93,9 @@ public class ImageComponent extends GuiComponent {
     }
 
     final String cacheKey = this.image.hashCode() + "_" + imageWidth + "+" + imageHeight;
-    if (ImageCache.SPRITES.containsKey(cacheKey)) {
-      return ImageCache.SPRITES.get(cacheKey);
+    final BufferedImage cached = ImageCache.SPRITES.get(cacheKey);
+    if (cached != null) {
+      return cached;
     }
 
     BufferedImage bufferedImage = ImageProcessing.toBufferedImage(this.image);
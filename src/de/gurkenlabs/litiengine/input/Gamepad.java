@@ -9,6 +9,7 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.UpdatePhase;
 import net.java.games.input.Component;
 import net.java.games.input.Component.Identifier;
 import net.java.games.input.Controller;
@@ -112,6 +113,11 @@ public class Gamepad implements IGamepad, IUpdateable {
     this.releasedConsumer.add(consumer);
   }
 
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.INPUT;
+  }
+
   @Override
   public void update() {
     final boolean couldPoll = this.controller.poll();
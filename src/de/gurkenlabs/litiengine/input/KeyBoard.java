@@ -10,6 +10,8 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
+import de.gurkenlabs.litiengine.UpdatePhase;
+
 /**
  * The listener interface for receiving userKey events. The class that is
  * interested in processing a userKey event implements this interface, and the
@@ -154,6 +156,11 @@ public class KeyBoard implements KeyEventDispatcher, IKeyboard {
     this.keyObservers.remove(observer);
   }
 
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.INPUT;
+  }
+
   @Override
   public void update() {
     this.executePressedKeys();
@@ -2,28 +2,49 @@ package de.gurkenlabs.litiengine.pathfinding;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.geom.GeneralPath;
 import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 
 import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.UpdatePhase;
 import de.gurkenlabs.litiengine.entities.IMobileEntity;
 import de.gurkenlabs.litiengine.util.geom.GeometricUtilities;
 
 /**
  * The Class EntityNavigator.
+ * <p>
+ * When the navigation along a path starts, the path is converted once into a flat array of waypoint coordinates, so
+ * that every update only needs to look up the current waypoint. Optionally, the waypoints are smoothed by skipping all
+ * waypoints that can be reached on a straight line from a previous waypoint without colliding.
+ * </p>
  */
 public class EntityNavigator implements IEntityNavigator {
 
   /** The Constant ACCEPTABLE_ERROR. */
   private static final float ACCEPTABLE_ERROR = 0.3f;
 
+  /** The initial number of waypoints that can be held without growing the waypoint array. */
+  private static final int INITIAL_WAYPOINTS = 16;
+
   private final List<Predicate<IMobileEntity>> cancelNavigationConditions;
-  /** The current segments. */
-  private int currentSegment;
+
+  /** The index of the waypoint the entity is currently moving to. */
+  private int currentWaypoint;
+
+  /** The x- and y-coordinates of the waypoints of the current path, interleaved. */
+  private double[] waypoints;
+  private int waypointCount;
+  private final double[] segment;
+  private boolean pathSmoothing;
+
   private final IMobileEntity entity;
 
   /** The navigations. */
@@ -31,6 +52,9 @@ public class EntityNavigator implements IEntityNavigator {
 
   private final IPathFinder pathFinder;
 
+  private PathRequestService pathRequestService;
+  private CompletableFuture<Path> pendingPath;
+
   /**
    * Instantiates a new entity navigator.
    * 
@@ -41,6 +65,8 @@ public class EntityNavigator implements IEntityNavigator {
    */
   public EntityNavigator(final IMobileEntity entity, final IPathFinder pathFinder) {
     this.cancelNavigationConditions = new CopyOnWriteArrayList<>();
+    this.waypoints = new double[INITIAL_WAYPOINTS * 2];
+    this.segment = new double[6];
     this.entity = entity;
     this.pathFinder = pathFinder;
     Game.getLoop().attach(this);
@@ -68,21 +94,40 @@ public class EntityNavigator implements IEntityNavigator {
     return this.pathFinder;
   }
 
+  public PathRequestService getPathRequestService() {
+    return this.pathRequestService;
+  }
+
+  /**
+   * Determines whether the waypoints of a path are smoothed when the navigation along it starts.
+   *
+   * @return True if waypoints that can be skipped without colliding are removed from the paths; otherwise false.
+   * @see #setPathSmoothing(boolean)
+   */
+  public boolean isPathSmoothing() {
+    return this.pathSmoothing;
+  }
+
   @Override
   public boolean isNavigating() {
-    return this.path != null;
+    return this.path != null || this.pendingPath != null;
   }
 
   @Override
   public boolean navigate(final Path2D path) {
-    this.path = new Path(path);
+    this.cancelPendingPath();
+    this.setPath(new Path(path));
     return this.path != null;
   }
 
   @Override
   public boolean navigate(final Point2D target) {
+    if (this.getPathRequestService() != null) {
+      return this.requestPath(target);
+    }
+
     if (this.getPathFinder() != null) {
-      this.path = this.getPathFinder().findPath(this.entity, target);
+      this.setPath(this.getPathFinder().findPath(this.entity, target));
     }
 
     return this.path != null;
@@ -104,14 +149,46 @@ public class EntityNavigator implements IEntityNavigator {
     this.entity.setAngle((float) angle);
   }
 
+  /**
+   * Sets the service that is used to find paths asynchronously. If a service is set, {@link #navigate(Point2D)} only
+   * enqueues a path request and the navigation starts with the first update after the path was found.
+   *
+   * @param pathRequestService
+   *          The service to use or null to find paths synchronously with the path finder of this instance.
+   */
+  public void setPathRequestService(final PathRequestService pathRequestService) {
+    this.pathRequestService = pathRequestService;
+  }
+
+  /**
+   * Sets whether the waypoints of a path are smoothed when the navigation along it starts. Smoothing removes every
+   * waypoint that can be skipped by moving on a straight line from the previous remaining waypoint to the next one
+   * without intersecting any collision box. This requires the path finder of this instance to be a {@link PathFinder}
+   * and doesn't affect a path that is currently navigated.
+   *
+   * @param pathSmoothing
+   *          True if the paths should be smoothed; otherwise false.
+   */
+  public void setPathSmoothing(final boolean pathSmoothing) {
+    this.pathSmoothing = pathSmoothing;
+  }
+
   @Override
   public void stop() {
-    this.currentSegment = 0;
+    this.currentWaypoint = 0;
+    this.waypointCount = 0;
     this.path = null;
+    this.cancelPendingPath();
+  }
+
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.AI;
   }
 
   @Override
   public void update() {
+    this.applyPendingPath();
     if (!this.isNavigating()) {
       return;
     }
@@ -127,42 +204,160 @@ public class EntityNavigator implements IEntityNavigator {
       }
     }
 
-    final PathIterator pi = this.path.getPath().getPathIterator(null);
-    if (pi.isDone()) {
+    if (this.currentWaypoint >= this.waypointCount) {
       this.stop();
       return;
     }
 
-    // although at max 6 elements are returned, sometimes the path
-    // implementation tries to access index 20 ... don't know why, but this
-    // prevents it
-    final double[] startCoordinates = new double[22];
-    final double[] coordinates = new double[22];
-    for (int i = 0; i <= this.currentSegment; i++) {
-      if (pi.isDone()) {
-        this.stop();
-        return;
-      }
+    final double x = this.waypoints[this.currentWaypoint * 2];
+    final double y = this.waypoints[this.currentWaypoint * 2 + 1];
 
-      pi.currentSegment(startCoordinates);
-      pi.next();
+    final double distance = GeometricUtilities.distance(this.entity.getCollisionBox().getCenterX(), this.entity.getCollisionBox().getCenterY(), x, y);
+    if (distance < ACCEPTABLE_ERROR) {
+      ++this.currentWaypoint;
+      return;
     }
 
-    if (pi.isDone()) {
-      this.stop();
+    final double angle = GeometricUtilities.calcRotationAngleInDegrees(this.entity.getCollisionBox().getCenterX(), this.entity.getCollisionBox().getCenterY(), x, y);
+    final float pixelsPerTick = this.entity.getTickVelocity();
+    Game.getPhysicsEngine().move(this.entity, (float) angle, (float) (distance < pixelsPerTick ? distance : pixelsPerTick));
+  }
+
+  private boolean requestPath(final Point2D target) {
+    this.cancelPendingPath();
+    final CompletableFuture<Path> request = this.getPathRequestService().request(this.entity, target);
+    if (request.isDone()) {
+      this.pendingPath = request;
+      this.applyPendingPath();
+      return this.path != null;
+    }
+
+    this.pendingPath = request;
+    return true;
+  }
+
+  private void applyPendingPath() {
+    final CompletableFuture<Path> request = this.pendingPath;
+    if (request == null || !request.isDone()) {
       return;
     }
 
-    pi.currentSegment(coordinates);
+    this.pendingPath = null;
+    if (!request.isCompletedExceptionally()) {
+      this.setPath(request.join());
+    }
+  }
 
-    final double distance = GeometricUtilities.distance(this.entity.getCollisionBox().getCenterX(), this.entity.getCollisionBox().getCenterY(), coordinates[0], coordinates[1]);
-    if (distance < ACCEPTABLE_ERROR) {
-      ++this.currentSegment;
+  /**
+   * Starts the navigation along the specified path by converting it into waypoints. The first waypoint is the start of
+   * the path, so the entity initially moves towards the second one.
+   *
+   * @param newPath
+   *          The path to navigate along or null to stop the navigation.
+   */
+  private void setPath(final Path newPath) {
+    this.currentWaypoint = 1;
+    this.waypointCount = 0;
+    if (newPath == null || newPath.getPath() == null) {
+      this.path = null;
       return;
     }
 
-    final double angle = GeometricUtilities.calcRotationAngleInDegrees(this.entity.getCollisionBox().getCenterX(), this.entity.getCollisionBox().getCenterY(), coordinates[0], coordinates[1]);
-    final float pixelsPerTick = this.entity.getTickVelocity();
-    Game.getPhysicsEngine().move(this.entity, (float) angle, (float) (distance < pixelsPerTick ? distance : pixelsPerTick));
+    final PathIterator pi = newPath.getPath().getPathIterator(null);
+    while (!pi.isDone()) {
+      // the end point of a segment is stored in its last coordinates; closing a path doesn't add another point
+      switch (pi.currentSegment(this.segment)) {
+      case PathIterator.SEG_MOVETO:
+      case PathIterator.SEG_LINETO:
+        this.addWaypoint(this.segment[0], this.segment[1]);
+        break;
+      case PathIterator.SEG_QUADTO:
+        this.addWaypoint(this.segment[2], this.segment[3]);
+        break;
+      case PathIterator.SEG_CUBICTO:
+        this.addWaypoint(this.segment[4], this.segment[5]);
+        break;
+      default:
+        break;
+      }
+
+      pi.next();
+    }
+
+    this.path = this.pathSmoothing && this.smoothWaypoints() ? this.createPath() : newPath;
+  }
+
+  private void addWaypoint(final double x, final double y) {
+    if (this.waypointCount * 2 == this.waypoints.length) {
+      this.waypoints = Arrays.copyOf(this.waypoints, this.waypoints.length * 2);
+    }
+
+    this.waypoints[this.waypointCount * 2] = x;
+    this.waypoints[this.waypointCount * 2 + 1] = y;
+    this.waypointCount++;
+  }
+
+  /**
+   * Removes all waypoints that can be skipped without colliding by pulling the path taut: Starting at the first
+   * waypoint, a waypoint is only kept if the one after it can't be reached on a straight line from the last kept
+   * waypoint.
+   *
+   * @return True if any waypoints were removed; otherwise false.
+   */
+  private boolean smoothWaypoints() {
+    if (!(this.getPathFinder() instanceof PathFinder) || this.waypointCount < 3) {
+      return false;
+    }
+
+    final PathFinder finder = (PathFinder) this.getPathFinder();
+
+    // the kept waypoints are moved to the front of the array, which never overwrites the last kept waypoint
+    int kept = 1;
+    int anchor = 0;
+    for (int i = 2; i < this.waypointCount; i++) {
+      if (finder.intersectsWithAnyCollisionBox(this.entity, this.getWaypoint(anchor), this.getWaypoint(i))) {
+        anchor = i - 1;
+        this.waypoints[kept * 2] = this.waypoints[anchor * 2];
+        this.waypoints[kept * 2 + 1] = this.waypoints[anchor * 2 + 1];
+        kept++;
+      }
+    }
+
+    final int last = this.waypointCount - 1;
+    this.waypoints[kept * 2] = this.waypoints[last * 2];
+    this.waypoints[kept * 2 + 1] = this.waypoints[last * 2 + 1];
+    kept++;
+
+    final boolean removed = kept < this.waypointCount;
+    this.waypointCount = kept;
+    return removed;
+  }
+
+  private Point2D getWaypoint(final int index) {
+    return new Point2D.Double(this.waypoints[index * 2], this.waypoints[index * 2 + 1]);
+  }
+
+  private Path createPath() {
+    final Path2D path2D = new GeneralPath(Path2D.WIND_NON_ZERO);
+    final List<Point2D> points = new ArrayList<>();
+    for (int i = 0; i < this.waypointCount; i++) {
+      final Point2D point = this.getWaypoint(i);
+      if (i == 0) {
+        path2D.moveTo(point.getX(), point.getY());
+      } else {
+        path2D.lineTo(point.getX(), point.getY());
+      }
+
+      points.add(point);
+    }
+
+    return new Path(points.get(0), points.get(points.size() - 1), path2D, points);
+  }
+
+  private void cancelPendingPath() {
+    if (this.pendingPath != null) {
+      this.pendingPath.cancel(false);
+      this.pendingPath = null;
+    }
   }
 }
\ No newline at end of file
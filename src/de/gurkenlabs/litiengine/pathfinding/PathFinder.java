@@ -10,7 +10,6 @@ import java.util.List;
 
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.entities.ICollisionEntity;
-import de.gurkenlabs.litiengine.util.geom.GeometricUtilities;
 
 public abstract class PathFinder implements IPathFinder {
   private static final float PATH_MARGIN = 2.0f;
@@ -36,26 +35,11 @@ public abstract class PathFinder implements IPathFinder {
   }
 
   protected boolean intersectsWithAnyCollisionBox(final ICollisionEntity entity, final Point2D start, final Point2D target) {
-    final List<Rectangle2D> allCollisionBoxes = Game.getPhysicsEngine().getAllCollisionBoxes();
-
-    final Line2D line = new Line2D.Double(start, target);
-    for (final Rectangle2D collisionBox : allCollisionBoxes) {
-      if (collisionBox.equals(entity.getCollisionBox())) {
-        continue;
-      }
-
-      // apply a margin for the path calculation in order to take the entities
-      // collision box into consideration
-      final Rectangle2D rectangleWithMargin = this.applyPathMargin(entity, collisionBox);
-
-      // if the start is in the margin, the margin is not considered when
-      // checking for collision because this will always return true
-      Point2D intersection = GeometricUtilities.getIntersectionPoint(line, rectangleWithMargin.contains(start) ? collisionBox : rectangleWithMargin);
-      if (intersection != null) {
-        return true;
-      }
-    }
-
-    return false;
+    // apply a margin for the path calculation in order to take the entities
+    // collision box into consideration; if the start is in the margin, the
+    // margin is not considered because this would always result in a collision
+    final double marginX = entity.getCollisionBox().getWidth() * 0.5 + PATH_MARGIN;
+    final double marginY = entity.getCollisionBox().getHeight() * 0.5 + PATH_MARGIN;
+    return Game.getPhysicsEngine().intersectsAnyCollisionBox(new Line2D.Double(start, target), marginX, marginY, entity);
   }
 }
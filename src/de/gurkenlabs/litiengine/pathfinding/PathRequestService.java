@@ -0,0 +1,295 @@
+package de.gurkenlabs.litiengine.pathfinding;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarGrid;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarGridSnapshot;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarNode;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarPathFinder;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarSearch;
+
+/**
+ * Processes path requests asynchronously on a pool of worker threads. The searches run against an immutable
+ * {@link AStarGridSnapshot} of the grid of the specified {@link AStarPathFinder}, which allows any number of them to run
+ * concurrently while the game loop keeps updating the grid.
+ * <p>
+ * Whenever {@link AStarGrid#updateWalkable(Rectangle2D)} changes a region, requests that are still in flight are re-run
+ * on a new snapshot if the region lies between their start and target or if the path they found crosses the region.
+ * If the path of a request is still affected by a change after it has been re-run three times, its
+ * future is completed exceptionally with a {@link StalePathException}.
+ * </p>
+ */
+public class PathRequestService implements AutoCloseable {
+  private static final int MAX_RERUNS = 3;
+  private static final int[][] NEIGHBOR_OFFSETS = { { 0, -1 }, { 0, 1 }, { 1, 0 }, { -1, 0 } };
+  private static final int[][] DIAGONAL_NEIGHBOR_OFFSETS = { { -1, -1 }, { 1, -1 }, { -1, 1 }, { 1, 1 } };
+
+  private final AStarPathFinder pathFinder;
+  private final ExecutorService executor;
+  private final ThreadLocal<AStarSearch> searches;
+  private final Set<PathRequest> pendingRequests;
+  private final Consumer<Rectangle2D> walkableUpdatedConsumer;
+
+  /**
+   * Instantiates a new path request service that uses one worker thread less than the number of available processors.
+   *
+   * @param pathFinder
+   *          The path finder whose grid is searched by this instance.
+   */
+  public PathRequestService(final AStarPathFinder pathFinder) {
+    this(pathFinder, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+  }
+
+  public PathRequestService(final AStarPathFinder pathFinder, final int threads) {
+    this.pathFinder = pathFinder;
+    this.searches = ThreadLocal.withInitial(AStarSearch::new);
+    this.pendingRequests = ConcurrentHashMap.newKeySet();
+
+    final AtomicInteger threadCount = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      final Thread thread = new Thread(runnable, "pathfinding-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    this.walkableUpdatedConsumer = this::walkableUpdated;
+    this.pathFinder.getGrid().onWalkableUpdated(this.walkableUpdatedConsumer);
+  }
+
+  /**
+   * Cancels all pending requests, stops the worker threads and stops listening to changes of the grid.
+   */
+  @Override
+  public void close() {
+    this.pathFinder.getGrid().removeWalkableUpdatedConsumer(this.walkableUpdatedConsumer);
+    this.executor.shutdownNow();
+    for (final PathRequest request : this.pendingRequests) {
+      request.future.cancel(false);
+    }
+  }
+
+  public AStarPathFinder getPathFinder() {
+    return this.pathFinder;
+  }
+
+  public int getPendingRequests() {
+    return this.pendingRequests.size();
+  }
+
+  /**
+   * Requests a path for the specified entity. If there is no collision between the entity and the target, the direct path
+   * is returned immediately without involving the worker threads.
+   *
+   * @param entity
+   *          The entity to find the path for.
+   * @param target
+   *          The target of the path.
+   * @return A future that is completed with the found path or null if there is no path. It is completed exceptionally
+   *         with a {@link StalePathException} if the grid kept changing along the path.
+   */
+  public CompletableFuture<Path> request(final IMobileEntity entity, final Point2D target) {
+    final Point2D startLocation = entity.getCollisionBoxCenter();
+    if (!this.pathFinder.intersectsWithAnyCollisionBox(entity, startLocation, target)) {
+      return CompletableFuture.completedFuture(this.pathFinder.findDirectPath(startLocation, target));
+    }
+
+    return this.request(startLocation, target);
+  }
+
+  /**
+   * Requests a path between the specified locations on the grid.
+   *
+   * @param start
+   *          The start of the path.
+   * @param target
+   *          The target of the path.
+   * @return A future that is completed with the found path or null if there is no path. It is completed exceptionally
+   *         with a {@link StalePathException} if the grid kept changing along the path.
+   */
+  public CompletableFuture<Path> request(final Point2D start, final Point2D target) {
+    final PathRequest request = new PathRequest(start, target);
+    this.pendingRequests.add(request);
+    request.future.whenComplete((path, throwable) -> this.pendingRequests.remove(request));
+    this.submit(request);
+    return request.future;
+  }
+
+  private void submit(final PathRequest request) {
+    synchronized (request) {
+      final int attempt = ++request.attempt;
+      request.changedRegions.clear();
+      request.task = this.executor.submit(() -> this.process(request, attempt));
+    }
+  }
+
+  private void process(final PathRequest request, final int attempt) {
+    if (request.future.isDone() || request.attempt != attempt) {
+      return;
+    }
+
+    Path path;
+    try {
+      path = this.findPath(this.pathFinder.getGrid().getSnapshot(), request.start, request.target);
+    } catch (final RuntimeException e) {
+      request.future.completeExceptionally(e);
+      return;
+    }
+
+    synchronized (request) {
+      // the request was restarted in the meantime
+      if (request.attempt != attempt) {
+        return;
+      }
+
+      if (request.isAffected(path)) {
+        if (request.reruns < MAX_RERUNS) {
+          request.reruns++;
+          this.submit(request);
+        } else {
+          request.future.completeExceptionally(new StalePathException(request.start, request.target, request.reruns));
+        }
+
+        return;
+      }
+
+      request.future.complete(path);
+    }
+  }
+
+  private Path findPath(final AStarGridSnapshot snapshot, final Point2D start, final Point2D target) {
+    final AStarNode startNode = this.pathFinder.getGrid().getNode(start);
+    final AStarNode targetNode = this.pathFinder.getGrid().getNode(target);
+    if (startNode == null || targetNode == null || startNode.equals(targetNode)) {
+      return null;
+    }
+
+    int targetX = targetNode.getGridX();
+    int targetY = targetNode.getGridY();
+
+    // simple fallback if the target node is not walkable.
+    if (!snapshot.isWalkable(targetX, targetY)) {
+      final int[] neighbor = findWalkableNeighbor(snapshot, targetX, targetY);
+      if (neighbor == null) {
+        return this.pathFinder.findDirectPath(start, target);
+      }
+
+      targetX = neighbor[0];
+      targetY = neighbor[1];
+      if (targetX == startNode.getGridX() && targetY == startNode.getGridY()) {
+        return null;
+      }
+    }
+
+    return this.searches.get().findPath(snapshot, startNode.getGridX(), startNode.getGridY(), targetX, targetY);
+  }
+
+  private static int[] findWalkableNeighbor(final AStarGridSnapshot snapshot, final int x, final int y) {
+    final int[] neighbor = findWalkableNeighbor(snapshot, x, y, NEIGHBOR_OFFSETS);
+    if (neighbor != null || !snapshot.isDiagonalMovementAllowed()) {
+      return neighbor;
+    }
+
+    return findWalkableNeighbor(snapshot, x, y, DIAGONAL_NEIGHBOR_OFFSETS);
+  }
+
+  private static int[] findWalkableNeighbor(final AStarGridSnapshot snapshot, final int x, final int y, final int[][] offsets) {
+    for (final int[] offset : offsets) {
+      final int neighborX = x + offset[0];
+      final int neighborY = y + offset[1];
+      if (snapshot.isInGrid(neighborX, neighborY) && snapshot.isWalkable(neighborX, neighborY)) {
+        return new int[] { neighborX, neighborY };
+      }
+    }
+
+    return null;
+  }
+
+  private void walkableUpdated(final Rectangle2D region) {
+    if (this.executor.isShutdown()) {
+      return;
+    }
+
+    final double margin = this.pathFinder.getGrid().getNodeSize();
+    for (final PathRequest request : this.pendingRequests) {
+      synchronized (request) {
+        if (request.future.isDone()) {
+          continue;
+        }
+
+        final Rectangle2D searchArea = new Rectangle2D.Double(request.bounds.getX() - margin, request.bounds.getY() - margin, request.bounds.getWidth() + margin * 2, request.bounds.getHeight() + margin * 2);
+        if (request.reruns < MAX_RERUNS && searchArea.intersects(region)) {
+          request.reruns++;
+          final Future<?> task = request.task;
+          if (task != null) {
+            task.cancel(false);
+          }
+
+          this.submit(request);
+        } else {
+          request.changedRegions.add(region);
+        }
+      }
+    }
+  }
+
+  private static final class PathRequest {
+    private final Point2D start;
+    private final Point2D target;
+    private final Rectangle2D bounds;
+    private final CompletableFuture<Path> future;
+    private final List<Rectangle2D> changedRegions;
+
+    private volatile int attempt;
+    private int reruns;
+    private Future<?> task;
+
+    private PathRequest(final Point2D start, final Point2D target) {
+      this.start = start;
+      this.target = target;
+      this.bounds = new Rectangle2D.Double(Math.min(start.getX(), target.getX()), Math.min(start.getY(), target.getY()), Math.abs(start.getX() - target.getX()), Math.abs(start.getY() - target.getY()));
+      this.future = new CompletableFuture<>();
+      this.changedRegions = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Checks whether the specified result was invalidated by any of the regions that changed while it was searched.
+     */
+    private boolean isAffected(final Path path) {
+      if (this.changedRegions.isEmpty()) {
+        return false;
+      }
+
+      // the target might have become reachable
+      if (path == null) {
+        return true;
+      }
+
+      final List<Point2D> points = path.getPoints();
+      for (final Rectangle2D region : this.changedRegions) {
+        Point2D previous = path.getStart();
+        for (int i = 0; i <= points.size(); i++) {
+          final Point2D next = i < points.size() ? points.get(i) : path.getTarget();
+          if (region.intersectsLine(previous.getX(), previous.getY(), next.getX(), next.getY())) {
+            return true;
+          }
+
+          previous = next;
+        }
+      }
+
+      return false;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package de.gurkenlabs.litiengine.pathfinding;
+
+import java.awt.geom.Point2D;
+
+/**
+ * Indicates that the grid kept changing along a requested path, so that the last path that has been found for it might
+ * already be invalid.
+ *
+ * @see PathRequestService
+ */
+public class StalePathException extends RuntimeException {
+  private static final long serialVersionUID = -3785150429187302914L;
+
+  private final transient Point2D start;
+  private final transient Point2D target;
+
+  public StalePathException(final Point2D start, final Point2D target, final int reruns) {
+    super("The path from " + start + " to " + target + " was still affected by changes of the grid after " + reruns + " re-runs.");
+    this.start = start;
+    this.target = target;
+  }
+
+  public Point2D getStart() {
+    return this.start;
+  }
+
+  public Point2D getTarget() {
+    return this.target;
+  }
+}
@@ -7,20 +7,42 @@ import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import de.gurkenlabs.litiengine.Game;
-import de.gurkenlabs.litiengine.entities.Prop;
 import de.gurkenlabs.litiengine.graphics.IRenderable;
 import de.gurkenlabs.litiengine.physics.CollisionType;
 import de.gurkenlabs.litiengine.util.MathUtilities;
 
+/**
+ * A grid of nodes that covers a map for the A* path finding. The walkability and the penalties of the nodes are stored
+ * in compact arrays. The {@link AStarNode} instances are only views onto these arrays which are created on demand.
+ */
 public class AStarGrid implements IRenderable {
   public static final double PENALTY_STATIC_PROP = 5;
   public static final double PENALTY_NOT_WALKABLE_NEIGHBOR = 4;
+
+  /**
+   * The highest penalty that can be assigned to a node.
+   */
+  public static final int MAX_PENALTY = 255;
+
   private final AStarNode[][] grid;
   private final int nodeSize;
   private final Dimension size;
+  private final int columns;
+  private final int rows;
+  private final BitSet walkable;
+  private final byte[] penalties;
+  private final List<Consumer<Rectangle2D>> walkableUpdatedConsumers;
+
+  private volatile boolean allNodesCreated;
+
+  private AStarGridSnapshot snapshot;
+  private long version;
 
   private boolean allowDiagonalMovement = true;
   private boolean allowCuttingCorners;
@@ -29,13 +51,30 @@ public class AStarGrid implements IRenderable {
     this(new Dimension(width, height), nodeSize);
   }
 
+  /**
+   * Instantiates a new grid whose nodes are not walkable if they collide with any static collision box of the current
+   * physics engine.
+   *
+   * @param size
+   *          The size of the grid in pixels.
+   * @param nodeSize
+   *          The size of a single node in pixels.
+   * @see AStarGridBuilder#addGameObstacles()
+   */
   public AStarGrid(final Dimension size, final int nodeSize) {
+    this(size, nodeSize, new BitSet(), new byte[size.width / nodeSize * (size.height / nodeSize)]);
+    new AStarGridBuilder(size, nodeSize).addGameObstacles().rasterize(this.walkable, this.penalties);
+  }
+
+  AStarGrid(final Dimension size, final int nodeSize, final BitSet walkable, final byte[] penalties) {
     this.size = size;
     this.nodeSize = nodeSize;
-    final int gridSizeX = this.size.width / nodeSize;
-    final int gridSizeY = this.size.height / nodeSize;
-    this.grid = new AStarNode[gridSizeX][gridSizeY];
-    this.populateGrid(gridSizeX, gridSizeY);
+    this.columns = this.size.width / nodeSize;
+    this.rows = this.size.height / nodeSize;
+    this.grid = new AStarNode[this.columns][this.rows];
+    this.walkable = walkable;
+    this.penalties = penalties;
+    this.walkableUpdatedConsumers = new CopyOnWriteArrayList<>();
   }
 
   public boolean isDiagonalMovementAllowed() {
@@ -46,10 +85,34 @@ public class AStarGrid implements IRenderable {
     return this.allowCuttingCorners;
   }
 
+  /**
+   * Gets all nodes of this grid. This creates a view for every single node, so for large grids, the accessors that take
+   * grid coordinates are preferable.
+   *
+   * @return The nodes of this grid, indexed by their x- and y-coordinates.
+   */
   public AStarNode[][] getGrid() {
+    if (!this.allNodesCreated) {
+      for (int x = 0; x < this.columns; x++) {
+        for (int y = 0; y < this.rows; y++) {
+          this.getNode(x, y);
+        }
+      }
+
+      this.allNodesCreated = true;
+    }
+
     return this.grid;
   }
 
+  public int getColumns() {
+    return this.columns;
+  }
+
+  public int getRows() {
+    return this.rows;
+  }
+
   public List<AStarNode> getIntersectedNodes(final Rectangle2D rectangle) {
     final Point2D start = new Point2D.Double(rectangle.getMinX(), rectangle.getMinY());
     final Point2D end = new Point2D.Double(rectangle.getMaxX(), rectangle.getMaxY());
@@ -64,7 +127,7 @@ public class AStarGrid implements IRenderable {
 
     for (int x = startNode.getGridX(); x <= endNode.getGridX(); x++) {
       for (int y = startNode.getGridY(); y <= endNode.getGridY(); y++) {
-        nodes.add(this.getGrid()[x][y]);
+        nodes.add(this.getNode(x, y));
       }
     }
 
@@ -108,51 +171,163 @@ public class AStarGrid implements IRenderable {
     int xNode = (int) (x / this.nodeSize);
     int yNode = (int) (y / this.nodeSize);
 
-    if (xNode >= this.getGrid().length || yNode >= this.getGrid()[0].length) {
+    if (xNode >= this.columns || yNode >= this.rows) {
       return null;
     }
 
     return this.getNode(xNode, yNode);
   }
 
+  /**
+   * Gets the node at the specified grid coordinates.
+   *
+   * @param x
+   *          The x-coordinate of the node on the grid.
+   * @param y
+   *          The y-coordinate of the node on the grid.
+   * @return The node or null if the coordinates are outside of this grid.
+   */
+  public AStarNode getNode(final int x, final int y) {
+    if (!this.isInGrid(x, y)) {
+      return null;
+    }
+
+    final AStarNode[] column = this.grid[x];
+    AStarNode node = column[y];
+    if (node == null) {
+      synchronized (column) {
+        node = column[y];
+        if (node == null) {
+          node = new AStarNode(this, x, y);
+          column[y] = node;
+        }
+      }
+    }
+
+    return node;
+  }
+
   public int getNodeSize() {
     return this.nodeSize;
   }
 
+  /**
+   * Gets an immutable snapshot of the current walkability and penalties of this grid. The snapshot is cached until a node
+   * of this grid changes.
+   *
+   * @return The most recent snapshot of this grid.
+   */
+  public synchronized AStarGridSnapshot getSnapshot() {
+    if (this.snapshot == null) {
+      this.snapshot = new AStarGridSnapshot(this, this.version);
+    }
+
+    return this.snapshot;
+  }
+
+  /**
+   * Gets the version of this grid which is increased whenever the walkability or the penalty of any node changes.
+   *
+   * @return The current version of this grid.
+   */
+  public synchronized long getVersion() {
+    return this.version;
+  }
+
+  public double getPenalty(final int x, final int y) {
+    return this.penalties[this.getIndex(x, y)] & 0xFF;
+  }
+
   public Dimension getSize() {
     return this.size;
   }
 
+  public boolean isInGrid(final int x, final int y) {
+    return x >= 0 && x < this.columns && y >= 0 && y < this.rows;
+  }
+
+  public boolean isWalkable(final int x, final int y) {
+    return this.walkable.get(this.getIndex(x, y));
+  }
+
   @Override
   public void render(Graphics2D g) {
     final Rectangle2D viewport = Game.getCamera().getViewPort();
 
-    final AStarNode startNode = this.getNode(viewport.getX(), viewport.getY());
-    final AStarNode endNode = this.getNode(viewport.getMaxX(), viewport.getMaxY());
-    final int startX = MathUtilities.clamp(startNode.getGridX(), 0, this.getGrid().length - 1);
-    final int endX = MathUtilities.clamp(endNode.getGridX(), 0, this.getGrid().length - 1);
-    final int startY = MathUtilities.clamp(startNode.getGridY(), 0, this.getGrid()[0].length - 1);
-    final int endY = MathUtilities.clamp(endNode.getGridY(), 0, this.getGrid()[0].length - 1);
+    final int startX = MathUtilities.clamp((int) (viewport.getX() / this.nodeSize), 0, this.columns - 1);
+    final int endX = MathUtilities.clamp((int) (viewport.getMaxX() / this.nodeSize), 0, this.columns - 1);
+    final int startY = MathUtilities.clamp((int) (viewport.getY() / this.nodeSize), 0, this.rows - 1);
+    final int endY = MathUtilities.clamp((int) (viewport.getMaxY() / this.nodeSize), 0, this.rows - 1);
 
     g.setColor(new Color(255, 0, 255, 100));
     for (int x = startX; x <= endX; x++) {
       for (int y = startY; y <= endY; y++) {
-        AStarNode node = this.getGrid()[x][y];
-        if (node.isWalkable()) {
-          Game.getRenderEngine().renderShape(g, new Rectangle2D.Double(node.getLocation().x - 0.25, node.getLocation().y - 0.25, 0.5, 0.5));
+        if (this.isWalkable(x, y)) {
+          Game.getRenderEngine().renderShape(g, new Rectangle2D.Double(getCenter(x, this.nodeSize) - 0.25, getCenter(y, this.nodeSize) - 0.25, 0.5, 0.5));
         } else {
-          Game.getRenderEngine().renderShape(g, node.getBounds());
+          Game.getRenderEngine().renderShape(g, this.getBounds(x, y));
         }
       }
     }
   }
 
+  /**
+   * Adds the specified consumer that is notified with the updated region whenever
+   * {@link #updateWalkable(Rectangle2D)} is called.
+   *
+   * @param consumer
+   *          The consumer to add.
+   */
+  public void onWalkableUpdated(final Consumer<Rectangle2D> consumer) {
+    this.walkableUpdatedConsumers.add(consumer);
+  }
+
+  /**
+   * Removes the specified consumer that was added by {@link #onWalkableUpdated(Consumer)}.
+   *
+   * @param consumer
+   *          The consumer to remove.
+   */
+  public void removeWalkableUpdatedConsumer(final Consumer<Rectangle2D> consumer) {
+    this.walkableUpdatedConsumers.remove(consumer);
+  }
+
   public void setAllowDiagonalMovement(final boolean allowDiagonalMovement) {
     this.allowDiagonalMovement = allowDiagonalMovement;
+    this.invalidateSnapshot();
   }
 
   public void setAllowCuttingCorners(final boolean allowCuttingCorners) {
     this.allowCuttingCorners = allowCuttingCorners;
+    this.invalidateSnapshot();
+  }
+
+  /**
+   * Sets the penalty of the node at the specified grid coordinates. Penalties are stored as integers between 0 and
+   * {@link #MAX_PENALTY}, so the specified value is rounded and clamped accordingly.
+   *
+   * @param x
+   *          The x-coordinate of the node on the grid.
+   * @param y
+   *          The y-coordinate of the node on the grid.
+   * @param penalty
+   *          The new penalty.
+   */
+  public synchronized void setPenalty(final int x, final int y, final double penalty) {
+    final byte newPenalty = toPenalty(penalty);
+    final int index = this.getIndex(x, y);
+    if (this.penalties[index] != newPenalty) {
+      this.penalties[index] = newPenalty;
+      this.invalidateSnapshot();
+    }
+  }
+
+  public synchronized void setWalkable(final int x, final int y, final boolean walkable) {
+    final int index = this.getIndex(x, y);
+    if (this.walkable.get(index) != walkable) {
+      this.walkable.set(index, walkable);
+      this.invalidateSnapshot();
+    }
   }
 
   /**
@@ -163,34 +338,57 @@ public class AStarGrid implements IRenderable {
    *          The rectangle within which the nodes should be updated.
    */
   public void updateWalkable(final Rectangle2D rectangle) {
-    for (final AStarNode node : this.getIntersectedNodes(rectangle)) {
-      node.setWalkable(!Game.getPhysicsEngine().collides(node.getBounds(), CollisionType.STATIC));
+    final AStarNode startNode = this.getNode(rectangle.getMinX(), rectangle.getMinY());
+    final AStarNode endNode = this.getNode(rectangle.getMaxX(), rectangle.getMaxY());
+    if (startNode != null && endNode != null) {
+      for (int x = startNode.getGridX(); x <= endNode.getGridX(); x++) {
+        for (int y = startNode.getGridY(); y <= endNode.getGridY(); y++) {
+          this.setWalkable(x, y, !Game.getPhysicsEngine().collides(this.getBounds(x, y), CollisionType.STATIC));
+        }
+      }
     }
-  }
 
-  protected void assignPenalty(AStarNode node) {
-    if (!Game.getPhysicsEngine().collides(node.getLocation(), CollisionType.ENTITY)) {
-      return;
+    for (final Consumer<Rectangle2D> consumer : this.walkableUpdatedConsumers) {
+      consumer.accept(rectangle);
     }
+  }
 
-    // by default we calculate a penalty for props that cannot be destroyed
-    int penalty = 0;
-    for (Prop prop : Game.getEnvironment().getProps()) {
-      if (!prop.hasCollision() || !prop.isIndestructible() || !prop.getBoundingBox().intersects(node.getBounds())) {
-        continue;
-      }
+  /**
+   * Gets the center of the node with the specified index on one axis, equivalent to {@link AStarNode#getLocation()}.
+   */
+  static int getCenter(final int index, final int nodeSize) {
+    return (int) (index * nodeSize + nodeSize / 2.0);
+  }
 
-      penalty += PENALTY_STATIC_PROP;
-    }
+  static byte toPenalty(final double penalty) {
+    return (byte) MathUtilities.clamp((int) Math.round(penalty), 0, MAX_PENALTY);
+  }
 
-    // if neighbors are not walkable, we try to avoid this node
-    for (AStarNode neighbor : this.getNeighbors(node)) {
-      if (!neighbor.isWalkable()) {
-        penalty += PENALTY_NOT_WALKABLE_NEIGHBOR;
-      }
-    }
+  Rectangle getBounds(final int x, final int y) {
+    return new Rectangle(x * this.nodeSize, y * this.nodeSize, this.nodeSize, this.nodeSize);
+  }
 
-    node.setPenalty(penalty);
+  int getIndex(final int x, final int y) {
+    return x * this.rows + y;
+  }
+
+  /**
+   * Copies the walkability of all nodes. Must be called while holding the lock of this grid.
+   */
+  BitSet copyWalkable() {
+    return (BitSet) this.walkable.clone();
+  }
+
+  /**
+   * Copies the penalties of all nodes. Must be called while holding the lock of this grid.
+   */
+  byte[] copyPenalties() {
+    return this.penalties.clone();
+  }
+
+  synchronized void invalidateSnapshot() {
+    this.version++;
+    this.snapshot = null;
   }
 
   private static void addNode(final List<AStarNode> neighbors, AStarNode node) {
@@ -205,23 +403,4 @@ public class AStarGrid implements IRenderable {
       neighbors.add(node);
     }
   }
-
-  private AStarNode getNode(final int x, final int y) {
-    if (x >= 0 && x < this.getGrid().length && y >= 0 && y < this.getGrid()[0].length) {
-      return this.getGrid()[x][y];
-    }
-
-    return null;
-  }
-
-  private void populateGrid(final int gridSizeX, final int gridSizeY) {
-    for (int x = 0; x < gridSizeX; x++) {
-      for (int y = 0; y < gridSizeY; y++) {
-        final Rectangle nodeBounds = new Rectangle(x * this.nodeSize, y * this.nodeSize, this.nodeSize, this.nodeSize);
-        final AStarNode node = new AStarNode(!Game.getPhysicsEngine().collides(nodeBounds, CollisionType.STATIC), nodeBounds, x, y);
-        this.assignPenalty(node);
-        this.getGrid()[x][y] = node;
-      }
-    }
-  }
 }
@@ -0,0 +1,336 @@
+package de.gurkenlabs.litiengine.pathfinding.astar;
+
+import java.awt.Dimension;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.ICollisionEntity;
+import de.gurkenlabs.litiengine.entities.Prop;
+
+/**
+ * Builds an {@link AStarGrid} by rasterizing obstacles into the grid instead of testing every node against all
+ * obstacles. Every static collision box marks the range of nodes it overlaps as not walkable and every indestructible
+ * prop adds {@link AStarGrid#PENALTY_STATIC_PROP} to the nodes it covers, so the costs only depend on the number and
+ * the size of the obstacles.
+ * <p>
+ * The grid is split into bands of columns that are rasterized concurrently on the common {@link ForkJoinPool}. The
+ * obstacles are sorted into the bands they overlap beforehand, so every band only processes its own obstacles.
+ * </p>
+ */
+public class AStarGridBuilder {
+  private static final int COLUMNS_PER_BAND = 16;
+
+  private final Dimension size;
+  private final int nodeSize;
+  private final int columns;
+  private final int rows;
+  private final List<Rectangle2D> staticCollisionBoxes;
+  private final List<Rectangle2D> entityCollisionBoxes;
+  private final List<Rectangle2D> propBoundingBoxes;
+
+  /**
+   * Instantiates a new builder for a grid without any obstacles.
+   *
+   * @param size
+   *          The size of the grid in pixels.
+   * @param nodeSize
+   *          The size of a single node in pixels.
+   */
+  public AStarGridBuilder(final Dimension size, final int nodeSize) {
+    this.size = size;
+    this.nodeSize = nodeSize;
+    this.columns = size.width / nodeSize;
+    this.rows = size.height / nodeSize;
+    this.staticCollisionBoxes = new ArrayList<>();
+    this.entityCollisionBoxes = new ArrayList<>();
+    this.propBoundingBoxes = new ArrayList<>();
+  }
+
+  /**
+   * Adds the static collision boxes and the collision entities of the current physics engine and the props of the
+   * current environment.
+   *
+   * @return This instance.
+   */
+  public AStarGridBuilder addGameObstacles() {
+    this.addStaticCollisionBoxes(Game.getPhysicsEngine().getStaticCollisionBoxes());
+    this.addCollisionEntities(Game.getPhysicsEngine().getCollisionEntities());
+    if (Game.getEnvironment() != null) {
+      this.addProps(Game.getEnvironment().getProps());
+    }
+
+    return this;
+  }
+
+  /**
+   * Adds collision boxes that make all nodes they overlap not walkable.
+   *
+   * @param collisionBoxes
+   *          The static collision boxes.
+   * @return This instance.
+   */
+  public AStarGridBuilder addStaticCollisionBoxes(final Collection<? extends Rectangle2D> collisionBoxes) {
+    this.staticCollisionBoxes.addAll(collisionBoxes);
+    return this;
+  }
+
+  /**
+   * Adds entities whose collision boxes mark the nodes that are considered for penalties. Only nodes whose center lies
+   * within the collision box of an entity receive penalties.
+   *
+   * @param entities
+   *          The collision entities.
+   * @return This instance.
+   */
+  public AStarGridBuilder addCollisionEntities(final Collection<? extends ICollisionEntity> entities) {
+    for (final ICollisionEntity entity : entities) {
+      if (entity.hasCollision()) {
+        this.entityCollisionBoxes.add(entity.getCollisionBox());
+      }
+    }
+
+    return this;
+  }
+
+  /**
+   * Adds props of which the indestructible ones with collision add {@link AStarGrid#PENALTY_STATIC_PROP} to the nodes
+   * they cover.
+   *
+   * @param props
+   *          The props.
+   * @return This instance.
+   */
+  public AStarGridBuilder addProps(final Collection<? extends Prop> props) {
+    for (final Prop prop : props) {
+      if (prop.hasCollision() && prop.isIndestructible()) {
+        this.propBoundingBoxes.add(prop.getBoundingBox());
+      }
+    }
+
+    return this;
+  }
+
+  /**
+   * Rasterizes all added obstacles into a new grid.
+   *
+   * @return The new grid.
+   */
+  public AStarGrid build() {
+    final BitSet walkable = new BitSet(this.columns * this.rows);
+    final byte[] penalties = new byte[this.columns * this.rows];
+    this.rasterize(walkable, penalties);
+    return new AStarGrid(this.size, this.nodeSize, walkable, penalties);
+  }
+
+  /**
+   * Rasterizes all obstacles into the specified empty arrays that are indexed like the nodes of an {@link AStarGrid}.
+   */
+  void rasterize(final BitSet walkable, final byte[] penalties) {
+    final int bands = (this.columns + COLUMNS_PER_BAND - 1) / COLUMNS_PER_BAND;
+    final List<List<Rectangle2D>> staticBoxesByBand = this.binByBand(this.staticCollisionBoxes, bands, 0);
+    final List<List<Rectangle2D>> entityBoxesByBand = this.binByBand(this.entityCollisionBoxes, bands, this.nodeSize / 2.0);
+    final List<List<Rectangle2D>> propBoxesByBand = this.binByBand(this.propBoundingBoxes, bands, 0);
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    // every band collects its nodes that are not walkable in its own bitset because concurrent writes to a BitSet are
+    // not safe; they are merged afterwards because the penalties depend on the walkability of the neighbors
+    final BitSet[] blocked = new BitSet[bands];
+    pool.invoke(new WalkableTask(0, bands, staticBoxesByBand, blocked));
+    walkable.set(0, this.columns * this.rows);
+    for (int band = 0; band < bands; band++) {
+      final int offset = getIndex(band * COLUMNS_PER_BAND, 0);
+      for (int index = blocked[band].nextSetBit(0); index >= 0; index = blocked[band].nextSetBit(index)) {
+        final int end = blocked[band].nextClearBit(index);
+        walkable.clear(offset + index, offset + end);
+        index = end;
+      }
+    }
+
+    pool.invoke(new PenaltyTask(0, bands, entityBoxesByBand, propBoxesByBand, walkable, penalties));
+  }
+
+  /**
+   * Sorts the specified boxes into the bands of columns that they overlap, so that every band only needs to process its
+   * own obstacles.
+   */
+  private List<List<Rectangle2D>> binByBand(final List<Rectangle2D> boxes, final int bands, final double margin) {
+    final List<List<Rectangle2D>> boxesByBand = new ArrayList<>(bands);
+    for (int band = 0; band < bands; band++) {
+      boxesByBand.add(new ArrayList<>());
+    }
+
+    for (final Rectangle2D box : boxes) {
+      final int minBand = getMinIndex(box.getMinX() - margin, this.columns) / COLUMNS_PER_BAND;
+      final int maxBand = Math.min(bands, (getMaxIndex(box.getMaxX() + margin, this.columns) + COLUMNS_PER_BAND - 1) / COLUMNS_PER_BAND);
+      for (int band = minBand; band < maxBand; band++) {
+        boxesByBand.get(band).add(box);
+      }
+    }
+
+    return boxesByBand;
+  }
+
+  private int getIndex(final int x, final int y) {
+    return x * this.rows + y;
+  }
+
+  /**
+   * Gets the first column (or row) whose nodes overlap a range that starts at the specified coordinate.
+   */
+  private int getMinIndex(final double min, final int count) {
+    return Math.min(count, Math.max(0, (int) Math.floor(min / this.nodeSize)));
+  }
+
+  /**
+   * Gets the column (or row) after the last one whose nodes overlap a range that ends at the specified coordinate.
+   */
+  private int getMaxIndex(final double max, final int count) {
+    return Math.min(count, (int) Math.ceil(max / this.nodeSize));
+  }
+
+  private final class WalkableTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int fromBand;
+    private final int toBand;
+    private final transient List<List<Rectangle2D>> boxesByBand;
+    private final BitSet[] blocked;
+
+    private WalkableTask(final int fromBand, final int toBand, final List<List<Rectangle2D>> boxesByBand, final BitSet[] blocked) {
+      this.fromBand = fromBand;
+      this.toBand = toBand;
+      this.boxesByBand = boxesByBand;
+      this.blocked = blocked;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.toBand - this.fromBand > 1) {
+        final int middle = (this.fromBand + this.toBand) >>> 1;
+        invokeAll(new WalkableTask(this.fromBand, middle, this.boxesByBand, this.blocked), new WalkableTask(middle, this.toBand, this.boxesByBand, this.blocked));
+        return;
+      }
+
+      // the bits of the band are relative to its first column
+      final int fromColumn = this.fromBand * COLUMNS_PER_BAND;
+      final int toColumn = Math.min(columns, fromColumn + COLUMNS_PER_BAND);
+      final BitSet bandBlocked = new BitSet((toColumn - fromColumn) * rows);
+      for (final Rectangle2D box : this.boxesByBand.get(this.fromBand)) {
+        final int minX = Math.max(fromColumn, getMinIndex(box.getMinX(), columns));
+        final int maxX = Math.min(toColumn, getMaxIndex(box.getMaxX(), columns));
+        final int minY = getMinIndex(box.getMinY(), rows);
+        final int maxY = getMaxIndex(box.getMaxY(), rows);
+        if (minY >= maxY) {
+          continue;
+        }
+
+        for (int x = minX; x < maxX; x++) {
+          bandBlocked.set((x - fromColumn) * rows + minY, (x - fromColumn) * rows + maxY);
+        }
+      }
+
+      this.blocked[this.fromBand] = bandBlocked;
+    }
+  }
+
+  private final class PenaltyTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int fromBand;
+    private final int toBand;
+    private final transient List<List<Rectangle2D>> entityBoxesByBand;
+    private final transient List<List<Rectangle2D>> propBoxesByBand;
+    private final BitSet walkable;
+    private final byte[] penalties;
+
+    private PenaltyTask(final int fromBand, final int toBand, final List<List<Rectangle2D>> entityBoxesByBand, final List<List<Rectangle2D>> propBoxesByBand, final BitSet walkable, final byte[] penalties) {
+      this.fromBand = fromBand;
+      this.toBand = toBand;
+      this.entityBoxesByBand = entityBoxesByBand;
+      this.propBoxesByBand = propBoxesByBand;
+      this.walkable = walkable;
+      this.penalties = penalties;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.toBand - this.fromBand > 1) {
+        final int middle = (this.fromBand + this.toBand) >>> 1;
+        invokeAll(new PenaltyTask(this.fromBand, middle, this.entityBoxesByBand, this.propBoxesByBand, this.walkable, this.penalties),
+            new PenaltyTask(middle, this.toBand, this.entityBoxesByBand, this.propBoxesByBand, this.walkable, this.penalties));
+        return;
+      }
+
+      // only nodes whose center collides with an entity receive penalties; the bits are relative to the first column
+      final int fromColumn = this.fromBand * COLUMNS_PER_BAND;
+      final int toColumn = Math.min(columns, fromColumn + COLUMNS_PER_BAND);
+      final BitSet considered = new BitSet((toColumn - fromColumn) * rows);
+      for (final Rectangle2D box : this.entityBoxesByBand.get(this.fromBand)) {
+        forEachCenter(box, fromColumn, toColumn, considered::set);
+      }
+
+      if (considered.isEmpty()) {
+        return;
+      }
+
+      final int[] penaltySums = new int[(toColumn - fromColumn) * rows];
+      for (final Rectangle2D box : this.propBoxesByBand.get(this.fromBand)) {
+        if (box.isEmpty()) {
+          continue;
+        }
+
+        final int minX = Math.max(fromColumn, getMinIndex(box.getMinX(), columns));
+        final int maxX = Math.min(toColumn, getMaxIndex(box.getMaxX(), columns));
+        final int minY = getMinIndex(box.getMinY(), rows);
+        final int maxY = getMaxIndex(box.getMaxY(), rows);
+        for (int x = minX; x < maxX; x++) {
+          for (int y = minY; y < maxY; y++) {
+            penaltySums[(x - fromColumn) * rows + y] += AStarGrid.PENALTY_STATIC_PROP;
+          }
+        }
+      }
+
+      for (int bandIndex = considered.nextSetBit(0); bandIndex >= 0; bandIndex = considered.nextSetBit(bandIndex + 1)) {
+        final int x = fromColumn + bandIndex / rows;
+        final int y = bandIndex % rows;
+
+        // if neighbors are not walkable, we try to avoid this node
+        int penalty = penaltySums[bandIndex];
+        for (int neighborX = x - 1; neighborX <= x + 1; neighborX++) {
+          for (int neighborY = y - 1; neighborY <= y + 1; neighborY++) {
+            if ((neighborX != x || neighborY != y) && neighborX >= 0 && neighborX < columns && neighborY >= 0 && neighborY < rows && !this.walkable.get(getIndex(neighborX, neighborY))) {
+              penalty += AStarGrid.PENALTY_NOT_WALKABLE_NEIGHBOR;
+            }
+          }
+        }
+
+        this.penalties[getIndex(x, y)] = AStarGrid.toPenalty(penalty);
+      }
+    }
+  }
+
+  /**
+   * Passes the band relative index of every node between the specified columns whose center lies within the specified
+   * box to the specified consumer.
+   */
+  private void forEachCenter(final Rectangle2D box, final int fromColumn, final int toColumn, final IntConsumer consumer) {
+    final int minX = Math.max(fromColumn, getMinIndex(box.getMinX() - this.nodeSize / 2.0, this.columns));
+    final int maxX = Math.min(toColumn, getMaxIndex(box.getMaxX() - this.nodeSize / 2.0 + 1, this.columns));
+    final int minY = getMinIndex(box.getMinY() - this.nodeSize / 2.0, this.rows);
+    final int maxY = getMaxIndex(box.getMaxY() - this.nodeSize / 2.0 + 1, this.rows);
+    for (int x = minX; x < maxX; x++) {
+      for (int y = minY; y < maxY; y++) {
+        if (box.contains(AStarGrid.getCenter(x, this.nodeSize), AStarGrid.getCenter(y, this.nodeSize))) {
+          consumer.accept((x - fromColumn) * this.rows + y);
+        }
+      }
+    }
+  }
+}
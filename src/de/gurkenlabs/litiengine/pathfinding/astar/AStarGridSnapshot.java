@@ -0,0 +1,95 @@
+package de.gurkenlabs.litiengine.pathfinding.astar;
+
+import java.awt.Point;
+import java.util.BitSet;
+
+/**
+ * An immutable copy of the walkability and the penalties of an {@link AStarGrid}. Since it never changes after its
+ * creation, a snapshot can be shared by any number of concurrent searches.
+ *
+ * @see AStarGrid#getSnapshot()
+ */
+public final class AStarGridSnapshot {
+  private final int columns;
+  private final int rows;
+  private final int nodeSize;
+  private final long version;
+  private final boolean allowDiagonalMovement;
+  private final boolean allowCuttingCorners;
+
+  private final BitSet walkable;
+  private final byte[] penalties;
+
+  /**
+   * Must be called while holding the lock of the specified grid.
+   */
+  AStarGridSnapshot(final AStarGrid grid, final long version) {
+    this.columns = grid.getColumns();
+    this.rows = grid.getRows();
+    this.nodeSize = grid.getNodeSize();
+    this.version = version;
+    this.allowDiagonalMovement = grid.isDiagonalMovementAllowed();
+    this.allowCuttingCorners = grid.isDiagonalCornerMovementAllowed();
+    this.walkable = grid.copyWalkable();
+    this.penalties = grid.copyPenalties();
+  }
+
+  public int getColumns() {
+    return this.columns;
+  }
+
+  public int getRows() {
+    return this.rows;
+  }
+
+  public int getNodeSize() {
+    return this.nodeSize;
+  }
+
+  /**
+   * Gets the version of the grid at the time this snapshot was taken. Snapshots of the same grid with a higher version
+   * are more recent.
+   *
+   * @return The version of this snapshot.
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  public boolean isDiagonalMovementAllowed() {
+    return this.allowDiagonalMovement;
+  }
+
+  public boolean isDiagonalCornerMovementAllowed() {
+    return this.allowCuttingCorners;
+  }
+
+  public boolean isInGrid(final int x, final int y) {
+    return x >= 0 && x < this.columns && y >= 0 && y < this.rows;
+  }
+
+  public boolean isWalkable(final int x, final int y) {
+    return this.walkable.get(this.getIndex(x, y));
+  }
+
+  public float getPenalty(final int x, final int y) {
+    return this.penalties[this.getIndex(x, y)] & 0xFF;
+  }
+
+  /**
+   * Gets the center of the node at the specified grid coordinates, equivalent to {@link AStarNode#getLocation()}.
+   *
+   * @param x
+   *          The x-coordinate of the node on the grid.
+   * @param y
+   *          The y-coordinate of the node on the grid.
+   * @return The center of the node in map coordinates.
+   */
+  public Point getLocation(final int x, final int y) {
+    return new Point(AStarGrid.getCenter(x, this.nodeSize), AStarGrid.getCenter(y, this.nodeSize));
+  }
+
+  int getIndex(final int x, final int y) {
+    return x * this.rows + y;
+  }
+}
@@ -3,10 +3,15 @@ package de.gurkenlabs.litiengine.pathfinding.astar;
 import java.awt.Point;
 import java.awt.Rectangle;
 
+/**
+ * A node of an {@link AStarGrid}. Nodes that belong to a grid don't hold their walkability and penalty themselves but
+ * read and write them from the grid.
+ */
 public class AStarNode {
   // diagonal length: 1 * Math.sqrt(2) ~ 1.4
   private static final double DIAGONAL_COST = 1.4;
   private final Rectangle bound;
+  private final AStarGrid grid;
   private final int gridX;
   private final int gridY;
   private double gCost;
@@ -18,13 +23,21 @@ public class AStarNode {
 
   public AStarNode(final boolean walkable, final Rectangle bound, final int gridX, final int gridY) {
     this.bound = bound;
+    this.grid = null;
     this.gridX = gridX;
     this.gridY = gridY;
     this.walkable = walkable;
   }
 
+  AStarNode(final AStarGrid grid, final int gridX, final int gridY) {
+    this.bound = null;
+    this.grid = grid;
+    this.gridX = gridX;
+    this.gridY = gridY;
+  }
+
   public Rectangle getBounds() {
-    return this.bound;
+    return this.grid != null ? this.grid.getBounds(this.gridX, this.gridY) : this.bound;
   }
 
   public double getCosts(final AStarNode target) {
@@ -75,11 +88,15 @@ public class AStarNode {
   }
 
   public Point getLocation() {
+    if (this.grid != null) {
+      return new Point(AStarGrid.getCenter(this.gridX, this.grid.getNodeSize()), AStarGrid.getCenter(this.gridY, this.grid.getNodeSize()));
+    }
+
     return new Point((int) this.getBounds().getCenterX(), (int) this.getBounds().getCenterY());
   }
 
   public double getPenalty() {
-    return this.penalty;
+    return this.grid != null ? this.grid.getPenalty(this.gridX, this.gridY) : this.penalty;
   }
 
   public AStarNode getPredecessor() {
@@ -87,7 +104,7 @@ public class AStarNode {
   }
 
   public boolean isWalkable() {
-    return this.walkable;
+    return this.grid != null ? this.grid.isWalkable(this.gridX, this.gridY) : this.walkable;
   }
 
   public void setGCost(final double gCost) {
@@ -98,8 +115,19 @@ public class AStarNode {
     this.hCost = hCost;
   }
 
+  /**
+   * Sets the penalty of this node. If this node belongs to a grid, the penalty is rounded and clamped to the range that
+   * is supported by {@link AStarGrid#setPenalty(int, int, double)}.
+   *
+   * @param penalty
+   *          The new penalty.
+   */
   public void setPenalty(final double penalty) {
-    this.penalty = penalty;
+    if (this.grid != null) {
+      this.grid.setPenalty(this.gridX, this.gridY, penalty);
+    } else {
+      this.penalty = penalty;
+    }
   }
 
   public void setPredecessor(final AStarNode predecessor) {
@@ -107,7 +135,11 @@ public class AStarNode {
   }
 
   public void setWalkable(final boolean walkable) {
-    this.walkable = walkable;
+    if (this.grid != null) {
+      this.grid.setWalkable(this.gridX, this.gridY, walkable);
+    } else {
+      this.walkable = walkable;
+    }
   }
 
   /**
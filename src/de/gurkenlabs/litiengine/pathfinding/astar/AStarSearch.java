@@ -0,0 +1,330 @@
+package de.gurkenlabs.litiengine.pathfinding.astar;
+
+import java.awt.Point;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.gurkenlabs.litiengine.pathfinding.Path;
+
+/**
+ * An A* search over an {@link AStarGridSnapshot} that keeps the costs and predecessors of a search in primitive arrays
+ * keyed by node index instead of on the {@link AStarNode} instances. The open set is an indexed binary heap that is
+ * ordered by the F-cost and subsequently by the H-cost of the nodes. This results in O(n log n) searches and leaves the
+ * grid untouched.
+ * <p>
+ * The arrays are reused across searches which is why a single instance must not be used by multiple threads at the same
+ * time. Multiple instances can however search the same snapshot concurrently.
+ * </p>
+ */
+public class AStarSearch {
+  // diagonal length: 1 * Math.sqrt(2) ~ 1.4
+  private static final float DIAGONAL_COST = 1.4f;
+
+  private static final byte OPENED = 1;
+  private static final byte CLOSED = 2;
+
+  private final AStarGrid grid;
+
+  private AStarGridSnapshot snapshot;
+  private int rows;
+
+  private float[] gCosts;
+  private float[] hCosts;
+  private int[] predecessors;
+  private byte[] states;
+  private int[] searches;
+
+  private int[] heap;
+  private int[] heapPositions;
+  private int heapSize;
+
+  private int currentSearch;
+
+  /**
+   * Instantiates a new search that is not bound to a grid and can only search explicitly specified snapshots.
+   */
+  public AStarSearch() {
+    this(null);
+  }
+
+  /**
+   * Instantiates a new search that searches the most recent snapshot of the specified grid when being passed nodes.
+   *
+   * @param grid
+   *          The grid to search.
+   */
+  public AStarSearch(final AStarGrid grid) {
+    this.grid = grid;
+    this.allocate(0);
+  }
+
+  public AStarGrid getGrid() {
+    return this.grid;
+  }
+
+  /**
+   * Searches the cheapest path between the specified nodes of the grid this instance was created for.
+   *
+   * @param startNode
+   *          The start node of the path.
+   * @param targetNode
+   *          The target node of the path.
+   * @return The found {@link Path} or null if the target node cannot be reached.
+   */
+  public Path findPath(final AStarNode startNode, final AStarNode targetNode) {
+    return this.findPath(this.getGrid().getSnapshot(), startNode.getGridX(), startNode.getGridY(), targetNode.getGridX(), targetNode.getGridY());
+  }
+
+  /**
+   * Searches the cheapest path between the specified grid coordinates of the specified snapshot.
+   *
+   * @param snapshot
+   *          The snapshot to search.
+   * @param startX
+   *          The x-coordinate of the start node.
+   * @param startY
+   *          The y-coordinate of the start node.
+   * @param targetX
+   *          The x-coordinate of the target node.
+   * @param targetY
+   *          The y-coordinate of the target node.
+   * @return The found {@link Path} or null if the target node cannot be reached.
+   */
+  public Path findPath(final AStarGridSnapshot snapshot, final int startX, final int startY, final int targetX, final int targetY) {
+    final int nodeCount = snapshot.getColumns() * snapshot.getRows();
+    if (this.searches.length < nodeCount) {
+      this.allocate(nodeCount);
+    }
+
+    this.snapshot = snapshot;
+    this.rows = snapshot.getRows();
+    this.currentSearch++;
+    this.heapSize = 0;
+
+    final int start = snapshot.getIndex(startX, startY);
+    final int target = snapshot.getIndex(targetX, targetY);
+    this.visit(start);
+    this.hCosts[start] = this.getCosts(start, target);
+    this.open(start);
+
+    while (this.heapSize > 0) {
+      final int current = this.poll();
+      this.states[current] = CLOSED;
+
+      // when the current node reaches the target node, we've found the path
+      if (current == target) {
+        return this.retracePath(start, target);
+      }
+
+      this.updateAndOpenNeighborNodes(current, target);
+    }
+
+    return null;
+  }
+
+  /**
+   * Updates the costs and the predecessor of all neighbors of the specified node. This follows the same rules as
+   * {@link AStarGrid#getNeighbors(AStarNode)} without allocating a list of neighbors.
+   */
+  private void updateAndOpenNeighborNodes(final int current, final int target) {
+    final int x = current / this.rows;
+    final int y = current % this.rows;
+
+    final boolean top = this.updateStraightNeighbor(current, x, y - 1, target);
+    final boolean bottom = this.updateStraightNeighbor(current, x, y + 1, target);
+    final boolean right = this.updateStraightNeighbor(current, x + 1, y, target);
+    final boolean left = this.updateStraightNeighbor(current, x - 1, y, target);
+
+    if (!this.snapshot.isDiagonalMovementAllowed()) {
+      return;
+    }
+
+    this.updateDiagonalNeighbor(current, x - 1, y - 1, top && left, target);
+    this.updateDiagonalNeighbor(current, x + 1, y - 1, top && right, target);
+    this.updateDiagonalNeighbor(current, x - 1, y + 1, bottom && left, target);
+    this.updateDiagonalNeighbor(current, x + 1, y + 1, bottom && right, target);
+  }
+
+  /**
+   * @return True if the neighbor exists and is walkable.
+   */
+  private boolean updateStraightNeighbor(final int current, final int x, final int y, final int target) {
+    if (!this.snapshot.isInGrid(x, y) || !this.snapshot.isWalkable(x, y)) {
+      return false;
+    }
+
+    this.updateNeighbor(current, this.snapshot.getIndex(x, y), target);
+    return true;
+  }
+
+  private void updateDiagonalNeighbor(final int current, final int x, final int y, final boolean straightNeighborsWalkable, final int target) {
+    // only consider diagonal neighbors when they are not on a corner
+    if (!this.snapshot.isInGrid(x, y) || !this.snapshot.isDiagonalCornerMovementAllowed() && !straightNeighborsWalkable) {
+      return;
+    }
+
+    final int neighbor = this.snapshot.getIndex(x, y);
+    if (neighbor != target && !this.snapshot.isWalkable(x, y)) {
+      return;
+    }
+
+    this.updateNeighbor(current, neighbor, target);
+  }
+
+  private void updateNeighbor(final int current, final int neighbor, final int target) {
+    final boolean visited = this.searches[neighbor] == this.currentSearch;
+    if (visited && this.states[neighbor] == CLOSED) {
+      return;
+    }
+
+    final float newGCost = this.gCosts[current] + this.getCosts(current, neighbor);
+    if (visited && newGCost >= this.gCosts[neighbor]) {
+      return;
+    }
+
+    if (!visited) {
+      this.visit(neighbor);
+      this.hCosts[neighbor] = this.getCosts(neighbor, target);
+    }
+
+    this.gCosts[neighbor] = newGCost;
+    this.predecessors[neighbor] = current;
+    if (visited) {
+      this.siftUp(this.heapPositions[neighbor]);
+    } else {
+      this.open(neighbor);
+    }
+  }
+
+  private float getCosts(final int from, final int to) {
+    final int dstX = Math.abs(from / this.rows - to / this.rows);
+    final int dstY = Math.abs(from % this.rows - to % this.rows);
+    final float penalty = this.snapshot.getPenalty(from / this.rows, from % this.rows);
+    if (dstX > dstY) {
+      return DIAGONAL_COST * dstY + (dstX - dstY) + penalty;
+    }
+
+    return DIAGONAL_COST * dstX + (dstY - dstX) + penalty;
+  }
+
+  private Point getLocation(final int index) {
+    return this.snapshot.getLocation(index / this.rows, index % this.rows);
+  }
+
+  private void allocate(final int nodeCount) {
+    this.gCosts = new float[nodeCount];
+    this.hCosts = new float[nodeCount];
+    this.predecessors = new int[nodeCount];
+    this.states = new byte[nodeCount];
+    this.searches = new int[nodeCount];
+    this.heap = new int[nodeCount];
+    this.heapPositions = new int[nodeCount];
+    this.currentSearch = 0;
+  }
+
+  private void visit(final int node) {
+    this.searches[node] = this.currentSearch;
+    this.gCosts[node] = 0;
+    this.predecessors[node] = -1;
+  }
+
+  private void open(final int node) {
+    this.states[node] = OPENED;
+    this.heap[this.heapSize] = node;
+    this.heapPositions[node] = this.heapSize;
+    this.heapSize++;
+    this.siftUp(this.heapSize - 1);
+  }
+
+  private int poll() {
+    final int first = this.heap[0];
+    this.heapSize--;
+    if (this.heapSize > 0) {
+      this.move(this.heap[this.heapSize], 0);
+      this.siftDown(0);
+    }
+
+    return first;
+  }
+
+  private void siftUp(final int position) {
+    final int node = this.heap[position];
+    int pos = position;
+    while (pos > 0) {
+      final int parentPos = (pos - 1) >>> 1;
+      final int parent = this.heap[parentPos];
+      if (!this.isCheaper(node, parent)) {
+        break;
+      }
+
+      this.move(parent, pos);
+      pos = parentPos;
+    }
+
+    this.move(node, pos);
+  }
+
+  private void siftDown(final int position) {
+    final int node = this.heap[position];
+    int pos = position;
+    final int half = this.heapSize >>> 1;
+    while (pos < half) {
+      int childPos = 2 * pos + 1;
+      final int rightPos = childPos + 1;
+      if (rightPos < this.heapSize && this.isCheaper(this.heap[rightPos], this.heap[childPos])) {
+        childPos = rightPos;
+      }
+
+      final int child = this.heap[childPos];
+      if (!this.isCheaper(child, node)) {
+        break;
+      }
+
+      this.move(child, pos);
+      pos = childPos;
+    }
+
+    this.move(node, pos);
+  }
+
+  private void move(final int node, final int position) {
+    this.heap[position] = node;
+    this.heapPositions[node] = position;
+  }
+
+  /**
+   * F-cost (aka. total costs) are considered first. If they are equal, the H-cost is checked subsequently.
+   */
+  private boolean isCheaper(final int a, final int b) {
+    final float fCostA = this.gCosts[a] + this.hCosts[a];
+    final float fCostB = this.gCosts[b] + this.hCosts[b];
+    return fCostA < fCostB || fCostA == fCostB && this.hCosts[a] < this.hCosts[b];
+  }
+
+  private Path retracePath(final int start, final int target) {
+    final List<Point2D> pointsOfPath = new ArrayList<>();
+    int current = this.predecessors[target];
+    while (current != start && current != -1) {
+      pointsOfPath.add(this.getLocation(current));
+      current = this.predecessors[current];
+    }
+
+    Collections.reverse(pointsOfPath);
+
+    final Point startLocation = this.getLocation(start);
+    final Point targetLocation = this.getLocation(target);
+    final Path2D path2D = new GeneralPath(Path2D.WIND_NON_ZERO);
+    path2D.moveTo(startLocation.x, startLocation.y);
+    for (final Point2D point : pointsOfPath) {
+      path2D.lineTo(point.getX(), point.getY());
+    }
+
+    path2D.lineTo(targetLocation.x, targetLocation.y);
+
+    return new Path(startLocation, targetLocation, path2D, pointsOfPath);
+  }
+}
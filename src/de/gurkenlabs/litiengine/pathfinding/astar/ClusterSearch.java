@@ -0,0 +1,318 @@
+package de.gurkenlabs.litiengine.pathfinding.astar;
+
+import java.util.Arrays;
+
+/**
+ * A search that is restricted to a small rectangular area of an {@link AStarGridSnapshot}, e.g. a single cluster of a
+ * {@link HierarchicalPathFinder}. The state of a search is kept in arrays that only cover the searched area.
+ * <p>
+ * Without a target, the search calculates the costs from the start to every reachable node of the area (Dijkstra). In
+ * reverse mode it calculates the costs from every node of the area to the start instead. Costs and neighbors follow
+ * the same rules as {@link AStarSearch}.
+ * </p>
+ */
+final class ClusterSearch {
+  // diagonal length: 1 * Math.sqrt(2) ~ 1.4
+  private static final float DIAGONAL_COST = 1.4f;
+  private static final int[] NEIGHBOR_X = { 0, 0, 1, -1, -1, 1, -1, 1 };
+  private static final int[] NEIGHBOR_Y = { -1, 1, 0, 0, -1, -1, 1, 1 };
+
+  private AStarGridSnapshot snapshot;
+  private int minX;
+  private int minY;
+  private int maxX;
+  private int maxY;
+  private int width;
+
+  private float[] gCosts = new float[0];
+  private int[] predecessors = new int[0];
+  private int[] searches = new int[0];
+  private boolean[] closed = new boolean[0];
+  private int[] goals = new int[0];
+  private int currentSearch;
+
+  private int[] heap = new int[16];
+  private float[] heapKeys = new float[16];
+  private int heapSize;
+
+  /**
+   * Searches the specified area.
+   *
+   * @param snapshot
+   *          The snapshot to search.
+   * @param minX
+   *          The smallest x-coordinate of the area.
+   * @param minY
+   *          The smallest y-coordinate of the area.
+   * @param maxX
+   *          The x-coordinate of the column after the area.
+   * @param maxY
+   *          The y-coordinate of the row after the area.
+   * @param startX
+   *          The x-coordinate of the start node.
+   * @param startY
+   *          The y-coordinate of the start node.
+   * @param targetX
+   *          The x-coordinate of the target node or -1 to visit the whole area.
+   * @param targetY
+   *          The y-coordinate of the target node or -1 to visit the whole area.
+   * @param reverse
+   *          True to calculate the costs towards the start instead of the costs from the start.
+   */
+  void search(final AStarGridSnapshot snapshot, final int minX, final int minY, final int maxX, final int maxY, final int startX, final int startY, final int targetX, final int targetY, final boolean reverse) {
+    this.prepare(snapshot, minX, minY, maxX, maxY);
+    this.search(startX, startY, targetX, targetY, reverse, 0);
+  }
+
+  /**
+   * Searches the specified area from the start until all of the specified goals have been reached.
+   *
+   * @param snapshot
+   *          The snapshot to search.
+   * @param minX
+   *          The smallest x-coordinate of the area.
+   * @param minY
+   *          The smallest y-coordinate of the area.
+   * @param maxX
+   *          The x-coordinate of the column after the area.
+   * @param maxY
+   *          The y-coordinate of the row after the area.
+   * @param startX
+   *          The x-coordinate of the start node.
+   * @param startY
+   *          The y-coordinate of the start node.
+   * @param goalsX
+   *          The x-coordinates of the goals.
+   * @param goalsY
+   *          The y-coordinates of the goals.
+   * @param goalCount
+   *          The number of goals in the specified arrays.
+   */
+  void search(final AStarGridSnapshot snapshot, final int minX, final int minY, final int maxX, final int maxY, final int startX, final int startY, final int[] goalsX, final int[] goalsY, final int goalCount) {
+    this.prepare(snapshot, minX, minY, maxX, maxY);
+
+    int remainingGoals = 0;
+    for (int i = 0; i < goalCount; i++) {
+      final int goal = this.getLocalIndex(goalsX[i], goalsY[i]);
+      if (this.goals[goal] != this.currentSearch) {
+        this.goals[goal] = this.currentSearch;
+        remainingGoals++;
+      }
+    }
+
+    if (remainingGoals > 0) {
+      this.search(startX, startY, -1, -1, false, remainingGoals);
+    }
+  }
+
+  private void prepare(final AStarGridSnapshot snapshot, final int minX, final int minY, final int maxX, final int maxY) {
+    this.snapshot = snapshot;
+    this.minX = minX;
+    this.minY = minY;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    this.width = maxX - minX;
+
+    final int nodeCount = this.width * (maxY - minY);
+    if (this.searches.length < nodeCount) {
+      this.gCosts = new float[nodeCount];
+      this.predecessors = new int[nodeCount];
+      this.searches = new int[nodeCount];
+      this.closed = new boolean[nodeCount];
+      this.goals = new int[nodeCount];
+      this.currentSearch = 0;
+    }
+
+    this.currentSearch++;
+    this.heapSize = 0;
+  }
+
+  /**
+   * @param remainingGoals
+   *          The number of marked goals after which the search stops or 0 if there are no goals.
+   */
+  private void search(final int startX, final int startY, final int targetX, final int targetY, final boolean reverse, final int remainingGoals) {
+    int goalsToReach = remainingGoals;
+    final boolean hasTarget = targetX >= 0 && targetY >= 0;
+    final int start = this.getLocalIndex(startX, startY);
+    final int target = hasTarget ? this.getLocalIndex(targetX, targetY) : -1;
+    this.visit(start, 0, -1);
+    this.push(start, 0);
+
+    while (this.heapSize > 0) {
+      final int current = this.pop();
+      if (this.closed[current]) {
+        continue;
+      }
+
+      this.closed[current] = true;
+      if (current == target || goalsToReach > 0 && this.goals[current] == this.currentSearch && --goalsToReach == 0) {
+        return;
+      }
+
+      final int x = this.minX + current % this.width;
+      final int y = this.minY + current / this.width;
+      for (int i = 0; i < NEIGHBOR_X.length; i++) {
+        final int neighborX = x + NEIGHBOR_X[i];
+        final int neighborY = y + NEIGHBOR_Y[i];
+        if (!this.isInArea(neighborX, neighborY) || !this.canMove(x, y, neighborX, neighborY, i >= 4, hasTarget && neighborX == targetX && neighborY == targetY)) {
+          continue;
+        }
+
+        final int neighbor = this.getLocalIndex(neighborX, neighborY);
+        if (this.searches[neighbor] == this.currentSearch && this.closed[neighbor]) {
+          continue;
+        }
+
+        // in reverse mode the move leads from the neighbor to the current node
+        final float penalty = reverse ? this.snapshot.getPenalty(neighborX, neighborY) : this.snapshot.getPenalty(x, y);
+        final float newGCost = this.gCosts[current] + (i >= 4 ? DIAGONAL_COST : 1) + penalty;
+        if (this.searches[neighbor] == this.currentSearch && newGCost >= this.gCosts[neighbor]) {
+          continue;
+        }
+
+        this.visit(neighbor, newGCost, current);
+        this.push(neighbor, hasTarget ? newGCost + getDistance(neighborX, neighborY, targetX, targetY) : newGCost);
+      }
+    }
+  }
+
+  /**
+   * Gets the costs of the specified node that were calculated by the last search.
+   *
+   * @return The costs or {@link Float#POSITIVE_INFINITY} if the node was not reached.
+   */
+  float getCosts(final int x, final int y) {
+    if (!this.isInArea(x, y)) {
+      return Float.POSITIVE_INFINITY;
+    }
+
+    final int index = this.getLocalIndex(x, y);
+    return this.searches[index] == this.currentSearch && this.closed[index] ? this.gCosts[index] : Float.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Retraces the path of the last (forward) search from its start to the specified node.
+   *
+   * @return The snapshot indices of all nodes of the path, excluding the start and including the specified node, or
+   *         null if the node was not reached.
+   */
+  int[] retrace(final int x, final int y) {
+    if (this.getCosts(x, y) == Float.POSITIVE_INFINITY) {
+      return null;
+    }
+
+    int length = 0;
+    for (int current = this.getLocalIndex(x, y); this.predecessors[current] != -1; current = this.predecessors[current]) {
+      length++;
+    }
+
+    final int[] path = new int[length];
+    int current = this.getLocalIndex(x, y);
+    for (int i = length - 1; i >= 0; i--) {
+      path[i] = this.snapshot.getIndex(this.minX + current % this.width, this.minY + current / this.width);
+      current = this.predecessors[current];
+    }
+
+    return path;
+  }
+
+  static float getDistance(final int x1, final int y1, final int x2, final int y2) {
+    final int dstX = Math.abs(x1 - x2);
+    final int dstY = Math.abs(y1 - y2);
+    if (dstX > dstY) {
+      return DIAGONAL_COST * dstY + (dstX - dstY);
+    }
+
+    return DIAGONAL_COST * dstX + (dstY - dstX);
+  }
+
+  private boolean canMove(final int x, final int y, final int neighborX, final int neighborY, final boolean diagonal, final boolean isTarget) {
+    if (!diagonal) {
+      return this.snapshot.isWalkable(neighborX, neighborY);
+    }
+
+    if (!this.snapshot.isDiagonalMovementAllowed() || !isTarget && !this.snapshot.isWalkable(neighborX, neighborY)) {
+      return false;
+    }
+
+    // only consider diagonal neighbors when they are not on a corner
+    return this.snapshot.isDiagonalCornerMovementAllowed() || this.isWalkable(neighborX, y) && this.isWalkable(x, neighborY);
+  }
+
+  private boolean isWalkable(final int x, final int y) {
+    return this.isInArea(x, y) && this.snapshot.isWalkable(x, y);
+  }
+
+  private boolean isInArea(final int x, final int y) {
+    return x >= this.minX && x < this.maxX && y >= this.minY && y < this.maxY;
+  }
+
+  private int getLocalIndex(final int x, final int y) {
+    return (y - this.minY) * this.width + x - this.minX;
+  }
+
+  private void visit(final int node, final float gCost, final int predecessor) {
+    if (this.searches[node] != this.currentSearch) {
+      this.searches[node] = this.currentSearch;
+      this.closed[node] = false;
+    }
+
+    this.gCosts[node] = gCost;
+    this.predecessors[node] = predecessor;
+  }
+
+  /**
+   * Nodes are pushed again instead of being moved within the heap when their costs decrease. Outdated entries are
+   * skipped when they are polled because the node is already closed at that time.
+   */
+  private void push(final int node, final float key) {
+    if (this.heapSize == this.heap.length) {
+      this.heap = Arrays.copyOf(this.heap, this.heapSize * 2);
+      this.heapKeys = Arrays.copyOf(this.heapKeys, this.heapSize * 2);
+    }
+
+    int pos = this.heapSize++;
+    while (pos > 0) {
+      final int parentPos = (pos - 1) >>> 1;
+      if (this.heapKeys[parentPos] <= key) {
+        break;
+      }
+
+      this.heap[pos] = this.heap[parentPos];
+      this.heapKeys[pos] = this.heapKeys[parentPos];
+      pos = parentPos;
+    }
+
+    this.heap[pos] = node;
+    this.heapKeys[pos] = key;
+  }
+
+  private int pop() {
+    final int first = this.heap[0];
+    this.heapSize--;
+    final int node = this.heap[this.heapSize];
+    final float key = this.heapKeys[this.heapSize];
+
+    int pos = 0;
+    final int half = this.heapSize >>> 1;
+    while (pos < half) {
+      int childPos = 2 * pos + 1;
+      if (childPos + 1 < this.heapSize && this.heapKeys[childPos + 1] < this.heapKeys[childPos]) {
+        childPos++;
+      }
+
+      if (this.heapKeys[childPos] >= key) {
+        break;
+      }
+
+      this.heap[pos] = this.heap[childPos];
+      this.heapKeys[pos] = this.heapKeys[childPos];
+      pos = childPos;
+    }
+
+    this.heap[pos] = node;
+    this.heapKeys[pos] = key;
+    return first;
+  }
+}
@@ -0,0 +1,730 @@
+package de.gurkenlabs.litiengine.pathfinding.astar;
+
+import java.awt.Point;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+import de.gurkenlabs.litiengine.pathfinding.Path;
+import de.gurkenlabs.litiengine.pathfinding.PathFinder;
+
+/**
+ * A hierarchical path finder (HPA*) for large grids. The {@link AStarGrid} is split into square clusters that are
+ * connected by entrances on their borders. Within every cluster, the costs between all of its entrances are
+ * precomputed. A path is searched on this abstract graph first and only the clusters along the found route are refined
+ * to actual nodes afterwards. The refined paths within a cluster are cached until the cluster changes.
+ * <p>
+ * Whenever {@link AStarGrid#updateWalkable(Rectangle2D)} is called, only the clusters that intersect the updated region
+ * and their direct neighbors are rebuilt on the next search. Changes that are applied to the nodes by other means
+ * require a call to {@link #invalidate()}.
+ * </p>
+ * <p>
+ * The found paths are near-optimal: they can be slightly longer than the paths of the {@link AStarPathFinder} because
+ * clusters are only entered and left through their entrances.
+ * </p>
+ */
+public class HierarchicalPathFinder extends PathFinder {
+  public static final int DEFAULT_CLUSTER_SIZE = 32;
+
+  // border segments that are wider than this get an entrance at both of their ends instead of a single one in the middle
+  private static final int MAX_ENTRANCE_WIDTH = 6;
+
+  // overestimating the remaining costs focuses the search on the entrances towards the target, at the expense of paths
+  // that can be up to 10% more expensive than the cheapest path on the abstract graph
+  private static final float HEURISTIC_WEIGHT = 1.1f;
+
+  private final AStarGrid grid;
+  private final int clusterSize;
+  private final int clusterColumns;
+  private final int clusterRows;
+  private final Cluster[] clusters;
+  private final Set<Integer> dirtyClusters;
+  private final ClusterSearch clusterSearch;
+  private final ThreadLocal<ClusterSearch> edgeSearches;
+
+  private AStarGridSnapshot snapshot;
+  private Entrance[] entrances;
+  private int[] freeEntranceIds;
+  private int freeEntranceCount;
+  private int entranceCount;
+
+  private float[] gCosts;
+  private float[] targetCosts;
+  private int[] predecessors;
+  private int[] searches;
+  private boolean[] closed;
+  private int currentSearch;
+  private int[] heap;
+  private float[] heapKeys;
+  private int heapSize;
+
+  public HierarchicalPathFinder(final AStarGrid grid) {
+    this(grid, DEFAULT_CLUSTER_SIZE);
+  }
+
+  /**
+   * Instantiates a new hierarchical path finder.
+   *
+   * @param grid
+   *          The grid to search.
+   * @param clusterSize
+   *          The width and height of a cluster in nodes.
+   */
+  public HierarchicalPathFinder(final AStarGrid grid, final int clusterSize) {
+    if (clusterSize < 2) {
+      throw new IllegalArgumentException("The cluster size must be at least 2.");
+    }
+
+    this.grid = grid;
+    this.clusterSize = clusterSize;
+
+    final int columns = grid.getColumns();
+    final int rows = grid.getRows();
+    this.clusterColumns = (columns + clusterSize - 1) / clusterSize;
+    this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+    this.clusters = new Cluster[this.clusterColumns * this.clusterRows];
+    for (int y = 0; y < this.clusterRows; y++) {
+      for (int x = 0; x < this.clusterColumns; x++) {
+        this.clusters[y * this.clusterColumns + x] = new Cluster(x * clusterSize, y * clusterSize, Math.min(columns, (x + 1) * clusterSize), Math.min(rows, (y + 1) * clusterSize));
+      }
+    }
+
+    this.dirtyClusters = ConcurrentHashMap.newKeySet();
+    this.clusterSearch = new ClusterSearch();
+    this.edgeSearches = ThreadLocal.withInitial(ClusterSearch::new);
+    this.entrances = new Entrance[64];
+    this.freeEntranceIds = new int[16];
+    this.allocate(this.entrances.length);
+
+    this.grid.onWalkableUpdated(this::walkableUpdated);
+  }
+
+  public HierarchicalPathFinder(final IMap map, final int gridNodeSize) {
+    this(new AStarGrid(map.getSizeInPixels(), gridNodeSize));
+  }
+
+  public HierarchicalPathFinder(final IMap map) {
+    this(map, map.getTileSize().width);
+  }
+
+  @Override
+  public Path findPath(final IMobileEntity entity, final Point2D target) {
+    // if there is no collision between the start and the target return a direct
+    // path
+    final Point2D startLocation = entity.getCollisionBoxCenter();
+    if (!this.intersectsWithAnyCollisionBox(entity, startLocation, target)) {
+      return this.findDirectPath(startLocation, target);
+    }
+
+    final AStarNode startNode = this.getGrid().getNode(startLocation);
+    AStarNode targetNode = this.getGrid().getNode(target);
+    if (startNode == null || targetNode == null || startNode.equals(targetNode)) {
+      return null;
+    }
+
+    // simple fallback if the target tile is not walkable.
+    if (!targetNode.isWalkable()) {
+      AStarNode walkableNeighbor = null;
+      for (AStarNode neighbor : this.getGrid().getNeighbors(targetNode)) {
+        if (neighbor.isWalkable()) {
+          walkableNeighbor = neighbor;
+          break;
+        }
+      }
+
+      if (walkableNeighbor == null) {
+        return this.findDirectPath(startLocation, target);
+      }
+
+      if (startNode.equals(walkableNeighbor)) {
+        return null;
+      }
+
+      targetNode = walkableNeighbor;
+    }
+
+    return this.findPath(startNode, targetNode);
+  }
+
+  /**
+   * Searches a path between the specified nodes of the grid.
+   *
+   * @param startNode
+   *          The start node of the path.
+   * @param targetNode
+   *          The target node of the path.
+   * @return The found {@link Path} or null if the target node cannot be reached.
+   */
+  public synchronized Path findPath(final AStarNode startNode, final AStarNode targetNode) {
+    this.update(this.getGrid().getSnapshot());
+
+    final int startX = startNode.getGridX();
+    final int startY = startNode.getGridY();
+    final int targetX = targetNode.getGridX();
+    final int targetY = targetNode.getGridY();
+    final Cluster startCluster = this.getCluster(startX, startY);
+    final Cluster targetCluster = this.getCluster(targetX, targetY);
+
+    final int startId = this.entrances.length;
+    final int targetId = startId + 1;
+    this.currentSearch++;
+    this.heapSize = 0;
+    this.visit(startId, 0, -1);
+    this.push(startId, ClusterSearch.getDistance(startX, startY, targetX, targetY) * HEURISTIC_WEIGHT);
+
+    // connect the target to the entrances of its cluster
+    this.clusterSearch.search(this.snapshot, targetCluster.minX, targetCluster.minY, targetCluster.maxX, targetCluster.maxY, targetX, targetY, -1, -1, true);
+    for (final Entrance entrance : targetCluster.entrances.values()) {
+      this.targetCosts[entrance.id] = this.clusterSearch.getCosts(entrance.x, entrance.y);
+    }
+
+    while (this.heapSize > 0) {
+      final int current = this.pop();
+      if (this.closed[current]) {
+        continue;
+      }
+
+      this.closed[current] = true;
+      if (current == targetId) {
+        return this.refinePath(startX, startY, targetX, targetY, startId, targetId);
+      }
+
+      if (current == startId) {
+        // connect the start to the entrances of its cluster and, if possible, directly to the target
+        this.clusterSearch.search(this.snapshot, startCluster.minX, startCluster.minY, startCluster.maxX, startCluster.maxY, startX, startY, -1, -1, false);
+        for (final Entrance entrance : startCluster.entrances.values()) {
+          this.relax(startId, entrance.id, this.clusterSearch.getCosts(entrance.x, entrance.y), entrance.x, entrance.y, targetX, targetY);
+        }
+
+        // nearby targets are also searched directly, so that short paths don't need to detour through entrances
+        if (Math.abs(startCluster.minX - targetCluster.minX) <= this.clusterSize && Math.abs(startCluster.minY - targetCluster.minY) <= this.clusterSize) {
+          this.search(startCluster, targetCluster, startX, startY, targetX, targetY);
+          this.relax(startId, targetId, this.clusterSearch.getCosts(targetX, targetY), targetX, targetY, targetX, targetY);
+        }
+
+        continue;
+      }
+
+      final Entrance entrance = this.entrances[current];
+      for (int i = 0; i < entrance.edgeCount; i++) {
+        final Entrance neighbor = entrance.edgeTargets[i];
+        this.relax(current, neighbor.id, entrance.edgeCosts[i], neighbor.x, neighbor.y, targetX, targetY);
+      }
+
+      if (entrance.cluster == targetCluster) {
+        this.relax(current, targetId, this.targetCosts[current], targetX, targetY, targetX, targetY);
+      }
+    }
+
+    return null;
+  }
+
+  public AStarGrid getGrid() {
+    return this.grid;
+  }
+
+  public int getClusterSize() {
+    return this.clusterSize;
+  }
+
+  /**
+   * Gets the number of entrances between all clusters, i.e. the number of nodes of the abstract graph.
+   *
+   * @return The number of entrances.
+   */
+  public synchronized int getEntranceCount() {
+    this.update(this.getGrid().getSnapshot());
+    return this.entranceCount;
+  }
+
+  /**
+   * Marks all clusters to be rebuilt on the next search. This is required when the walkability or the penalties of
+   * the nodes have been changed without calling {@link AStarGrid#updateWalkable(Rectangle2D)}.
+   */
+  public void invalidate() {
+    for (int i = 0; i < this.clusters.length; i++) {
+      this.dirtyClusters.add(i);
+    }
+  }
+
+  private void walkableUpdated(final Rectangle2D region) {
+    final int nodeSize = this.getGrid().getNodeSize();
+    final int minX = Math.max(0, (int) (region.getMinX() / nodeSize) / this.clusterSize);
+    final int minY = Math.max(0, (int) (region.getMinY() / nodeSize) / this.clusterSize);
+    final int maxX = Math.min(this.clusterColumns - 1, (int) (region.getMaxX() / nodeSize) / this.clusterSize);
+    final int maxY = Math.min(this.clusterRows - 1, (int) (region.getMaxY() / nodeSize) / this.clusterSize);
+    for (int y = minY; y <= maxY; y++) {
+      for (int x = minX; x <= maxX; x++) {
+        this.dirtyClusters.add(y * this.clusterColumns + x);
+      }
+    }
+  }
+
+  private Cluster getCluster(final int x, final int y) {
+    return this.clusters[y / this.clusterSize * this.clusterColumns + x / this.clusterSize];
+  }
+
+  /**
+   * Rebuilds the dirty clusters. The borders of a dirty cluster are searched for new entrances, which also changes the
+   * entrances of its neighbors. Therefore, the neighbors are rebuilt as well, but they keep the entrances of their
+   * other borders.
+   */
+  private void update(final AStarGridSnapshot currentSnapshot) {
+    if (this.snapshot == null || this.snapshot.isDiagonalMovementAllowed() != currentSnapshot.isDiagonalMovementAllowed() || this.snapshot.isDiagonalCornerMovementAllowed() != currentSnapshot.isDiagonalCornerMovementAllowed()) {
+      this.invalidate();
+    }
+
+    this.snapshot = currentSnapshot;
+    if (this.dirtyClusters.isEmpty()) {
+      return;
+    }
+
+    final Set<Cluster> affected = new HashSet<>();
+    for (final Integer index : this.dirtyClusters) {
+      this.dirtyClusters.remove(index);
+      final int x = index % this.clusterColumns;
+      final int y = index / this.clusterColumns;
+      if (x + 1 < this.clusterColumns) {
+        this.clusters[index].rightBorder = this.findTransitions(this.clusters[index], true);
+      }
+
+      if (x > 0) {
+        this.clusters[index - 1].rightBorder = this.findTransitions(this.clusters[index - 1], true);
+      }
+
+      if (y + 1 < this.clusterRows) {
+        this.clusters[index].bottomBorder = this.findTransitions(this.clusters[index], false);
+      }
+
+      if (y > 0) {
+        this.clusters[index - this.clusterColumns].bottomBorder = this.findTransitions(this.clusters[index - this.clusterColumns], false);
+      }
+
+      affected.add(this.clusters[index]);
+      for (final Cluster neighbor : this.getNeighbors(x, y)) {
+        affected.add(neighbor);
+      }
+    }
+
+    // all entrances need to exist before they can be connected
+    for (final Cluster cluster : affected) {
+      this.updateEntrances(cluster);
+    }
+
+    // the edges of a cluster only depend on its own entrances which allows to search the clusters concurrently
+    affected.parallelStream().forEach(this::updateEdges);
+  }
+
+  private List<Cluster> getNeighbors(final int x, final int y) {
+    final List<Cluster> neighbors = new ArrayList<>(4);
+    if (x > 0) {
+      neighbors.add(this.clusters[y * this.clusterColumns + x - 1]);
+    }
+
+    if (x + 1 < this.clusterColumns) {
+      neighbors.add(this.clusters[y * this.clusterColumns + x + 1]);
+    }
+
+    if (y > 0) {
+      neighbors.add(this.clusters[(y - 1) * this.clusterColumns + x]);
+    }
+
+    if (y + 1 < this.clusterRows) {
+      neighbors.add(this.clusters[(y + 1) * this.clusterColumns + x]);
+    }
+
+    return neighbors;
+  }
+
+  /**
+   * Finds the transitions between the specified cluster and its right or bottom neighbor. Every maximal segment of the
+   * border that is walkable on both sides results in one or two transitions.
+   *
+   * @return The offsets of the transitions along the border.
+   */
+  private int[] findTransitions(final Cluster cluster, final boolean vertical) {
+    final int length = vertical ? cluster.maxY - cluster.minY : cluster.maxX - cluster.minX;
+    final int[] transitions = new int[length];
+    int count = 0;
+    int segmentStart = -1;
+    for (int i = 0; i <= length; i++) {
+      final boolean open = i < length && (vertical ? this.snapshot.isWalkable(cluster.maxX - 1, cluster.minY + i) && this.snapshot.isWalkable(cluster.maxX, cluster.minY + i)
+          : this.snapshot.isWalkable(cluster.minX + i, cluster.maxY - 1) && this.snapshot.isWalkable(cluster.minX + i, cluster.maxY));
+      if (open && segmentStart == -1) {
+        segmentStart = i;
+      } else if (!open && segmentStart != -1) {
+        final int segmentEnd = i - 1;
+        if (segmentEnd - segmentStart + 1 > MAX_ENTRANCE_WIDTH) {
+          transitions[count++] = segmentStart;
+          transitions[count++] = segmentEnd;
+        } else {
+          transitions[count++] = (segmentStart + segmentEnd) / 2;
+        }
+
+        segmentStart = -1;
+      }
+    }
+
+    return Arrays.copyOf(transitions, count);
+  }
+
+  /**
+   * Collects the entrances of the specified cluster from the transitions of all of its borders. Entrances that still
+   * exist are kept, so that references from unchanged neighbors remain valid.
+   */
+  private void updateEntrances(final Cluster cluster) {
+    final Map<Integer, Entrance> previous = cluster.entrances;
+    cluster.entrances = new HashMap<>();
+    cluster.paths.clear();
+
+    this.forEachTransition(cluster, (x, y, otherX, otherY) -> {
+      final int index = this.snapshot.getIndex(x, y);
+      if (cluster.entrances.containsKey(index)) {
+        return;
+      }
+
+      Entrance entrance = previous.remove(index);
+      if (entrance == null) {
+        entrance = new Entrance(this.nextEntranceId(), x, y, cluster);
+        this.entrances[entrance.id] = entrance;
+        this.entranceCount++;
+      }
+
+      entrance.edgeCount = 0;
+      cluster.entrances.put(index, entrance);
+    });
+
+    for (final Entrance removed : previous.values()) {
+      this.entrances[removed.id] = null;
+      this.entranceCount--;
+      if (this.freeEntranceCount == this.freeEntranceIds.length) {
+        this.freeEntranceIds = Arrays.copyOf(this.freeEntranceIds, this.freeEntranceCount * 2);
+      }
+
+      this.freeEntranceIds[this.freeEntranceCount++] = removed.id;
+    }
+  }
+
+  private void updateEdges(final Cluster cluster) {
+    this.forEachTransition(cluster, (x, y, otherX, otherY) -> {
+      final Entrance entrance = cluster.entrances.get(this.snapshot.getIndex(x, y));
+      final Entrance other = this.getCluster(otherX, otherY).entrances.get(this.snapshot.getIndex(otherX, otherY));
+      entrance.addEdge(other, 1 + this.snapshot.getPenalty(x, y));
+    });
+
+    // the cheapest path from one entrance to another is also the cheapest path back, only the penalties of the first
+    // and the last node are swapped. Therefore, every pair of entrances only needs to be searched once.
+    final ClusterSearch search = this.edgeSearches.get();
+    final Entrance[] clusterEntrances = cluster.entrances.values().toArray(new Entrance[cluster.entrances.size()]);
+    final int[] goalsX = new int[clusterEntrances.length];
+    final int[] goalsY = new int[clusterEntrances.length];
+    for (int i = 0; i < clusterEntrances.length; i++) {
+      final Entrance entrance = clusterEntrances[i];
+      int goalCount = 0;
+      for (int j = i + 1; j < clusterEntrances.length; j++) {
+        goalsX[goalCount] = clusterEntrances[j].x;
+        goalsY[goalCount] = clusterEntrances[j].y;
+        goalCount++;
+      }
+
+      search.search(this.snapshot, cluster.minX, cluster.minY, cluster.maxX, cluster.maxY, entrance.x, entrance.y, goalsX, goalsY, goalCount);
+      for (int j = i + 1; j < clusterEntrances.length; j++) {
+        final Entrance other = clusterEntrances[j];
+        final float costs = search.getCosts(other.x, other.y);
+        if (costs != Float.POSITIVE_INFINITY) {
+          entrance.addEdge(other, costs);
+          other.addEdge(entrance, costs - this.snapshot.getPenalty(entrance.x, entrance.y) + this.snapshot.getPenalty(other.x, other.y));
+        }
+      }
+    }
+  }
+
+  private void forEachTransition(final Cluster cluster, final TransitionConsumer consumer) {
+    final int clusterX = cluster.minX / this.clusterSize;
+    final int clusterY = cluster.minY / this.clusterSize;
+    final int index = clusterY * this.clusterColumns + clusterX;
+    if (clusterX + 1 < this.clusterColumns) {
+      for (final int offset : cluster.rightBorder) {
+        consumer.accept(cluster.maxX - 1, cluster.minY + offset, cluster.maxX, cluster.minY + offset);
+      }
+    }
+
+    if (clusterX > 0) {
+      for (final int offset : this.clusters[index - 1].rightBorder) {
+        consumer.accept(cluster.minX, cluster.minY + offset, cluster.minX - 1, cluster.minY + offset);
+      }
+    }
+
+    if (clusterY + 1 < this.clusterRows) {
+      for (final int offset : cluster.bottomBorder) {
+        consumer.accept(cluster.minX + offset, cluster.maxY - 1, cluster.minX + offset, cluster.maxY);
+      }
+    }
+
+    if (clusterY > 0) {
+      for (final int offset : this.clusters[index - this.clusterColumns].bottomBorder) {
+        consumer.accept(cluster.minX + offset, cluster.minY, cluster.minX + offset, cluster.minY - 1);
+      }
+    }
+  }
+
+  private int nextEntranceId() {
+    if (this.freeEntranceCount > 0) {
+      return this.freeEntranceIds[--this.freeEntranceCount];
+    }
+
+    if (this.entranceCount == this.entrances.length) {
+      this.entrances = Arrays.copyOf(this.entrances, this.entrances.length * 2);
+      this.allocate(this.entrances.length);
+    }
+
+    return this.entranceCount;
+  }
+
+  /**
+   * Allocates the search state for the specified number of entrances and two additional slots for the start and the
+   * target of a search.
+   */
+  private void allocate(final int capacity) {
+    this.gCosts = new float[capacity + 2];
+    this.targetCosts = new float[capacity];
+    this.predecessors = new int[capacity + 2];
+    this.searches = new int[capacity + 2];
+    this.closed = new boolean[capacity + 2];
+    this.heap = new int[capacity + 2];
+    this.heapKeys = new float[capacity + 2];
+    this.currentSearch = 0;
+  }
+
+  private void relax(final int current, final int neighbor, final float costs, final int neighborX, final int neighborY, final int targetX, final int targetY) {
+    if (costs == Float.POSITIVE_INFINITY) {
+      return;
+    }
+
+    final boolean visited = this.searches[neighbor] == this.currentSearch;
+    final float newGCost = this.gCosts[current] + costs;
+    if (visited && (this.closed[neighbor] || newGCost >= this.gCosts[neighbor])) {
+      return;
+    }
+
+    this.visit(neighbor, newGCost, current);
+    this.push(neighbor, newGCost + ClusterSearch.getDistance(neighborX, neighborY, targetX, targetY) * HEURISTIC_WEIGHT);
+  }
+
+  private void visit(final int node, final float gCost, final int predecessor) {
+    if (this.searches[node] != this.currentSearch) {
+      this.searches[node] = this.currentSearch;
+      this.closed[node] = false;
+    }
+
+    this.gCosts[node] = gCost;
+    this.predecessors[node] = predecessor;
+  }
+
+  /**
+   * Nodes are pushed again instead of being moved within the heap when their costs decrease. Outdated entries are
+   * skipped when they are polled because the node is already closed at that time.
+   */
+  private void push(final int node, final float key) {
+    if (this.heapSize == this.heap.length) {
+      this.heap = Arrays.copyOf(this.heap, this.heapSize * 2);
+      this.heapKeys = Arrays.copyOf(this.heapKeys, this.heapSize * 2);
+    }
+
+    int pos = this.heapSize++;
+    while (pos > 0) {
+      final int parentPos = (pos - 1) >>> 1;
+      if (this.heapKeys[parentPos] <= key) {
+        break;
+      }
+
+      this.heap[pos] = this.heap[parentPos];
+      this.heapKeys[pos] = this.heapKeys[parentPos];
+      pos = parentPos;
+    }
+
+    this.heap[pos] = node;
+    this.heapKeys[pos] = key;
+  }
+
+  private int pop() {
+    final int first = this.heap[0];
+    this.heapSize--;
+    final int node = this.heap[this.heapSize];
+    final float key = this.heapKeys[this.heapSize];
+
+    int pos = 0;
+    final int half = this.heapSize >>> 1;
+    while (pos < half) {
+      int childPos = 2 * pos + 1;
+      if (childPos + 1 < this.heapSize && this.heapKeys[childPos + 1] < this.heapKeys[childPos]) {
+        childPos++;
+      }
+
+      if (this.heapKeys[childPos] >= key) {
+        break;
+      }
+
+      this.heap[pos] = this.heap[childPos];
+      this.heapKeys[pos] = this.heapKeys[childPos];
+      pos = childPos;
+    }
+
+    this.heap[pos] = node;
+    this.heapKeys[pos] = key;
+    return first;
+  }
+
+  /**
+   * Refines the abstract path that was found by the last search into actual nodes. Steps between two clusters are
+   * adjacent nodes already, whereas steps within a cluster are searched within the bounds of the cluster.
+   */
+  private Path refinePath(final int startX, final int startY, final int targetX, final int targetY, final int startId, final int targetId) {
+    final List<Integer> waypoints = new ArrayList<>();
+    for (int current = this.predecessors[targetId]; current != startId; current = this.predecessors[current]) {
+      waypoints.add(current);
+    }
+
+    final List<Point2D> pointsOfPath = new ArrayList<>();
+    int previousX = startX;
+    int previousY = startY;
+    Entrance previous = null;
+    for (int i = waypoints.size(); i >= 0; i--) {
+      final Entrance next = i > 0 ? this.entrances[waypoints.get(i - 1)] : null;
+      final int nextX = next != null ? next.x : targetX;
+      final int nextY = next != null ? next.y : targetY;
+
+      if (previous != null && next != null && previous.cluster != next.cluster) {
+        // transition between two clusters
+        pointsOfPath.add(this.snapshot.getLocation(nextX, nextY));
+      } else {
+        final int[] nodes;
+        if (previous != null && next != null) {
+          nodes = this.getPath(previous, next);
+        } else {
+          // the start or the target is connected to an entrance of its cluster or, if nearby, directly to each other
+          nodes = this.searchPath(this.getCluster(previousX, previousY), this.getCluster(nextX, nextY), previousX, previousY, nextX, nextY);
+        }
+
+        for (final int node : nodes) {
+          pointsOfPath.add(this.snapshot.getLocation(node / this.snapshot.getRows(), node % this.snapshot.getRows()));
+        }
+      }
+
+      previous = next;
+      previousX = nextX;
+      previousY = nextY;
+    }
+
+    // the target is not part of the points
+    if (!pointsOfPath.isEmpty()) {
+      pointsOfPath.remove(pointsOfPath.size() - 1);
+    }
+
+    final Point startLocation = this.snapshot.getLocation(startX, startY);
+    final Point targetLocation = this.snapshot.getLocation(targetX, targetY);
+    final Path2D path2D = new GeneralPath(Path2D.WIND_NON_ZERO);
+    path2D.moveTo(startLocation.x, startLocation.y);
+    for (final Point2D point : pointsOfPath) {
+      path2D.lineTo(point.getX(), point.getY());
+    }
+
+    path2D.lineTo(targetLocation.x, targetLocation.y);
+
+    return new Path(startLocation, targetLocation, path2D, pointsOfPath);
+  }
+
+  private int[] getPath(final Entrance from, final Entrance to) {
+    final long key = (long) from.id << 32 | to.id;
+    int[] path = from.cluster.paths.get(key);
+    if (path == null) {
+      path = this.searchPath(from.cluster, from.cluster, from.x, from.y, to.x, to.y);
+      from.cluster.paths.put(key, path);
+    }
+
+    return path;
+  }
+
+  private int[] searchPath(final Cluster startCluster, final Cluster targetCluster, final int startX, final int startY, final int targetX, final int targetY) {
+    this.search(startCluster, targetCluster, startX, startY, targetX, targetY);
+    final int[] path = this.clusterSearch.retrace(targetX, targetY);
+    return path != null ? path : new int[0];
+  }
+
+  /**
+   * Searches the area that is spanned by the specified clusters.
+   */
+  private void search(final Cluster startCluster, final Cluster targetCluster, final int startX, final int startY, final int targetX, final int targetY) {
+    this.clusterSearch.search(this.snapshot, Math.min(startCluster.minX, targetCluster.minX), Math.min(startCluster.minY, targetCluster.minY), Math.max(startCluster.maxX, targetCluster.maxX), Math.max(startCluster.maxY, targetCluster.maxY), startX, startY, targetX, targetY, false);
+  }
+
+  @FunctionalInterface
+  private interface TransitionConsumer {
+    void accept(int x, int y, int otherX, int otherY);
+  }
+
+  private static final class Cluster {
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+    private final Map<Long, int[]> paths;
+
+    private Map<Integer, Entrance> entrances;
+    private int[] rightBorder;
+    private int[] bottomBorder;
+
+    private Cluster(final int minX, final int minY, final int maxX, final int maxY) {
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+      this.paths = new HashMap<>();
+      this.entrances = new HashMap<>();
+      this.rightBorder = new int[0];
+      this.bottomBorder = new int[0];
+    }
+  }
+
+  private static final class Entrance {
+    private final int id;
+    private final int x;
+    private final int y;
+    private final Cluster cluster;
+
+    private Entrance[] edgeTargets;
+    private float[] edgeCosts;
+    private int edgeCount;
+
+    private Entrance(final int id, final int x, final int y, final Cluster cluster) {
+      this.id = id;
+      this.x = x;
+      this.y = y;
+      this.cluster = cluster;
+      this.edgeTargets = new Entrance[4];
+      this.edgeCosts = new float[4];
+    }
+
+    private void addEdge(final Entrance target, final float costs) {
+      if (this.edgeCount == this.edgeTargets.length) {
+        this.edgeTargets = Arrays.copyOf(this.edgeTargets, this.edgeCount * 2);
+        this.edgeCosts = Arrays.copyOf(this.edgeCosts, this.edgeCount * 2);
+      }
+
+      this.edgeTargets[this.edgeCount] = target;
+      this.edgeCosts[this.edgeCount] = costs;
+      this.edgeCount++;
+    }
+  }
+}
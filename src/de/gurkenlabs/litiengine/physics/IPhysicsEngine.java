@@ -3,6 +3,7 @@ package de.gurkenlabs.litiengine.physics;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.BitSet;
 import java.util.List;
 
 import de.gurkenlabs.litiengine.IUpdateable;
@@ -55,6 +56,41 @@ public interface IPhysicsEngine extends IUpdateable {
    */
   public boolean collides(Rectangle2D rect, CollisionType collisionType);
 
+  /**
+   * Checks a batch of rectangles, e.g. the bounding boxes of the particles of an emitter, for collisions at once. The
+   * collision boxes that might be hit are only determined once for the common bounds of the whole batch.
+   * 
+   * @param rects
+   *          The rectangles to check the collision for.
+   * @param count
+   *          The number of rectangles of the array that are checked, starting at index 0.
+   * @param collisionType
+   *          The type of collision boxes to check against.
+   * @param hits
+   *          The bit mask that receives the result; if null, a new one is created.
+   * @return A bit mask in which the bit of a rectangle's index is set if the rectangle collides with any collision box
+   *         of the specified type(s). The result equals calling {@link #collides(Rectangle2D, CollisionType)} for each
+   *         rectangle.
+   */
+  public BitSet collides(Rectangle2D[] rects, int count, CollisionType collisionType, BitSet hits);
+
+  /**
+   * Checks a batch of ray casts, e.g. the movements of the particles of an emitter, for collisions at once. The collision
+   * boxes that might be hit are only determined once for the common bounds of the whole batch.
+   * 
+   * @param rayCasts
+   *          The ray casts to check the collision for.
+   * @param count
+   *          The number of ray casts of the array that are checked, starting at index 0.
+   * @param collisionType
+   *          The type of collision boxes to check against.
+   * @param hits
+   *          The bit mask that receives the result; if null, a new one is created.
+   * @return A bit mask in which the bit of a ray cast's index is set if {@link #collides(Line2D, CollisionType)} would
+   *         find an intersection for the ray cast.
+   */
+  public BitSet collides(Line2D[] rayCasts, int count, CollisionType collisionType, BitSet hits);
+
   public List<ICollisionEntity> collidesWithEntities(Rectangle2D rect);
 
   public List<Rectangle2D> getAllCollisionBoxes();
@@ -63,6 +99,24 @@ public interface IPhysicsEngine extends IUpdateable {
 
   public List<Rectangle2D> getStaticCollisionBoxes();
 
+  /**
+   * Checks whether the specified line segment intersects any collision box. Every collision box is enlarged by the
+   * specified margins first, e.g. to take the size of an entity into account that moves along the segment. If the start
+   * of the segment already lies within an enlarged collision box, only the collision box itself is considered, so that
+   * an entity close to an obstacle can still move away from it. Only the collision boxes near the segment are tested.
+   *
+   * @param line
+   *          The line segment to check.
+   * @param marginX
+   *          The margin that is added to the left and right of every collision box.
+   * @param marginY
+   *          The margin that is added above and below every collision box.
+   * @param entity
+   *          The entity whose own collision box is ignored or null.
+   * @return True if the segment intersects any collision box other than at its start; otherwise false.
+   */
+  public boolean intersectsAnyCollisionBox(Line2D line, double marginX, double marginY, ICollisionEntity entity);
+
   /**
    * Moves the specified entity by the delta in the direction of the angle.
    *
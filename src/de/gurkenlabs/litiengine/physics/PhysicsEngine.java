@@ -4,10 +4,17 @@ import java.awt.Shape;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.UpdatePhase;
 import de.gurkenlabs.litiengine.entities.ICollisionEntity;
 import de.gurkenlabs.litiengine.entities.IMobileEntity;
 import de.gurkenlabs.litiengine.entities.Prop;
@@ -15,8 +22,24 @@ import de.gurkenlabs.litiengine.util.geom.GeometricUtilities;
 
 /**
  * The Class PhysicsEngine.
+ * <p>
+ * All collision queries are resolved through a {@link SpatialGrid} broadphase that is sized from the environment bounds.
+ * Static collision boxes are inserted once while collision entities are re-bucketed whenever they are moved by this
+ * instance and, for entities that were moved otherwise, once per tick.
+ * </p>
+ * <p>
+ * Every collision entity is tracked by a stable collision box record that is only touched when the entity is added,
+ * removed, moved or toggles its collision. The number of touched records per tick is reported to the
+ * {@link de.gurkenlabs.litiengine.GameMetrics}.
+ * </p>
  */
 public final class PhysicsEngine implements IPhysicsEngine {
+  /**
+   * The number of collision boxes within the bounds of a batched collision query up to which every item of the batch is
+   * tested against all of them. For more collision boxes, every item is looked up in the broadphase instead.
+   */
+  private static final int MAX_BATCH_CANDIDATES = 32;
+
   private final List<ICollisionEntity> collisionEntities;
 
   private Rectangle2D environmentBounds;
@@ -24,22 +47,25 @@ public final class PhysicsEngine implements IPhysicsEngine {
   private final List<Rectangle2D> staticCollisionBoxes;
 
   private final List<CollisionBox> entityCollisionBoxes;
-  private final List<CollisionBox> allCollisionBoxes;
-  private final List<CollisionBox> staticBoxes;
-  private final List<Rectangle2D> allCollisionBoxRectangles;
-  private final List<Rectangle2D> entityCollisionBoxesRectangles;
+  private final Map<ICollisionEntity, CollisionBox> entityCollisionBoxesByEntity;
+  private final AtomicInteger touchedCollisionBoxes;
+
+  private volatile List<Rectangle2D> allCollisionBoxRectangles;
+
+  private final SpatialGrid<ICollisionEntity> entityGrid;
+  private final SpatialGrid<Rectangle2D> staticGrid;
 
   /**
    * Instantiates a new physics engine.
    */
   public PhysicsEngine() {
     this.entityCollisionBoxes = new CopyOnWriteArrayList<>();
+    this.entityCollisionBoxesByEntity = new ConcurrentHashMap<>();
+    this.touchedCollisionBoxes = new AtomicInteger();
     this.collisionEntities = new CopyOnWriteArrayList<>();
     this.staticCollisionBoxes = new CopyOnWriteArrayList<>();
-    this.allCollisionBoxes = new CopyOnWriteArrayList<>();
-    this.staticBoxes = new CopyOnWriteArrayList<>();
-    this.allCollisionBoxRectangles = new CopyOnWriteArrayList<>();
-    this.entityCollisionBoxesRectangles = new CopyOnWriteArrayList<>();
+    this.entityGrid = new SpatialGrid<>();
+    this.staticGrid = new SpatialGrid<>();
   }
 
   @Override
@@ -53,7 +79,12 @@ public final class PhysicsEngine implements IPhysicsEngine {
     }
 
     if (!this.collisionEntities.contains(entity)) {
+      final CollisionBox collisionBox = new CollisionBox(entity);
       this.collisionEntities.add(entity);
+      this.entityCollisionBoxes.add(collisionBox);
+      this.entityCollisionBoxesByEntity.put(entity, collisionBox);
+      this.entityGrid.add(entity, entity.getCollisionBox());
+      this.collisionBoxesChanged(1);
     }
   }
 
@@ -61,6 +92,8 @@ public final class PhysicsEngine implements IPhysicsEngine {
   public void add(final Rectangle2D staticCollisionBox) {
     if (!this.staticCollisionBoxes.contains(staticCollisionBox)) {
       this.staticCollisionBoxes.add(staticCollisionBox);
+      this.staticGrid.add(staticCollisionBox, staticCollisionBox);
+      this.collisionBoxesChanged(1);
     }
   }
 
@@ -68,6 +101,11 @@ public final class PhysicsEngine implements IPhysicsEngine {
   public void clear() {
     this.staticCollisionBoxes.clear();
     this.collisionEntities.clear();
+    this.entityCollisionBoxes.clear();
+    this.entityCollisionBoxesByEntity.clear();
+    this.staticGrid.clear();
+    this.entityGrid.clear();
+    this.collisionBoxesChanged(0);
   }
 
   @Override
@@ -107,25 +145,25 @@ public final class PhysicsEngine implements IPhysicsEngine {
   @Override
   public Point2D collides(Line2D rayCast, CollisionType collisionType) {
     final Point2D rayCastSource = new Point2D.Double(rayCast.getX1(), rayCast.getY1());
+    final List<Rectangle2D> collBoxes = this.getCollisionBoxes(rayCast.getBounds2D(), collisionType);
 
-    final List<Rectangle2D> collBoxes = this.getAllCollisionBoxRectangles(collisionType);
+    double closestDist = -1;
+    Point2D closestPoint = null;
     for (final Rectangle2D collisionBox : collBoxes) {
-      if (collisionBox.intersectsLine(rayCast)) {
-        double closestDist = -1;
-        Point2D closestPoint = null;
-        for (final Point2D intersection : GeometricUtilities.getIntersectionPoints(rayCast, collisionBox)) {
-          final double dist = intersection.distance(rayCastSource);
-          if (closestPoint == null || dist < closestDist) {
-            closestPoint = intersection;
-            closestDist = dist;
-          }
-        }
+      if (!collisionBox.intersectsLine(rayCast)) {
+        continue;
+      }
 
-        return closestPoint;
+      for (final Point2D intersection : GeometricUtilities.getIntersectionPoints(rayCast, collisionBox)) {
+        final double dist = intersection.distance(rayCastSource);
+        if (closestPoint == null || dist < closestDist) {
+          closestPoint = intersection;
+          closestDist = dist;
+        }
       }
     }
 
-    return null;
+    return closestPoint;
   }
 
   @Override
@@ -139,24 +177,12 @@ public final class PhysicsEngine implements IPhysicsEngine {
       return true;
     }
 
-    for (final Rectangle2D collisionBox : this.getAllCollisionBoxes()) {
-      if (collisionBox.contains(point)) {
-        return true;
-      }
-    }
-
-    return false;
+    return this.collidesWithAnyEntity(null, point) || this.collidesWithAnyStaticCollisionBox(point);
   }
 
   @Override
   public boolean collides(final Rectangle2D rect) {
-    for (final Rectangle2D collisionBox : this.getAllCollisionBoxes()) {
-      if (GeometricUtilities.intersects(rect, collisionBox)) {
-        return true;
-      }
-    }
-
-    return false;
+    return this.collidesWithAnyEntity(null, rect) != null || this.collidesWithAnyStaticCollisionBox(rect) != null;
   }
 
   @Override
@@ -173,14 +199,70 @@ public final class PhysicsEngine implements IPhysicsEngine {
     }
   }
 
+  @Override
+  public BitSet collides(final Rectangle2D[] rects, final int count, final CollisionType collisionType, final BitSet hits) {
+    final BitSet result = hits != null ? hits : new BitSet(count);
+    result.clear();
+    if (count == 0 || collisionType == CollisionType.NONE) {
+      return result;
+    }
+
+    final Rectangle2D bounds = new Rectangle2D.Double();
+    bounds.setRect(rects[0]);
+    for (int i = 1; i < count; i++) {
+      bounds.add(rects[i]);
+    }
+
+    final List<Rectangle2D> candidates = this.getCollisionBoxes(bounds, collisionType);
+    if (candidates.isEmpty()) {
+      return result;
+    }
+
+    for (int i = 0; i < count; i++) {
+      if (candidates.size() > MAX_BATCH_CANDIDATES ? this.collides(rects[i], collisionType) : intersectsAny(candidates, rects[i])) {
+        result.set(i);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public BitSet collides(final Line2D[] rayCasts, final int count, final CollisionType collisionType, final BitSet hits) {
+    final BitSet result = hits != null ? hits : new BitSet(count);
+    result.clear();
+    if (count == 0 || collisionType == CollisionType.NONE) {
+      return result;
+    }
+
+    final Rectangle2D bounds = rayCasts[0].getBounds2D();
+    for (int i = 1; i < count; i++) {
+      bounds.add(rayCasts[i].getX1(), rayCasts[i].getY1());
+      bounds.add(rayCasts[i].getX2(), rayCasts[i].getY2());
+    }
+
+    final List<Rectangle2D> candidates = this.getCollisionBoxes(bounds, collisionType);
+    if (candidates.isEmpty()) {
+      return result;
+    }
+
+    for (int i = 0; i < count; i++) {
+      if (candidates.size() > MAX_BATCH_CANDIDATES ? this.collides(rayCasts[i], collisionType) != null : intersectsAny(candidates, rayCasts[i])) {
+        result.set(i);
+      }
+    }
+
+    return result;
+  }
+
   @Override
   public List<ICollisionEntity> collidesWithEntities(final Rectangle2D rect) {
     final List<ICollisionEntity> collEntities = new CopyOnWriteArrayList<>();
-    for (final ICollisionEntity coll : this.getCollisionEntities()) {
+    this.entityGrid.forEach(rect, coll -> {
       if (coll.getCollisionBox().intersects(rect)) {
         collEntities.add(coll);
       }
-    }
+    });
 
     return collEntities;
   }
@@ -205,6 +287,12 @@ public final class PhysicsEngine implements IPhysicsEngine {
     return this.environmentBounds;
   }
 
+  @Override
+  public boolean intersectsAnyCollisionBox(final Line2D line, final double marginX, final double marginY, final ICollisionEntity entity) {
+    return this.entityGrid.find(line, marginX, marginY, other -> other != entity && other.hasCollision() && intersects(line, other.getCollisionBox(), marginX, marginY)) != null
+        || this.staticGrid.find(line, marginX, marginY, collisionBox -> intersects(line, collisionBox, marginX, marginY)) != null;
+  }
+
   @Override
   public boolean move(final IMobileEntity entity, final double angle, final double delta) {
     final Point2D newPosition = GeometricUtilities.project(entity.getLocation(), angle, delta);
@@ -233,7 +321,7 @@ public final class PhysicsEngine implements IPhysicsEngine {
     }
 
     if (!entity.hasCollision()) {
-      entity.setLocation(newPosition);
+      this.setLocation(entity, newPosition);
       return true;
     }
 
@@ -251,7 +339,7 @@ public final class PhysicsEngine implements IPhysicsEngine {
     }
 
     // set new map location
-    entity.setLocation(newPosition);
+    this.setLocation(entity, newPosition);
     return success;
   }
 
@@ -259,7 +347,7 @@ public final class PhysicsEngine implements IPhysicsEngine {
     // resolve collision for current location
     if (this.collidesWithAnything(entity, entity.getCollisionBox()) != null) {
       final Point2D resolvedPosition = this.resolveCollision(entity, entity.getLocation());
-      entity.setLocation(resolvedPosition);
+      this.setLocation(entity, resolvedPosition);
       return true;
     }
 
@@ -270,7 +358,7 @@ public final class PhysicsEngine implements IPhysicsEngine {
     // resolve collision for new location
     if (this.collidesWithAnything(entity, entity.getCollisionBox(newPosition)) != null) {
       final Point2D resolvedPosition = this.resolveCollision(entity, newPosition);
-      entity.setLocation(resolvedPosition);
+      this.setLocation(entity, resolvedPosition);
       return true;
     }
 
@@ -281,19 +369,11 @@ public final class PhysicsEngine implements IPhysicsEngine {
     // special case to prevent entities to glitch through collision boxes if
     // they have a large enough step size
     final Line2D line = new Line2D.Double(entity.getCollisionBox().getCenterX(), entity.getCollisionBox().getCenterY(), entity.getCollisionBox(newPosition).getCenterX(), entity.getCollisionBox(newPosition).getCenterY());
-    for (final CollisionBox collisionBox : this.getAllCollisionBoxesInternal()) {
-      if (collisionBox.getEntity() != null && (collisionBox.getEntity().equals(entity) || !entity.canCollideWith(collisionBox.getEntity()))) {
-        continue;
-      }
+    final Rectangle2D lineBounds = line.getBounds2D();
 
-      // there was a collision in between
-      final Point2D intersection = GeometricUtilities.getIntersectionPoint(line, collisionBox.getCollisionBox());
-      if (intersection != null) {
-        return true;
-      }
-    }
-
-    return false;
+    // there was a collision in between
+    return this.entityGrid.find(lineBounds, other -> canCollide(entity, other) && GeometricUtilities.getIntersectionPoint(line, other.getCollisionBox()) != null) != null
+        || this.staticGrid.find(lineBounds, collisionBox -> GeometricUtilities.getIntersectionPoint(line, collisionBox) != null) != null;
   }
 
   @Override
@@ -313,66 +393,198 @@ public final class PhysicsEngine implements IPhysicsEngine {
     }
 
     this.collisionEntities.remove(entity);
+    final CollisionBox collisionBox = this.entityCollisionBoxesByEntity.remove(entity);
+    if (collisionBox != null) {
+      this.entityCollisionBoxes.remove(collisionBox);
+      this.entityGrid.remove(entity);
+      this.collisionBoxesChanged(1);
+    }
   }
 
   @Override
   public void remove(final Rectangle2D staticCollisionBox) {
-    this.staticCollisionBoxes.remove(staticCollisionBox);
+    if (this.staticCollisionBoxes.remove(staticCollisionBox)) {
+      this.staticGrid.remove(staticCollisionBox);
+      this.collisionBoxesChanged(1);
+    }
   }
 
   @Override
   public void setBounds(final Rectangle2D environmentBounds) {
     this.environmentBounds = environmentBounds;
+    this.entityGrid.setBounds(environmentBounds);
+    this.staticGrid.setBounds(environmentBounds);
+  }
+
+  @Override
+  public UpdatePhase getUpdatePhase() {
+    return UpdatePhase.PHYSICS;
   }
 
   @Override
   public void update() {
-    this.updateAllCollisionBoxes();
+    // entities might have been moved or changed their collision without the
+    // physics engine being involved
+    for (final CollisionBox collisionBox : this.entityCollisionBoxes) {
+      this.update(collisionBox);
+    }
+
+    Game.getMetrics().setCollisionBoxesTouched(this.touchedCollisionBoxes.getAndSet(0));
+  }
+
+  private static boolean intersectsAny(final List<Rectangle2D> collisionBoxes, final Rectangle2D rect) {
+    for (final Rectangle2D collisionBox : collisionBoxes) {
+      if (GeometricUtilities.intersects(collisionBox, rect)) {
+        return true;
+      }
+    }
+
+    return false;
   }
 
-  private List<CollisionBox> getAllCollisionBoxesInternal() {
-    if (this.allCollisionBoxes.isEmpty()) {
-      this.updateAllCollisionBoxes();
+  private static boolean intersectsAny(final List<Rectangle2D> collisionBoxes, final Line2D rayCast) {
+    for (final Rectangle2D collisionBox : collisionBoxes) {
+      if (collisionBox.intersectsLine(rayCast) && !GeometricUtilities.getIntersectionPoints(rayCast, collisionBox).isEmpty()) {
+        return true;
+      }
     }
 
-    return this.allCollisionBoxes;
+    return false;
   }
 
+  private static boolean canCollide(final ICollisionEntity entity, final ICollisionEntity otherEntity) {
+    return otherEntity != null && otherEntity.hasCollision() && (entity == null || !otherEntity.equals(entity) && entity.canCollideWith(otherEntity));
+  }
+
+  /**
+   * Gets the collision boxes of all entities with collision and all static collision boxes. The list is only rebuilt on
+   * demand if any collision box has been touched since the last call.
+   *
+   * @return An unmodifiable snapshot of all collision boxes.
+   */
   private List<Rectangle2D> getAllCollisionBoxRectangles() {
-    if (this.allCollisionBoxRectangles.isEmpty()) {
-      this.updateAllCollisionBoxes();
+    List<Rectangle2D> rectangles = this.allCollisionBoxRectangles;
+    if (rectangles != null) {
+      return rectangles;
+    }
+
+    final List<Rectangle2D> allRectangles = new ArrayList<>();
+    for (final CollisionBox collisionBox : this.entityCollisionBoxes) {
+      if (collisionBox.hasCollision()) {
+        allRectangles.add(collisionBox.getEntity().getCollisionBox());
+      }
     }
 
-    return this.allCollisionBoxRectangles;
+    allRectangles.addAll(this.staticCollisionBoxes);
+    rectangles = Collections.unmodifiableList(allRectangles);
+    this.allCollisionBoxRectangles = rectangles;
+    return rectangles;
   }
 
-  private List<Rectangle2D> getAllCollisionBoxRectangles(CollisionType collisionType) {
-    switch (collisionType) {
-    case ENTITY:
-      return this.entityCollisionBoxesRectangles;
-    case STATIC:
-      return this.staticCollisionBoxes;
-    default:
-      return getAllCollisionBoxRectangles();
+  /**
+   * Gets the collision boxes of the specified type(s) that might intersect with the specified area according to the
+   * broadphase.
+   */
+  private List<Rectangle2D> getCollisionBoxes(final Rectangle2D area, final CollisionType collisionType) {
+    final List<Rectangle2D> collBoxes = new ArrayList<>();
+    if (collisionType == CollisionType.ALL || collisionType == CollisionType.ENTITY) {
+      this.entityGrid.forEach(area, entity -> {
+        if (entity.hasCollision()) {
+          collBoxes.add(entity.getCollisionBox());
+        }
+      });
+    }
+
+    if (collisionType == CollisionType.ALL || collisionType == CollisionType.STATIC) {
+      this.staticGrid.forEach(area, collBoxes::add);
+    }
+
+    return collBoxes;
+  }
+
+  /**
+   * Checks whether the specified line segment intersects the collision box enlarged by the margins or only the collision
+   * box itself if the enlarged one contains the start of the segment.
+   */
+  private static boolean intersects(final Line2D line, final Rectangle2D collisionBox, final double marginX, final double marginY) {
+    final double minX = collisionBox.getMinX() - marginX;
+    final double minY = collisionBox.getMinY() - marginY;
+    final double maxX = collisionBox.getMaxX() + marginX;
+    final double maxY = collisionBox.getMaxY() + marginY;
+    if (line.getX1() >= minX && line.getY1() >= minY && line.getX1() < maxX && line.getY1() < maxY) {
+      return intersectsBeyondStart(line, collisionBox.getMinX(), collisionBox.getMinY(), collisionBox.getMaxX(), collisionBox.getMaxY());
     }
+
+    return intersectsBeyondStart(line, minX, minY, maxX, maxY);
   }
 
-  private void updateAllCollisionBoxes() {
-    this.allCollisionBoxes.clear();
-    this.entityCollisionBoxes.clear();
-    this.staticBoxes.clear();
+  /**
+   * Clips the line segment to the rectangle (Liang-Barsky) and checks whether any part of it remains except for its
+   * start point.
+   */
+  private static boolean intersectsBeyondStart(final Line2D line, final double minX, final double minY, final double maxX, final double maxY) {
+    final double deltaX = line.getX2() - line.getX1();
+    final double deltaY = line.getY2() - line.getY1();
+    double start = 0;
+    double end = 1;
+    for (int edge = 0; edge < 4; edge++) {
+      final double direction;
+      final double distance;
+      switch (edge) {
+      case 0:
+        direction = -deltaX;
+        distance = line.getX1() - minX;
+        break;
+      case 1:
+        direction = deltaX;
+        distance = maxX - line.getX1();
+        break;
+      case 2:
+        direction = -deltaY;
+        distance = line.getY1() - minY;
+        break;
+      default:
+        direction = deltaY;
+        distance = maxY - line.getY1();
+        break;
+      }
 
-    this.entityCollisionBoxes.addAll(this.collisionEntities.stream().filter(ICollisionEntity::hasCollision).map(CollisionBox::new).collect(Collectors.toList()));
-    this.staticBoxes.addAll(this.staticCollisionBoxes.stream().map(CollisionBox::new).collect(Collectors.toList()));
+      if (direction == 0) {
+        // the segment is parallel to the edge and lies outside of it
+        if (distance < 0) {
+          return false;
+        }
+
+        continue;
+      }
+
+      final double t = distance / direction;
+      if (direction < 0) {
+        start = Math.max(start, t);
+      } else {
+        end = Math.min(end, t);
+      }
+
+      if (start > end) {
+        return false;
+      }
+    }
 
-    this.allCollisionBoxes.addAll(entityCollisionBoxes);
-    this.allCollisionBoxes.addAll(this.staticBoxes);
+    return end > 0;
+  }
 
-    this.allCollisionBoxRectangles.clear();
-    this.entityCollisionBoxesRectangles.clear();
-    this.entityCollisionBoxesRectangles.addAll(this.entityCollisionBoxes.stream().map(CollisionBox::getCollisionBox).collect(Collectors.toList()));
+  private void collisionBoxesChanged(final int touched) {
+    this.allCollisionBoxRectangles = null;
+    this.touchedCollisionBoxes.addAndGet(touched);
+  }
 
-    this.allCollisionBoxRectangles.addAll(this.allCollisionBoxes.stream().map(CollisionBox::getCollisionBox).collect(Collectors.toList()));
+  private void update(final CollisionBox collisionBox) {
+    if (!collisionBox.update()) {
+      return;
+    }
+
+    this.entityGrid.update(collisionBox.getEntity(), collisionBox.getEntity().getCollisionBox());
+    this.collisionBoxesChanged(1);
   }
 
   /**
@@ -385,31 +597,12 @@ public final class PhysicsEngine implements IPhysicsEngine {
    * @return true, if successful
    */
   private Rectangle2D collidesWithAnyEntity(final ICollisionEntity entity, final Rectangle2D collisionBox) {
-    for (final ICollisionEntity otherEntity : this.collisionEntities) {
-      if (otherEntity == null || !otherEntity.hasCollision() || entity != null && otherEntity.equals(entity) || entity != null && !entity.canCollideWith(otherEntity)) {
-        continue;
-      }
-
-      if (GeometricUtilities.intersects(otherEntity.getCollisionBox(), collisionBox)) {
-        return otherEntity.getCollisionBox().createIntersection(collisionBox);
-      }
-    }
-
-    return null;
+    final ICollisionEntity otherEntity = this.entityGrid.find(collisionBox, other -> canCollide(entity, other) && GeometricUtilities.intersects(other.getCollisionBox(), collisionBox));
+    return otherEntity != null ? otherEntity.getCollisionBox().createIntersection(collisionBox) : null;
   }
 
   private boolean collidesWithAnyEntity(final ICollisionEntity entity, final Point2D location) {
-    for (final ICollisionEntity otherEntity : this.collisionEntities) {
-      if (otherEntity == null || !otherEntity.hasCollision() || entity != null && otherEntity.equals(entity) || entity != null && !entity.canCollideWith(otherEntity)) {
-        continue;
-      }
-
-      if (otherEntity.getCollisionBox().contains(location)) {
-        return true;
-      }
-    }
-
-    return false;
+    return this.entityGrid.find(location.getX(), location.getY(), other -> canCollide(entity, other) && other.getCollisionBox().contains(location)) != null;
   }
 
   /**
@@ -422,44 +615,36 @@ public final class PhysicsEngine implements IPhysicsEngine {
    * @return true, if successful
    */
   private Rectangle2D collidesWithAnyStaticCollisionBox(final Rectangle2D entityCollisionBox) {
-    for (final Rectangle2D collisionBox : this.staticCollisionBoxes) {
-      if (GeometricUtilities.intersects(collisionBox, entityCollisionBox)) {
-        return collisionBox.createIntersection(entityCollisionBox);
-      }
-    }
-
-    return null;
+    final Rectangle2D collisionBox = this.staticGrid.find(entityCollisionBox, box -> GeometricUtilities.intersects(box, entityCollisionBox));
+    return collisionBox != null ? collisionBox.createIntersection(entityCollisionBox) : null;
   }
 
   private boolean collidesWithAnyStaticCollisionBox(final Point2D location) {
-    for (final Rectangle2D collisionBox : this.staticCollisionBoxes) {
-      if (collisionBox.contains(location)) {
-        return true;
-      }
-    }
-
-    return false;
+    return this.staticGrid.find(location.getX(), location.getY(), box -> box.contains(location)) != null;
   }
 
   private Rectangle2D collidesWithAnything(final ICollisionEntity entity, final Rectangle2D entityCollisionBox) {
-    for (final CollisionBox collisionBox : this.allCollisionBoxes) {
+    // an entity cannot collide with itself or other entities that are
+    // excluded from collision by the canCollideWith method
+    final ICollisionEntity otherEntity = this.entityGrid.find(entityCollisionBox, other -> canCollide(entity, other) && overlaps(other.getCollisionBox(), entityCollisionBox));
+    if (otherEntity != null) {
+      return getIntersection(otherEntity.getCollisionBox(), entityCollisionBox);
+    }
 
-      // an entity cannot collide with itself or other entities that are
-      // excluded from collision by the canCollideWith method
-      if (collisionBox.getEntity() != null && (collisionBox.getEntity().equals(entity) || !entity.canCollideWith(collisionBox.getEntity()))) {
-        continue;
-      }
+    final Rectangle2D collisionBox = this.staticGrid.find(entityCollisionBox, box -> overlaps(box, entityCollisionBox));
+    return collisionBox != null ? getIntersection(collisionBox, entityCollisionBox) : null;
+  }
 
-      if (collisionBox.getCollisionBox().contains(entityCollisionBox)) {
-        return collisionBox.getCollisionBox();
-      }
+  private static boolean overlaps(final Rectangle2D collisionBox, final Rectangle2D entityCollisionBox) {
+    return collisionBox.contains(entityCollisionBox) || GeometricUtilities.intersects(collisionBox, entityCollisionBox);
+  }
 
-      if (GeometricUtilities.intersects(collisionBox.getCollisionBox(), entityCollisionBox)) {
-        return collisionBox.getCollisionBox().createIntersection(entityCollisionBox);
-      }
+  private static Rectangle2D getIntersection(final Rectangle2D collisionBox, final Rectangle2D entityCollisionBox) {
+    if (collisionBox.contains(entityCollisionBox)) {
+      return collisionBox;
     }
 
-    return null;
+    return collisionBox.createIntersection(entityCollisionBox);
   }
 
   /**
@@ -482,6 +667,14 @@ public final class PhysicsEngine implements IPhysicsEngine {
     return mob.getLocation();
   }
 
+  private void setLocation(final IMobileEntity entity, final Point2D location) {
+    entity.setLocation(location);
+    final CollisionBox collisionBox = this.entityCollisionBoxesByEntity.get(entity);
+    if (collisionBox != null) {
+      this.update(collisionBox);
+    }
+  }
+
   /**
    * Checks if is in map.
    *
@@ -542,27 +735,49 @@ public final class PhysicsEngine implements IPhysicsEngine {
     return resolvedPosition;
   }
 
-  private class CollisionBox {
-    private final Rectangle2D box;
-
+  /**
+   * A stable record of an entity's collision box that remembers the state it was last synchronized with.
+   */
+  private static final class CollisionBox {
     private final ICollisionEntity entity;
 
-    private CollisionBox(Rectangle2D box) {
-      this.box = box;
-      this.entity = null;
-    }
+    private boolean collision;
+    private double x;
+    private double y;
+    private double width;
+    private double height;
 
-    private CollisionBox(ICollisionEntity entity) {
-      this.box = entity.getCollisionBox();
+    private CollisionBox(final ICollisionEntity entity) {
       this.entity = entity;
-    }
-
-    public Rectangle2D getCollisionBox() {
-      return this.box;
+      this.update();
     }
 
     public ICollisionEntity getEntity() {
       return this.entity;
     }
+
+    public boolean hasCollision() {
+      return this.collision;
+    }
+
+    /**
+     * Synchronizes this record with the current state of its entity.
+     *
+     * @return True if the entity moved, was resized or toggled its collision since the last update; otherwise false.
+     */
+    private boolean update() {
+      final Rectangle2D box = this.entity.getCollisionBox();
+      final boolean hasCollision = this.entity.hasCollision();
+      if (hasCollision == this.collision && box.getX() == this.x && box.getY() == this.y && box.getWidth() == this.width && box.getHeight() == this.height) {
+        return false;
+      }
+
+      this.collision = hasCollision;
+      this.x = box.getX();
+      this.y = box.getY();
+      this.width = box.getWidth();
+      this.height = box.getHeight();
+      return true;
+    }
   }
-}
\ No newline at end of file
+}
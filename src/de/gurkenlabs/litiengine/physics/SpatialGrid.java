@@ -0,0 +1,514 @@
+package de.gurkenlabs.litiengine.physics;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A uniform grid that buckets arbitrary items by their rectangular bounds. It serves as broadphase for spatial queries,
+ * so that their costs depend on the local density of items instead of the total number of items.
+ * <p>
+ * Items that span multiple cells are registered with every cell they overlap. The query methods still report every item
+ * only once. Items that are located outside of the grid's bounds are clamped to its border cells.
+ * </p>
+ * <p>
+ * The cells are guarded by a read-write lock, so that queries can run concurrently while items are added, moved or
+ * removed. Queries only collect their candidates while holding the lock and test them afterwards, which allows the
+ * conditions and consumers that are passed to them to modify this grid.
+ * </p>
+ *
+ * @param <T>
+ *          The type of the items held by this grid.
+ */
+public class SpatialGrid<T> {
+  public static final int DEFAULT_CELL_SIZE = 64;
+  private static final int MAX_CELLS_PER_AXIS = 512;
+
+  private final Map<T, Node<T>> nodes;
+  private final double preferredCellSize;
+  private final ReadWriteLock lock;
+  private final ThreadLocal<Candidates> candidates;
+
+  private double originX;
+  private double originY;
+  private double cellSize;
+  private int columns;
+  private int rows;
+  private List<Node<T>>[] cells;
+
+  /**
+   * Instantiates a new spatial grid without bounds which degrades to a single cell until bounds are set.
+   */
+  public SpatialGrid() {
+    this(null);
+  }
+
+  public SpatialGrid(final Rectangle2D bounds) {
+    this(bounds, DEFAULT_CELL_SIZE);
+  }
+
+  /**
+   * Instantiates a new spatial grid.
+   *
+   * @param bounds
+   *          The area covered by this grid.
+   * @param cellSize
+   *          The preferred size of a cell. It gets increased if the bounds would otherwise result in too many cells.
+   */
+  public SpatialGrid(final Rectangle2D bounds, final double cellSize) {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("The cell size must be positive.");
+    }
+
+    this.nodes = new ConcurrentHashMap<>();
+    this.preferredCellSize = cellSize;
+    this.lock = new ReentrantReadWriteLock();
+    this.candidates = ThreadLocal.withInitial(Candidates::new);
+    this.setBounds(bounds);
+  }
+
+  /**
+   * Adds the specified item or updates its bounds if it is already held by this grid.
+   *
+   * @param item
+   *          The item to add.
+   * @param bounds
+   *          The current bounds of the item.
+   * @return True if the item was added or moved to other cells; otherwise false.
+   */
+  public boolean add(final T item, final Rectangle2D bounds) {
+    return this.update(item, bounds);
+  }
+
+  public void clear() {
+    this.lock.writeLock().lock();
+    try {
+      this.nodes.clear();
+      Arrays.fill(this.cells, null);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public boolean contains(final T item) {
+    return this.nodes.containsKey(item);
+  }
+
+  public double getCellSize() {
+    return this.cellSize;
+  }
+
+  public int getColumns() {
+    return this.columns;
+  }
+
+  public int getRows() {
+    return this.rows;
+  }
+
+  public Collection<T> getItems() {
+    return this.nodes.keySet();
+  }
+
+  /**
+   * Finds the first item whose cells overlap the specified area and that satisfies the specified condition. The order in
+   * which candidates are tested is undefined.
+   *
+   * @param area
+   *          The area to search.
+   * @param condition
+   *          The condition that an item needs to satisfy.
+   * @return The first matching item or null if no item matched.
+   */
+  public T find(final Rectangle2D area, final Predicate<? super T> condition) {
+    return this.find(area.getMinX(), area.getMinY(), area.getMaxX(), area.getMaxY(), condition);
+  }
+
+  public T find(final double x, final double y, final Predicate<? super T> condition) {
+    return this.find(x, y, x, y, condition);
+  }
+
+  public T find(final double minX, final double minY, final double maxX, final double maxY, final Predicate<? super T> condition) {
+    final Candidates found = this.acquireCandidates();
+    this.lock.readLock().lock();
+    try {
+      final int minColumn = this.getColumn(minX);
+      final int minRow = this.getRow(minY);
+      final int maxColumn = this.getColumn(maxX);
+      final int maxRow = this.getRow(maxY);
+      for (int row = minRow; row <= maxRow; row++) {
+        for (int column = minColumn; column <= maxColumn; column++) {
+          this.collectFromCell(found, column, row, minColumn, minRow);
+        }
+      }
+    } finally {
+      this.lock.readLock().unlock();
+    }
+
+    return this.test(found, condition);
+  }
+
+  /**
+   * Finds the first item whose cells are passed by the specified line segment and that satisfies the specified
+   * condition. The segment is widened by the specified margins, so that items within that distance of the segment are
+   * tested as well. The cells are traversed row by row and every row only covers the columns that are passed by the
+   * widened segment. Hence, the number of visited cells depends on the length of the segment instead of the area of its
+   * bounds. The order in which candidates are tested is undefined.
+   *
+   * @param line
+   *          The line segment to search along.
+   * @param marginX
+   *          The horizontal distance to the segment up to which items are considered.
+   * @param marginY
+   *          The vertical distance to the segment up to which items are considered.
+   * @param condition
+   *          The condition that an item needs to satisfy.
+   * @return The first matching item or null if no item matched.
+   */
+  public T find(final Line2D line, final double marginX, final double marginY, final Predicate<? super T> condition) {
+    final Candidates found = this.acquireCandidates();
+    this.lock.readLock().lock();
+    try {
+      final int minRow = this.getRow(Math.min(line.getY1(), line.getY2()) - marginY);
+      final int maxRow = this.getRow(Math.max(line.getY1(), line.getY2()) + marginY);
+
+      // the range of columns that is passed within each row; rows that aren't passed at all have an empty range
+      final int[] minColumns = new int[maxRow - minRow + 1];
+      final int[] maxColumns = new int[maxRow - minRow + 1];
+      for (int row = minRow; row <= maxRow; row++) {
+        this.setColumnRange(line, marginX, marginY, row, minColumns, maxColumns, row - minRow);
+      }
+
+      for (int row = minRow; row <= maxRow; row++) {
+        for (int column = minColumns[row - minRow]; column <= maxColumns[row - minRow]; column++) {
+          final List<Node<T>> cell = this.cells[row * this.columns + column];
+          if (cell == null) {
+            continue;
+          }
+
+          for (int i = 0; i < cell.size(); i++) {
+            final Node<T> node = cell.get(i);
+            if (isFirstCellAlongLine(node, column, row, minRow, minColumns, maxColumns)) {
+              found.add(node.item);
+            }
+          }
+        }
+      }
+    } finally {
+      this.lock.readLock().unlock();
+    }
+
+    return this.test(found, condition);
+  }
+
+  /**
+   * Passes every item whose cells overlap the specified area to the specified consumer. This is only a broadphase
+   * check, so callers need to test the exact bounds of the visited items themselves.
+   *
+   * @param area
+   *          The area to search.
+   * @param consumer
+   *          The consumer that receives the candidates.
+   */
+  public void forEach(final Rectangle2D area, final Consumer<? super T> consumer) {
+    this.find(area, item -> {
+      consumer.accept(item);
+      return false;
+    });
+  }
+
+  /**
+   * Removes the specified item from this grid.
+   *
+   * @param item
+   *          The item to remove.
+   * @return True if the item was held by this grid; otherwise false.
+   */
+  public boolean remove(final T item) {
+    this.lock.writeLock().lock();
+    try {
+      final Node<T> node = this.nodes.remove(item);
+      if (node == null) {
+        return false;
+      }
+
+      this.removeFromCells(node);
+      return true;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the area covered by this grid and re-buckets all items accordingly.
+   *
+   * @param bounds
+   *          The new bounds or null if the grid should only consist of a single cell.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void setBounds(final Rectangle2D bounds) {
+    this.lock.writeLock().lock();
+    try {
+      if (bounds == null || bounds.isEmpty()) {
+        this.originX = 0;
+        this.originY = 0;
+        this.cellSize = this.preferredCellSize;
+        this.columns = 1;
+        this.rows = 1;
+      } else {
+        final double maxSize = Math.max(bounds.getWidth(), bounds.getHeight());
+        this.originX = bounds.getX();
+        this.originY = bounds.getY();
+        this.cellSize = Math.max(this.preferredCellSize, Math.ceil(maxSize / MAX_CELLS_PER_AXIS));
+        this.columns = Math.max(1, (int) Math.ceil(bounds.getWidth() / this.cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(bounds.getHeight() / this.cellSize));
+      }
+
+      this.cells = new List[this.columns * this.rows];
+      for (final Node<T> node : this.nodes.values()) {
+        this.setRange(node);
+        this.addToCells(node);
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    return this.nodes.size();
+  }
+
+  /**
+   * Updates the bounds of the specified item. The item is only moved to other cells if the range of cells it overlaps
+   * has changed.
+   *
+   * @param item
+   *          The item to update.
+   * @param bounds
+   *          The current bounds of the item.
+   * @return True if the item was added or moved to other cells; otherwise false.
+   */
+  public boolean update(final T item, final Rectangle2D bounds) {
+    this.lock.writeLock().lock();
+    try {
+      Node<T> node = this.nodes.get(item);
+      if (node == null) {
+        node = new Node<>(item);
+        node.setBounds(bounds);
+        this.setRange(node);
+        this.nodes.put(item, node);
+        this.addToCells(node);
+        return true;
+      }
+
+      node.setBounds(bounds);
+      if (this.getColumn(node.minX) == node.minColumn && this.getRow(node.minY) == node.minRow && this.getColumn(node.maxX) == node.maxColumn && this.getRow(node.maxY) == node.maxRow) {
+        return false;
+      }
+
+      this.removeFromCells(node);
+      this.setRange(node);
+      this.addToCells(node);
+      return true;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  protected int getColumn(final double x) {
+    return clamp((int) Math.floor((x - this.originX) / this.cellSize), this.columns);
+  }
+
+  protected int getRow(final double y) {
+    return clamp((int) Math.floor((y - this.originY) / this.cellSize), this.rows);
+  }
+
+  private static int clamp(final int index, final int count) {
+    return Math.max(0, Math.min(count - 1, index));
+  }
+
+  /**
+   * Gets the buffer for the candidates of a query on the current thread. A query that is started by the condition of
+   * another query gets its own buffer.
+   */
+  private Candidates acquireCandidates() {
+    final Candidates buffer = this.candidates.get();
+    if (buffer.inUse) {
+      return new Candidates();
+    }
+
+    buffer.inUse = true;
+    return buffer;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T test(final Candidates found, final Predicate<? super T> condition) {
+    try {
+      for (int i = 0; i < found.size; i++) {
+        final T item = (T) found.items[i];
+        if (condition.test(item)) {
+          return item;
+        }
+      }
+
+      return null;
+    } finally {
+      found.release();
+    }
+  }
+
+  /**
+   * Checks whether the specified cell is the first cell of the item that is visited by a search along a line. An item
+   * that spans multiple cells is only reported by this cell.
+   */
+  private static boolean isFirstCellAlongLine(final Node<?> node, final int column, final int row, final int minRow, final int[] minColumns, final int[] maxColumns) {
+    for (int previousRow = Math.max(node.minRow, minRow); previousRow < row; previousRow++) {
+      if (minColumns[previousRow - minRow] <= node.maxColumn && maxColumns[previousRow - minRow] >= node.minColumn) {
+        return false;
+      }
+    }
+
+    return column == Math.max(node.minColumn, minColumns[row - minRow]);
+  }
+
+  /**
+   * Determines the columns of the specified row that are passed by the line segment widened by the margins. The border
+   * rows and columns extend infinitely because items outside of the bounds are clamped to them.
+   */
+  private void setColumnRange(final Line2D line, final double marginX, final double marginY, final int row, final int[] minColumns, final int[] maxColumns, final int index) {
+    final double minY = row == 0 ? Double.NEGATIVE_INFINITY : this.originY + row * this.cellSize - marginY;
+    final double maxY = row == this.rows - 1 ? Double.POSITIVE_INFINITY : this.originY + (row + 1) * this.cellSize + marginY;
+
+    // clip the segment to the vertical extent of the row
+    final double deltaX = line.getX2() - line.getX1();
+    final double deltaY = line.getY2() - line.getY1();
+    double start = 0;
+    double end = 1;
+    if (deltaY == 0) {
+      if (line.getY1() < minY || line.getY1() > maxY) {
+        minColumns[index] = 0;
+        maxColumns[index] = -1;
+        return;
+      }
+    } else {
+      final double enter = (minY - line.getY1()) / deltaY;
+      final double exit = (maxY - line.getY1()) / deltaY;
+      start = Math.max(start, Math.min(enter, exit));
+      end = Math.min(end, Math.max(enter, exit));
+      if (start > end) {
+        minColumns[index] = 0;
+        maxColumns[index] = -1;
+        return;
+      }
+    }
+
+    final double startX = line.getX1() + start * deltaX;
+    final double endX = line.getX1() + end * deltaX;
+    minColumns[index] = this.getColumn(Math.min(startX, endX) - marginX);
+    maxColumns[index] = this.getColumn(Math.max(startX, endX) + marginX);
+  }
+
+  private void addToCells(final Node<T> node) {
+    for (int row = node.minRow; row <= node.maxRow; row++) {
+      for (int column = node.minColumn; column <= node.maxColumn; column++) {
+        final int index = row * this.columns + column;
+        if (this.cells[index] == null) {
+          this.cells[index] = new ArrayList<>();
+        }
+
+        this.cells[index].add(node);
+      }
+    }
+  }
+
+  private void collectFromCell(final Candidates found, final int column, final int row, final int minColumn, final int minRow) {
+    final List<Node<T>> cell = this.cells[row * this.columns + column];
+    if (cell == null) {
+      return;
+    }
+
+    for (int i = 0; i < cell.size(); i++) {
+      // an item that spans multiple cells is only reported by the first of its
+      // cells that lies within the queried range
+      final Node<T> node = cell.get(i);
+      if (column == Math.max(node.minColumn, minColumn) && row == Math.max(node.minRow, minRow)) {
+        found.add(node.item);
+      }
+    }
+  }
+
+  private void removeFromCells(final Node<T> node) {
+    for (int row = node.minRow; row <= node.maxRow; row++) {
+      for (int column = node.minColumn; column <= node.maxColumn; column++) {
+        final List<Node<T>> cell = this.cells[row * this.columns + column];
+        if (cell != null) {
+          cell.remove(node);
+        }
+      }
+    }
+  }
+
+  private void setRange(final Node<T> node) {
+    node.minColumn = this.getColumn(node.minX);
+    node.minRow = this.getRow(node.minY);
+    node.maxColumn = this.getColumn(node.maxX);
+    node.maxRow = this.getRow(node.maxY);
+  }
+
+  /**
+   * The items that were collected by a query. The buffer is reused by the subsequent queries on the same thread.
+   */
+  private static final class Candidates {
+    private Object[] items = new Object[16];
+    private int size;
+    private boolean inUse;
+
+    private void add(final Object item) {
+      if (this.size == this.items.length) {
+        this.items = Arrays.copyOf(this.items, this.size * 2);
+      }
+
+      this.items[this.size++] = item;
+    }
+
+    private void release() {
+      Arrays.fill(this.items, 0, this.size, null);
+      this.size = 0;
+      this.inUse = false;
+    }
+  }
+
+  private static final class Node<T> {
+    private final T item;
+
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    private int minColumn;
+    private int minRow;
+    private int maxColumn;
+    private int maxRow;
+
+    private Node(final T item) {
+      this.item = item;
+    }
+
+    private void setBounds(final Rectangle2D bounds) {
+      this.minX = bounds.getMinX();
+      this.minY = bounds.getMinY();
+      this.maxX = bounds.getMaxX();
+      this.maxY = bounds.getMaxY();
+    }
+  }
+}
@@ -1,8 +1,13 @@
 package de.gurkenlabs.litiengine.states;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * The base class for states that keeps its transitions sorted by their priority, so that a {@link StateMachine} doesn't
+ * need to sort them on every update.
+ */
 public abstract class State implements IState {
   private final String name;
 
@@ -29,8 +34,41 @@ public abstract class State implements IState {
     return this.name;
   }
 
+  /**
+   * Adds the specified transition behind all transitions that don't have a higher priority.
+   *
+   * @param transition
+   *          The transition to add.
+   */
+  public void addTransition(final ITransition transition) {
+    synchronized (this.transitions) {
+      int index = this.transitions.size();
+      while (index > 0 && transition.compareTo(this.transitions.get(index - 1)) < 0) {
+        index--;
+      }
+
+      this.transitions.add(index, transition);
+    }
+  }
+
+  /**
+   * Gets the transitions of this state in the order of their priority. If a transition is added directly to this list
+   * or the priority of a transition changes, the list is sorted again on the next update of the {@link StateMachine} or
+   * by calling {@link #invalidateTransitions()}.
+   *
+   * @return The transitions of this state.
+   */
   @Override
   public List<ITransition> getTransitions() {
     return this.transitions;
   }
+
+  /**
+   * Sorts the transitions of this state again by their priority.
+   */
+  public void invalidateTransitions() {
+    synchronized (this.transitions) {
+      Collections.sort(this.transitions);
+    }
+  }
 }
@@ -32,7 +32,16 @@ public class StateMachine implements IStateMachine {
 
     this.currentState.executeBehaviour();
     final List<ITransition> transitions = this.currentState.getTransitions();
-    Collections.sort(transitions);
+
+    // a State keeps its transitions sorted, so they usually only need to be checked; transitions that were added to the
+    // list directly or changed their priority still require sorting
+    if (!isSorted(transitions)) {
+      if (this.currentState instanceof State) {
+        ((State) this.currentState).invalidateTransitions();
+      } else {
+        Collections.sort(transitions);
+      }
+    }
 
     for (final ITransition transition : transitions) {
       if (transition.conditionsFullfilled()) {
@@ -43,4 +52,14 @@ public class StateMachine implements IStateMachine {
       }
     }
   }
+
+  private static boolean isSorted(final List<ITransition> transitions) {
+    for (int i = 1; i < transitions.size(); i++) {
+      if (transitions.get(i - 1).compareTo(transitions.get(i)) > 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
 }
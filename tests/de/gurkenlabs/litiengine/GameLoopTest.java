@@ -1,9 +1,17 @@
 package de.gurkenlabs.litiengine;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import de.gurkenlabs.litiengine.TimedActionQueue.TimedAction;
+
 public class GameLoopTest {
   @Test
   public void testTimeCalculation100() {
@@ -43,4 +51,133 @@ public class GameLoopTest {
       assertEquals(1000, loop.convertToMs(33));
     }
   }
+
+  @Test
+  public void testFixedTimestepCatchesUpWithDelayedTicks() {
+    final long step = 10000000;
+    final long[] time = new long[1];
+    final int[] updates = new int[1];
+    try (final GameLoop loop = new GameLoop(100, () -> time[0])) {
+      loop.setFixedTimestep(true);
+      loop.attach(() -> updates[0]++);
+
+      // no tick is due before a whole step has passed
+      assertEquals(step, loop.executeFixedTimestep());
+      assertEquals(0, loop.getTicks());
+
+      time[0] = step;
+      assertEquals(2 * step, loop.executeFixedTimestep());
+      assertEquals(1, loop.getTicks());
+      assertEquals(0, loop.getInterpolationAlpha(), 0.0001);
+
+      time[0] = 15000000;
+      assertEquals(2 * step, loop.executeFixedTimestep());
+      assertEquals(1, loop.getTicks());
+      assertEquals(0.5, loop.getInterpolationAlpha(), 0.0001);
+
+      // a tick that takes four times the tick duration is caught up with by the next update
+      time[0] = 55000000;
+      assertEquals(6 * step, loop.executeFixedTimestep());
+      assertEquals(5, loop.getTicks());
+      assertEquals(0.5, loop.getInterpolationAlpha(), 0.0001);
+
+      // a longer delay is only caught up with up to the maximum number of steps and the rest is dropped
+      time[0] = 135000000;
+      assertEquals(14 * step, loop.executeFixedTimestep());
+      assertEquals(5 + GameLoop.DEFAULT_MAX_CATCH_UP_STEPS, loop.getTicks());
+      assertEquals(0.5, loop.getInterpolationAlpha(), 0.0001);
+
+      // a paused game doesn't build up any time to catch up with
+      loop.setTimeScale(0);
+      time[0] = 200000000;
+      assertEquals(21 * step, loop.executeFixedTimestep());
+      loop.setTimeScale(1);
+      time[0] = 205000000;
+      loop.executeFixedTimestep();
+      assertEquals(10, loop.getTicks());
+      assertEquals(0.5, loop.getInterpolationAlpha(), 0.0001);
+
+      assertEquals(10, loop.getDeltaTime());
+      assertEquals(10, updates[0]);
+    }
+  }
+
+  @Test
+  public void testTimedActionsAreExecutedInOrder() {
+    final TimedActionQueue queue = new TimedActionQueue();
+    for (int i = 0; i < 100; i++) {
+      queue.add(new TimedAction(i, (i * 37) % 10, () -> {
+      }));
+    }
+
+    assertTrue(queue.remove(3));
+    assertFalse(queue.remove(3));
+    assertTrue(queue.reschedule(5, 20));
+    assertFalse(queue.reschedule(100, 20));
+
+    final List<TimedAction> due = new ArrayList<>();
+    queue.pollDue(4, due);
+    assertEquals(49, due.size());
+    for (int i = 1; i < due.size(); i++) {
+      final TimedAction previous = due.get(i - 1);
+      final TimedAction action = due.get(i);
+      assertTrue(previous.getExecutionTick() < action.getExecutionTick() || previous.getExecutionTick() == action.getExecutionTick() && previous.getIndex() < action.getIndex());
+    }
+
+    due.clear();
+    queue.pollDue(19, due);
+    assertEquals(49, due.size());
+    assertFalse(queue.remove(0));
+
+    due.clear();
+    queue.pollDue(20, due);
+    assertEquals(1, due.size());
+    assertEquals(5, due.get(0).getIndex());
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testUpdatablesAreUpdatedInPhases() {
+    final List<UpdatePhase> updates = Collections.synchronizedList(new ArrayList<>());
+    try (final GameLoop loop = new GameLoop(100)) {
+      for (final UpdatePhase phase : new UpdatePhase[] { UpdatePhase.PARTICLES, UpdatePhase.AI, UpdatePhase.PHYSICS, UpdatePhase.INPUT }) {
+        for (int i = 0; i < 10; i++) {
+          final boolean parallel = i % 2 == 0;
+          loop.attach(new IUpdateable() {
+            @Override
+            public void update() {
+              updates.add(phase);
+            }
+
+            @Override
+            public UpdatePhase getUpdatePhase() {
+              return phase;
+            }
+
+            @Override
+            public boolean isParallelUpdateSupported() {
+              return parallel;
+            }
+          });
+        }
+      }
+
+      final IUpdateable detached = () -> updates.add(UpdatePhase.DEFAULT);
+      loop.attach(detached);
+      loop.attach(detached);
+      loop.update();
+      loop.detach(detached);
+      loop.update();
+    }
+
+    assertEquals(81, updates.size());
+    assertEquals(1, Collections.frequency(updates, UpdatePhase.DEFAULT));
+    for (int i = 1; i < 41; i++) {
+      assertTrue(updates.get(i - 1).compareTo(updates.get(i)) <= 0);
+    }
+
+    for (int i = 42; i < updates.size(); i++) {
+      assertTrue(updates.get(i - 1).compareTo(updates.get(i)) <= 0);
+    }
+  }
 }
@@ -1,6 +1,7 @@
 package de.gurkenlabs.litiengine.configuration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
@@ -87,6 +88,16 @@ public class ConfigurationTests {
     }
   }
 
+  @Test
+  public void testInvalidMaxCatchUpSteps() {
+    ClientConfiguration client = new ClientConfiguration();
+    assertThrows(IllegalArgumentException.class, () -> client.setMaxCatchUpSteps(0));
+    assertEquals(5, client.getMaxCatchUpSteps());
+
+    client.setMaxCatchUpSteps(1);
+    assertEquals(1, client.getMaxCatchUpSteps());
+  }
+
   private enum TEST {
     TEST1, TEST2;
   }
@@ -0,0 +1,107 @@
+package de.gurkenlabs.litiengine.entities.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.environment.tilemap.MapArea;
+
+public class BehaviorSchedulerTests {
+  @Test
+  public void testTicksPerAgent() {
+    BehaviorScheduler scheduler = new BehaviorScheduler(4);
+    int[] ticks = new int[10];
+    List<BehaviorTreeController<IEntity>> controllers = new ArrayList<>();
+    for (int i = 0; i < ticks.length; i++) {
+      BehaviorTreeController<IEntity> controller = new BehaviorTreeController<>(new MapArea(i, null, 0, 0, 1, 1), Behaviors.action(e -> ticks[e.getMapId()]++), scheduler);
+      controller.attach();
+      controllers.add(controller);
+    }
+
+    assertEquals(10, scheduler.getAgentCount());
+
+    // ceil(10 / 4) = 3 agents per tick, so every agent has been evaluated once after 10 agents were updated
+    for (int i = 0; i < 3; i++) {
+      scheduler.update();
+    }
+
+    for (int i = 0; i < 9; i++) {
+      assertEquals(1, ticks[i]);
+    }
+
+    assertEquals(0, ticks[9]);
+
+    scheduler.update();
+    assertEquals(1, ticks[9]);
+    assertEquals(2, ticks[0]);
+    assertEquals(2, ticks[1]);
+
+    controllers.get(0).detach();
+    assertEquals(9, scheduler.getAgentCount());
+  }
+
+  @Test
+  public void testTimeBudget() {
+    // every evaluation of an agent takes 10 ns on this clock
+    long[] time = new long[1];
+    BehaviorScheduler scheduler = new BehaviorScheduler(1, () -> time[0]);
+    scheduler.setTimeBudget(25);
+    int[] ticks = new int[10];
+    for (int i = 0; i < ticks.length; i++) {
+      new BehaviorTreeController<>(new MapArea(i, null, 0, 0, 1, 1), Behaviors.action(e -> {
+        ticks[e.getMapId()]++;
+        time[0] += 10;
+      }), scheduler).attach();
+    }
+
+    scheduler.update();
+    assertEquals(30, time[0]);
+    assertEquals(1, ticks[2]);
+    assertEquals(0, ticks[3]);
+
+    // the next tick continues with the agents that exceeded the budget
+    scheduler.update();
+    assertEquals(1, ticks[3]);
+    assertEquals(0, ticks[6]);
+
+    // at least one agent is updated per tick, even if it exceeds the budget on its own
+    scheduler.setTimeBudget(1);
+    scheduler.update();
+    assertEquals(1, ticks[6]);
+    assertEquals(0, ticks[7]);
+  }
+
+  @Test
+  public void testInvalidSettings() {
+    BehaviorScheduler scheduler = new BehaviorScheduler();
+    assertThrows(IllegalArgumentException.class, () -> scheduler.setTicksPerAgent(0));
+    assertThrows(IllegalArgumentException.class, () -> scheduler.setTimeBudget(-1));
+  }
+
+  @Test
+  public void testBehaviorTree() {
+    List<String> actions = new ArrayList<>();
+    IBehavior<MapArea> tree = Behaviors.selector(
+        Behaviors.sequence(Behaviors.condition(e -> e.getWidth() > 10), Behaviors.action(e -> actions.add("big"))),
+        Behaviors.sequence(Behaviors.invert(Behaviors.condition(e -> e.getWidth() > 10)), e -> BehaviorStatus.RUNNING));
+
+    BehaviorScheduler scheduler = new BehaviorScheduler();
+    BehaviorTreeController<MapArea> big = new BehaviorTreeController<>(new MapArea(0, 0, 20, 20), tree, scheduler);
+    BehaviorTreeController<MapArea> small = new BehaviorTreeController<>(new MapArea(0, 0, 5, 5), tree, scheduler);
+    big.attach();
+    small.attach();
+    scheduler.update();
+
+    assertEquals(BehaviorStatus.SUCCESS, big.getStatus());
+    assertEquals(BehaviorStatus.RUNNING, small.getStatus());
+    assertEquals(Arrays.asList("big"), actions);
+    assertTrue(scheduler.contains(small));
+  }
+}
@@ -457,6 +457,31 @@ public class EnvironmentTests {
     assertFalse(found2.contains(entity2));
   }
 
+  @Test
+  public void testFindMovedEntities() {
+    MapArea entity = new MapArea(0, 0, 10, 10);
+    MapArea entity2 = new MapArea(10, 10, 10, 10);
+
+    this.testEnvironment.add(entity);
+    this.testEnvironment.add(entity2);
+
+    entity.setLocation(80, 80);
+    entity2.setSize(70, 70);
+
+    List<IEntity> found = this.testEnvironment.findEntities(new Rectangle2D.Double(75, 75, 10, 10));
+    assertTrue(found.contains(entity));
+    assertTrue(found.contains(entity2));
+    assertFalse(this.testEnvironment.findEntities(new Rectangle2D.Double(0, 0, 5, 5)).contains(entity));
+
+    List<IEntity> visited = new ArrayList<>();
+    this.testEnvironment.visitEntities(new Ellipse2D.Double(0, 0, 20, 20), visited::add);
+    assertEquals(1, visited.size());
+    assertTrue(visited.contains(entity2));
+
+    this.testEnvironment.remove(entity2);
+    assertFalse(this.testEnvironment.findEntities(new Rectangle2D.Double(75, 75, 10, 10)).contains(entity2));
+  }
+
   @Test
   public void testFindCombatEntitiesInShape() {
     ICombatEntity combatEntity = mock(ICombatEntity.class);
@@ -524,4 +549,51 @@ public class EnvironmentTests {
 
     assertFalse(this.testEnvironment.isLoaded());
   }
+
+  @Test
+  public void testEntityIndexes() {
+    CollisionBox firstCollider = new CollisionBox(true);
+    firstCollider.setMapId(1);
+    firstCollider.setName("test");
+    firstCollider.getTags().add("Solid ");
+    firstCollider.getTags().add("wall");
+
+    CollisionBox secondCollider = new CollisionBox(true);
+    secondCollider.setMapId(2);
+    secondCollider.setName("test");
+
+    Trigger testTrigger = new Trigger(TriggerActivation.COLLISION, "test", "testmessage");
+    testTrigger.setMapId(3);
+    testTrigger.getTags().add("wall");
+
+    this.testEnvironment.add(firstCollider);
+    this.testEnvironment.add(secondCollider);
+    this.testEnvironment.add(testTrigger);
+
+    assertEquals(testTrigger, this.testEnvironment.getTrigger("test"));
+    assertNotNull(this.testEnvironment.getCollisionBox("test"));
+    assertNull(this.testEnvironment.getProp("test"));
+    assertNull(this.testEnvironment.getTrigger(1));
+    assertEquals(2, this.testEnvironment.getByType(CollisionBox.class).size());
+    assertEquals(3, this.testEnvironment.getByType(IEntity.class).size());
+    assertEquals(1, this.testEnvironment.getByTag("solid").size());
+    assertEquals(2, this.testEnvironment.getByTag("solid", "wall").size());
+    assertEquals(1, this.testEnvironment.getByTag(Trigger.class, "solid", "wall").size());
+
+    firstCollider.setName("renamed");
+
+    assertEquals(firstCollider, this.testEnvironment.get("renamed"));
+    assertEquals(secondCollider, this.testEnvironment.getCollisionBox("test"));
+
+    this.testEnvironment.remove(firstCollider);
+
+    assertNull(this.testEnvironment.get("renamed"));
+
+    // removed entities are no longer indexed when they're renamed
+    firstCollider.setName("removed");
+    assertNull(this.testEnvironment.get("removed"));
+    assertEquals(1, this.testEnvironment.getByType(CollisionBox.class).size());
+    assertEquals(0, this.testEnvironment.getByTag("solid").size());
+    assertEquals(1, this.testEnvironment.getByTag("wall").size());
+  }
 }
@@ -0,0 +1,178 @@
+package de.gurkenlabs.litiengine.environment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.CollisionBox;
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.entities.Trigger;
+import de.gurkenlabs.litiengine.entities.Trigger.TriggerActivation;
+
+public class TriggerOverlapManagerTests {
+  private List<Trigger> triggers;
+  private TriggerOverlapManager manager;
+
+  @BeforeAll
+  public static void initGame() {
+    // the activation of a trigger requires the game loop
+    Game.init(Game.COMMADLINE_ARG_NOGUI);
+  }
+
+  @BeforeEach
+  public void initEnvironment() {
+    this.triggers = new ArrayList<>();
+    IEnvironment environment = mock(IEnvironment.class);
+    when(environment.getTriggers()).thenReturn(this.triggers);
+    Game.loadEnvironment(environment);
+    Game.getPhysicsEngine().clear();
+
+    this.manager = new TriggerOverlapManager(environment);
+  }
+
+  @AfterEach
+  public void clearPhysics() {
+    Game.getPhysicsEngine().clear();
+  }
+
+  @Test
+  public void testEnterAndLeave() {
+    Trigger trigger = createTrigger(0, 0, 32, 32);
+    List<IEntity> activated = new ArrayList<>();
+    List<IEntity> deactivated = new ArrayList<>();
+    trigger.addActivatedListener(e -> activated.add(e.getEntity()));
+    trigger.addDeactivatedListener(e -> deactivated.add(e.getEntity()));
+
+    CollisionBox first = createEntity(1, 8, 8, 8);
+    CollisionBox second = createEntity(2, 100, 100, 8);
+
+    this.manager.update();
+    assertEquals(1, activated.size());
+    assertEquals(first, activated.get(0));
+
+    // staying within the trigger doesn't activate it again
+    first.setLocation(12, 12);
+    this.manager.update();
+    assertEquals(1, activated.size());
+    assertTrue(deactivated.isEmpty());
+
+    first.setLocation(200, 0);
+    second.setLocation(16, 16);
+    this.manager.update();
+    assertEquals(2, activated.size());
+    assertEquals(second, activated.get(1));
+    assertEquals(1, deactivated.size());
+    assertEquals(first, deactivated.get(0));
+  }
+
+  @Test
+  public void testActivators() {
+    Trigger trigger = createTrigger(0, 0, 32, 32);
+    trigger.addActivator(2);
+
+    createEntity(1, 8, 8, 8);
+    CollisionBox activator = createEntity(2, 16, 16, 8);
+
+    this.manager.update();
+    Collection<IEntity> occupants = this.manager.getOccupants(trigger);
+    assertEquals(1, occupants.size());
+    assertTrue(occupants.contains(activator));
+  }
+
+  @Test
+  public void testRemovedTriggersAndEntities() {
+    Trigger first = createTrigger(0, 0, 32, 32);
+    Trigger second = createTrigger(100, 0, 32, 32);
+    List<IEntity> deactivated = new ArrayList<>();
+    first.addDeactivatedListener(e -> deactivated.add(e.getEntity()));
+
+    CollisionBox inFirst = createEntity(1, 8, 8, 8);
+    CollisionBox otherInFirst = createEntity(2, 16, 16, 8);
+    CollisionBox inSecond = createEntity(3, 108, 8, 8);
+
+    this.manager.update();
+    assertEquals(2, this.manager.getOccupants(first).size());
+    assertEquals(1, this.manager.getOccupants(second).size());
+
+    // fewer entities than on the previous tick
+    Game.getPhysicsEngine().remove(otherInFirst);
+    this.manager.update();
+    assertEquals(1, deactivated.size());
+    assertEquals(otherInFirst, deactivated.get(0));
+    assertEquals(1, this.manager.getOccupants(first).size());
+    assertTrue(this.manager.getOccupants(first).contains(inFirst));
+
+    // fewer triggers than on the previous tick
+    this.triggers.remove(second);
+    this.manager.update();
+    assertTrue(this.manager.getOccupants(second).isEmpty());
+    assertEquals(1, this.manager.getOccupants(first).size());
+    assertEquals(1, deactivated.size());
+
+    Game.getPhysicsEngine().remove(inSecond);
+    Game.getPhysicsEngine().remove(inFirst);
+    this.manager.update();
+    assertTrue(this.manager.getOccupants(first).isEmpty());
+    assertEquals(2, deactivated.size());
+  }
+
+  @Test
+  public void testManyTriggers() {
+    Random random = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      createTrigger(random.nextInt(1000), random.nextInt(1000), 8 + random.nextInt(64), 8 + random.nextInt(64));
+    }
+
+    List<CollisionBox> entities = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      entities.add(createEntity(i + 1, random.nextInt(1000), random.nextInt(1000), 4 + random.nextInt(16)));
+    }
+
+    this.manager.update();
+
+    // the sweep must find the same entities as testing every trigger against every entity
+    for (Trigger trigger : this.triggers) {
+      Set<IEntity> expected = new HashSet<>();
+      for (CollisionBox entity : entities) {
+        if (entity.getCollisionBox().intersects(trigger.getCollisionBox())) {
+          expected.add(entity);
+        }
+      }
+
+      assertEquals(expected, new HashSet<>(this.manager.getOccupants(trigger)));
+    }
+  }
+
+  private Trigger createTrigger(final double x, final double y, final float width, final float height) {
+    Trigger trigger = new Trigger(TriggerActivation.COLLISION, "testmessage");
+    trigger.setSize(width, height);
+    trigger.setLocation(x, y);
+    this.triggers.add(trigger);
+    return trigger;
+  }
+
+  private static CollisionBox createEntity(final int mapId, final double x, final double y, final float size) {
+    CollisionBox entity = new CollisionBox(false);
+    entity.setMapId(mapId);
+    entity.setSize(size, size);
+    entity.setCollisionBoxWidth(size);
+    entity.setCollisionBoxHeight(size);
+    entity.setLocation(x, y);
+    Game.getPhysicsEngine().add(entity);
+    return entity;
+  }
+}
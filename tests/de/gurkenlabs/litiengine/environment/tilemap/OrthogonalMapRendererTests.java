@@ -0,0 +1,273 @@
+package de.gurkenlabs.litiengine.environment.tilemap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.environment.tilemap.xml.Tile;
+import de.gurkenlabs.litiengine.environment.tilemap.xml.Tileset;
+import de.gurkenlabs.litiengine.graphics.ImageCache;
+import de.gurkenlabs.litiengine.graphics.Spritesheet;
+
+public class OrthogonalMapRendererTests {
+  private static final int TILE_SIZE = 4;
+  private static final int WIDTH = 40;
+  private static final int HEIGHT = 36;
+
+  private static final Color[] COLORS = new Color[] { Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW };
+
+  private ITile[][] tiles;
+  private MutableFrame animationFrame;
+  private IMap map;
+  private ITileLayer layer;
+
+  @BeforeAll
+  public static void initGame() {
+    // the current frame of animated tiles is determined by the game time
+    Game.init(Game.COMMADLINE_ARG_NOGUI);
+  }
+
+  @BeforeEach
+  public void initMap() {
+    BufferedImage image = new BufferedImage(TILE_SIZE * 2, TILE_SIZE * 2, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    for (int i = 0; i < COLORS.length; i++) {
+      g.setColor(COLORS[i]);
+      g.fillRect(i % 2 * TILE_SIZE, i / 2 * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+    }
+
+    g.dispose();
+
+    Spritesheet spritesheet = Spritesheet.load(image, "orthogonalmaprenderertest.png", TILE_SIZE, TILE_SIZE);
+    this.animationFrame = new MutableFrame(0);
+    ITileAnimation animation = new ITileAnimation() {
+      @Override
+      public List<ITileAnimationFrame> getFrames() {
+        return Arrays.asList(animationFrame);
+      }
+
+      @Override
+      public int getTotalDuration() {
+        return animationFrame.getDuration();
+      }
+    };
+
+    Tileset tileset = new TestTileset(spritesheet, animation);
+
+    this.tiles = new ITile[WIDTH][HEIGHT];
+    Random random = new Random(42);
+    for (int x = 0; x < WIDTH; x++) {
+      for (int y = 0; y < HEIGHT; y++) {
+        // grid id 0 leaves the tile empty
+        this.tiles[x][y] = new Tile(random.nextInt(COLORS.length + 1));
+      }
+    }
+
+    this.layer = mock(ITileLayer.class);
+    when(this.layer.isVisible()).thenReturn(true);
+    when(this.layer.getOpacity()).thenReturn(1f);
+    when(this.layer.getPosition()).thenReturn(new Point());
+    when(this.layer.getSizeInTiles()).thenReturn(new Dimension(WIDTH, HEIGHT));
+    when(this.layer.getTile(anyInt(), anyInt())).thenAnswer(invocation -> this.getTile(invocation.getArgument(0), invocation.getArgument(1)));
+
+    this.map = mock(IMap.class);
+    when(this.map.getFileName()).thenReturn("orthogonalmaprenderertest");
+    when(this.map.getTileSize()).thenReturn(new Dimension(TILE_SIZE, TILE_SIZE));
+    when(this.map.getTilesets()).thenReturn(Arrays.asList(tileset));
+    when(this.map.getTileLayers()).thenReturn(Arrays.asList(this.layer));
+    when(this.map.getRenderLayers()).thenReturn(Arrays.asList(this.layer));
+  }
+
+  @AfterEach
+  public void clearCache() {
+    ImageCache.SPRITES.clear();
+  }
+
+  @Test
+  public void testChunksMatchDirectRendering() {
+    OrthogonalMapRenderer renderer = new OrthogonalMapRenderer();
+
+    // viewports that cover partial chunks, the edges of the layer and the area outside of it
+    Rectangle2D[] viewports = new Rectangle2D[] {
+        new Rectangle2D.Double(0, 0, 80, 60),
+        new Rectangle2D.Double(12, 8, 100, 90),
+        new Rectangle2D.Double(100, 90, 80, 80),
+        new Rectangle2D.Double(-20, -12, 60, 60) };
+
+    for (Rectangle2D viewport : viewports) {
+      assertArrayEquals(this.renderTiles(viewport), this.render(renderer, viewport));
+
+      // the second time, the viewport is rendered from the cached chunks
+      assertArrayEquals(this.renderTiles(viewport), this.render(renderer, viewport));
+    }
+  }
+
+  @Test
+  public void testAnimatedTilesAreRenderedAgain() {
+    OrthogonalMapRenderer renderer = new OrthogonalMapRenderer();
+    Rectangle2D viewport = new Rectangle2D.Double(0, 0, WIDTH * TILE_SIZE, HEIGHT * TILE_SIZE);
+
+    int[] firstFrame = this.render(renderer, viewport);
+    assertArrayEquals(this.renderTiles(viewport), firstFrame);
+
+    // switch the animation to its next frame
+    this.animationFrame.tileId = 3;
+    int[] secondFrame = this.render(renderer, viewport);
+    assertArrayEquals(this.renderTiles(viewport), secondFrame);
+    assertFalse(Arrays.equals(firstFrame, secondFrame));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedChunksAreEvicted() {
+    final int chunkSize = OrthogonalMapRenderer.CHUNK_SIZE * TILE_SIZE;
+    final long chunkBytes = chunkSize * chunkSize * 4L;
+
+    // the capacity is enough for two chunks
+    OrthogonalMapRenderer renderer = new OrthogonalMapRenderer();
+    renderer.setMaxCachedBytes(2 * chunkBytes);
+    Rectangle2D first = new Rectangle2D.Double(0, 0, chunkSize - 1, chunkSize - 1);
+    Rectangle2D second = new Rectangle2D.Double(chunkSize, 0, chunkSize - 1, chunkSize - 1);
+    Rectangle2D third = new Rectangle2D.Double(0, chunkSize, chunkSize - 1, chunkSize - 1);
+
+    int[] firstChunk = this.render(renderer, first);
+    int[] secondChunk = this.render(renderer, second);
+    this.render(renderer, first);
+    assertEquals(2 * chunkBytes, renderer.getCachedBytes());
+
+    // the second chunk is the least recently used one and gets evicted
+    this.render(renderer, third);
+    assertEquals(2 * chunkBytes, renderer.getCachedBytes());
+
+    // changed tiles are only rendered by chunks that haven't been cached
+    this.fillTiles(4);
+    assertArrayEquals(firstChunk, this.render(renderer, first));
+    int[] changedSecondChunk = this.render(renderer, second);
+    assertArrayEquals(this.renderTiles(second), changedSecondChunk);
+    assertFalse(Arrays.equals(secondChunk, changedSecondChunk));
+  }
+
+  @Test
+  public void testInvalidateRendersChangedTiles() {
+    OrthogonalMapRenderer renderer = new OrthogonalMapRenderer();
+    Rectangle2D viewport = new Rectangle2D.Double(0, 0, WIDTH * TILE_SIZE, HEIGHT * TILE_SIZE);
+    int[] original = this.render(renderer, viewport);
+
+    this.fillTiles(2);
+    assertArrayEquals(original, this.render(renderer, viewport));
+
+    renderer.invalidate(this.map);
+    assertEquals(0, renderer.getCachedBytes());
+    assertArrayEquals(this.renderTiles(viewport), this.render(renderer, viewport));
+  }
+
+  private ITile getTile(int x, int y) {
+    if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) {
+      return null;
+    }
+
+    return this.tiles[x][y];
+  }
+
+  private void fillTiles(int gridId) {
+    for (int x = 0; x < WIDTH; x++) {
+      for (int y = 0; y < HEIGHT; y++) {
+        this.tiles[x][y] = new Tile(gridId);
+      }
+    }
+  }
+
+  private int[] render(OrthogonalMapRenderer renderer, Rectangle2D viewport) {
+    BufferedImage image = new BufferedImage((int) viewport.getWidth(), (int) viewport.getHeight(), BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    renderer.render(g, this.map, viewport);
+    g.dispose();
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+
+  private int[] renderTiles(Rectangle2D viewport) {
+    // a renderer that cannot cache any chunk renders the layer tile by tile
+    OrthogonalMapRenderer renderer = new OrthogonalMapRenderer();
+    renderer.setMaxCachedBytes(0);
+    return this.render(renderer, viewport);
+  }
+
+  private static class TestTileset extends Tileset {
+    private static final long serialVersionUID = 2311475185362437651L;
+
+    private final transient Spritesheet spritesheet;
+    private final transient ITileAnimation animation;
+
+    private TestTileset(Spritesheet spritesheet, ITileAnimation animation) {
+      this.spritesheet = spritesheet;
+      this.animation = animation;
+    }
+
+    @Override
+    public int getFirstGridId() {
+      return 1;
+    }
+
+    @Override
+    public int getTilecount() {
+      return COLORS.length;
+    }
+
+    @Override
+    public int getTileWidth() {
+      return TILE_SIZE;
+    }
+
+    @Override
+    public int getTileHeight() {
+      return TILE_SIZE;
+    }
+
+    @Override
+    public ITileAnimation getAnimation(int tileId) {
+      // the first tile of the tileset is animated
+      return tileId == 0 ? this.animation : null;
+    }
+
+    @Override
+    public Spritesheet getSpritesheet() {
+      return this.spritesheet;
+    }
+  }
+
+  private static class MutableFrame implements ITileAnimationFrame {
+    private int tileId;
+
+    private MutableFrame(int tileId) {
+      this.tileId = tileId;
+    }
+
+    @Override
+    public int getTileId() {
+      return this.tileId;
+    }
+
+    @Override
+    public int getDuration() {
+      return 100;
+    }
+  }
+}
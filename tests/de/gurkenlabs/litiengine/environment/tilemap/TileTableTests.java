@@ -0,0 +1,89 @@
+package de.gurkenlabs.litiengine.environment.tilemap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.environment.tilemap.xml.Tile;
+import de.gurkenlabs.litiengine.environment.tilemap.xml.Tileset;
+import de.gurkenlabs.litiengine.graphics.ImageCache;
+import de.gurkenlabs.litiengine.graphics.Spritesheet;
+
+public class TileTableTests {
+
+  @AfterEach
+  public void clearCache() {
+    ImageCache.SPRITES.clear();
+  }
+
+  @Test
+  public void testFlippedSpritesAreCachedInImageCache() {
+    BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    g.setColor(Color.RED);
+    g.fillRect(0, 0, 4, 4);
+    g.dispose();
+
+    Spritesheet spritesheet = Spritesheet.load(image, "tiletabletest.png", 2, 2);
+    Tileset tileset = new TestTileset(spritesheet);
+
+    IMap map = mock(IMap.class);
+    when(map.getTilesets()).thenReturn(Arrays.asList(tileset));
+    TileTable table = TileTable.get(map);
+
+    // sprites that aren't flipped are taken from the spritesheet directly
+    assertSame(spritesheet.getSprite(1), table.getImage(new Tile(2), 2));
+
+    Tile flipped = new Tile(0x80000000L | 2, true);
+    int cachedSprites = ImageCache.SPRITES.size();
+    BufferedImage flippedImage = table.getImage(flipped, 2);
+    assertNotNull(flippedImage);
+    assertEquals(cachedSprites + 1, ImageCache.SPRITES.size());
+    assertSame(flippedImage, table.getImage(flipped, 2));
+
+    // the table doesn't keep the flipped sprite once it has been evicted from the cache
+    ImageCache.SPRITES.clear();
+    assertNotSame(flippedImage, table.getImage(flipped, 2));
+  }
+
+  private static class TestTileset extends Tileset {
+    private static final long serialVersionUID = -4830926418530118225L;
+
+    private final transient Spritesheet spritesheet;
+
+    private TestTileset(Spritesheet spritesheet) {
+      this.spritesheet = spritesheet;
+    }
+
+    @Override
+    public int getFirstGridId() {
+      return 1;
+    }
+
+    @Override
+    public int getTilecount() {
+      return 4;
+    }
+
+    @Override
+    public ITileAnimation getAnimation(int tileId) {
+      return null;
+    }
+
+    @Override
+    public Spritesheet getSpritesheet() {
+      return this.spritesheet;
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.environment.IEnvironment;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+
+public class AmbientLightTests {
+  private static final int MAP_SIZE = 256;
+  private static final int TILE_SIZE = 16;
+  private static final int VIEWPORT_SIZE = 128;
+  private static final Color AMBIENT_COLOR = new Color(0, 0, 0, 200);
+
+  private List<LightSource> lights;
+  private List<StaticShadow> shadows;
+  private List<Rectangle2D> bakedSections;
+  private AmbientLight ambientLight;
+  private ICamera previousCamera;
+  private Rectangle2D viewport;
+
+  @BeforeAll
+  public static void initGame() {
+    // the layer renders the section of the map that is visible to the camera
+    Game.init(Game.COMMADLINE_ARG_NOGUI);
+  }
+
+  @BeforeEach
+  public void initEnvironment() {
+    this.lights = new ArrayList<>();
+    this.shadows = new ArrayList<>();
+    this.bakedSections = new ArrayList<>();
+
+    IMap map = mock(IMap.class);
+    when(map.getSizeInTiles()).thenReturn(new Dimension(MAP_SIZE, MAP_SIZE));
+    when(map.getTileSize()).thenReturn(new Dimension(TILE_SIZE, TILE_SIZE));
+    when(map.getSizeInPixels()).thenReturn(new Dimension(MAP_SIZE * TILE_SIZE, MAP_SIZE * TILE_SIZE));
+
+    IEnvironment environment = mock(IEnvironment.class);
+    when(environment.getMap()).thenReturn(map);
+    when(environment.getLightSources()).thenReturn(this.lights);
+    when(environment.getStaticShadows()).thenReturn(this.shadows);
+
+    this.ambientLight = new RecordingAmbientLight(environment, this.bakedSections);
+
+    this.viewport = new Rectangle2D.Double();
+    ICamera camera = mock(ICamera.class);
+    when(camera.getViewPort()).thenAnswer(invocation -> this.viewport);
+    when(camera.getViewPortLocation(anyDouble(), anyDouble())).thenAnswer(invocation -> new Point2D.Double((double) invocation.getArgument(0) - this.viewport.getX(), (double) invocation.getArgument(1) - this.viewport.getY()));
+
+    this.previousCamera = Game.getCamera();
+    Game.setCamera(camera);
+  }
+
+  @AfterEach
+  public void resetCamera() {
+    Game.setCamera(this.previousCamera);
+  }
+
+  @Test
+  public void testToggleLightsOnlyRebakesTheirTiles() {
+    // 100 lights that are spread across the map, each of them with a static shadow within its bounds; this verifies
+    // which tiles are baked again and doesn't measure the time it takes
+    for (int i = 0; i < 100; i++) {
+      final double x = 200 + i % 10 * 400;
+      final double y = 200 + i / 10 * 400;
+      this.lights.add(createLight(x, y));
+      this.shadows.add(new StaticShadow(x + 48, y + 48, 12, 12, StaticShadowType.DOWN));
+    }
+
+    for (LightSource light : this.lights) {
+      final double x = light.getCenter().getX();
+      final double y = light.getCenter().getY();
+      assertNotEquals(AMBIENT_COLOR, this.getColor(x, y));
+
+      // tiles that are visible and valid are not baked again
+      this.bakedSections.clear();
+      assertNotEquals(AMBIENT_COLOR, this.getColor(x, y));
+      assertTrue(this.bakedSections.isEmpty());
+
+      light.toggle();
+      this.ambientLight.updateSection(light.getBoundingBox());
+      assertEquals(AMBIENT_COLOR, this.getColor(x, y));
+      assertEquals(1, this.bakedSections.size());
+      assertEquals(getTileSection(light.getBoundingBox()), this.bakedSections.get(0));
+
+      light.toggle();
+      this.ambientLight.updateSection(light.getBoundingBox());
+      assertNotEquals(AMBIENT_COLOR, this.getColor(x, y));
+      assertEquals(2, this.bakedSections.size());
+      assertEquals(getTileSection(light.getBoundingBox()), this.bakedSections.get(1));
+    }
+  }
+
+  @Test
+  public void testInvisibleTilesAreNotBaked() {
+    this.lights.add(createLight(0, 0));
+    this.getColor(64, 64);
+
+    // only the tiles within the viewport are baked, not the whole map
+    assertEquals(1, this.bakedSections.size());
+    assertEquals(getTileSection(this.viewport), this.bakedSections.get(0));
+  }
+
+  @Test
+  public void testStaticShadowsCutLight() {
+    LightSource light = createLight(0, 0);
+    this.lights.add(light);
+
+    // the shadow is located right of the light's center, so the light doesn't reach the area behind it
+    StaticShadow shadow = new StaticShadow(40, 28, 8, 8, StaticShadowType.DOWN);
+    this.shadows.add(shadow);
+    assertNotEquals(AMBIENT_COLOR, this.getColor(8, 32));
+    assertEquals(AMBIENT_COLOR, this.getColor(56, 32));
+
+    // moving the shadow out of the light's bounds must not keep the previous light area
+    shadow.setLocation(100, 100);
+    this.ambientLight.updateSection(light.getBoundingBox());
+    assertNotEquals(AMBIENT_COLOR, this.getColor(56, 32));
+
+    // the same applies to moving the light
+    shadow.setLocation(40, 28);
+    this.ambientLight.updateSection(light.getBoundingBox());
+    light.setLocation(64, 0);
+    this.ambientLight.updateSection(light.getBoundingBox());
+    assertEquals(AMBIENT_COLOR, this.getColor(8, 32));
+    assertNotEquals(AMBIENT_COLOR, this.getColor(120, 32));
+  }
+
+  @Test
+  public void testUpdateSectionWithoutColor() {
+    this.ambientLight.setColor(null);
+
+    // nothing is baked without a color
+    this.ambientLight.updateSection(new Rectangle2D.Double(0, 0, 64, 64));
+    this.getColor(32, 32);
+    assertTrue(this.bakedSections.isEmpty());
+  }
+
+  /**
+   * Renders the layer with a viewport that is centered on the specified location and gets the color of the location.
+   */
+  private Color getColor(final double x, final double y) {
+    this.viewport = new Rectangle2D.Double(x - VIEWPORT_SIZE / 2.0, y - VIEWPORT_SIZE / 2.0, VIEWPORT_SIZE, VIEWPORT_SIZE);
+    final BufferedImage image = new BufferedImage(VIEWPORT_SIZE, VIEWPORT_SIZE, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = image.createGraphics();
+    this.ambientLight.render(g);
+    g.dispose();
+
+    return new Color(image.getRGB(VIEWPORT_SIZE / 2, VIEWPORT_SIZE / 2), true);
+  }
+
+  /**
+   * Gets the section of the tiles that overlap the specified area.
+   */
+  private static Rectangle2D getTileSection(final Rectangle2D area) {
+    final int startX = Math.max(0, (int) (area.getX() / TILE_SIZE));
+    final int startY = Math.max(0, (int) (area.getY() / TILE_SIZE));
+    final int endX = (int) (area.getMaxX() / TILE_SIZE);
+    final int endY = (int) (area.getMaxY() / TILE_SIZE);
+    return new Rectangle2D.Double(startX * TILE_SIZE, startY * TILE_SIZE, (endX - startX + 1) * TILE_SIZE, (endY - startY + 1) * TILE_SIZE);
+  }
+
+  private static LightSource createLight(final double x, final double y) {
+    LightSource light = new LightSource(255, Color.WHITE, LightSource.ELLIPSE, true);
+    light.setSize(64, 64);
+    light.setLocation(x, y);
+    return light;
+  }
+
+  private static class RecordingAmbientLight extends AmbientLight {
+    private final List<Rectangle2D> bakedSections;
+
+    private RecordingAmbientLight(final IEnvironment environment, final List<Rectangle2D> bakedSections) {
+      super(environment, Color.BLACK, AMBIENT_COLOR.getAlpha());
+      this.bakedSections = bakedSections;
+    }
+
+    @Override
+    protected void renderSection(Graphics2D g, Rectangle2D section) {
+      this.bakedSections.add(section);
+      super.renderSection(g, section);
+    }
+  }
+}
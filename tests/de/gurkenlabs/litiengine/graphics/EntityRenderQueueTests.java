@@ -0,0 +1,73 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.entities.EntityYComparator;
+import de.gurkenlabs.litiengine.environment.tilemap.MapArea;
+
+public class EntityRenderQueueTests {
+
+  @Test
+  public void testSortByY() {
+    EntityRenderQueue queue = new EntityRenderQueue();
+    MapArea bottom = new MapArea(0, 30, 10, 10);
+    MapArea top = new MapArea(0, 10, 10, 10);
+    MapArea center = new MapArea(0, 20, 10, 10);
+
+    queue.add(bottom);
+    queue.add(top);
+    queue.add(center);
+    queue.add(top);
+    queue.update(new EntityYComparator());
+
+    assertEquals(3, queue.size());
+    assertSame(top, queue.get(0));
+    assertSame(center, queue.get(1));
+    assertSame(bottom, queue.get(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> queue.get(3));
+  }
+
+  @Test
+  public void testKeepOrderAcrossFrames() {
+    EntityRenderQueue queue = new EntityRenderQueue();
+    MapArea first = new MapArea(0, 10, 10, 10);
+    MapArea second = new MapArea(0, 20, 10, 10);
+    MapArea third = new MapArea(0, 30, 10, 10);
+
+    queue.add(first);
+    queue.add(second);
+    queue.add(third);
+    queue.update(new EntityYComparator());
+
+    // the second entity is no longer visible, a new entity becomes visible and
+    // the first entity moves below the third
+    MapArea added = new MapArea(0, 0, 10, 10);
+    first.setLocation(0, 40);
+    queue.add(added);
+    queue.add(third);
+    queue.add(first);
+    queue.update(new EntityYComparator());
+
+    assertEquals(3, queue.size());
+    assertSame(added, queue.get(0));
+    assertSame(third, queue.get(1));
+    assertSame(first, queue.get(2));
+
+    // without sorting, the order of the previous frame is kept
+    first.setLocation(0, 0);
+    queue.add(first);
+    queue.add(added);
+    queue.update(null);
+
+    assertEquals(2, queue.size());
+    assertSame(added, queue.get(0));
+    assertSame(first, queue.get(1));
+
+    queue.update(null);
+    assertEquals(0, queue.size());
+  }
+}
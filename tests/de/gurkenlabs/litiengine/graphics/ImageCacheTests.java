@@ -0,0 +1,160 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ImageCacheTests {
+  // 10 * 10 pixels with 4 bytes each
+  private static final long IMAGE_BYTES = 400;
+
+  private final ImageCache cache = ImageCache.MAPS;
+
+  @BeforeEach
+  @AfterEach
+  public void resetCache() {
+    this.cache.setMaxBytes(0);
+    this.cache.clear();
+    this.cache.resetStatistics();
+  }
+
+  @Test
+  public void testStatistics() {
+    BufferedImage image = createImage();
+    this.cache.put("image", image);
+
+    assertSame(image, this.cache.get("image"));
+    assertNull(this.cache.get("other"));
+    assertEquals(1, this.cache.getHits());
+    assertEquals(1, this.cache.getMisses());
+    assertEquals(IMAGE_BYTES, this.cache.getBytes());
+
+    this.cache.put("image", createImage());
+    assertEquals(IMAGE_BYTES, this.cache.getBytes());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    BufferedImage first = createImage();
+    BufferedImage second = createImage();
+    BufferedImage third = createImage();
+
+    this.cache.setMaxBytes(2 * IMAGE_BYTES);
+    this.cache.put("first", first);
+    this.cache.put("second", second);
+
+    // accessing the first image makes the second image the least recently used one
+    this.cache.get("first");
+    this.cache.put("third", third);
+
+    assertEquals(2, this.cache.size());
+    assertEquals(1, this.cache.getEvictions());
+    assertFalse(this.cache.containsKey("second"));
+    assertSame(first, this.cache.get("first"));
+    assertSame(third, this.cache.get("third"));
+
+    this.cache.setMaxBytes(IMAGE_BYTES);
+    assertEquals(1, this.cache.size());
+    assertTrue(this.cache.containsKey("third"));
+    assertEquals(IMAGE_BYTES, this.cache.getBytes());
+  }
+
+  @Test
+  public void testPinnedImagesAreNotEvicted() {
+    BufferedImage pinned = createImage();
+    this.cache.pin(pinned);
+    try {
+      this.cache.setMaxBytes(IMAGE_BYTES);
+      this.cache.put("pinned", pinned);
+      this.cache.put("other", createImage());
+
+      assertSame(pinned, this.cache.get("pinned"));
+      assertFalse(this.cache.containsKey("other"));
+    } finally {
+      this.cache.unpin(pinned);
+    }
+
+    assertFalse(this.cache.isPinned(pinned));
+  }
+
+  @Test
+  public void testUnpinnedImagesCanBeEvicted() {
+    BufferedImage pinned = createImage();
+    this.cache.pin(pinned);
+    this.cache.setMaxBytes(2 * IMAGE_BYTES);
+    this.cache.put("pinned", pinned);
+    this.cache.put("first", createImage());
+
+    // the pinned image is skipped, even though it is the least recently used one
+    this.cache.put("second", createImage());
+    assertTrue(this.cache.containsKey("pinned"));
+    assertFalse(this.cache.containsKey("first"));
+
+    this.cache.unpin(pinned);
+    this.cache.get("second");
+    this.cache.put("third", createImage());
+    assertFalse(this.cache.containsKey("pinned"));
+    assertTrue(this.cache.containsKey("second"));
+    assertTrue(this.cache.containsKey("third"));
+  }
+
+  @Test
+  public void testClearPrefix() {
+    this.cache.put("map_a_layer1", createImage());
+    this.cache.put("map_a_layer2", createImage());
+    this.cache.put("map_b_layer1", createImage());
+
+    assertEquals(2, this.cache.clearPrefix("map_a_"));
+    assertEquals(1, this.cache.size());
+    assertTrue(this.cache.containsKey("map_b_layer1"));
+    assertEquals(IMAGE_BYTES, this.cache.getBytes());
+  }
+
+  @Test
+  public void testConcurrentAccessKeepsCapacity() throws InterruptedException, ExecutionException {
+    this.cache.setMaxBytes(10 * IMAGE_BYTES);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> tasks = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        final int offset = thread;
+        tasks.add(executor.submit(() -> {
+          for (int i = 0; i < 2000; i++) {
+            String key = "image" + ((i * 7 + offset) % 25);
+            if (this.cache.get(key) == null) {
+              this.cache.put(key, createImage());
+            }
+          }
+        }));
+      }
+
+      for (Future<?> task : tasks) {
+        task.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(10, this.cache.size());
+    assertEquals(10 * IMAGE_BYTES, this.cache.getBytes());
+    assertEquals(8000, this.cache.getHits() + this.cache.getMisses());
+  }
+
+  private static BufferedImage createImage() {
+    return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+  }
+}
@@ -0,0 +1,69 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.graphics.particles.Particle;
+import de.gurkenlabs.litiengine.graphics.particles.ParticleStore;
+import de.gurkenlabs.litiengine.graphics.particles.RectangleFillParticle;
+
+public class ParticleStoreTests {
+
+  @Test
+  public void testAddGrowsStore() {
+    ParticleStore store = new ParticleStore();
+    for (int i = 0; i < 100; i++) {
+      store.add(new RectangleFillParticle(1, 1, Color.RED, 100).setX(i));
+    }
+
+    assertEquals(100, store.size());
+    assertEquals(42, store.get(42).getX(), 0.0001);
+    assertNull(store.get(100));
+  }
+
+  @Test
+  public void testRemoveMovesLastParticle() {
+    ParticleStore store = new ParticleStore();
+    Particle first = new RectangleFillParticle(1, 1, Color.RED, 100).setX(1);
+    Particle second = new RectangleFillParticle(2, 2, Color.RED, 100).setX(2);
+    Particle third = new RectangleFillParticle(3, 3, Color.RED, 100).setX(3);
+    store.add(first);
+    store.add(second);
+    store.add(third);
+
+    store.remove(0);
+
+    assertEquals(2, store.size());
+    assertSame(third, store.get(0));
+    assertSame(second, store.get(1));
+    assertEquals(3, store.get(0).getX(), 0.0001);
+    assertEquals(3, store.get(0).getWidth(), 0.0001);
+
+    store.clear();
+    assertEquals(0, store.size());
+    assertNull(store.get(0));
+  }
+
+  @Test
+  public void testListView() {
+    ParticleStore store = new ParticleStore();
+    Particle particle = new RectangleFillParticle(1, 1, Color.RED, 100);
+    store.add(particle);
+
+    List<Particle> particles = store.asList();
+    assertEquals(1, particles.size());
+    assertSame(particle, particles.get(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> particles.get(1));
+    assertThrows(UnsupportedOperationException.class, () -> particles.add(particle));
+
+    store.remove(0);
+    assertEquals(0, particles.size());
+  }
+}
@@ -0,0 +1,51 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.environment.IEnvironment;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+
+public class StaticShadowLayerTests {
+
+  @Test
+  public void testOverlappingShadows() {
+    List<StaticShadow> shadows = new ArrayList<>();
+    shadows.add(new StaticShadow(0, 0, 32, 32, StaticShadowType.DOWN));
+    shadows.add(new StaticShadow(16, 16, 32, 32, StaticShadowType.DOWN));
+    shadows.add(new StaticShadow(50, 20, 10, 10, StaticShadowType.NONE));
+
+    IMap map = mock(IMap.class);
+    when(map.getSizeInTiles()).thenReturn(new Dimension(4, 4));
+    when(map.getTileSize()).thenReturn(new Dimension(16, 16));
+
+    IEnvironment environment = mock(IEnvironment.class);
+    when(environment.getMap()).thenReturn(map);
+    when(environment.getStaticShadows()).thenReturn(shadows);
+
+    StaticShadowLayer layer = new StaticShadowLayer(environment, 100, Color.BLACK);
+    Rectangle2D section = new Rectangle2D.Double(16, 16, 48, 48);
+    BufferedImage image = new BufferedImage(48, 48, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    layer.renderSection(g, section);
+    g.dispose();
+
+    // the overlapping part of both shadows is not darker than the parts covered by one of them
+    Color shadowColor = new Color(0, 0, 0, 100);
+    assertEquals(shadowColor, new Color(image.getRGB(8, 8), true));
+    assertEquals(shadowColor, new Color(image.getRGB(24, 24), true));
+    assertEquals(0, new Color(image.getRGB(40, 8), true).getAlpha());
+    assertEquals(0, new Color(image.getRGB(40, 44), true).getAlpha());
+  }
+}
@@ -0,0 +1,138 @@
+package de.gurkenlabs.litiengine.graphics.animation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.graphics.IImageEffect;
+import de.gurkenlabs.litiengine.graphics.Spritesheet;
+
+public class AnimationControllerTests {
+
+  @Test
+  public void testGetAnimationIgnoresCase() {
+    Spritesheet spritesheet = createSpritesheet("animation-lookup");
+    Animation idle = new Animation("Idle", spritesheet, true);
+    Animation walk = new Animation("Walk", spritesheet, true);
+    AnimationController controller = new AnimationController(idle, walk);
+
+    assertSame(idle, controller.getAnimation("idle"));
+    assertSame(walk, controller.getAnimation("WALK"));
+    assertTrue(controller.hasAnimation("walk"));
+    assertFalse(controller.hasAnimation("run"));
+    assertNull(controller.getAnimation(null));
+
+    // adding an animation with the same name replaces the previous one
+    Animation otherWalk = new Animation("walk", spritesheet, true);
+    controller.add(otherWalk);
+    assertSame(otherWalk, controller.getAnimation("Walk"));
+    assertEquals(2, controller.getAnimations().size());
+
+    controller.remove(otherWalk);
+    assertFalse(controller.hasAnimation("walk"));
+    assertSame(idle, controller.getAnimation("idle"));
+  }
+
+  @Test
+  public void testCurrentSpriteIsComposedOncePerFrame() {
+    Spritesheet spritesheet = createSpritesheet("animation-sprite");
+    Animation animation = new Animation("test", spritesheet, true);
+    AnimationController controller = new AnimationController(animation);
+    controller.playAnimation("test");
+
+    // terminating sets the first key frame without requiring a game loop
+    animation.terminate();
+    BufferedImage frame = controller.getCurrentSprite();
+    assertSame(spritesheet.getSprite(0), frame);
+
+    TestImageEffect effect = new TestImageEffect(true);
+    controller.add(effect);
+    BufferedImage composed = controller.getCurrentSprite();
+    assertSame(composed, controller.getCurrentSprite());
+    assertNotSame(frame, composed);
+    assertEquals(1, effect.applied);
+
+    controller.remove(effect);
+    assertSame(frame, controller.getCurrentSprite());
+
+    TestImageEffect dynamicEffect = new TestImageEffect(false);
+    controller.add(dynamicEffect);
+    controller.getCurrentSprite();
+    controller.getCurrentSprite();
+    assertEquals(2, dynamicEffect.applied);
+  }
+
+  private static Spritesheet createSpritesheet(String name) {
+    BufferedImage image = new BufferedImage(32, 16, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    g.setColor(Color.RED);
+    g.fillRect(0, 0, 32, 16);
+    g.dispose();
+
+    return Spritesheet.load(image, name, 16, 16);
+  }
+
+  private static class TestImageEffect implements IImageEffect {
+    private final boolean cacheable;
+    private int applied;
+
+    private TestImageEffect(boolean cacheable) {
+      this.cacheable = cacheable;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage image) {
+      this.applied++;
+      return new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+    }
+
+    @Override
+    public boolean isCacheable() {
+      return this.cacheable;
+    }
+
+    @Override
+    public String getName() {
+      return "test";
+    }
+
+    @Override
+    public int getPriority() {
+      return 0;
+    }
+
+    @Override
+    public void setPriority(int priority) {
+      // the priority doesn't matter for a single effect
+    }
+
+    @Override
+    public long getAliveTime() {
+      return 0;
+    }
+
+    @Override
+    public int getTimeToLive() {
+      return 0;
+    }
+
+    @Override
+    public boolean timeToLiveReached() {
+      return false;
+    }
+
+    @Override
+    public int compareTo(IImageEffect other) {
+      return Integer.compare(this.getPriority(), other.getPriority());
+    }
+  }
+}
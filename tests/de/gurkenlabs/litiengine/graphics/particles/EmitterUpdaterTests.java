@@ -0,0 +1,160 @@
+package de.gurkenlabs.litiengine.graphics.particles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.ILoop;
+
+public class EmitterUpdaterTests {
+  private static final int[] MAX_PARTICLES = new int[] { 2000, 600, 50 };
+
+  @BeforeAll
+  public static void initGame() {
+    // the particles are simulated with the update rate of the game loop
+    Game.init(Game.COMMADLINE_ARG_NOGUI);
+  }
+
+  @Test
+  public void testParallelUpdateMatchesSequentialUpdate() {
+    EmitterUpdater updater = new EmitterUpdater(() -> mock(ILoop.class));
+    updater.setParallel(true);
+
+    List<TestEmitter> parallelEmitters = createEmitters();
+    List<TestEmitter> sequentialEmitters = createEmitters();
+    for (TestEmitter emitter : parallelEmitters) {
+      updater.add(emitter);
+    }
+
+    for (int tick = 0; tick < 60; tick++) {
+      updater.update();
+      for (TestEmitter emitter : sequentialEmitters) {
+        emitter.update();
+      }
+    }
+
+    for (int i = 0; i < MAX_PARTICLES.length; i++) {
+      List<Particle> expected = sequentialEmitters.get(i).getParticles();
+      List<Particle> actual = parallelEmitters.get(i).getParticles();
+
+      // particles that moved far enough have been removed again
+      assertTrue(parallelEmitters.get(i).spawned > actual.size());
+      assertEquals(sequentialEmitters.get(i).spawned, parallelEmitters.get(i).spawned);
+      assertEquals(expected.size(), actual.size());
+      for (int p = 0; p < expected.size(); p++) {
+        assertEquals(expected.get(p).getX(), actual.get(p).getX(), 0.0001);
+        assertEquals(expected.get(p).getY(), actual.get(p).getY(), 0.0001);
+      }
+    }
+  }
+
+  @Test
+  public void testParticlesAreSpawnedAndRemovedOnCallingThread() {
+    EmitterUpdater updater = new EmitterUpdater(() -> mock(ILoop.class));
+    updater.setParallel(true);
+
+    List<TestEmitter> emitters = createEmitters();
+    for (TestEmitter emitter : emitters) {
+      updater.add(emitter);
+    }
+
+    for (int tick = 0; tick < 60; tick++) {
+      updater.update();
+    }
+
+    // only the simulation of the particles is performed on the fork/join pool
+    for (TestEmitter emitter : emitters) {
+      assertEquals(Collections.singleton(Thread.currentThread()), emitter.spawningThreads);
+      assertEquals(Collections.singleton(Thread.currentThread()), emitter.removingThreads);
+    }
+  }
+
+  @Test
+  public void testSimulationTasksAreSplitByParticleCount() {
+    // ranges with few particles or with a single emitter are simulated by one task
+    assertEquals(-1, EmitterUpdater.getSplitIndex(new int[] { 0, 100, 200, 300 }, 0, 3));
+    assertEquals(-1, EmitterUpdater.getSplitIndex(new int[] { 0, 5000 }, 0, 1));
+
+    // emitters with the same number of particles are split in the middle
+    assertEquals(2, EmitterUpdater.getSplitIndex(new int[] { 0, 1000, 2000, 3000, 4000 }, 0, 4));
+
+    // a large emitter ends up in a task of its own
+    assertEquals(1, EmitterUpdater.getSplitIndex(new int[] { 0, 4000, 4010, 4020, 4030 }, 0, 4));
+    assertEquals(3, EmitterUpdater.getSplitIndex(new int[] { 0, 10, 20, 30, 4030 }, 0, 4));
+    assertEquals(-1, EmitterUpdater.getSplitIndex(new int[] { 0, 4000, 4010, 4020, 4030 }, 1, 4));
+  }
+
+  @Test
+  public void testLoopIsResolvedAgain() {
+    ILoop first = mock(ILoop.class);
+    ILoop second = mock(ILoop.class);
+    AtomicReference<ILoop> loop = new AtomicReference<>(first);
+    EmitterUpdater updater = new EmitterUpdater(loop::get);
+
+    TestEmitter firstEmitter = new TestEmitter(10);
+    TestEmitter secondEmitter = new TestEmitter(10);
+    updater.add(firstEmitter);
+    updater.add(secondEmitter);
+    verify(first, times(1)).attach(updater);
+
+    // the updater moves to the new loop as soon as another emitter is added
+    loop.set(second);
+    updater.add(secondEmitter);
+    verify(first, times(1)).detach(updater);
+    verify(second, times(1)).attach(updater);
+
+    updater.remove(firstEmitter);
+    verify(second, never()).detach(updater);
+    updater.remove(secondEmitter);
+    verify(second, times(1)).detach(updater);
+  }
+
+  private static List<TestEmitter> createEmitters() {
+    List<TestEmitter> emitters = new ArrayList<>();
+    for (int maxParticles : MAX_PARTICLES) {
+      emitters.add(new TestEmitter(maxParticles));
+    }
+
+    return emitters;
+  }
+
+  private static class TestEmitter extends Emitter {
+    private final Set<Thread> spawningThreads = ConcurrentHashMap.newKeySet();
+    private final Set<Thread> removingThreads = ConcurrentHashMap.newKeySet();
+    private int spawned;
+
+    private TestEmitter(final int maxParticles) {
+      this.setMaxParticles(maxParticles);
+      this.setSpawnAmount(Math.max(1, maxParticles / 20));
+      this.setParticleUpdateRate(30);
+    }
+
+    @Override
+    protected Particle createNewParticle() {
+      this.spawningThreads.add(Thread.currentThread());
+      final int index = this.spawned++;
+      return new RectangleFillParticle(1, 1, Color.WHITE, 0).setDeltaX(index % 7 + 1).setDeltaY(index % 5 - 2);
+    }
+
+    @Override
+    protected boolean particleCanBeRemoved(final Particle particle) {
+      this.removingThreads.add(Thread.currentThread());
+      return particle.getX() > 40;
+    }
+  }
+}
@@ -1,18 +1,33 @@
 package de.gurkenlabs.litiengine.pathfinding;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Dimension;
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.Creature;
 import de.gurkenlabs.litiengine.pathfinding.astar.AStarGrid;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarGridBuilder;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarGridSnapshot;
 import de.gurkenlabs.litiengine.pathfinding.astar.AStarNode;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarSearch;
+import de.gurkenlabs.litiengine.pathfinding.astar.HierarchicalPathFinder;
 
 public class AStarTests {
 
@@ -81,4 +96,186 @@ public class AStarTests {
     assertEquals(8, neighbors.size());
     assertEquals(4, neighbors2.size());
   }
+
+  @Test
+  public void testSearchFindsPathAroundObstacle() {
+    AStarGrid grid = new AStarGrid(100, 100, 10);
+    for (int y = 0; y < 9; y++) {
+      grid.getGrid()[5][y].setWalkable(false);
+    }
+
+    AStarSearch search = new AStarSearch(grid);
+    Path path = search.findPath(grid.getGrid()[0][0], grid.getGrid()[9][0]);
+
+    assertNotNull(path);
+    assertEquals(new Point(5, 5), path.getStart());
+    assertEquals(new Point(95, 5), path.getTarget());
+    assertTrue(path.getPoints().contains(new Point(55, 95)));
+    for (Point2D point : path.getPoints()) {
+      assertTrue(grid.getNode(point).isWalkable());
+    }
+
+    // the search state must not leak into the grid or subsequent searches
+    assertEquals(0.0, grid.getGrid()[1][1].getGCost());
+    assertEquals(path.getPoints(), search.findPath(grid.getGrid()[0][0], grid.getGrid()[9][0]).getPoints());
+  }
+
+  @Test
+  public void testSearchReturnsNullForUnreachableTarget() {
+    AStarGrid grid = new AStarGrid(100, 100, 10);
+    for (int y = 0; y < 10; y++) {
+      grid.getGrid()[5][y].setWalkable(false);
+    }
+
+    AStarSearch search = new AStarSearch(grid);
+    assertNull(search.findPath(grid.getGrid()[0][0], grid.getGrid()[9][0]));
+    assertFalse(grid.getGrid()[5][5].isWalkable());
+  }
+
+  @Test
+  public void testSnapshotIsInvalidatedByNodeChanges() {
+    AStarGrid grid = new AStarGrid(100, 100, 10);
+    AStarGridSnapshot snapshot = grid.getSnapshot();
+    assertSame(snapshot, grid.getSnapshot());
+    assertTrue(snapshot.isWalkable(3, 4));
+
+    grid.getGrid()[3][4].setWalkable(false);
+    grid.getGrid()[3][4].setPenalty(2);
+
+    AStarGridSnapshot newSnapshot = grid.getSnapshot();
+    assertNotSame(snapshot, newSnapshot);
+    assertTrue(newSnapshot.getVersion() > snapshot.getVersion());
+    assertTrue(snapshot.isWalkable(3, 4));
+    assertFalse(newSnapshot.isWalkable(3, 4));
+    assertEquals(2.0f, newSnapshot.getPenalty(3, 4));
+    assertEquals(grid.getGrid()[3][4].getLocation(), newSnapshot.getLocation(3, 4));
+  }
+
+  @Test
+  public void testHierarchicalPathFinderFindsPathAcrossClusters() {
+    AStarGrid grid = new AStarGrid(400, 400, 10);
+    for (int y = 0; y < 36; y++) {
+      grid.getGrid()[20][y].setWalkable(false);
+    }
+
+    HierarchicalPathFinder pathFinder = new HierarchicalPathFinder(grid, 8);
+    Path path = pathFinder.findPath(grid.getGrid()[0][0], grid.getGrid()[39][0]);
+
+    assertNotNull(path);
+    assertTrue(pathFinder.getEntranceCount() > 0);
+    assertEquals(new Point(5, 5), path.getStart());
+    assertEquals(new Point(395, 5), path.getTarget());
+
+    // the refined path consists of adjacent, walkable nodes only
+    Point2D previous = path.getStart();
+    for (Point2D point : path.getPoints()) {
+      assertTrue(grid.getNode(point).isWalkable());
+      assertTrue(Math.abs(point.getX() - previous.getX()) <= 10 && Math.abs(point.getY() - previous.getY()) <= 10);
+      previous = point;
+    }
+
+    assertTrue(Math.abs(path.getTarget().getX() - previous.getX()) <= 10 && Math.abs(path.getTarget().getY() - previous.getY()) <= 10);
+    assertTrue(path.getPoints().contains(new Point(205, 365)));
+  }
+
+  @Test
+  public void testHierarchicalPathFinderRebuildsUpdatedClusters() {
+    AStarGrid grid = new AStarGrid(400, 400, 10);
+    HierarchicalPathFinder pathFinder = new HierarchicalPathFinder(grid, 8);
+    assertNotNull(pathFinder.findPath(grid.getGrid()[0][0], grid.getGrid()[39][0]));
+
+    Rectangle2D wall = new Rectangle2D.Double(201, 0, 8, 399);
+    Game.getPhysicsEngine().add(wall);
+    try {
+      grid.updateWalkable(wall);
+      assertNull(pathFinder.findPath(grid.getGrid()[0][0], grid.getGrid()[39][0]));
+    } finally {
+      Game.getPhysicsEngine().remove(wall);
+    }
+
+    grid.updateWalkable(wall);
+    assertNotNull(pathFinder.findPath(grid.getGrid()[0][0], grid.getGrid()[39][0]));
+  }
+
+  @Test
+  public void testBuilderRasterizesObstacles() {
+    Creature creature = new Creature();
+    creature.setSize(10, 10);
+    creature.setCollision(true);
+    creature.setCollisionBoxWidth(10);
+    creature.setCollisionBoxHeight(10);
+    creature.setLocation(30, 20);
+
+    AStarGrid grid = new AStarGridBuilder(new Dimension(100, 100), 10)
+        .addStaticCollisionBoxes(Arrays.asList(new Rectangle2D.Double(15, 15, 10, 10), new Rectangle2D.Double(70, 90, 50, 50)))
+        .addCollisionEntities(Arrays.asList(creature))
+        .build();
+
+    // all nodes that overlap a collision box are not walkable, touching a box is not sufficient
+    assertFalse(grid.isWalkable(1, 1));
+    assertFalse(grid.isWalkable(2, 2));
+    assertTrue(grid.isWalkable(3, 2));
+    assertTrue(grid.isWalkable(0, 0));
+    assertFalse(grid.isWalkable(9, 9));
+    assertTrue(grid.isWalkable(6, 8));
+    assertFalse(grid.getGrid()[7][9].isWalkable());
+
+    // only the node covered by the entity is penalized for its unwalkable neighbors
+    assertEquals(2 * AStarGrid.PENALTY_NOT_WALKABLE_NEIGHBOR, grid.getPenalty(3, 2));
+    assertEquals(0.0, grid.getPenalty(3, 3));
+    assertEquals(grid.getPenalty(3, 2), grid.getSnapshot().getPenalty(3, 2));
+  }
+
+  @Test
+  public void testBuilderRasterizesBandsLikeBruteForce() {
+    Random random = new Random(7);
+    List<Rectangle2D> boxes = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      boxes.add(new Rectangle2D.Double(random.nextInt(1050) - 25, random.nextInt(320) - 10, 1 + random.nextInt(60), 1 + random.nextInt(30)));
+    }
+
+    List<Creature> creatures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Creature creature = new Creature();
+      creature.setSize(16, 16);
+      creature.setCollision(true);
+      creature.setCollisionBoxWidth(5 + random.nextInt(30));
+      creature.setCollisionBoxHeight(5 + random.nextInt(30));
+      creature.setLocation(random.nextInt(1000), random.nextInt(300));
+      creatures.add(creature);
+    }
+
+    // 100 columns are split into several bands, including a partial one
+    AStarGrid grid = new AStarGridBuilder(new Dimension(1000, 300), 10).addStaticCollisionBoxes(boxes).addCollisionEntities(creatures).build();
+
+    for (int x = 0; x < 100; x++) {
+      for (int y = 0; y < 30; y++) {
+        assertEquals(isWalkable(boxes, x, y), grid.isWalkable(x, y), "walkable " + x + "," + y);
+
+        double expectedPenalty = 0;
+        Point2D center = new Point2D.Double(x * 10 + 5, y * 10 + 5);
+        if (creatures.stream().anyMatch(c -> c.getCollisionBox().contains(center))) {
+          for (int neighborX = x - 1; neighborX <= x + 1; neighborX++) {
+            for (int neighborY = y - 1; neighborY <= y + 1; neighborY++) {
+              if ((neighborX != x || neighborY != y) && neighborX >= 0 && neighborX < 100 && neighborY >= 0 && neighborY < 30 && !isWalkable(boxes, neighborX, neighborY)) {
+                expectedPenalty += AStarGrid.PENALTY_NOT_WALKABLE_NEIGHBOR;
+              }
+            }
+          }
+        }
+
+        assertEquals(expectedPenalty, grid.getPenalty(x, y), "penalty " + x + "," + y);
+      }
+    }
+  }
+
+  private static boolean isWalkable(final List<Rectangle2D> boxes, final int x, final int y) {
+    for (Rectangle2D box : boxes) {
+      if (box.getMinX() < (x + 1) * 10 && box.getMaxX() > x * 10 && box.getMinY() < (y + 1) * 10 && box.getMaxY() > y * 10) {
+        return false;
+      }
+    }
+
+    return true;
+  }
 }
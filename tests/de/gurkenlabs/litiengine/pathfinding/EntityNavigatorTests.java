@@ -0,0 +1,100 @@
+package de.gurkenlabs.litiengine.pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.ICollisionEntity;
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.entities.MobileEntity;
+
+public class EntityNavigatorTests {
+  private EntityNavigator navigator;
+
+  @BeforeAll
+  public static void initGame() {
+    // the navigator attaches itself to the game loop
+    Game.init(Game.COMMADLINE_ARG_NOGUI);
+  }
+
+  @BeforeEach
+  public void initNavigator() {
+    this.navigator = new EntityNavigator(new MobileEntity(), new ObstaclePathFinder(new Rectangle2D.Double(90, 0, 20, 60)));
+  }
+
+  @Test
+  public void testNavigateWithoutSmoothing() {
+    Path2D path = createPath();
+    assertTrue(this.navigator.navigate(path));
+    assertSame(path, this.navigator.getPath().getPath());
+  }
+
+  @Test
+  public void testPathSmoothing() {
+    this.navigator.setPathSmoothing(true);
+    assertTrue(this.navigator.navigate(createPath()));
+
+    // only the waypoints around the collision box remain
+    assertEquals(Arrays.asList(new Point2D.Double(5, 5), new Point2D.Double(60, 80), new Point2D.Double(160, 80), new Point2D.Double(195, 5)), this.navigator.getPath().getPoints());
+    assertEquals(new Point2D.Double(195, 5), this.navigator.getPath().getTarget());
+
+    this.navigator.stop();
+    assertFalse(this.navigator.isNavigating());
+  }
+
+  @Test
+  public void testNavigateToNewPath() {
+    this.navigator.navigate(createPath());
+    Path2D path = new GeneralPath(Path2D.WIND_NON_ZERO);
+    path.moveTo(0, 0);
+    this.navigator.navigate(path);
+
+    // a path without any waypoint after its start is done on the first update
+    this.navigator.update();
+    assertFalse(this.navigator.isNavigating());
+  }
+
+  private static Path2D createPath() {
+    Path2D path = new GeneralPath(Path2D.WIND_NON_ZERO);
+    path.moveTo(5, 5);
+    path.lineTo(30, 5);
+    path.lineTo(60, 5);
+    path.lineTo(60, 80);
+    path.lineTo(130, 80);
+    path.lineTo(160, 80);
+    path.lineTo(160, 5);
+    path.lineTo(195, 5);
+    return path;
+  }
+
+  private static class ObstaclePathFinder extends PathFinder {
+    private final Rectangle2D obstacle;
+
+    private ObstaclePathFinder(Rectangle2D obstacle) {
+      this.obstacle = obstacle;
+    }
+
+    @Override
+    public Path findPath(IMobileEntity entity, Point2D target) {
+      return null;
+    }
+
+    @Override
+    protected boolean intersectsWithAnyCollisionBox(ICollisionEntity entity, Point2D start, Point2D target) {
+      return new Line2D.Double(start, target).intersects(this.obstacle);
+    }
+  }
+}
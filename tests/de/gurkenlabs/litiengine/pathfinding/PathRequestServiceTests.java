@@ -0,0 +1,131 @@
+package de.gurkenlabs.litiengine.pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarGrid;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarGridSnapshot;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarPathFinder;
+import de.gurkenlabs.litiengine.pathfinding.astar.AStarSearch;
+
+public class PathRequestServiceTests {
+
+  @Test
+  public void testConcurrentRequestsMatchSynchronousSearch() throws InterruptedException, ExecutionException, TimeoutException {
+    AStarGrid grid = new AStarGrid(200, 200, 10);
+    for (int y = 0; y < 18; y++) {
+      grid.getGrid()[10][y].setWalkable(false);
+    }
+
+    Path expected = new AStarSearch(grid).findPath(grid.getGrid()[0][0], grid.getGrid()[19][0]);
+
+    try (PathRequestService service = new PathRequestService(new AStarPathFinder(grid), 4)) {
+      List<CompletableFuture<Path>> requests = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        requests.add(service.request(new Point2D.Double(5, 5), new Point2D.Double(195, 5)));
+      }
+
+      for (CompletableFuture<Path> request : requests) {
+        Path path = request.get(5, TimeUnit.SECONDS);
+        assertNotNull(path);
+        assertEquals(expected.getPoints(), path.getPoints());
+      }
+    }
+  }
+
+  @Test
+  public void testRequestsUseMostRecentSnapshot() throws InterruptedException, ExecutionException, TimeoutException {
+    AStarGrid grid = new AStarGrid(200, 200, 10);
+    for (int y = 0; y < 20; y++) {
+      grid.getGrid()[10][y].setWalkable(false);
+    }
+
+    try (PathRequestService service = new PathRequestService(new AStarPathFinder(grid), 2)) {
+      assertNull(service.request(new Point2D.Double(5, 5), new Point2D.Double(195, 5)).get(5, TimeUnit.SECONDS));
+
+      grid.getGrid()[10][10].setWalkable(true);
+      Path path = service.request(new Point2D.Double(5, 5), new Point2D.Double(195, 5)).get(5, TimeUnit.SECONDS);
+
+      assertNotNull(path);
+      assertTrue(path.getPoints().contains(new Point(105, 105)));
+      assertEquals(0, service.getPendingRequests());
+    }
+  }
+
+  @Test
+  public void testCloseRemovesGridListener() {
+    List<Consumer<Rectangle2D>> consumers = new ArrayList<>();
+    AStarGrid grid = new AStarGrid(100, 100, 10) {
+      @Override
+      public void onWalkableUpdated(final Consumer<Rectangle2D> consumer) {
+        super.onWalkableUpdated(consumer);
+        consumers.add(consumer);
+      }
+
+      @Override
+      public void removeWalkableUpdatedConsumer(final Consumer<Rectangle2D> consumer) {
+        super.removeWalkableUpdatedConsumer(consumer);
+        consumers.remove(consumer);
+      }
+    };
+
+    PathRequestService service = new PathRequestService(new AStarPathFinder(grid), 1);
+    assertEquals(1, consumers.size());
+
+    service.close();
+    assertTrue(consumers.isEmpty());
+  }
+
+  @Test
+  public void testRequestIsStaleAfterTooManyChanges() throws InterruptedException {
+    CountDownLatch searching = new CountDownLatch(1);
+    CountDownLatch changed = new CountDownLatch(1);
+
+    // the first search waits until the grid has changed more often than a request is re-run
+    AStarGrid grid = new AStarGrid(200, 200, 10) {
+      @Override
+      public AStarGridSnapshot getSnapshot() {
+        if (searching.getCount() > 0) {
+          searching.countDown();
+          try {
+            changed.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+
+        return super.getSnapshot();
+      }
+    };
+
+    try (PathRequestService service = new PathRequestService(new AStarPathFinder(grid), 1)) {
+      CompletableFuture<Path> request = service.request(new Point2D.Double(5, 5), new Point2D.Double(195, 5));
+      searching.await();
+
+      for (int i = 0; i < 4; i++) {
+        grid.updateWalkable(new Rectangle2D.Double(100, 0, 10, 10));
+      }
+
+      changed.countDown();
+      ExecutionException exception = assertThrows(ExecutionException.class, () -> request.get(5, TimeUnit.SECONDS));
+      assertTrue(exception.getCause() instanceof StalePathException);
+    }
+  }
+}
@@ -1,17 +1,21 @@
 package de.gurkenlabs.litiengine.physics;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
+import java.util.BitSet;
 
 import org.junit.jupiter.api.Test;
 
+import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.GameLoop;
 import de.gurkenlabs.litiengine.entities.Creature;
 import de.gurkenlabs.litiengine.entities.ICombatEntity;
@@ -112,4 +116,99 @@ public class PhysicsTests {
 
     assertTrue(engine.collidesWithEntities(new Rectangle2D.Double(9, 9, 5, 5)).contains(ent));
   }
+
+  @Test
+  public void testOnlyChangedCollisionBoxesAreTouched() {
+    Creature ent = new Creature();
+    ent.setSize(16, 16);
+    ent.setCollision(true);
+    ent.setLocation(10, 10);
+
+    IPhysicsEngine engine = new PhysicsEngine();
+    engine.add(ent);
+    engine.add(new Rectangle2D.Double(100, 100, 10, 10));
+    engine.update();
+    assertEquals(2, Game.getMetrics().getCollisionBoxesTouched());
+
+    engine.update();
+    assertEquals(0, Game.getMetrics().getCollisionBoxesTouched());
+
+    ent.setLocation(50, 50);
+    ent.setCollision(false);
+    engine.update();
+    assertEquals(1, Game.getMetrics().getCollisionBoxesTouched());
+    assertEquals(1, engine.getAllCollisionBoxes().size());
+  }
+
+  @Test
+  public void testBatchedCollisionQueries() {
+    Creature ent = new Creature();
+    ent.setSize(16, 16);
+    ent.setCollision(true);
+    ent.setCollisionBoxWidth(16);
+    ent.setCollisionBoxHeight(16);
+    ent.setLocation(50, 0);
+
+    IPhysicsEngine engine = new PhysicsEngine();
+    engine.add(ent);
+    engine.add(new Rectangle2D.Double(0, 0, 10, 10));
+    engine.update();
+
+    Rectangle2D[] rects = new Rectangle2D[] { new Rectangle2D.Double(5, 5, 2, 2), new Rectangle2D.Double(20, 20, 2, 2), new Rectangle2D.Double(55, 5, 2, 2), new Rectangle2D.Double(300, 300, 2, 2) };
+    BitSet hits = engine.collides(rects, rects.length, CollisionType.ALL, null);
+    for (int i = 0; i < rects.length; i++) {
+      assertEquals(engine.collides(rects[i], CollisionType.ALL), hits.get(i));
+    }
+
+    assertEquals(2, hits.cardinality());
+    assertSame(hits, engine.collides(rects, rects.length, CollisionType.STATIC, hits));
+    assertTrue(hits.get(0));
+    assertFalse(hits.get(2));
+
+    // only the specified number of rectangles is checked
+    assertTrue(engine.collides(rects, 0, CollisionType.ALL, hits).isEmpty());
+    assertTrue(engine.collides(rects, 2, CollisionType.NONE, null).isEmpty());
+
+    Line2D[] rays = new Line2D[] { new Line2D.Double(-5, 5, 20, 5), new Line2D.Double(20, 20, 40, 40), new Line2D.Double(40, 8, 70, 8) };
+    hits = engine.collides(rays, rays.length, CollisionType.ALL, null);
+    for (int i = 0; i < rays.length; i++) {
+      assertEquals(engine.collides(rays[i], CollisionType.ALL) != null, hits.get(i));
+    }
+
+    assertTrue(hits.get(0));
+    assertFalse(hits.get(1));
+    assertFalse(engine.collides(rays, rays.length, CollisionType.STATIC, hits).get(2));
+  }
+
+  @Test
+  public void testLineIntersectsCollisionBoxWithMargin() {
+    Creature ent = new Creature();
+    ent.setSize(16, 16);
+    ent.setCollision(true);
+    ent.setCollisionBoxWidth(16);
+    ent.setCollisionBoxHeight(16);
+    ent.setLocation(0, 0);
+
+    IPhysicsEngine engine = new PhysicsEngine();
+    engine.setBounds(new Rectangle2D.Double(0, 0, 1024, 1024));
+    engine.add(ent);
+    engine.add(new Rectangle2D.Double(500, 500, 20, 20));
+
+    // the line passes the collision box 5 pixels above it
+    Line2D line = new Line2D.Double(400, 495, 600, 495);
+    assertFalse(engine.intersectsAnyCollisionBox(line, 0, 0, null));
+    assertTrue(engine.intersectsAnyCollisionBox(line, 0, 6, null));
+
+    // a line that starts within the margin is only blocked by the collision box itself
+    assertFalse(engine.intersectsAnyCollisionBox(new Line2D.Double(510, 495, 510, 100), 0, 6, null));
+    assertTrue(engine.intersectsAnyCollisionBox(new Line2D.Double(510, 495, 510, 600), 0, 6, null));
+
+    // touching a collision box at the start of the line doesn't block it
+    assertFalse(engine.intersectsAnyCollisionBox(new Line2D.Double(520, 510, 700, 510), 0, 0, null));
+
+    // the collision box of the entity itself is ignored
+    Line2D lineThroughEntity = new Line2D.Double(0, 8, 100, 8);
+    assertTrue(engine.intersectsAnyCollisionBox(lineThroughEntity, 0, 0, null));
+    assertFalse(engine.intersectsAnyCollisionBox(lineThroughEntity, 0, 0, ent));
+  }
 }
@@ -0,0 +1,148 @@
+package de.gurkenlabs.litiengine.physics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class SpatialGridTests {
+
+  @Test
+  public void testItemsSpanningMultipleCellsAreReportedOnce() {
+    SpatialGrid<String> grid = new SpatialGrid<>(new Rectangle2D.Double(0, 0, 256, 256), 32);
+    grid.add("large", new Rectangle2D.Double(10, 10, 200, 200));
+    grid.add("small", new Rectangle2D.Double(100, 100, 5, 5));
+
+    List<String> found = new ArrayList<>();
+    grid.forEach(new Rectangle2D.Double(0, 0, 256, 256), found::add);
+
+    assertEquals(2, found.size());
+    assertTrue(found.contains("large"));
+    assertTrue(found.contains("small"));
+  }
+
+  @Test
+  public void testFindOnlyConsidersNearbyCells() {
+    SpatialGrid<String> grid = new SpatialGrid<>(new Rectangle2D.Double(0, 0, 256, 256), 32);
+    grid.add("topLeft", new Rectangle2D.Double(0, 0, 10, 10));
+    grid.add("bottomRight", new Rectangle2D.Double(240, 240, 10, 10));
+
+    List<String> candidates = new ArrayList<>();
+    grid.forEach(new Rectangle2D.Double(5, 5, 10, 10), candidates::add);
+
+    assertEquals(1, candidates.size());
+    assertEquals("topLeft", candidates.get(0));
+    assertEquals("bottomRight", grid.find(245, 245, item -> true));
+    assertNull(grid.find(128, 128, item -> true));
+  }
+
+  @Test
+  public void testUpdateMovesItemBetweenCells() {
+    SpatialGrid<String> grid = new SpatialGrid<>(new Rectangle2D.Double(0, 0, 256, 256), 32);
+    assertTrue(grid.add("mob", new Rectangle2D.Double(0, 0, 10, 10)));
+
+    assertFalse(grid.update("mob", new Rectangle2D.Double(5, 5, 10, 10)));
+    assertTrue(grid.update("mob", new Rectangle2D.Double(200, 200, 10, 10)));
+
+    assertNull(grid.find(5, 5, item -> true));
+    assertEquals("mob", grid.find(205, 205, item -> true));
+
+    assertTrue(grid.remove("mob"));
+    assertFalse(grid.contains("mob"));
+    assertNull(grid.find(205, 205, item -> true));
+  }
+
+  @Test
+  public void testItemsOutsideOfBoundsAreClampedToBorderCells() {
+    SpatialGrid<String> grid = new SpatialGrid<>(new Rectangle2D.Double(0, 0, 256, 256), 32);
+    grid.add("outside", new Rectangle2D.Double(-50, 300, 10, 10));
+
+    assertEquals("outside", grid.find(new Rectangle2D.Double(-60, 290, 30, 30), item -> true));
+  }
+
+  @Test
+  public void testSetBoundsRebucketsItems() {
+    SpatialGrid<String> grid = new SpatialGrid<>();
+    grid.add("item", new Rectangle2D.Double(500, 500, 10, 10));
+    assertEquals(1, grid.getColumns());
+
+    grid.setBounds(new Rectangle2D.Double(0, 0, 1024, 1024));
+
+    assertEquals(1024 / SpatialGrid.DEFAULT_CELL_SIZE, grid.getColumns());
+    assertEquals("item", grid.find(505, 505, item -> true));
+    assertNull(grid.find(10, 10, item -> true));
+  }
+
+  @Test
+  public void testConsumerCanModifyGrid() {
+    SpatialGrid<String> grid = new SpatialGrid<>(new Rectangle2D.Double(0, 0, 256, 256), 32);
+    for (int i = 0; i < 10; i++) {
+      grid.add("item" + i, new Rectangle2D.Double(i * 20, 10, 10, 10));
+    }
+
+    // every visited item is replaced by one in another cell, which is looked up by a nested query
+    List<String> found = new ArrayList<>();
+    grid.forEach(new Rectangle2D.Double(0, 0, 256, 64), item -> {
+      found.add(item);
+      grid.remove(item);
+      grid.add(item + "moved", new Rectangle2D.Double(100, 100, 10, 10));
+      assertEquals(item + "moved", grid.find(100, 100, other -> other.equals(item + "moved")));
+    });
+
+    assertEquals(10, found.size());
+    assertEquals(10, grid.size());
+    assertNull(grid.find(new Rectangle2D.Double(0, 0, 256, 64), item -> true));
+  }
+
+  @Test
+  public void testFindAlongLine() {
+    SpatialGrid<Rectangle2D> grid = new SpatialGrid<>(new Rectangle2D.Double(0, 0, 512, 512), 32);
+    Random random = new Random(42);
+    List<Rectangle2D> items = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      Rectangle2D item = new Rectangle2D.Double(random.nextInt(600) - 40, random.nextInt(600) - 40, 1 + random.nextInt(80), 1 + random.nextInt(80));
+      items.add(item);
+      grid.add(item, item);
+    }
+
+    for (int i = 0; i < 100; i++) {
+      Line2D line = new Line2D.Double(random.nextInt(600) - 40, random.nextInt(600) - 40, random.nextInt(600) - 40, random.nextInt(600) - 40);
+      double margin = random.nextInt(3) * 20;
+
+      List<Rectangle2D> candidates = new ArrayList<>();
+      grid.find(line, margin, margin, item -> {
+        candidates.add(item);
+        return false;
+      });
+
+      // every item is visited at most once and all items near the line are among the candidates
+      Set<Rectangle2D> uniqueCandidates = new HashSet<>(candidates);
+      assertEquals(uniqueCandidates.size(), candidates.size());
+      for (Rectangle2D item : items) {
+        Rectangle2D itemWithMargin = new Rectangle2D.Double(item.getX() - margin, item.getY() - margin, item.getWidth() + margin * 2, item.getHeight() + margin * 2);
+        if (line.intersects(itemWithMargin)) {
+          assertTrue(uniqueCandidates.contains(item));
+        }
+      }
+
+      // only the cells along the line are visited instead of the bounds of the line
+      if (margin == 0 && Math.abs(line.getX2() - line.getX1()) > 300 && Math.abs(line.getY2() - line.getY1()) > 300) {
+        List<Rectangle2D> boundsCandidates = new ArrayList<>();
+        grid.forEach(line.getBounds2D(), boundsCandidates::add);
+        assertTrue(candidates.size() < boundsCandidates.size());
+      }
+    }
+
+    assertEquals(items.get(0), grid.find(new Line2D.Double(items.get(0).getCenterX(), items.get(0).getCenterY(), items.get(0).getCenterX(), items.get(0).getCenterY()), 0, 0, item -> item == items.get(0)));
+  }
+}
@@ -0,0 +1,131 @@
+package de.gurkenlabs.litiengine.states;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class StateMachineTests {
+  @Test
+  public void testTransitionsAreSortedOnAdd() {
+    TestState state = new TestState("test");
+    state.addTransition(new TestTransition(5, null));
+    state.addTransition(new TestTransition(1, null));
+    state.addTransition(new TestTransition(3, null));
+    state.addTransition(new TestTransition(1, null));
+
+    assertEquals(Arrays.asList(1, 1, 3, 5), toPriorities(state.getTransitions()));
+  }
+
+  @Test
+  public void testTransitionsWithEqualPriorityKeepTheirOrder() {
+    TestState state = new TestState("test");
+    TestTransition first = new TestTransition(1, null);
+    TestTransition second = new TestTransition(1, null);
+    state.addTransition(first);
+    state.addTransition(second);
+
+    assertEquals(first, state.getTransitions().get(0));
+    assertEquals(second, state.getTransitions().get(1));
+  }
+
+  @Test
+  public void testInvalidateTransitions() {
+    TestState state = new TestState("test");
+    TestTransition changing = new TestTransition(1, null);
+    state.addTransition(changing);
+    state.addTransition(new TestTransition(2, null));
+
+    changing.priority = 3;
+    state.invalidateTransitions();
+
+    assertEquals(Arrays.asList(2, 3), toPriorities(state.getTransitions()));
+  }
+
+  @Test
+  public void testUpdateTakesTransitionWithLowestPriority() {
+    TestState start = new TestState("start");
+    TestState low = new TestState("low");
+    TestState high = new TestState("high");
+    start.addTransition(new TestTransition(2, high));
+    start.addTransition(new TestTransition(1, low));
+
+    StateMachine machine = new StateMachine();
+    machine.setState(start);
+    machine.update();
+
+    assertEquals(low, machine.getCurrentState());
+    assertEquals(1, start.executions);
+  }
+
+  @Test
+  public void testUpdateSortsTransitionsAddedDirectly() {
+    TestState start = new TestState("start");
+    TestState low = new TestState("low");
+    TestState high = new TestState("high");
+    start.getTransitions().add(new TestTransition(2, high));
+    start.getTransitions().add(new TestTransition(1, low));
+
+    StateMachine machine = new StateMachine();
+    machine.setState(start);
+    machine.update();
+
+    assertEquals(low, machine.getCurrentState());
+    assertEquals(Arrays.asList(1, 2), toPriorities(start.getTransitions()));
+  }
+
+  private static List<Integer> toPriorities(final List<ITransition> transitions) {
+    List<Integer> priorities = new ArrayList<>();
+    for (ITransition transition : transitions) {
+      priorities.add(transition.getPriority());
+    }
+
+    return priorities;
+  }
+
+  private static class TestState extends State {
+    private int executions;
+
+    protected TestState(final String name) {
+      super(name);
+    }
+
+    @Override
+    public void executeBehaviour() {
+      this.executions++;
+    }
+  }
+
+  private static class TestTransition implements ITransition {
+    private final IState state;
+    private int priority;
+
+    private TestTransition(final int priority, final IState state) {
+      this.priority = priority;
+      this.state = state;
+    }
+
+    @Override
+    public int compareTo(final ITransition other) {
+      return Integer.compare(this.getPriority(), other.getPriority());
+    }
+
+    @Override
+    public boolean conditionsFullfilled() {
+      return true;
+    }
+
+    @Override
+    public IState getNextState() {
+      return this.state;
+    }
+
+    @Override
+    public int getPriority() {
+      return this.priority;
+    }
+  }
+}